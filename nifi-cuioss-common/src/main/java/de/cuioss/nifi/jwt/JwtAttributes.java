@@ -83,6 +83,18 @@ public final class JwtAttributes {
          * Prefix for all token claims.
          */
         public static final String PREFIX = "jwt.content.";
+
+        /**
+         * Single JSON object attribute holding the selected claims
+         * (output mode {@code json-attribute}).
+         */
+        public static final String CLAIMS_JSON = "jwt.claims";
+
+        /**
+         * Comma-separated names of the claims whose attribute value was truncated to the
+         * configured maximum length.
+         */
+        public static final String TRUNCATED_CLAIMS = "jwt.claims.truncated";
     }
 
     /**
@@ -230,5 +242,57 @@ public final class JwtAttributes {
              */
             public static final String REQUIRED_SCOPES = "jwt.authorization.required.scopes";
         }
+
+        /**
+         * JWT claim mapping properties.
+         */
+        @UtilityClass
+        public static final class Claims {
+            /**
+             * Comma-separated claim names or prefix patterns to map.
+             */
+            public static final String INCLUDE = "jwt.claims.include";
+
+            /**
+             * Comma-separated claim names or prefix patterns never to map.
+             */
+            public static final String EXCLUDE = "jwt.claims.exclude";
+
+            /**
+             * Maximum length of a claim value written into an attribute.
+             */
+            public static final String MAX_VALUE_LENGTH = "jwt.claims.max.value.length";
+
+            /**
+             * Where the selected claims are written.
+             */
+            public static final String OUTPUT_MODE = "jwt.claims.output.mode";
+        }
+
+        /**
+         * JWT record processing properties.
+         */
+        @UtilityClass
+        public static final class Records {
+            /**
+             * Record Reader used to parse incoming FlowFiles.
+             */
+            public static final String RECORD_READER = "jwt.record.reader";
+
+            /**
+             * Record Writer used to serialize the valid and invalid partitions.
+             */
+            public static final String RECORD_WRITER = "jwt.record.writer";
+
+            /**
+             * Record field containing the raw JWT token.
+             */
+            public static final String TOKEN_FIELD = "jwt.record.token.field";
+
+            /**
+             * Comma-separated claim-to-field mappings written into valid records.
+             */
+            public static final String CLAIM_FIELDS = "jwt.record.claim.fields";
+        }
     }
 }
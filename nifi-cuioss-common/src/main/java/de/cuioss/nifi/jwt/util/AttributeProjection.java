@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.jwt.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Immutable allowlist / denylist filter deciding which request headers, query parameters or
+ * token claims are carried onto FlowFiles. Shared by the gateway's per-route projections and
+ * {@link ClaimMappingOptions}, so every claim selection follows the same matching rules.
+ * <p>
+ * Entries are exact names or prefixes ending in {@code *} (e.g. {@code x-b3-*}). A name is
+ * included when it matches no denylist entry and — if an allowlist is configured — at least one
+ * allowlist entry; the denylist always wins. Without any entries every name is included, which
+ * keeps routes without projection settings unchanged.
+ */
+public final class AttributeProjection {
+
+    /** Projection that includes every name. */
+    public static final AttributeProjection ALL = new AttributeProjection(Set.of(), Set.of(), false);
+
+    private static final String WILDCARD = "*";
+
+    private final boolean ignoreCase;
+    private final Set<String> allowedNames;
+    private final List<String> allowedPrefixes;
+    private final Set<String> deniedNames;
+    private final List<String> deniedPrefixes;
+
+    private AttributeProjection(Set<String> allowlist, Set<String> denylist, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        this.allowedNames = new HashSet<>();
+        this.allowedPrefixes = new ArrayList<>();
+        this.deniedNames = new HashSet<>();
+        this.deniedPrefixes = new ArrayList<>();
+        split(allowlist, allowedNames, allowedPrefixes);
+        split(denylist, deniedNames, deniedPrefixes);
+    }
+
+    /**
+     * Creates a projection from the configured entries.
+     *
+     * @param allowlist  names or {@code prefix*} patterns to include; empty includes everything
+     * @param denylist   names or {@code prefix*} patterns to exclude
+     * @param ignoreCase whether names are compared case-insensitively (HTTP header names)
+     * @return the projection, or {@link #ALL} when neither list has entries
+     */
+    public static AttributeProjection of(Set<String> allowlist, Set<String> denylist, boolean ignoreCase) {
+        if (allowlist.isEmpty() && denylist.isEmpty()) {
+            return ALL;
+        }
+        return new AttributeProjection(allowlist, denylist, ignoreCase);
+    }
+
+    /**
+     * Whether the given name is carried onto the FlowFile.
+     *
+     * @param name the header, query parameter or claim name
+     * @return {@code true} if the name passes the denylist and the allowlist
+     */
+    public boolean includes(String name) {
+        if (isUnrestricted()) {
+            return true;
+        }
+        String key = normalize(name);
+        if (matches(key, deniedNames, deniedPrefixes)) {
+            return false;
+        }
+        return allowedNames.isEmpty() && allowedPrefixes.isEmpty()
+                || matches(key, allowedNames, allowedPrefixes);
+    }
+
+    /**
+     * Whether this projection includes every name, so callers can skip filtering entirely.
+     */
+    public boolean isUnrestricted() {
+        return this == ALL;
+    }
+
+    private void split(Set<String> entries, Set<String> names, List<String> prefixes) {
+        for (String entry : entries) {
+            String key = normalize(entry);
+            if (key.endsWith(WILDCARD)) {
+                prefixes.add(key.substring(0, key.length() - 1));
+            } else {
+                names.add(key);
+            }
+        }
+    }
+
+    private String normalize(String name) {
+        return ignoreCase ? name.toLowerCase(Locale.ROOT) : name;
+    }
+
+    private static boolean matches(String key, Set<String> names, List<String> prefixes) {
+        if (names.contains(key)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "AttributeProjection[allow=%s%s, deny=%s%s]".formatted(
+                allowedNames, allowedPrefixes, deniedNames, deniedPrefixes);
+    }
+}
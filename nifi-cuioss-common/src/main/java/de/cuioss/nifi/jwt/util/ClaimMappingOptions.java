@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.jwt.util;
+
+import de.cuioss.nifi.jwt.JwtAttributes;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.processor.ProcessContext;
+import org.apache.nifi.processor.util.StandardValidators;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+import static de.cuioss.nifi.jwt.util.AuthorizationRequirements.parseCommaSeparated;
+
+/**
+ * Controls which token claims {@link TokenClaimMapper} writes and in what form, bounding the
+ * attribute memory a validated token costs per FlowFile.
+ * <p>
+ * Include and exclude entries are exact claim names or prefixes ending in {@code *}, matched
+ * case-sensitively by an {@link AttributeProjection}; the exclude list wins, and an empty include
+ * list selects every claim. Dedicated attributes (subject,
+ * issuer, expiration, roles, groups, scopes) are always written regardless of the selection.
+ * Each processor that maps claims includes {@link #getPropertyDescriptors()} in its supported
+ * properties and reads the configuration via {@link #from(ProcessContext)}.
+ *
+ * @param claimProjection which custom claims are mapped (default: all)
+ * @param maxValueLength  maximum length of a claim value written into an attribute; {@code 0} means unlimited
+ * @param outputMode      where the selected claims are written
+ */
+public record ClaimMappingOptions(
+AttributeProjection claimProjection,
+int maxValueLength,
+OutputMode outputMode) {
+
+    /** Maps every claim as an individual, untruncated attribute — the historic behaviour. */
+    public static final ClaimMappingOptions DEFAULTS =
+            new ClaimMappingOptions(AttributeProjection.ALL, 0, OutputMode.ATTRIBUTES);
+
+    /**
+     * Where the selected claims are written.
+     */
+    public enum OutputMode {
+        /** One {@code jwt.content.<claim>} attribute per selected claim. */
+        ATTRIBUTES("attributes"),
+        /** A single {@code jwt.claims} attribute holding the selected claims as a JSON object. */
+        JSON_ATTRIBUTE("json-attribute"),
+        /** The selected claims replace the FlowFile content as a JSON object; no claim attributes. */
+        CONTENT("content");
+
+        private final String value;
+
+        OutputMode(String value) {
+            this.value = value;
+        }
+
+        /** The property value selecting this mode. */
+        public String value() {
+            return value;
+        }
+
+        /**
+         * Resolves a property value to its mode.
+         *
+         * @param value the property value (case-insensitive)
+         * @return the matching mode
+         * @throws IllegalArgumentException if the value names no mode
+         */
+        public static OutputMode fromValue(String value) {
+            String normalized = value.strip().toLowerCase(Locale.ROOT);
+            return Arrays.stream(values())
+                    .filter(mode -> mode.value.equals(normalized))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown claim output mode: " + value));
+        }
+    }
+
+    /**
+     * Compact constructor — defensive copies and null safety.
+     */
+    public ClaimMappingOptions {
+        claimProjection = Objects.requireNonNullElse(claimProjection, AttributeProjection.ALL);
+        if (maxValueLength < 0) {
+            throw new IllegalArgumentException("maxValueLength must be >= 0: " + maxValueLength);
+        }
+        outputMode = Objects.requireNonNullElse(outputMode, OutputMode.ATTRIBUTES);
+    }
+
+    /**
+     * Creates options from include and exclude lists.
+     *
+     * @param includedClaims claim names or {@code prefix*} patterns to map; empty or {@code null} selects all
+     * @param excludedClaims claim names or {@code prefix*} patterns never to map
+     * @param maxValueLength maximum length of a claim value written into an attribute; {@code 0} means unlimited
+     * @param outputMode     where the selected claims are written
+     */
+    public ClaimMappingOptions(@Nullable Set<String> includedClaims, @Nullable Set<String> excludedClaims,
+            int maxValueLength, @Nullable OutputMode outputMode) {
+        this(AttributeProjection.of(Objects.requireNonNullElse(includedClaims, Set.of()),
+                Objects.requireNonNullElse(excludedClaims, Set.of()), false), maxValueLength, outputMode);
+    }
+
+    /**
+     * Whether the given claim is selected by the include and exclude lists.
+     *
+     * @param claimName the claim name as it appears in the token
+     * @return {@code true} if the claim is mapped
+     */
+    public boolean includes(String claimName) {
+        return claimProjection.includes(claimName);
+    }
+
+    /**
+     * Whether the given attribute value exceeds the configured maximum length.
+     */
+    boolean exceedsMaxLength(@Nullable String value) {
+        return maxValueLength > 0 && value != null && value.length() > maxValueLength;
+    }
+
+    // --- NiFi PropertyDescriptors (shared across all claim-mapping processors) ---
+
+    /**
+     * Comma-separated claim names or prefix patterns to map.
+     * If empty, every claim is mapped.
+     */
+    public static final PropertyDescriptor CLAIM_INCLUDE = new PropertyDescriptor.Builder()
+            .name(JwtAttributes.Properties.Claims.INCLUDE)
+            .displayName("Included Claims")
+            .description("Comma-separated claim names or prefix patterns ending in '*' to write to the FlowFile. "
+                    + "If empty, every claim is written. Subject, issuer, expiration, roles, groups and scopes "
+                    + "are always written as dedicated attributes.")
+            .required(false)
+            .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+            .build();
+
+    /**
+     * Comma-separated claim names or prefix patterns never to map.
+     */
+    public static final PropertyDescriptor CLAIM_EXCLUDE = new PropertyDescriptor.Builder()
+            .name(JwtAttributes.Properties.Claims.EXCLUDE)
+            .displayName("Excluded Claims")
+            .description("Comma-separated claim names or prefix patterns ending in '*' never to write to the "
+                    + "FlowFile. Takes precedence over Included Claims.")
+            .required(false)
+            .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+            .build();
+
+    /**
+     * Maximum length of a claim value written into an attribute.
+     */
+    public static final PropertyDescriptor CLAIM_MAX_VALUE_LENGTH = new PropertyDescriptor.Builder()
+            .name(JwtAttributes.Properties.Claims.MAX_VALUE_LENGTH)
+            .displayName("Maximum Claim Value Length")
+            .description("Maximum number of characters of a claim value written into an attribute; longer "
+                    + "values are truncated and listed in the '" + JwtAttributes.Content.TRUNCATED_CLAIMS
+                    + "' attribute. 0 means unlimited. Does not apply to the 'content' output mode.")
+            .required(true)
+            .defaultValue("0")
+            .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+            .build();
+
+    /**
+     * Where the selected claims are written.
+     */
+    public static final PropertyDescriptor CLAIM_OUTPUT_MODE = new PropertyDescriptor.Builder()
+            .name(JwtAttributes.Properties.Claims.OUTPUT_MODE)
+            .displayName("Claim Output Mode")
+            .description("Where the selected claims are written: 'attributes' writes one '"
+                    + JwtAttributes.Content.PREFIX + "<claim>' attribute per claim, 'json-attribute' writes one '"
+                    + JwtAttributes.Content.CLAIMS_JSON + "' attribute holding a JSON object, and 'content' "
+                    + "replaces the FlowFile content of valid tokens with that JSON object.")
+            .required(true)
+            .defaultValue(OutputMode.ATTRIBUTES.value())
+            .allowableValues(OutputMode.ATTRIBUTES.value(), OutputMode.JSON_ATTRIBUTE.value(),
+                    OutputMode.CONTENT.value())
+            .build();
+
+    /**
+     * Returns the claim mapping PropertyDescriptors for inclusion in a processor's
+     * {@code getSupportedPropertyDescriptors()}.
+     */
+    public static List<PropertyDescriptor> getPropertyDescriptors() {
+        return List.of(CLAIM_INCLUDE, CLAIM_EXCLUDE, CLAIM_MAX_VALUE_LENGTH, CLAIM_OUTPUT_MODE);
+    }
+
+    /**
+     * Reads the claim mapping options from a NiFi {@link ProcessContext}.
+     *
+     * @param context the processor's process context
+     * @return the parsed options
+     */
+    public static ClaimMappingOptions from(ProcessContext context) {
+        return new ClaimMappingOptions(
+                parseCommaSeparated(context.getProperty(CLAIM_INCLUDE).getValue()),
+                parseCommaSeparated(context.getProperty(CLAIM_EXCLUDE).getValue()),
+                context.getProperty(CLAIM_MAX_VALUE_LENGTH).asInteger(),
+                OutputMode.fromValue(context.getProperty(CLAIM_OUTPUT_MODE).getValue()));
+    }
+}
@@ -19,6 +19,7 @@ package de.cuioss.nifi.jwt.util;
 import de.cuioss.nifi.jwt.JwtAttributes;
 import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
 import lombok.experimental.UtilityClass;
+import org.jspecify.annotations.Nullable;
 
 import java.time.Instant;
 import java.util.*;
@@ -41,6 +42,12 @@ import java.util.*;
  * standard {@code scope} claim), so it is preserved under the {@code jwt.content.*} prefix
  * rather than being silently dropped.
  * <p>
+ * {@link ClaimMappingOptions} narrow the custom claims to an include/exclude selection, cap the
+ * length of each attribute value, or collapse the selection into one JSON object — written as a
+ * single attribute or, via {@link #claimsToJson}, as FlowFile content — so that large custom
+ * claims (nested JSON, long group lists, embedded permissions) no longer land as attributes on
+ * every FlowFile.
+ * <p>
  * This class does <b>not</b> handle routing concerns ({@code jwt.present},
  * {@code jwt.authorized}) — those are the responsibility of the caller.
  *
@@ -60,7 +67,8 @@ public class TokenClaimMapper {
 
     /**
      * Extracts claims from a validated {@link AccessTokenContent} into a flat
-     * string-to-string map using the attribute keys defined in {@link JwtAttributes}.
+     * string-to-string map using the attribute keys defined in {@link JwtAttributes},
+     * mapping every claim as an individual, untruncated attribute.
      * <p>
      * The returned map is mutable so callers can add additional attributes
      * (e.g., {@code jwt.present}, {@code jwt.authorized}) before applying them.
@@ -69,7 +77,25 @@ public class TokenClaimMapper {
      * @return a mutable map of attribute key to string value
      */
     public static Map<String, String> mapToAttributes(AccessTokenContent token) {
+        return mapToAttributes(token, ClaimMappingOptions.DEFAULTS);
+    }
+
+    /**
+     * Extracts claims from a validated {@link AccessTokenContent} into a flat
+     * string-to-string map, applying the given claim selection and output mode.
+     * <p>
+     * Dedicated attributes are always written. The selected custom claims become
+     * {@code jwt.content.*} attributes ({@code attributes} mode), one {@code jwt.claims} JSON
+     * attribute ({@code json-attribute} mode), or nothing at all ({@code content} mode, where the
+     * caller writes {@link #claimsToJson} as FlowFile content). The returned map is mutable.
+     *
+     * @param token   the validated access token (must not be null)
+     * @param options the claim selection and output mode (must not be null)
+     * @return a mutable map of attribute key to string value
+     */
+    public static Map<String, String> mapToAttributes(AccessTokenContent token, ClaimMappingOptions options) {
         Objects.requireNonNull(token, "token must not be null");
+        Objects.requireNonNull(options, "options must not be null");
 
         Map<String, String> attributes = new HashMap<>();
 
@@ -101,15 +127,115 @@ public class TokenClaimMapper {
             }
         }
 
-        // Custom claims (everything not already mapped to a dedicated attribute)
-        var tokenClaims = token.getClaims();
-        for (var entry : tokenClaims.entrySet()) {
-            if (!DEDICATED_CLAIM_KEYS.contains(entry.getKey())) {
-                attributes.put(JwtAttributes.Content.PREFIX + entry.getKey(),
-                        entry.getValue().getOriginalString());
+        switch (options.outputMode()) {
+            case ATTRIBUTES -> putCustomClaims(token, options, attributes);
+            case JSON_ATTRIBUTE -> putClaimsJson(token, options, attributes);
+            case CONTENT -> {
+                // Written as FlowFile content by the caller
             }
         }
 
         return attributes;
     }
+
+    /**
+     * Serializes the claims selected by the given options as a JSON object of claim name to the
+     * claim's original string value. Values are not truncated.
+     *
+     * @param token   the validated access token (must not be null)
+     * @param options the claim selection (must not be null)
+     * @return the JSON object text
+     */
+    public static String claimsToJson(AccessTokenContent token, ClaimMappingOptions options) {
+        Objects.requireNonNull(token, "token must not be null");
+        Objects.requireNonNull(options, "options must not be null");
+        return toJson(token, options, null);
+    }
+
+    private static void putCustomClaims(AccessTokenContent token, ClaimMappingOptions options,
+            Map<String, String> attributes) {
+        // Custom claims (everything not already mapped to a dedicated attribute)
+        List<String> truncated = new ArrayList<>();
+        for (var entry : token.getClaims().entrySet()) {
+            String claimName = entry.getKey();
+            if (!DEDICATED_CLAIM_KEYS.contains(claimName) && options.includes(claimName)) {
+                attributes.put(JwtAttributes.Content.PREFIX + claimName,
+                        truncate(claimName, entry.getValue().getOriginalString(), options, truncated));
+            }
+        }
+        putTruncatedClaims(truncated, attributes);
+    }
+
+    private static void putClaimsJson(AccessTokenContent token, ClaimMappingOptions options,
+            Map<String, String> attributes) {
+        List<String> truncated = new ArrayList<>();
+        attributes.put(JwtAttributes.Content.CLAIMS_JSON, toJson(token, options, truncated));
+        putTruncatedClaims(truncated, attributes);
+    }
+
+    /**
+     * Builds the JSON object of the selected claims; values are truncated when a list to record
+     * the truncated claim names is given.
+     */
+    private static String toJson(AccessTokenContent token, ClaimMappingOptions options,
+            @Nullable List<String> truncated) {
+        StringBuilder json = new StringBuilder("{");
+        for (var entry : new TreeMap<>(token.getClaims()).entrySet()) {
+            String claimName = entry.getKey();
+            if (!options.includes(claimName)) {
+                continue;
+            }
+            String value = entry.getValue().getOriginalString();
+            if (truncated != null) {
+                value = truncate(claimName, value, options, truncated);
+            }
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            appendJsonString(json, claimName).append(':');
+            appendJsonString(json, value);
+        }
+        return json.append('}').toString();
+    }
+
+    private static String truncate(String claimName, String value, ClaimMappingOptions options,
+            List<String> truncated) {
+        if (!options.exceedsMaxLength(value)) {
+            return value;
+        }
+        truncated.add(claimName);
+        return value.substring(0, options.maxValueLength());
+    }
+
+    private static void putTruncatedClaims(List<String> truncated, Map<String, String> attributes) {
+        if (!truncated.isEmpty()) {
+            Collections.sort(truncated);
+            attributes.put(JwtAttributes.Content.TRUNCATED_CLAIMS, String.join(",", truncated));
+        }
+    }
+
+    private static StringBuilder appendJsonString(StringBuilder json, @Nullable String value) {
+        if (value == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u%04x".formatted((int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"');
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.jwt.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AttributeProjection")
+class AttributeProjectionTest {
+
+    @Nested
+    @DisplayName("Matching")
+    class Matching {
+
+        @Test
+        @DisplayName("Should return the shared unrestricted projection without entries")
+        void shouldReturnAllWithoutEntries() {
+            AttributeProjection projection = AttributeProjection.of(Set.of(), Set.of(), true);
+
+            assertSame(AttributeProjection.ALL, projection);
+            assertTrue(projection.includes("anything"));
+        }
+
+        @Test
+        @DisplayName("Should include only allowlisted names and prefixes")
+        void shouldApplyAllowlist() {
+            AttributeProjection projection = AttributeProjection.of(Set.of("page", "filter.*"), Set.of(), false);
+
+            assertFalse(projection.isUnrestricted());
+            assertTrue(projection.includes("page"));
+            assertTrue(projection.includes("filter.name"));
+            assertFalse(projection.includes("size"));
+        }
+
+        @Test
+        @DisplayName("Should let the denylist win over the allowlist")
+        void shouldPreferDenylist() {
+            AttributeProjection projection = AttributeProjection.of(Set.of("x-*"), Set.of("x-secret"), true);
+
+            assertTrue(projection.includes("X-Request-Id"));
+            assertFalse(projection.includes("X-Secret"));
+        }
+
+        @Test
+        @DisplayName("Should include everything not denylisted when only a denylist is configured")
+        void shouldApplyDenylistOnly() {
+            AttributeProjection projection = AttributeProjection.of(Set.of(), Set.of("permissions"), false);
+
+            assertTrue(projection.includes("tenant"));
+            assertFalse(projection.includes("permissions"));
+        }
+
+        @Test
+        @DisplayName("Should compare case-sensitively unless configured otherwise")
+        void shouldRespectCaseSensitivity() {
+            assertFalse(AttributeProjection.of(Set.of("Page"), Set.of(), false).includes("page"));
+            assertTrue(AttributeProjection.of(Set.of("Accept"), Set.of(), true).includes("ACCEPT"));
+        }
+    }
+}
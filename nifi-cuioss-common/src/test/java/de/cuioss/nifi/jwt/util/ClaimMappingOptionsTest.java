@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.jwt.util;
+
+import de.cuioss.nifi.jwt.util.ClaimMappingOptions.OutputMode;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.processor.AbstractProcessor;
+import org.apache.nifi.processor.ProcessContext;
+import org.apache.nifi.processor.ProcessSession;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.util.TestRunner;
+import org.apache.nifi.util.TestRunners;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ClaimMappingOptions")
+class ClaimMappingOptionsTest {
+
+    /**
+     * Minimal test processor that includes the claim mapping property descriptors.
+     */
+    public static class TestProcessor extends AbstractProcessor {
+        @Override
+        protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
+            return ClaimMappingOptions.getPropertyDescriptors();
+        }
+
+        @Override
+        public void onTrigger(ProcessContext context, ProcessSession session) throws ProcessException {
+            // No-op for testing
+        }
+
+        @Override
+        public Set<Relationship> getRelationships() {
+            return Set.of();
+        }
+    }
+
+    @Nested
+    @DisplayName("Claim Selection")
+    class Selection {
+
+        @Test
+        @DisplayName("Should select every claim by default")
+        void shouldSelectAllByDefault() {
+            assertTrue(ClaimMappingOptions.DEFAULTS.includes("anything"));
+            assertEquals(OutputMode.ATTRIBUTES, ClaimMappingOptions.DEFAULTS.outputMode());
+        }
+
+        @Test
+        @DisplayName("Should apply exact names and prefix patterns with the exclude list winning")
+        void shouldApplyIncludeAndExclude() {
+            var options = new ClaimMappingOptions(Set.of("tenant", "org_*"), Set.of("org_secret"), 0,
+                    OutputMode.ATTRIBUTES);
+
+            assertTrue(options.includes("tenant"));
+            assertTrue(options.includes("org_id"));
+            assertFalse(options.includes("org_secret"));
+            assertFalse(options.includes("permissions"));
+        }
+
+        @Test
+        @DisplayName("Should only report values longer than a positive maximum")
+        void shouldDetectLongValues() {
+            var options = new ClaimMappingOptions(null, null, 3, null);
+
+            assertFalse(options.exceedsMaxLength("abc"));
+            assertTrue(options.exceedsMaxLength("abcd"));
+            assertFalse(ClaimMappingOptions.DEFAULTS.exceedsMaxLength("x".repeat(10_000)));
+            assertEquals(OutputMode.ATTRIBUTES, options.outputMode());
+        }
+
+        @Test
+        @DisplayName("Should reject a negative maximum length")
+        void shouldRejectNegativeMaxLength() {
+            Set<String> none = Set.of();
+            assertThrows(IllegalArgumentException.class,
+                    () -> new ClaimMappingOptions(none, none, -1, OutputMode.ATTRIBUTES));
+        }
+    }
+
+    @Nested
+    @DisplayName("From ProcessContext")
+    class FromProcessContext {
+
+        @Test
+        @DisplayName("Should read all properties from the ProcessContext")
+        void shouldReadProperties() {
+            TestRunner runner = TestRunners.newTestRunner(new TestProcessor());
+            runner.setProperty(ClaimMappingOptions.CLAIM_INCLUDE, "tenant, email");
+            runner.setProperty(ClaimMappingOptions.CLAIM_EXCLUDE, "permissions");
+            runner.setProperty(ClaimMappingOptions.CLAIM_MAX_VALUE_LENGTH, "128");
+            runner.setProperty(ClaimMappingOptions.CLAIM_OUTPUT_MODE, "json-attribute");
+
+            ClaimMappingOptions options = ClaimMappingOptions.from(runner.getProcessContext());
+
+            assertTrue(options.includes("tenant"));
+            assertTrue(options.includes("email"));
+            assertFalse(options.includes("permissions"));
+            assertFalse(options.includes("org_id"));
+            assertEquals(128, options.maxValueLength());
+            assertEquals(OutputMode.JSON_ATTRIBUTE, options.outputMode());
+        }
+
+        @Test
+        @DisplayName("Should fall back to the defaults when nothing is configured")
+        void shouldUseDefaults() {
+            TestRunner runner = TestRunners.newTestRunner(new TestProcessor());
+
+            assertEquals(ClaimMappingOptions.DEFAULTS, ClaimMappingOptions.from(runner.getProcessContext()));
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown output mode value")
+        void shouldRejectUnknownOutputMode() {
+            assertThrows(IllegalArgumentException.class, () -> OutputMode.fromValue("xml"));
+            assertEquals(OutputMode.CONTENT, OutputMode.fromValue(" Content "));
+        }
+    }
+}
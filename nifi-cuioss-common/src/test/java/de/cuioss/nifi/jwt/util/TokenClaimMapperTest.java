@@ -26,6 +26,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -225,6 +226,73 @@ class TokenClaimMapperTest {
         }
     }
 
+    @Nested
+    @DisplayName("Claim Mapping Options")
+    class ClaimMappingOptionsTests {
+
+        private TestTokenHolder tokenWithCustomClaims() {
+            TestTokenHolder tokenHolder = TestTokenGenerators.accessTokens().next();
+            tokenHolder.withClaim("tenant", ClaimValue.forPlainString("acme"));
+            tokenHolder.withClaim("note", ClaimValue.forPlainString("say \"hi\"\n"));
+            return tokenHolder;
+        }
+
+        @Test
+        @DisplayName("Should drop excluded custom claims but keep dedicated attributes")
+        void shouldApplySelection() {
+            var token = tokenWithCustomClaims().asAccessTokenContent();
+            var options = new ClaimMappingOptions(Set.of(), Set.of("note"), 0,
+                    ClaimMappingOptions.OutputMode.ATTRIBUTES);
+
+            Map<String, String> attributes = TokenClaimMapper.mapToAttributes(token, options);
+
+            assertEquals("acme", attributes.get(JwtAttributes.Content.PREFIX + "tenant"));
+            assertFalse(attributes.containsKey(JwtAttributes.Content.PREFIX + "note"));
+            assertEquals(token.getIssuer(), attributes.get(JwtAttributes.Token.ISSUER));
+        }
+
+        @Test
+        @DisplayName("Should truncate long attribute values and list the truncated claims")
+        void shouldTruncateValues() {
+            var token = tokenWithCustomClaims().asAccessTokenContent();
+            var options = new ClaimMappingOptions(Set.of("tenant"), Set.of(), 2,
+                    ClaimMappingOptions.OutputMode.ATTRIBUTES);
+
+            Map<String, String> attributes = TokenClaimMapper.mapToAttributes(token, options);
+
+            assertEquals("ac", attributes.get(JwtAttributes.Content.PREFIX + "tenant"));
+            assertEquals("tenant", attributes.get(JwtAttributes.Content.TRUNCATED_CLAIMS));
+        }
+
+        @Test
+        @DisplayName("Should collapse the selected claims into one escaped JSON attribute")
+        void shouldWriteJsonAttribute() {
+            var token = tokenWithCustomClaims().asAccessTokenContent();
+            var options = new ClaimMappingOptions(Set.of("tenant", "note"), Set.of(), 0,
+                    ClaimMappingOptions.OutputMode.JSON_ATTRIBUTE);
+
+            Map<String, String> attributes = TokenClaimMapper.mapToAttributes(token, options);
+
+            assertEquals("{\"note\":\"say \\\"hi\\\"\\n\",\"tenant\":\"acme\"}",
+                    attributes.get(JwtAttributes.Content.CLAIMS_JSON));
+            assertTrue(attributes.keySet().stream().noneMatch(key -> key.startsWith(JwtAttributes.Content.PREFIX)));
+        }
+
+        @Test
+        @DisplayName("Should leave custom claims to the caller in content mode")
+        void shouldOmitClaimsInContentMode() {
+            var token = tokenWithCustomClaims().asAccessTokenContent();
+            var options = new ClaimMappingOptions(Set.of("tenant"), Set.of(), 1,
+                    ClaimMappingOptions.OutputMode.CONTENT);
+
+            Map<String, String> attributes = TokenClaimMapper.mapToAttributes(token, options);
+
+            assertFalse(attributes.containsKey(JwtAttributes.Content.PREFIX + "tenant"));
+            assertFalse(attributes.containsKey(JwtAttributes.Content.CLAIMS_JSON));
+            assertEquals("{\"tenant\":\"acme\"}", TokenClaimMapper.claimsToJson(token, options));
+        }
+    }
+
     @Test
     @DisplayName("Should reject null token")
     void shouldRejectNullToken() {
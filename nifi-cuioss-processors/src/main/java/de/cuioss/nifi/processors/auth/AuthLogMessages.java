@@ -21,7 +21,7 @@ import de.cuioss.tools.logging.LogRecordModel;
 import lombok.experimental.UtilityClass;
 
 /**
- * Provides logging messages for the JWT authentication processor.
+ * Provides logging messages for the JWT authentication processors.
  * All messages follow the format: AUTH-[identifier]: [message]
  * <p>
  * Shared JWT infrastructure log messages are in
@@ -50,6 +50,12 @@ public final class AuthLogMessages {
                 .template("MultiIssuerJWTTokenAuthenticator stopped; processing counter reset")
                 .build();
 
+        public static final LogRecord RECORD_PROCESSOR_INITIALIZED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(3)
+                .template("MultiIssuerJWTRecordAuthenticator initialized")
+                .build();
+
         public static final LogRecord TOKEN_VALIDATION_METRICS = LogRecordModel.builder()
                 .prefix(PREFIX)
                 .identifier(15)
@@ -88,5 +94,11 @@ public final class AuthLogMessages {
                 .identifier(121)
                 .template("Token validation failed: %s")
                 .build();
+
+        public static final LogRecord RECORD_PROCESSING_FAILED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(122)
+                .template("Records of FlowFile %s could not be processed, routing to failure: %s")
+                .build();
     }
 }
@@ -19,10 +19,15 @@ package de.cuioss.nifi.processors.auth;
 import de.cuioss.nifi.jwt.JwtAttributes;
 import de.cuioss.nifi.jwt.config.JwtIssuerConfigService;
 import de.cuioss.nifi.jwt.util.AuthorizationRequirements;
+import de.cuioss.nifi.jwt.util.ClaimMappingOptions;
 import lombok.experimental.UtilityClass;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.serialization.RecordReaderFactory;
+import org.apache.nifi.serialization.RecordSetWriterFactory;
+
+import java.util.regex.Pattern;
 
 /**
  * DSL-style nested constants for JWT processor configuration.
@@ -39,6 +44,13 @@ public final class JwtProcessorConstants {
     /** Default FlowFile attribute name for the raw JWT token. */
     public static final String DEFAULT_TOKEN_ATTRIBUTE = "jwt.token";
 
+    /** Default record field name for the raw JWT token. */
+    public static final String DEFAULT_TOKEN_FIELD = "token";
+
+    /** One or more {@code claim} or {@code claim=field} entries, comma-separated. */
+    private static final Pattern CLAIM_FIELDS_PATTERN = Pattern.compile(
+            "\\s*[^,=\\s]+(\\s*=\\s*[^,=\\s]+)?(\\s*,\\s*[^,=\\s]+(\\s*=\\s*[^,=\\s]+)?)*\\s*");
+
     /**
      * Processor relationships.
      */
@@ -59,12 +71,21 @@ public final class JwtProcessorConstants {
                 .name("authentication-failed")
                 .description("FlowFiles with invalid tokens will be routed to this relationship")
                 .build();
+
+        /**
+         * FlowFiles whose records cannot be read or written will be routed to this relationship.
+         */
+        public static final Relationship FAILURE = new Relationship.Builder()
+                .name("failure")
+                .description("FlowFiles whose records cannot be read or written will be routed to this relationship")
+                .build();
     }
 
     /**
      * Property descriptors for processor configuration.
      * <p>
-     * The processor reads a raw JWT token from a FlowFile attribute (default: {@code jwt.token}).
+     * The processor reads a raw JWT token from a FlowFile attribute (default: {@code jwt.token});
+     * the record authenticator reads it from a record field (default: {@code token}).
      * Issuer-related properties (JWKS refresh, allowed algorithms, HTTPS requirement,
      * connection timeout) are managed by the {@link JwtIssuerConfigService} Controller Service.
      */
@@ -113,5 +134,76 @@ public final class JwtProcessorConstants {
          */
         public static final PropertyDescriptor REQUIRED_SCOPES =
                 AuthorizationRequirements.REQUIRED_SCOPES;
+
+        /**
+         * Comma-separated claim names or prefix patterns to map.
+         * Delegates to shared {@link ClaimMappingOptions#CLAIM_INCLUDE}.
+         */
+        public static final PropertyDescriptor CLAIM_INCLUDE = ClaimMappingOptions.CLAIM_INCLUDE;
+
+        /**
+         * Comma-separated claim names or prefix patterns never to map.
+         * Delegates to shared {@link ClaimMappingOptions#CLAIM_EXCLUDE}.
+         */
+        public static final PropertyDescriptor CLAIM_EXCLUDE = ClaimMappingOptions.CLAIM_EXCLUDE;
+
+        /**
+         * Maximum length of a claim value written into an attribute.
+         * Delegates to shared {@link ClaimMappingOptions#CLAIM_MAX_VALUE_LENGTH}.
+         */
+        public static final PropertyDescriptor CLAIM_MAX_VALUE_LENGTH = ClaimMappingOptions.CLAIM_MAX_VALUE_LENGTH;
+
+        /**
+         * Where the selected claims are written.
+         * Delegates to shared {@link ClaimMappingOptions#CLAIM_OUTPUT_MODE}.
+         */
+        public static final PropertyDescriptor CLAIM_OUTPUT_MODE = ClaimMappingOptions.CLAIM_OUTPUT_MODE;
+
+        /**
+         * Record Reader used by the record authenticator to parse incoming FlowFiles.
+         */
+        public static final PropertyDescriptor RECORD_READER = new PropertyDescriptor.Builder()
+                .name(JwtAttributes.Properties.Records.RECORD_READER)
+                .displayName("Record Reader")
+                .description("The Record Reader used to parse the incoming FlowFile")
+                .required(true)
+                .identifiesControllerService(RecordReaderFactory.class)
+                .build();
+
+        /**
+         * Record Writer used by the record authenticator for the valid and invalid partitions.
+         */
+        public static final PropertyDescriptor RECORD_WRITER = new PropertyDescriptor.Builder()
+                .name(JwtAttributes.Properties.Records.RECORD_WRITER)
+                .displayName("Record Writer")
+                .description("The Record Writer used to serialize the valid and the invalid records")
+                .required(true)
+                .identifiesControllerService(RecordSetWriterFactory.class)
+                .build();
+
+        /**
+         * The record field containing the raw JWT token.
+         */
+        public static final PropertyDescriptor TOKEN_FIELD = new PropertyDescriptor.Builder()
+                .name(JwtAttributes.Properties.Records.TOKEN_FIELD)
+                .displayName("Token Field")
+                .description("The name of the top-level record field containing the raw JWT token")
+                .required(true)
+                .defaultValue(DEFAULT_TOKEN_FIELD)
+                .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+                .build();
+
+        /**
+         * Comma-separated {@code claim=field} mappings written into valid records.
+         */
+        public static final PropertyDescriptor CLAIM_FIELDS = new PropertyDescriptor.Builder()
+                .name(JwtAttributes.Properties.Records.CLAIM_FIELDS)
+                .displayName("Claim Fields")
+                .description("Comma-separated list of claims to write into each valid record, as 'claim=field' "
+                        + "or just 'claim' to use the claim name as field name (e.g. 'sub=subject,tenant'). "
+                        + "Missing claims are written as null. If empty, valid records are written unchanged.")
+                .required(false)
+                .addValidator(StandardValidators.createRegexMatchingValidator(CLAIM_FIELDS_PATTERN))
+                .build();
     }
 }
@@ -0,0 +1,435 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.processors.auth;
+
+import de.cuioss.nifi.jwt.JwtConstants;
+import de.cuioss.nifi.jwt.JwtTranslationKeys;
+import de.cuioss.nifi.jwt.config.JwtIssuerConfigService;
+import de.cuioss.nifi.jwt.i18n.I18nResolver;
+import de.cuioss.nifi.jwt.i18n.NiFiI18nResolver;
+import de.cuioss.nifi.jwt.util.AuthorizationRequirements;
+import de.cuioss.nifi.jwt.util.AuthorizationValidator;
+import de.cuioss.nifi.jwt.util.ProcessingError;
+import de.cuioss.sheriff.token.validation.domain.claim.ClaimValue;
+import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
+import de.cuioss.sheriff.token.validation.exception.TokenValidationException;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.Getter;
+import org.apache.nifi.annotation.behavior.WritesAttribute;
+import org.apache.nifi.annotation.behavior.WritesAttributes;
+import org.apache.nifi.annotation.documentation.CapabilityDescription;
+import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnScheduled;
+import org.apache.nifi.annotation.lifecycle.OnStopped;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.processor.*;
+import org.apache.nifi.schema.access.SchemaNotFoundException;
+import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.RecordReader;
+import org.apache.nifi.serialization.RecordReaderFactory;
+import org.apache.nifi.serialization.RecordSetWriter;
+import org.apache.nifi.serialization.RecordSetWriterFactory;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.WriteResult;
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.cuioss.nifi.processors.auth.JwtProcessorConstants.Properties;
+import static de.cuioss.nifi.processors.auth.JwtProcessorConstants.Relationships;
+
+/**
+ * Record-oriented variant of {@link MultiIssuerJWTTokenAuthenticator}: validates the JWT token
+ * carried in a field of every record of a FlowFile, without splitting the FlowFile first.
+ * <p>
+ * The records are read once. Each distinct token of the FlowFile is validated and authorized only
+ * once; records sharing a token reuse that outcome. Valid records are extended with the configured
+ * claim fields, invalid records with the {@code jwt_error_*} fields, and both are written to their
+ * own output FlowFile while reading, so the original FlowFile is replaced by at most two FlowFiles.
+ *
+ * @see MultiIssuerJWTTokenAuthenticator
+ * @see JwtIssuerConfigService
+ */
+// NotNullFieldNotInitialized: i18nResolver is initialized in init(); the remaining fields are
+// initialized in onScheduled, which the NiFi lifecycle guarantees to run before onTrigger.
+// S2160: NiFi processors use identity equality (component identifier) inherited from
+// AbstractProcessor; the added fields are transient runtime state, not part of identity.
+@SuppressWarnings({"NotNullFieldNotInitialized", "java:S2160"})
+@Tags({"jwt", "oauth", "authentication", "authorization", "security", "token", "record"})
+@CapabilityDescription("Validates the JWT token carried in a field of each record using a shared JWT Issuer Config "
+        + "Service. Identical tokens are validated once per FlowFile. Valid records, extended with the configured "
+        + "claim fields, are routed to success; invalid records, extended with error fields, are routed to "
+        + "authentication-failed.")
+@WritesAttributes({
+        @WritesAttribute(attribute = "record.count", description = "The number of records in the output FlowFile"),
+        @WritesAttribute(attribute = "mime.type", description = "The MIME type reported by the Record Writer")
+})
+public class MultiIssuerJWTRecordAuthenticator extends AbstractProcessor {
+
+    /** Field added to invalid records holding the AUTH-xxx error code. */
+    public static final String ERROR_CODE_FIELD = "jwt_error_code";
+
+    /** Field added to invalid records holding the error reason. */
+    public static final String ERROR_REASON_FIELD = "jwt_error_reason";
+
+    /** Field added to invalid records holding the error category. */
+    public static final String ERROR_CATEGORY_FIELD = "jwt_error_category";
+
+    private static final List<String> ERROR_FIELDS = List.of(ERROR_CODE_FIELD, ERROR_REASON_FIELD, ERROR_CATEGORY_FIELD);
+
+    private static final String RECORD_COUNT = "record.count";
+
+    private static final CuiLogger LOGGER = new CuiLogger(MultiIssuerJWTRecordAuthenticator.class);
+
+    private final AtomicLong processedFlowFilesCount = new AtomicLong();
+
+    private JwtIssuerConfigService jwtConfigService;
+    private AuthorizationRequirements authorizationRequirements;
+    private RecordReaderFactory readerFactory;
+    private RecordSetWriterFactory writerFactory;
+    private I18nResolver i18nResolver;
+    private String tokenFieldName;
+    /** Claim name to record field name, in configuration order. */
+    private Map<String, String> claimFields;
+
+    @Getter private List<PropertyDescriptor> supportedPropertyDescriptors;
+    @Getter private Set<Relationship> relationships;
+
+    /**
+     * Outcome of validating one distinct token: the claim field values for a valid token, or the error.
+     */
+    private record TokenOutcome(Map<String, @Nullable Object> claimValues, @Nullable ProcessingError error) {
+    }
+
+    @Override
+    protected void init(ProcessorInitializationContext context) {
+        i18nResolver = NiFiI18nResolver.createDefault(context.getLogger());
+
+        supportedPropertyDescriptors = List.of(
+                Properties.JWT_ISSUER_CONFIG_SERVICE,
+                Properties.RECORD_READER,
+                Properties.RECORD_WRITER,
+                Properties.TOKEN_FIELD,
+                Properties.CLAIM_FIELDS,
+                Properties.REQUIRE_VALID_TOKEN,
+                Properties.REQUIRED_ROLES,
+                Properties.REQUIRED_SCOPES
+        );
+
+        relationships = Set.of(Relationships.SUCCESS, Relationships.AUTHENTICATION_FAILED, Relationships.FAILURE);
+
+        LOGGER.info(AuthLogMessages.INFO.RECORD_PROCESSOR_INITIALIZED);
+    }
+
+    @OnScheduled
+    public void onScheduled(ProcessContext context) {
+        jwtConfigService = context.getProperty(Properties.JWT_ISSUER_CONFIG_SERVICE)
+                .asControllerService(JwtIssuerConfigService.class);
+        readerFactory = context.getProperty(Properties.RECORD_READER)
+                .asControllerService(RecordReaderFactory.class);
+        writerFactory = context.getProperty(Properties.RECORD_WRITER)
+                .asControllerService(RecordSetWriterFactory.class);
+        authorizationRequirements = AuthorizationRequirements.from(context);
+        tokenFieldName = context.getProperty(Properties.TOKEN_FIELD).getValue();
+        claimFields = parseClaimFields(context.getProperty(Properties.CLAIM_FIELDS).getValue());
+    }
+
+    @OnStopped
+    public void onStopped() {
+        processedFlowFilesCount.set(0);
+        LOGGER.info(AuthLogMessages.INFO.PROCESSOR_STOPPED);
+    }
+
+    @Override
+    public void onTrigger(ProcessContext context, ProcessSession session) {
+        FlowFile flowFile = session.get();
+        if (flowFile == null) {
+            return;
+        }
+
+        long processedCount = processedFlowFilesCount.incrementAndGet();
+        if (processedCount % JwtConstants.LOG_METRICS_INTERVAL == 0) {
+            LOGGER.info(AuthLogMessages.INFO.TOKEN_VALIDATION_METRICS, processedCount);
+        }
+
+        Partition valid = null;
+        Partition invalid = null;
+        try (InputStream in = session.read(flowFile);
+             RecordReader reader = readerFactory.createRecordReader(flowFile, in, getLogger())) {
+            RecordSchema readSchema = reader.getSchema();
+            valid = new Partition(session, flowFile, extendSchema(readSchema, claimFields.values()),
+                    Relationships.SUCCESS);
+            invalid = new Partition(session, flowFile, extendSchema(readSchema, ERROR_FIELDS),
+                    Relationships.AUTHENTICATION_FAILED);
+
+            // Per-FlowFile cache: each distinct token is validated and authorized once
+            Map<String, TokenOutcome> outcomes = new HashMap<>();
+            Record record;
+            while ((record = reader.nextRecord()) != null) {
+                String token = record.getAsString(tokenFieldName);
+                TokenOutcome outcome = outcomes.computeIfAbsent(token == null ? "" : token, this::authenticate);
+                Map<String, @Nullable Object> values = new LinkedHashMap<>(record.toMap());
+                ProcessingError error = outcome.error();
+                if (error == null) {
+                    values.putAll(outcome.claimValues());
+                    valid.write(values);
+                } else {
+                    values.put(ERROR_CODE_FIELD, error.errorCode());
+                    values.put(ERROR_REASON_FIELD, error.errorReason());
+                    values.put(ERROR_CATEGORY_FIELD, error.errorCategory());
+                    invalid.write(values);
+                }
+            }
+        } catch (IOException | MalformedRecordException | SchemaNotFoundException e) {
+            LOGGER.warn(AuthLogMessages.WARN.RECORD_PROCESSING_FAILED, flowFile, e.getMessage());
+            discard(valid, invalid);
+            session.transfer(session.penalize(flowFile), Relationships.FAILURE);
+            return;
+        } catch (IllegalStateException e) {
+            // Controller service not enabled (yet): yield and roll back so the FlowFile is retried
+            LOGGER.warn(AuthLogMessages.WARN.TOKEN_VALIDATION_FAILED_MSG, e.getMessage());
+            discard(valid, invalid);
+            context.yield();
+            session.rollback();
+            return;
+        }
+
+        try {
+            // Complete both partitions before transferring either, so a failure cannot split the output
+            valid.complete();
+            invalid.complete();
+        } catch (IOException e) {
+            LOGGER.warn(AuthLogMessages.WARN.RECORD_PROCESSING_FAILED, flowFile, e.getMessage());
+            discard(valid, invalid);
+            session.transfer(session.penalize(flowFile), Relationships.FAILURE);
+            return;
+        }
+        valid.transfer();
+        invalid.transfer();
+        session.remove(flowFile);
+    }
+
+    // --- Token Validation ---
+
+    private TokenOutcome authenticate(String token) {
+        if (token.isBlank()) {
+            if (!authorizationRequirements.requireValidToken()) {
+                return new TokenOutcome(Map.of(), null);
+            }
+            LOGGER.warn(AuthLogMessages.WARN.NO_TOKEN_FOUND, tokenFieldName);
+            return failure("AUTH-001",
+                    i18nResolver.getTranslatedString(JwtTranslationKeys.Error.NO_TOKEN_FOUND, tokenFieldName),
+                    "EXTRACTION_ERROR");
+        }
+
+        int maxTokenSize = jwtConfigService.getAuthenticationConfig().maxTokenSize();
+        if (token.getBytes(StandardCharsets.UTF_8).length > maxTokenSize) {
+            LOGGER.warn(AuthLogMessages.WARN.TOKEN_SIZE_EXCEEDED, maxTokenSize);
+            return failure("AUTH-003",
+                    i18nResolver.getTranslatedString(JwtTranslationKeys.Error.TOKEN_SIZE_LIMIT,
+                            String.valueOf(maxTokenSize)),
+                    "TOKEN_SIZE_VIOLATION");
+        }
+
+        AccessTokenContent accessToken;
+        try {
+            accessToken = jwtConfigService.validateToken(token);
+        } catch (TokenValidationException e) {
+            LOGGER.warn(AuthLogMessages.WARN.TOKEN_VALIDATION_FAILED_MSG, e.getMessage());
+            return failure(MultiIssuerJWTTokenAuthenticator.mapEventTypeToErrorCode(e.getEventType().name()),
+                    i18nResolver.getTranslatedString(JwtTranslationKeys.Error.TOKEN_VALIDATION_FAILED, e.getMessage()),
+                    e.getCategory().name());
+        }
+
+        if (authorizationRequirements.hasAuthorizationRequirements()) {
+            AuthorizationValidator.AuthorizationResult authResult =
+                    AuthorizationValidator.validate(accessToken, authorizationRequirements);
+            if (!authResult.authorized()) {
+                //noinspection DataFlowIssue
+                LOGGER.warn(AuthLogMessages.WARN.AUTHORIZATION_FAILED,
+                        accessToken.getSubject().orElse("unknown"),
+                        accessToken.getIssuer(), authResult.reason());
+                return failure("AUTH-010", "Authorization failed: " + authResult.reason(), "AUTHORIZATION_FAILED");
+            }
+        }
+
+        Map<String, @Nullable Object> claimValues = new HashMap<>();
+        Map<String, ClaimValue> claims = accessToken.getClaims();
+        claimFields.forEach((claim, field) -> {
+            ClaimValue value = claims.get(claim);
+            claimValues.put(field, value == null ? null : value.getOriginalString());
+        });
+        return new TokenOutcome(claimValues, null);
+    }
+
+    private static TokenOutcome failure(String errorCode, String errorReason, String errorCategory) {
+        return new TokenOutcome(Map.of(), ProcessingError.builder()
+                .errorCode(errorCode)
+                .errorReason(errorReason)
+                .errorCategory(errorCategory)
+                .build());
+    }
+
+    // --- Schema Handling ---
+
+    /**
+     * Parses the Claim Fields property into claim name to field name, keeping the configured order.
+     *
+     * @param value comma-separated {@code claim=field} or {@code claim} entries, may be null
+     * @return the mapping, empty if no value is configured
+     */
+    static Map<String, String> parseClaimFields(@Nullable String value) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) {
+            return fields;
+        }
+        for (String entry : value.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                fields.put(entry.trim(), entry.trim());
+            } else {
+                fields.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Appends nullable string fields to the schema; an existing field of the same name is replaced
+     * so the written string value always matches its type.
+     */
+    static RecordSchema extendSchema(RecordSchema schema, Collection<String> fieldNames) {
+        if (fieldNames.isEmpty()) {
+            return schema;
+        }
+        List<RecordField> fields = new ArrayList<>();
+        for (RecordField field : schema.getFields()) {
+            if (!fieldNames.contains(field.getFieldName())) {
+                fields.add(field);
+            }
+        }
+        for (String fieldName : fieldNames) {
+            fields.add(new RecordField(fieldName, RecordFieldType.STRING.getDataType(), true));
+        }
+        return new SimpleRecordSchema(fields);
+    }
+
+    private static void discard(@Nullable Partition valid, @Nullable Partition invalid) {
+        if (valid != null) {
+            valid.discard();
+        }
+        if (invalid != null) {
+            invalid.discard();
+        }
+    }
+
+    /**
+     * One output FlowFile of the partition, created with its writer on the first record routed to it.
+     */
+    private final class Partition {
+
+        private final ProcessSession session;
+        private final FlowFile original;
+        private final RecordSchema schema;
+        private final Relationship relationship;
+        private @Nullable FlowFile flowFile;
+        private @Nullable OutputStream out;
+        private @Nullable RecordSetWriter writer;
+        private Map<String, String> attributes = Map.of();
+
+        Partition(ProcessSession session, FlowFile original, RecordSchema schema, Relationship relationship) {
+            this.session = session;
+            this.original = original;
+            this.schema = schema;
+            this.relationship = relationship;
+        }
+
+        void write(Map<String, @Nullable Object> values) throws IOException, SchemaNotFoundException {
+            if (writer == null) {
+                RecordSchema writeSchema = writerFactory.getSchema(original.getAttributes(), schema);
+                flowFile = session.create(original);
+                out = session.write(flowFile);
+                writer = writerFactory.createWriter(getLogger(), writeSchema, out, flowFile);
+                writer.beginRecordSet();
+            }
+            writer.write(new MapRecord(schema, values));
+        }
+
+        void complete() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            WriteResult result = writer.finishRecordSet();
+            Map<String, String> resultAttributes = new HashMap<>(result.getAttributes());
+            resultAttributes.put(RECORD_COUNT, String.valueOf(result.getRecordCount()));
+            resultAttributes.put(CoreAttributes.MIME_TYPE.key(), writer.getMimeType());
+            attributes = resultAttributes;
+            close();
+        }
+
+        void transfer() {
+            if (flowFile != null) {
+                session.transfer(session.putAllAttributes(flowFile, attributes), relationship);
+            }
+        }
+
+        void discard() {
+            close();
+            if (flowFile != null) {
+                session.remove(flowFile);
+                flowFile = null;
+            }
+        }
+
+        private void close() {
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+            } catch (IOException e) {
+                LOGGER.debug(e, "Closing record writer failed");
+            }
+            try {
+                if (out != null) {
+                    out.close();
+                }
+            } catch (IOException e) {
+                LOGGER.debug(e, "Closing output stream failed");
+            }
+            writer = null;
+            out = null;
+        }
+    }
+}
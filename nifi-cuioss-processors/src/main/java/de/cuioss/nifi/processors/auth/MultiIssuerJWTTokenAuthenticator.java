@@ -24,6 +24,7 @@ import de.cuioss.nifi.jwt.i18n.I18nResolver;
 import de.cuioss.nifi.jwt.i18n.NiFiI18nResolver;
 import de.cuioss.nifi.jwt.util.AuthorizationRequirements;
 import de.cuioss.nifi.jwt.util.AuthorizationValidator;
+import de.cuioss.nifi.jwt.util.ClaimMappingOptions;
 import de.cuioss.nifi.jwt.util.ProcessingError;
 import de.cuioss.nifi.jwt.util.TokenClaimMapper;
 import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
@@ -40,6 +41,7 @@ import org.apache.nifi.annotation.lifecycle.OnScheduled;
 import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.processor.*;
 
 import java.nio.charset.StandardCharsets;
@@ -79,7 +81,12 @@ import static de.cuioss.nifi.processors.auth.JwtProcessorConstants.Relationships
                 description = "FlowFile attribute containing the raw JWT token (configurable via Token Attribute property)")
 })
 @WritesAttributes({
-        @WritesAttribute(attribute = JwtAttributes.Content.PREFIX + "*", description = "JWT token claims"),
+        @WritesAttribute(attribute = JwtAttributes.Content.PREFIX + "*",
+                description = "JWT token claims (Claim Output Mode 'attributes')"),
+        @WritesAttribute(attribute = JwtAttributes.Content.CLAIMS_JSON,
+                description = "Selected JWT token claims as a JSON object (Claim Output Mode 'json-attribute')"),
+        @WritesAttribute(attribute = JwtAttributes.Content.TRUNCATED_CLAIMS,
+                description = "Names of the claims whose value was truncated to the Maximum Claim Value Length"),
         @WritesAttribute(attribute = JwtAttributes.Token.VALIDATED_AT, description = "Timestamp when the token was validated"),
         @WritesAttribute(attribute = JwtAttributes.Token.PRESENT, description = "Whether a JWT token is present"),
         @WritesAttribute(attribute = JwtAttributes.Error.CODE, description = "Error code if validation failed"),
@@ -94,6 +101,7 @@ public class MultiIssuerJWTTokenAuthenticator extends AbstractProcessor {
 
     private JwtIssuerConfigService jwtConfigService;
     private AuthorizationRequirements authorizationRequirements;
+    private ClaimMappingOptions claimMappingOptions;
     private I18nResolver i18nResolver;
     private String tokenAttributeName;
 
@@ -109,7 +117,11 @@ public class MultiIssuerJWTTokenAuthenticator extends AbstractProcessor {
                 Properties.TOKEN_ATTRIBUTE,
                 Properties.REQUIRE_VALID_TOKEN,
                 Properties.REQUIRED_ROLES,
-                Properties.REQUIRED_SCOPES
+                Properties.REQUIRED_SCOPES,
+                Properties.CLAIM_INCLUDE,
+                Properties.CLAIM_EXCLUDE,
+                Properties.CLAIM_MAX_VALUE_LENGTH,
+                Properties.CLAIM_OUTPUT_MODE
         );
 
         relationships = Set.of(Relationships.SUCCESS, Relationships.AUTHENTICATION_FAILED);
@@ -122,6 +134,7 @@ public class MultiIssuerJWTTokenAuthenticator extends AbstractProcessor {
         jwtConfigService = context.getProperty(Properties.JWT_ISSUER_CONFIG_SERVICE)
                 .asControllerService(JwtIssuerConfigService.class);
         authorizationRequirements = AuthorizationRequirements.from(context);
+        claimMappingOptions = ClaimMappingOptions.from(context);
         tokenAttributeName = context.getProperty(Properties.TOKEN_ATTRIBUTE).getValue();
     }
 
@@ -174,7 +187,7 @@ public class MultiIssuerJWTTokenAuthenticator extends AbstractProcessor {
             throws TokenValidationException {
         AccessTokenContent accessToken = jwtConfigService.validateToken(token);
 
-        Map<String, String> attributes = TokenClaimMapper.mapToAttributes(accessToken);
+        Map<String, String> attributes = TokenClaimMapper.mapToAttributes(accessToken, claimMappingOptions);
         attributes.put(JwtAttributes.Token.PRESENT, "true");
 
         if (authorizationRequirements.hasAuthorizationRequirements()) {
@@ -195,6 +208,13 @@ public class MultiIssuerJWTTokenAuthenticator extends AbstractProcessor {
             attributes.put(JwtAttributes.Authorization.AUTHORIZED, "true");
         }
 
+        if (claimMappingOptions.outputMode() == ClaimMappingOptions.OutputMode.CONTENT) {
+            // Only valid, authorized tokens replace the content — failures keep the original payload
+            byte[] claims = TokenClaimMapper.claimsToJson(accessToken, claimMappingOptions)
+                    .getBytes(StandardCharsets.UTF_8);
+            flowFile = session.write(flowFile, out -> out.write(claims));
+            attributes.put(CoreAttributes.MIME_TYPE.key(), "application/json");
+        }
         flowFile = session.putAllAttributes(flowFile, attributes);
         session.transfer(flowFile, Relationships.SUCCESS);
     }
@@ -261,7 +281,11 @@ public class MultiIssuerJWTTokenAuthenticator extends AbstractProcessor {
         handleError(session, flowFile, errorCode, errorMessage, e.getCategory().name());
     }
 
-    private String mapEventTypeToErrorCode(String eventType) {
+    /**
+     * Maps a token validation event type to this authenticator's AUTH-xxx error code; shared with
+     * {@link MultiIssuerJWTRecordAuthenticator}.
+     */
+    static String mapEventTypeToErrorCode(String eventType) {
         if (eventType.contains("EXPIRED")) {
             return "AUTH-005";
         }
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.processors.auth;
+
+import de.cuioss.sheriff.token.commons.events.SecurityEventCounter;
+import de.cuioss.sheriff.token.validation.domain.claim.ClaimValue;
+import de.cuioss.sheriff.token.validation.exception.TokenValidationException;
+import de.cuioss.sheriff.token.validation.test.TestTokenHolder;
+import de.cuioss.sheriff.token.validation.test.generator.TestTokenGenerators;
+import de.cuioss.test.juli.LogAsserts;
+import de.cuioss.test.juli.TestLogLevel;
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.MockRecordParser;
+import org.apache.nifi.serialization.record.MockRecordWriter;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.util.MockFlowFile;
+import org.apache.nifi.util.TestRunner;
+import org.apache.nifi.util.TestRunners;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static de.cuioss.nifi.processors.auth.JwtProcessorConstants.Properties;
+import static de.cuioss.nifi.processors.auth.JwtProcessorConstants.Relationships;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link MultiIssuerJWTRecordAuthenticator}.
+ */
+@EnableTestLogger
+@DisplayName("Tests for MultiIssuerJWTRecordAuthenticator")
+class MultiIssuerJWTRecordAuthenticatorTest {
+
+    private static final String CS_ID = "jwt-config";
+
+    private TestRunner testRunner;
+    private TestJwtIssuerConfigService mockConfigService;
+    private MockRecordParser recordReader;
+
+    @BeforeEach
+    void setup() throws Exception {
+        testRunner = TestRunners.newTestRunner(MultiIssuerJWTRecordAuthenticator.class);
+
+        mockConfigService = new TestJwtIssuerConfigService();
+        testRunner.addControllerService(CS_ID, mockConfigService);
+        testRunner.enableControllerService(mockConfigService);
+        testRunner.setProperty(Properties.JWT_ISSUER_CONFIG_SERVICE, CS_ID);
+
+        recordReader = new MockRecordParser();
+        recordReader.addSchemaField("id", RecordFieldType.INT);
+        recordReader.addSchemaField("token", RecordFieldType.STRING);
+        testRunner.addControllerService("reader", recordReader);
+        testRunner.enableControllerService(recordReader);
+        testRunner.setProperty(Properties.RECORD_READER, "reader");
+
+        MockRecordWriter recordWriter = new MockRecordWriter(null, false);
+        testRunner.addControllerService("writer", recordWriter);
+        testRunner.enableControllerService(recordWriter);
+        testRunner.setProperty(Properties.RECORD_WRITER, "writer");
+
+        mockConfigService.configureValidationFailure(
+                new TokenValidationException(SecurityEventCounter.EventType.FAILED_TO_DECODE_JWT,
+                        "Token validation failed"));
+    }
+
+    private TestTokenHolder configureValidToken() {
+        TestTokenHolder tokenHolder = TestTokenGenerators.accessTokens().next();
+        tokenHolder.withClaim("tenant", ClaimValue.forPlainString("acme"));
+        mockConfigService.configureValidToken(tokenHolder.asAccessTokenContent());
+        return tokenHolder;
+    }
+
+    private MockFlowFile single(Relationship relationship) {
+        testRunner.assertTransferCount(relationship, 1);
+        return testRunner.getFlowFilesForRelationship(relationship).getFirst();
+    }
+
+    @Nested
+    @DisplayName("Partitioning Tests")
+    class PartitioningTests {
+
+        @Test
+        @DisplayName("Should split valid and invalid records into two FlowFiles in one pass")
+        void shouldPartitionRecords() {
+            String token = configureValidToken().getRawToken();
+            recordReader.addRecord(1, token);
+            recordReader.addRecord(2, "");
+            recordReader.addRecord(3, token);
+            testRunner.enqueue("");
+
+            testRunner.run();
+
+            testRunner.assertTransferCount(Relationships.FAILURE, 0);
+            MockFlowFile valid = single(Relationships.SUCCESS);
+            valid.assertAttributeEquals("record.count", "2");
+            valid.assertAttributeExists("mime.type");
+
+            MockFlowFile invalid = single(Relationships.AUTHENTICATION_FAILED);
+            invalid.assertAttributeEquals("record.count", "1");
+            String content = invalid.getContent();
+            assertTrue(content.startsWith("2,"), content);
+            assertTrue(content.contains("AUTH-001"), content);
+            assertTrue(content.contains("EXTRACTION_ERROR"), content);
+
+            LogAsserts.assertLogMessagePresentContaining(TestLogLevel.WARN,
+                    AuthLogMessages.WARN.NO_TOKEN_FOUND.resolveIdentifierString());
+        }
+
+        @Test
+        @DisplayName("Should validate identical tokens only once per FlowFile")
+        void shouldDeduplicateTokens() {
+            String token = configureValidToken().getRawToken();
+            for (int i = 0; i < 50; i++) {
+                recordReader.addRecord(i, token);
+            }
+            testRunner.enqueue("");
+
+            testRunner.run();
+
+            single(Relationships.SUCCESS).assertAttributeEquals("record.count", "50");
+            testRunner.assertTransferCount(Relationships.AUTHENTICATION_FAILED, 0);
+            assertEquals(1, mockConfigService.getValidationCount());
+        }
+
+        @Test
+        @DisplayName("Should route every record with a rejected token to authentication-failed")
+        void shouldRouteRejectedTokens() {
+            recordReader.addRecord(1, "first.invalid.token");
+            recordReader.addRecord(2, "second.invalid.token");
+            testRunner.enqueue("");
+
+            testRunner.run();
+
+            testRunner.assertTransferCount(Relationships.SUCCESS, 0);
+            MockFlowFile invalid = single(Relationships.AUTHENTICATION_FAILED);
+            invalid.assertAttributeEquals("record.count", "2");
+            assertTrue(invalid.getContent().contains("AUTH-002"), invalid.getContent());
+            assertEquals(2, mockConfigService.getValidationCount());
+        }
+
+        @Test
+        @DisplayName("Should accept records without token when a valid token is not required")
+        void shouldAcceptMissingTokenWhenNotRequired() {
+            testRunner.setProperty(Properties.REQUIRE_VALID_TOKEN, "false");
+            recordReader.addRecord(1, null);
+            testRunner.enqueue("");
+
+            testRunner.run();
+
+            single(Relationships.SUCCESS).assertAttributeEquals("record.count", "1");
+            assertEquals(0, mockConfigService.getValidationCount());
+        }
+
+        @Test
+        @DisplayName("Should reject records whose token fails authorization")
+        void shouldRejectUnauthorizedTokens() {
+            testRunner.setProperty(Properties.REQUIRED_ROLES, "missing-role");
+            recordReader.addRecord(1, configureValidToken().getRawToken());
+            testRunner.enqueue("");
+
+            testRunner.run();
+
+            testRunner.assertTransferCount(Relationships.SUCCESS, 0);
+            assertTrue(single(Relationships.AUTHENTICATION_FAILED).getContent().contains("AUTH-010"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Claim Field Tests")
+    class ClaimFieldTests {
+
+        @Test
+        @DisplayName("Should write the configured claims into valid records")
+        void shouldWriteClaimFields() {
+            testRunner.setProperty(Properties.CLAIM_FIELDS, "tenant=tenant_id, iss, missing");
+            TestTokenHolder tokenHolder = configureValidToken();
+            recordReader.addRecord(1, tokenHolder.getRawToken());
+            testRunner.enqueue("");
+
+            testRunner.run();
+
+            String content = single(Relationships.SUCCESS).getContent();
+            assertTrue(content.contains(",acme,"), content);
+            assertTrue(content.contains(TestTokenHolder.TEST_ISSUER), content);
+        }
+
+        @Test
+        @DisplayName("Should parse claim field mappings in configuration order")
+        void shouldParseClaimFields() {
+            assertEquals(List.of("sub", "tenant"),
+                    List.copyOf(MultiIssuerJWTRecordAuthenticator.parseClaimFields(" sub=subject ,tenant").keySet()));
+            assertEquals(Map.of("sub", "subject", "tenant", "tenant"),
+                    MultiIssuerJWTRecordAuthenticator.parseClaimFields("sub=subject,tenant"));
+            assertTrue(MultiIssuerJWTRecordAuthenticator.parseClaimFields(null).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should reject malformed claim field mappings")
+        void shouldRejectMalformedClaimFields() {
+            testRunner.setProperty(Properties.CLAIM_FIELDS, "sub=,=field");
+            testRunner.assertNotValid();
+        }
+
+        @Test
+        @DisplayName("Should replace an existing field of the same name with a string field")
+        void shouldReplaceExistingField() {
+            RecordSchema schema = new SimpleRecordSchema(List.of(
+                    new RecordField("id", RecordFieldType.INT.getDataType()),
+                    new RecordField("sub", RecordFieldType.INT.getDataType())));
+
+            RecordSchema extended = MultiIssuerJWTRecordAuthenticator.extendSchema(schema, List.of("sub", "tenant"));
+
+            assertEquals(List.of("id", "sub", "tenant"), extended.getFieldNames());
+            assertEquals(RecordFieldType.STRING, extended.getField("sub").orElseThrow().getDataType().getFieldType());
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Tests")
+    class FailureTests {
+
+        @Test
+        @DisplayName("Should route unreadable FlowFiles to failure without partial output")
+        void shouldRouteUnreadableToFailure() {
+            recordReader.failAfter(1);
+            String token = configureValidToken().getRawToken();
+            recordReader.addRecord(1, token);
+            recordReader.addRecord(2, token);
+            testRunner.enqueue("");
+
+            testRunner.run();
+
+            testRunner.assertTransferCount(Relationships.SUCCESS, 0);
+            testRunner.assertTransferCount(Relationships.AUTHENTICATION_FAILED, 0);
+            testRunner.assertTransferCount(Relationships.FAILURE, 1);
+            LogAsserts.assertLogMessagePresentContaining(TestLogLevel.WARN,
+                    AuthLogMessages.WARN.RECORD_PROCESSING_FAILED.resolveIdentifierString());
+        }
+
+        @Test
+        @DisplayName("Should roll back and keep the FlowFile queued when the service is unavailable")
+        void shouldRollbackWhenServiceUnavailable() {
+            mockConfigService.configureServiceUnavailable();
+            recordReader.addRecord(1, "some.raw.token");
+            testRunner.enqueue("");
+
+            testRunner.run();
+
+            testRunner.assertTransferCount(Relationships.SUCCESS, 0);
+            testRunner.assertTransferCount(Relationships.AUTHENTICATION_FAILED, 0);
+            testRunner.assertTransferCount(Relationships.FAILURE, 0);
+            testRunner.assertQueueNotEmpty();
+        }
+    }
+}
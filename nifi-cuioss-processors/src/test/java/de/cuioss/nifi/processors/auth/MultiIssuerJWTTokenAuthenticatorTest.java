@@ -473,4 +473,69 @@ class MultiIssuerJWTTokenAuthenticatorTest {
                     Arguments.of(SecurityEventCounter.EventType.FAILED_TO_DECODE_JWT, "AUTH-002"));
         }
     }
+
+    @Nested
+    @DisplayName("Claim Mapping Tests")
+    class ClaimMappingTests {
+
+        private void configureTokenWithClaims() {
+            TestTokenHolder tokenHolder = TestTokenGenerators.accessTokens().next();
+            tokenHolder.withClaim("tenant", ClaimValue.forPlainString("acme"));
+            tokenHolder.withClaim("permissions", ClaimValue.forPlainString("p".repeat(500)));
+            mockConfigService.configureValidToken(tokenHolder.asAccessTokenContent());
+            enqueueWithToken(tokenHolder.getRawToken());
+        }
+
+        @Test
+        @DisplayName("Should write only included claims and truncate long values")
+        void shouldApplyIncludeListAndMaxLength() {
+            testRunner.setProperty(Properties.CLAIM_INCLUDE, "tenant,perm*");
+            testRunner.setProperty(Properties.CLAIM_MAX_VALUE_LENGTH, "16");
+            configureTokenWithClaims();
+
+            testRunner.run();
+
+            MockFlowFile flowFile = testRunner.getFlowFilesForRelationship(Relationships.SUCCESS).getFirst();
+            flowFile.assertAttributeEquals(JwtAttributes.Content.PREFIX + "tenant", "acme");
+            flowFile.assertAttributeEquals(JwtAttributes.Content.PREFIX + "permissions", "p".repeat(16));
+            flowFile.assertAttributeEquals(JwtAttributes.Content.TRUNCATED_CLAIMS, "permissions");
+            assertEquals(2, flowFile.getAttributes().keySet().stream()
+                    .filter(key -> key.startsWith(JwtAttributes.Content.PREFIX)).count());
+            flowFile.assertAttributeExists(JwtAttributes.Token.SUBJECT);
+        }
+
+        @Test
+        @DisplayName("Should write the selected claims as a single JSON attribute")
+        void shouldWriteJsonAttribute() {
+            testRunner.setProperty(Properties.CLAIM_INCLUDE, "tenant");
+            testRunner.setProperty(Properties.CLAIM_OUTPUT_MODE, "json-attribute");
+            configureTokenWithClaims();
+
+            testRunner.run();
+
+            MockFlowFile flowFile = testRunner.getFlowFilesForRelationship(Relationships.SUCCESS).getFirst();
+            flowFile.assertAttributeEquals(JwtAttributes.Content.CLAIMS_JSON, "{\"tenant\":\"acme\"}");
+            assertTrue(flowFile.getAttributes().keySet().stream()
+                    .noneMatch(key -> key.startsWith(JwtAttributes.Content.PREFIX)));
+        }
+
+        @Test
+        @DisplayName("Should replace the content with the untruncated claims JSON")
+        void shouldWriteClaimsAsContent() {
+            testRunner.setProperty(Properties.CLAIM_EXCLUDE, "tenant");
+            testRunner.setProperty(Properties.CLAIM_MAX_VALUE_LENGTH, "16");
+            testRunner.setProperty(Properties.CLAIM_OUTPUT_MODE, "content");
+            configureTokenWithClaims();
+
+            testRunner.run();
+
+            MockFlowFile flowFile = testRunner.getFlowFilesForRelationship(Relationships.SUCCESS).getFirst();
+            String content = flowFile.getContent();
+            assertTrue(content.contains("\"permissions\":\"" + "p".repeat(500) + "\""), content);
+            assertFalse(content.contains("\"tenant\""), content);
+            flowFile.assertAttributeEquals("mime.type", "application/json");
+            flowFile.assertAttributeNotExists(JwtAttributes.Content.PREFIX + "permissions");
+            flowFile.assertAttributeExists(JwtAttributes.Token.SUBJECT);
+        }
+    }
 }
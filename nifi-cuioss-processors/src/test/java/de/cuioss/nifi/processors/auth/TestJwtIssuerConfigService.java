@@ -25,6 +25,7 @@ import org.apache.nifi.controller.AbstractControllerService;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Test implementation of {@link JwtIssuerConfigService} for processor unit tests.
@@ -38,6 +39,7 @@ public class TestJwtIssuerConfigService extends AbstractControllerService implem
     private AccessTokenContent tokenToReturn;
     private TokenValidationException exceptionToThrow;
     private JwtAuthenticationConfig authenticationConfig = DEFAULT_CONFIG;
+    private final AtomicInteger validationCount = new AtomicInteger();
 
     public void configureValidToken(AccessTokenContent token) {
         this.tokenToReturn = token;
@@ -64,6 +66,7 @@ public class TestJwtIssuerConfigService extends AbstractControllerService implem
 
     @Override
     public AccessTokenContent validateToken(String rawToken) throws TokenValidationException {
+        validationCount.incrementAndGet();
         if (exceptionToThrow != null) {
             throw exceptionToThrow;
         }
@@ -73,6 +76,13 @@ public class TestJwtIssuerConfigService extends AbstractControllerService implem
         return tokenToReturn;
     }
 
+    /**
+     * @return how often {@link #validateToken(String)} has been called
+     */
+    public int getValidationCount() {
+        return validationCount.get();
+    }
+
     @Override
     public JwtAuthenticationConfig getAuthenticationConfig() {
         return authenticationConfig;
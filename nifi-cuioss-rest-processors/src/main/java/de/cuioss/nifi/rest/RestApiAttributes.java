@@ -72,4 +72,52 @@ public final class RestApiAttributes {
 
     /** Minimum attachment count for the Wait processor target signal count. */
     public static final String TRACE_ATTACHMENTS_MIN_COUNT = "rest.trace.attachments.min.count";
+
+    /** Tracking status of the request a gateway-generated FlowFile reports on (e.g. {@code EXPIRED}). */
+    public static final String TRACE_STATUS = "rest.trace.status";
+
+    /** Form field name of an attachment uploaded as a {@code multipart/form-data} part. */
+    public static final String ATTACHMENT_PART_NAME = "rest.attachment.part.name";
+
+    /** Zero-based position of the part within its multipart upload. */
+    public static final String ATTACHMENT_PART_INDEX = "rest.attachment.part.index";
+
+    /** Number of parts in the multipart upload the attachment belongs to. */
+    public static final String ATTACHMENT_PART_COUNT = "rest.attachment.part.count";
+
+    /** NiFi core file name attribute, set from the part's {@code filename} (directory components stripped). */
+    public static final String FILENAME = "filename";
+
+    /** ID of the resumable upload a FlowFile was assembled from. */
+    public static final String UPLOAD_ID = "rest.upload.id";
+
+    /** Total length in bytes declared when the resumable upload was created. */
+    public static final String UPLOAD_LENGTH = "rest.upload.length";
+
+    /** Prefix for the decoded {@code Upload-Metadata} entries of a resumable upload: {@code rest.upload.metadata.<key>}. */
+    public static final String UPLOAD_METADATA_PREFIX = "rest.upload.metadata.";
+
+    /** Number of attachments merged into an aggregated FlowFile. */
+    public static final String ATTACHMENTS_AGGREGATED_COUNT = "rest.attachments.aggregated.count";
+
+    /**
+     * Whether an aggregated FlowFile reached the route's minimum attachment count ({@code true}) or was
+     * emitted because the attachment window timed out first ({@code false}).
+     */
+    public static final String ATTACHMENTS_AGGREGATED_COMPLETE = "rest.attachments.aggregated.complete";
+
+    /** Number of records in a FlowFile written for a route with record batching. */
+    public static final String RECORD_COUNT = "record.count";
+
+    /** Identifier shared by all FlowFiles split from one request body (NiFi fragment convention). */
+    public static final String FRAGMENT_IDENTIFIER = "fragment.identifier";
+
+    /** Zero-based position of a split FlowFile among the accepted elements of its request body. */
+    public static final String FRAGMENT_INDEX = "fragment.index";
+
+    /** Number of FlowFiles split from the request body, i.e. its accepted elements. */
+    public static final String FRAGMENT_COUNT = "fragment.count";
+
+    /** Zero-based position of the element within the original request body, as reported in the 207 response. */
+    public static final String SPLIT_ELEMENT_INDEX = "rest.split.element.index";
 }
@@ -22,6 +22,7 @@ import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.distributed.cache.client.DistributedMapCacheClient;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.serialization.RecordSetWriterFactory;
 import org.apache.nifi.ssl.SSLContextProvider;
 
 import java.util.Locale;
@@ -45,6 +46,12 @@ public final class RestApiGatewayConstants {
                 .name("attachments")
                 .description("FlowFiles created from attachment upload requests are routed here")
                 .build();
+
+        public static final Relationship ATTACHMENTS_TIMEOUT = new Relationship.Builder()
+                .name("attachments.timeout")
+                .description("An empty FlowFile per parent request whose attachment window expired before "
+                        + "attachments-min-count attachments arrived is routed here")
+                .build();
     }
 
     @UtilityClass
@@ -55,6 +62,18 @@ public final class RestApiGatewayConstants {
         private static final String PROXY_PRESET_STRICT = "strict";
         private static final String PROXY_PRESET_LENIENT = "lenient";
         private static final String PROXY_PRESET_DEFAULTS = "defaults";
+        /** Attachment counter mode: per-node counting. */
+        public static final String ATTACHMENTS_COUNTER_MODE_LOCAL = "local";
+        /** Attachment counter mode: cluster-wide counting in the distributed cache. */
+        public static final String ATTACHMENTS_COUNTER_MODE_DISTRIBUTED = "distributed";
+        /** Idempotency store: keys kept in memory on each node. */
+        public static final String IDEMPOTENCY_STORE_LOCAL = "local";
+        /** Idempotency store: keys kept cluster-wide in the distributed cache. */
+        public static final String IDEMPOTENCY_STORE_DISTRIBUTED = "distributed";
+        /** Trace ID format: random version 4 UUIDs. */
+        public static final String TRACE_ID_FORMAT_RANDOM = "random";
+        /** Trace ID format: time-ordered version 7 UUIDs. */
+        public static final String TRACE_ID_FORMAT_TIME_ORDERED = "time-ordered";
 
         public static final PropertyDescriptor LISTENING_PORT = new PropertyDescriptor.Builder()
                 .name("rest.gateway.listening.port")
@@ -82,6 +101,95 @@ public final class RestApiGatewayConstants {
                 .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
                 .build();
 
+        public static final PropertyDescriptor SCHEMA_MAX_VIOLATIONS = new PropertyDescriptor.Builder()
+                .name("rest.gateway.schema.max-violations")
+                .displayName("Schema Max Violations")
+                .description("Maximum number of JSON Schema violations reported in a 422 response (and per "
+                        + "element of a split route). 0 reports every violation.")
+                .required(false)
+                .defaultValue("20")
+                .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor SCHEMA_HOT_RELOAD = new PropertyDescriptor.Builder()
+                .name("rest.gateway.schema.hot-reload")
+                .displayName("Schema Hot Reload")
+                .description("Whether file-based route schemas are watched and reloaded when they change. "
+                        + "A schema that fails to load or compile keeps the previous version in use.")
+                .required(false)
+                .defaultValue("true")
+                .allowableValues("true", FALSE_VALUE)
+                .build();
+
+        public static final PropertyDescriptor ROUTE_RELOAD_INTERVAL = new PropertyDescriptor.Builder()
+                .name("rest.gateway.routes.reload-interval")
+                .displayName("Route Reload Interval")
+                .description("How often the external configuration file is checked for changed route definitions "
+                        + "while the processor runs. Compatible changes are applied to the running server without "
+                        + "closing the listening port. 0 sec disables live reloading.")
+                .required(false)
+                .defaultValue("10 sec")
+                .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor SANITIZATION_CACHE_SIZE = new PropertyDescriptor.Builder()
+                .name("rest.gateway.sanitization.cache-size")
+                .displayName("Sanitization Cache Size")
+                .description("Maximum number of header and query parameter values remembered as already passing "
+                        + "the security pipeline, so repeated values (Accept, User-Agent, paging parameters) are "
+                        + "not validated again. Only values the pipeline returns unchanged are remembered; values "
+                        + "longer than 512 characters are always validated. 0 disables the cache.")
+                .required(false)
+                .defaultValue("4096")
+                .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor LOAD_SHEDDING_TARGET_QUEUE_WAIT = new PropertyDescriptor.Builder()
+                .name("rest.gateway.load-shedding.target-queue-wait")
+                .displayName("Load Shedding Target Queue Wait")
+                .description("Queue wait the adaptive concurrency limit aims for. While queued requests wait longer, "
+                        + "or the queue is not drained for longer, the limit on queued requests is lowered and "
+                        + "routes are shed by priority with 503 and Retry-After: low first, then normal; high "
+                        + "routes only when the queue is full. 0 sec disables load shedding.")
+                .required(false)
+                .defaultValue("0 sec")
+                .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor IDEMPOTENCY_TTL = new PropertyDescriptor.Builder()
+                .name("rest.gateway.idempotency.ttl")
+                .displayName("Idempotency Key TTL")
+                .description("How long the outcome of a POST, PUT or PATCH request carrying an Idempotency-Key "
+                        + "header is remembered. A retry with the same key and the same request within this time "
+                        + "is answered with the original response instead of creating another FlowFile. "
+                        + "0 sec disables Idempotency-Key support.")
+                .required(false)
+                .defaultValue("0 sec")
+                .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor IDEMPOTENCY_STORE = new PropertyDescriptor.Builder()
+                .name("rest.gateway.idempotency.store")
+                .displayName("Idempotency Store")
+                .description("Where idempotency keys are kept. 'local' keeps them in memory on each node: "
+                        + "retries are recognized only when they reach the same node, and keys are lost on "
+                        + "restart. 'distributed' keeps them in the Distributed Map Cache Client, so retries are "
+                        + "recognized cluster-wide. Default: local.")
+                .required(false)
+                .allowableValues(IDEMPOTENCY_STORE_LOCAL, IDEMPOTENCY_STORE_DISTRIBUTED)
+                .defaultValue(IDEMPOTENCY_STORE_LOCAL)
+                .build();
+
+        public static final PropertyDescriptor IDEMPOTENCY_MAX_ENTRIES = new PropertyDescriptor.Builder()
+                .name("rest.gateway.idempotency.max-entries")
+                .displayName("Idempotency Max Entries")
+                .description("Local idempotency store only: maximum number of keys kept in memory. When "
+                        + "exceeded, the oldest keys are forgotten before their TTL and a warning is logged.")
+                .required(false)
+                .defaultValue("10000")
+                .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+                .build();
+
         public static final PropertyDescriptor REQUEST_QUEUE_SIZE = new PropertyDescriptor.Builder()
                 .name("rest.gateway.request.queue.size")
                 .displayName("Request Queue Size")
@@ -195,6 +303,108 @@ public final class RestApiGatewayConstants {
                 .identifiesControllerService(DistributedMapCacheClient.class)
                 .build();
 
+        public static final PropertyDescriptor BATCH_RECORD_WRITER = new PropertyDescriptor.Builder()
+                .name("rest.gateway.batch.record-writer")
+                .displayName("Batch Record Writer")
+                .description("The Record Writer used for routes with batch-max-records > 0, which write their "
+                        + "requests as records (traceId, receivedAt, method, requestUri, remoteHost, subject, "
+                        + "contentType, body) into one FlowFile per batch. Required when any route batches.")
+                .required(false)
+                .identifiesControllerService(RecordSetWriterFactory.class)
+                .build();
+
+        public static final PropertyDescriptor CACHE_CALL_TIMEOUT = new PropertyDescriptor.Builder()
+                .name("rest.gateway.cache.call-timeout")
+                .displayName("Cache Call Timeout")
+                .description("Deadline of a single Distributed Map Cache call. A call that takes longer is abandoned, "
+                        + "the request gets a 503 and the call counts as a failure for the circuit breaker.")
+                .required(false)
+                .defaultValue("2 sec")
+                .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor CACHE_CIRCUIT_FAILURE_THRESHOLD = new PropertyDescriptor.Builder()
+                .name("rest.gateway.cache.circuit.failure-threshold")
+                .displayName("Cache Circuit Failure Threshold")
+                .description("Consecutive failed or timed-out cache calls after which the circuit opens. While open, "
+                        + "requests that need the cache are answered with 503 without calling it.")
+                .required(false)
+                .defaultValue("5")
+                .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor CACHE_CIRCUIT_OPEN_DURATION = new PropertyDescriptor.Builder()
+                .name("rest.gateway.cache.circuit.open-duration")
+                .displayName("Cache Circuit Open Duration")
+                .description("Time the circuit stays open before a single probe call is let through. A successful "
+                        + "probe closes the circuit, a failed one keeps it open for another period.")
+                .required(false)
+                .defaultValue("30 sec")
+                .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor TRACE_ID_FORMAT = new PropertyDescriptor.Builder()
+                .name("rest.gateway.tracking.trace-id-format")
+                .displayName("Trace ID Format")
+                .description("Format of the trace IDs minted for tracked requests and attachments. 'random' "
+                        + "creates version 4 UUIDs from the shared SecureRandom. 'time-ordered' creates version 7 "
+                        + "UUIDs (RFC 9562) from the current time and a per-thread random source: no contention "
+                        + "at high request rates and cache keys ordered by creation time, but the creation time "
+                        + "is readable from the ID and the random part is not cryptographically strong. "
+                        + "Default: random.")
+                .required(false)
+                .allowableValues(TRACE_ID_FORMAT_RANDOM, TRACE_ID_FORMAT_TIME_ORDERED)
+                .defaultValue(TRACE_ID_FORMAT_RANDOM)
+                .build();
+
+        public static final PropertyDescriptor ACCESS_LOG_DIRECTORY = new PropertyDescriptor.Builder()
+                .name("rest.gateway.access-log.directory")
+                .displayName("Access Log Directory")
+                .description("Local directory of the structured access log: one JSON line per request with route, "
+                        + "status, sizes, duration, client, token subject and trace ID, written asynchronously to "
+                        + "'access.log'. Created if absent. Empty disables the access log.")
+                .required(false)
+                .addValidator(StandardValidators.NON_BLANK_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor ACCESS_LOG_SAMPLE_PERCENT = new PropertyDescriptor.Builder()
+                .name("rest.gateway.access-log.sample-percent")
+                .displayName("Access Log Sample Percent")
+                .description("Percentage of successful requests (status below 400) written to the access log. "
+                        + "Rejected and failed requests are always logged.")
+                .required(false)
+                .defaultValue("100")
+                .addValidator(StandardValidators.createLongValidator(0, 100, true))
+                .build();
+
+        public static final PropertyDescriptor ACCESS_LOG_BUFFER_SIZE = new PropertyDescriptor.Builder()
+                .name("rest.gateway.access-log.buffer-size")
+                .displayName("Access Log Buffer Size")
+                .description("Records held in memory for the access-log writer (rounded up to a power of two). "
+                        + "When the buffer is full, records are dropped rather than delaying requests.")
+                .required(false)
+                .defaultValue("16384")
+                .addValidator(StandardValidators.createLongValidator(1, 1L << 30, true))
+                .build();
+
+        public static final PropertyDescriptor ACCESS_LOG_MAX_FILE_SIZE = new PropertyDescriptor.Builder()
+                .name("rest.gateway.access-log.max-file-size")
+                .displayName("Access Log Max File Size")
+                .description("Size after which the access log is rotated to 'access.log.1'.")
+                .required(false)
+                .defaultValue("100 MB")
+                .addValidator(StandardValidators.DATA_SIZE_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor ACCESS_LOG_MAX_FILES = new PropertyDescriptor.Builder()
+                .name("rest.gateway.access-log.max-files")
+                .displayName("Access Log Max Files")
+                .description("Number of rotated access-log files kept next to the active one.")
+                .required(false)
+                .defaultValue("10")
+                .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+                .build();
+
         public static final PropertyDescriptor MANAGEMENT_STATUS_ENABLED = new PropertyDescriptor.Builder()
                 .name("rest.gateway.management.status.enabled")
                 .displayName("Status Endpoint Enabled")
@@ -242,6 +452,29 @@ public final class RestApiGatewayConstants {
                 .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
                 .build();
 
+        public static final PropertyDescriptor MANAGEMENT_STATUS_WRITE_BEHIND_BUFFER_SIZE = new PropertyDescriptor.Builder()
+                .name("rest.gateway.management.status.write-behind.buffer-size")
+                .displayName("Status Write-Behind Buffer Size")
+                .description("Number of new tracking entries buffered in memory and written to the Distributed "
+                        + "Map Cache by a background thread, so the 202 response does not wait for the cache. "
+                        + "0 disables write-behind. When the buffer is full, entries are written synchronously. "
+                        + "Buffered entries are visible to this node at once but to other cluster nodes only "
+                        + "after the flush.")
+                .required(false)
+                .defaultValue("0")
+                .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor MANAGEMENT_STATUS_WRITE_BEHIND_FLUSH_INTERVAL = new PropertyDescriptor.Builder()
+                .name("rest.gateway.management.status.write-behind.flush-interval")
+                .displayName("Status Write-Behind Flush Interval")
+                .description("Maximum time a buffered tracking entry waits before the background thread writes it. "
+                        + "Only relevant when Status Write-Behind Buffer Size is greater than 0.")
+                .required(false)
+                .defaultValue("50 ms")
+                .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+                .build();
+
         public static final PropertyDescriptor MANAGEMENT_ATTACHMENTS_ENABLED = new PropertyDescriptor.Builder()
                 .name("rest.gateway.management.attachments.enabled")
                 .displayName("Attachments Endpoint Enabled")
@@ -287,6 +520,16 @@ public final class RestApiGatewayConstants {
                 .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
                 .build();
 
+        public static final PropertyDescriptor MANAGEMENT_ATTACHMENTS_MAX_PARTS = new PropertyDescriptor.Builder()
+                .name("rest.gateway.management.attachments.max-parts")
+                .displayName("Attachments Max Parts")
+                .description("Maximum number of parts of a multipart/form-data attachment upload. "
+                        + "A body with more parts is rejected with 413 before any attachment slot is reserved.")
+                .required(false)
+                .defaultValue("20")
+                .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+                .build();
+
         public static final PropertyDescriptor MANAGEMENT_ATTACHMENTS_HARD_LIMIT = new PropertyDescriptor.Builder()
                 .name("rest.gateway.management.attachments.hard-limit")
                 .displayName("Attachments Hard Limit")
@@ -297,6 +540,92 @@ public final class RestApiGatewayConstants {
                 .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
                 .build();
 
+        public static final PropertyDescriptor MANAGEMENT_ATTACHMENTS_COUNTER_MODE = new PropertyDescriptor.Builder()
+                .name("rest.gateway.management.attachments.counter.mode")
+                .displayName("Attachments Counter Mode")
+                .description("Where the per-parent attachment count is kept. 'local' counts on each node "
+                        + "in memory: the attachments-max-count limit applies per node and resets on restart. "
+                        + "'distributed' keeps the authoritative count in the Distributed Map Cache Client via "
+                        + "compare-and-swap increments, so the limit holds cluster-wide. Default: local.")
+                .required(false)
+                .allowableValues(ATTACHMENTS_COUNTER_MODE_LOCAL, ATTACHMENTS_COUNTER_MODE_DISTRIBUTED)
+                .defaultValue(ATTACHMENTS_COUNTER_MODE_LOCAL)
+                .build();
+
+        public static final PropertyDescriptor MANAGEMENT_ATTACHMENTS_COUNTER_LEASE_SIZE = new PropertyDescriptor.Builder()
+                .name("rest.gateway.management.attachments.counter.lease-size")
+                .displayName("Attachments Counter Lease Size")
+                .description("Distributed counter mode only: number of attachment slots a node reserves from "
+                        + "the cache in one round trip and then hands out locally. 1 keeps the limit exact; "
+                        + "larger values save cache round trips, but slots leased by one node and not yet used "
+                        + "count against the limit on all other nodes until they expire.")
+                .required(false)
+                .defaultValue("1")
+                .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor MANAGEMENT_ATTACHMENTS_COUNTER_MAX_ENTRIES = new PropertyDescriptor.Builder()
+                .name("rest.gateway.management.attachments.counter.max-entries")
+                .displayName("Attachments Counter Max Entries")
+                .description("Maximum number of parent requests whose attachment counter (or lease) is held "
+                        + "in memory per node. When exceeded, the least recently used counters are dropped.")
+                .required(false)
+                .defaultValue("10000")
+                .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor MANAGEMENT_ATTACHMENTS_COUNTER_EXPIRY = new PropertyDescriptor.Builder()
+                .name("rest.gateway.management.attachments.counter.expiry")
+                .displayName("Attachments Counter Expiry")
+                .description("Idle time after which a parent's in-memory attachment counter (or lease) is "
+                        + "dropped. Must exceed the longest attachments-timeout of any route, otherwise a parent "
+                        + "that is still collecting restarts counting in local mode.")
+                .required(false)
+                .defaultValue("1 hour")
+                .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor MANAGEMENT_ATTACHMENTS_AGGREGATION_DIRECTORY = new PropertyDescriptor.Builder()
+                .name("rest.gateway.management.attachments.aggregation.directory")
+                .displayName("Attachments Aggregation Directory")
+                .description("Local directory in which the parent request and attachments of routes with "
+                        + "aggregate-attachments=true are spooled until they are emitted as one ZIP FlowFile. "
+                        + "Created if absent; leftovers of a previous run are removed on start.")
+                .required(false)
+                .defaultValue("./work/rest-gateway-aggregation")
+                .addValidator(StandardValidators.NON_BLANK_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor UPLOADS_SPOOL_DIRECTORY = new PropertyDescriptor.Builder()
+                .name("rest.gateway.uploads.spool.directory")
+                .displayName("Resumable Uploads Spool Directory")
+                .description("Local directory in which the chunks of resumable uploads (routes with "
+                        + "resumable-uploads=true) are staged until the upload completes. Created if absent.")
+                .required(false)
+                .defaultValue("./work/rest-gateway-uploads")
+                .addValidator(StandardValidators.NON_BLANK_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor UPLOADS_MAX_SIZE = new PropertyDescriptor.Builder()
+                .name("rest.gateway.uploads.max-size")
+                .displayName("Resumable Uploads Max Size")
+                .description("Largest total size a resumable upload may declare in its Upload-Length header. "
+                        + "Each chunk is additionally bounded by the route's request size limit.")
+                .required(false)
+                .defaultValue("1 GB")
+                .addValidator(StandardValidators.DATA_SIZE_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor UPLOADS_EXPIRY = new PropertyDescriptor.Builder()
+                .name("rest.gateway.uploads.expiry")
+                .displayName("Resumable Uploads Expiry")
+                .description("Idle time after which an unfinished resumable upload is discarded together with "
+                        + "its spooled data, and after which a completed upload is no longer reported.")
+                .required(false)
+                .defaultValue("24 hours")
+                .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+                .build();
+
         public static final PropertyDescriptor PROXY_CONTEXT_PATH_WHITELIST = new PropertyDescriptor.Builder()
                 .name("rest.gateway.proxy.context-path.whitelist")
                 .displayName("Proxy Context Path Whitelist")
@@ -18,8 +18,10 @@ package de.cuioss.nifi.rest;
 
 import de.cuioss.http.forwarded.ForwardedResolverConfig;
 import de.cuioss.http.security.monitoring.SecurityEventCounter;
+import de.cuioss.nifi.jwt.JwtAttributes;
 import de.cuioss.nifi.jwt.config.ConfigurationManager;
 import de.cuioss.nifi.jwt.config.JwtIssuerConfigService;
+import de.cuioss.nifi.jwt.util.AttributeProjection;
 import de.cuioss.nifi.jwt.util.ForwardedRequestResolver;
 import de.cuioss.nifi.jwt.util.TokenClaimMapper;
 import de.cuioss.nifi.rest.config.AuthMode;
@@ -29,6 +31,7 @@ import de.cuioss.nifi.rest.config.TrackingMode;
 import de.cuioss.nifi.rest.handler.*;
 import de.cuioss.nifi.rest.server.JettyServerManager;
 import de.cuioss.nifi.rest.validation.JsonSchemaValidator;
+import de.cuioss.nifi.rest.validation.SchemaFileWatcher;
 import de.cuioss.tools.logging.CuiLogger;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
@@ -40,16 +43,27 @@ import org.apache.nifi.components.ValidationResult;
 import org.apache.nifi.distributed.cache.client.DistributedMapCacheClient;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.processor.AbstractProcessor;
+import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.processor.ProcessContext;
 import org.apache.nifi.processor.ProcessSession;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.exception.FlowFileAccessException;
 import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.schema.access.SchemaNotFoundException;
+import org.apache.nifi.serialization.RecordSetWriter;
+import org.apache.nifi.serialization.RecordSetWriterFactory;
+import org.apache.nifi.serialization.WriteResult;
+import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.ssl.SSLContextProvider;
+import org.apache.nifi.time.DurationFormat;
+import org.jspecify.annotations.Nullable;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -57,13 +71,15 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -93,8 +109,26 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
             RestApiGatewayConstants.Properties.JWT_ISSUER_CONFIG_SERVICE,
             RestApiGatewayConstants.Properties.SSL_CONTEXT_SERVICE,
             RestApiGatewayConstants.Properties.MAX_REQUEST_SIZE,
+            RestApiGatewayConstants.Properties.SCHEMA_MAX_VIOLATIONS,
+            RestApiGatewayConstants.Properties.SCHEMA_HOT_RELOAD,
+            RestApiGatewayConstants.Properties.ROUTE_RELOAD_INTERVAL,
+            RestApiGatewayConstants.Properties.SANITIZATION_CACHE_SIZE,
             RestApiGatewayConstants.Properties.REQUEST_QUEUE_SIZE,
+            RestApiGatewayConstants.Properties.LOAD_SHEDDING_TARGET_QUEUE_WAIT,
+            RestApiGatewayConstants.Properties.IDEMPOTENCY_TTL,
+            RestApiGatewayConstants.Properties.IDEMPOTENCY_STORE,
+            RestApiGatewayConstants.Properties.IDEMPOTENCY_MAX_ENTRIES,
             RestApiGatewayConstants.Properties.DISTRIBUTED_MAP_CACHE_CLIENT,
+            RestApiGatewayConstants.Properties.BATCH_RECORD_WRITER,
+            RestApiGatewayConstants.Properties.CACHE_CALL_TIMEOUT,
+            RestApiGatewayConstants.Properties.CACHE_CIRCUIT_FAILURE_THRESHOLD,
+            RestApiGatewayConstants.Properties.CACHE_CIRCUIT_OPEN_DURATION,
+            RestApiGatewayConstants.Properties.TRACE_ID_FORMAT,
+            RestApiGatewayConstants.Properties.ACCESS_LOG_DIRECTORY,
+            RestApiGatewayConstants.Properties.ACCESS_LOG_SAMPLE_PERCENT,
+            RestApiGatewayConstants.Properties.ACCESS_LOG_BUFFER_SIZE,
+            RestApiGatewayConstants.Properties.ACCESS_LOG_MAX_FILE_SIZE,
+            RestApiGatewayConstants.Properties.ACCESS_LOG_MAX_FILES,
             RestApiGatewayConstants.Properties.MANAGEMENT_HEALTH_ENABLED,
             RestApiGatewayConstants.Properties.MANAGEMENT_HEALTH_AUTH_MODE,
             RestApiGatewayConstants.Properties.MANAGEMENT_HEALTH_REQUIRED_ROLES,
@@ -108,17 +142,32 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
             RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_REQUIRED_ROLES,
             RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_REQUIRED_SCOPES,
             RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_MAX_ADDITIONAL_FIELDS,
+            RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_WRITE_BEHIND_BUFFER_SIZE,
+            RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_WRITE_BEHIND_FLUSH_INTERVAL,
             RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_ENABLED,
             RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_AUTH_MODE,
             RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_REQUIRED_ROLES,
             RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_REQUIRED_SCOPES,
             RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_MAX_REQUEST_SIZE,
+            RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_MAX_PARTS,
             RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_HARD_LIMIT,
+            RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_MODE,
+            RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_LEASE_SIZE,
+            RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_MAX_ENTRIES,
+            RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_EXPIRY,
+            RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_AGGREGATION_DIRECTORY,
+            RestApiGatewayConstants.Properties.UPLOADS_SPOOL_DIRECTORY,
+            RestApiGatewayConstants.Properties.UPLOADS_MAX_SIZE,
+            RestApiGatewayConstants.Properties.UPLOADS_EXPIRY,
             RestApiGatewayConstants.Properties.PROXY_CONTEXT_PATH_WHITELIST,
             RestApiGatewayConstants.Properties.PROXY_CONTEXT_PATH_TRUST_ALL,
             RestApiGatewayConstants.Properties.PROXY_TRUSTED_PROXIES,
             RestApiGatewayConstants.Properties.PROXY_SECURITY_CONFIG_PRESET);
 
+    // S3077 (every volatile field suppressing it below): each field is assigned in @OnScheduled and
+    // read from Jetty handler, trigger and @OnStopped threads. The referenced objects are thread-safe
+    // themselves; volatile only safely publishes the reference on reassignment, which is the intended
+    // and sufficient guarantee.
     final JettyServerManager serverManager = new JettyServerManager();
     /** Injectable for testing — when null, a new instance is created in onScheduled. */
     ConfigurationManager configurationManager;
@@ -128,8 +177,6 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
      * reference to the concurrent onTrigger reads (the queue's own operations are already
      * thread-safe; {@code volatile} covers publication of the reference itself).
      */
-    // S3077: the referenced queue is already thread-safe; volatile only safely publishes the
-    // reference on @OnScheduled reassignment, which is the intended and sufficient guarantee.
     @SuppressWarnings("java:S3077")
     private volatile LinkedBlockingQueue<HttpRequestContainer> requestQueue;
     /** Thread-safe map — getRelationships() can be called from any NiFi framework thread. */
@@ -140,6 +187,10 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
     private final ConcurrentHashMap<String, String> routeToAttachmentsTimeout = new ConcurrentHashMap<>();
     /** Maps route name → attachments min count (only for ATTACHMENTS tracking mode). */
     private final ConcurrentHashMap<String, Integer> routeToAttachmentsMinCount = new ConcurrentHashMap<>();
+    /** Maps route name → claim projection (only for routes that restrict their claims). */
+    private final ConcurrentHashMap<String, AttributeProjection> routeToClaimProjection = new ConcurrentHashMap<>();
+    /** Maps route name → max queue age in nanoseconds (only for routes with max-queue-age). */
+    private final ConcurrentHashMap<String, Long> routeToMaxQueueAge = new ConcurrentHashMap<>();
     /** Guards lazy loading of external config relationships before @OnScheduled. */
     private final AtomicBoolean externalRelationshipsLoaded = new AtomicBoolean(false);
 
@@ -149,11 +200,80 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
      * entries of queued-but-discarded containers (M5). {@code volatile} safely publishes the reference
      * between the @OnScheduled writer thread and the @OnStopped reader thread.
      */
-    // S3077: volatile only safely publishes the reference between the @OnScheduled writer and the
-    // @OnStopped reader; the store itself is thread-safe, so a thread-safe container adds nothing.
     @SuppressWarnings("java:S3077")
     private volatile RequestStatusStore trackingStore;
 
+    /**
+     * Deadline and circuit-breaker guard around the configured cache client, created in
+     * {@code onScheduled} together with {@link #trackingStore}; its executor is stopped in onStopped.
+     */
+    @SuppressWarnings("java:S3077")
+    private volatile GuardedMapCacheClient cacheGuard;
+
+    /**
+     * Asynchronous access log, created in {@code onScheduled} when a directory is configured
+     * (otherwise {@code null}); closed in onStopped after the server stopped.
+     */
+    @SuppressWarnings("java:S3077")
+    private volatile AccessLog accessLog;
+
+    /**
+     * Adaptive limit on {@link #requestQueue}, created in {@code onScheduled} when load shedding is
+     * enabled (otherwise {@code null}); fed with the queue wait of every dequeued request.
+     */
+    @SuppressWarnings("java:S3077")
+    private volatile AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Gateway-side aggregation of parent requests and their attachments, created in
+     * {@code onScheduled} when a route sets {@code aggregate-attachments} (otherwise {@code null}).
+     */
+    @SuppressWarnings("java:S3077")
+    private volatile AttachmentAggregator attachmentAggregator;
+
+    /**
+     * Open record batches of routes with {@code batch-max-records}, created in {@code onScheduled} when
+     * any route batches (otherwise {@code null}); written through {@link #batchWriterFactory}.
+     */
+    @SuppressWarnings("java:S3077")
+    private volatile RequestBatcher requestBatcher;
+    /** Record writer for batch FlowFiles; {@code null} when no route batches. */
+    @SuppressWarnings("java:S3077")
+    private volatile RecordSetWriterFactory batchWriterFactory;
+
+    /** Upper bound of batched requests absorbed per trigger, so a busy batched route cannot starve the others. */
+    static final int MAX_BATCHED_REQUESTS_PER_TRIGGER = 1000;
+
+    /** Upper bound of expired attachment windows handled per trigger, so a burst cannot stall one trigger. */
+    static final int MAX_WINDOW_EXPIRIES_PER_TRIGGER = 500;
+
+    /** Upper bound of dropped queue entries whose tracking is finished per trigger, for the same reason. */
+    static final int MAX_QUEUE_EXPIRIES_PER_TRIGGER = 500;
+
+    /** Upper bound of swept attachment leases whose unused slots are handed back per trigger. */
+    static final int MAX_SLOT_RETURNS_PER_TRIGGER = 500;
+
+    /**
+     * Attachment window timeouts of non-aggregating {@code tracking-mode=attachments} routes, created in
+     * {@code onScheduled} when a cache client is configured (otherwise {@code null}). Shared with the
+     * route handlers, which schedule a timeout per accepted parent; advanced in onTrigger.
+     */
+    @SuppressWarnings("java:S3077")
+    private volatile AttachmentWindowTimer attachmentWindowTimer;
+    /** The attachments endpoint's counter, evicted when a window expires; {@code null} without a cache client. */
+    @SuppressWarnings("java:S3077")
+    private volatile AttachmentCounter attachmentCounter;
+    /** Remembers Idempotency-Key outcomes for the route handlers; {@code null} while idempotency is disabled. */
+    @SuppressWarnings("java:S3077")
+    private volatile IdempotencyStore idempotencyStore;
+    /** Reloads changed schema files; {@code null} without file-based schemas or with hot reload disabled. */
+    @SuppressWarnings("java:S3077")
+    private volatile SchemaFileWatcher schemaFileWatcher;
+    /** Expired windows not yet handled because a trigger reached {@link #MAX_WINDOW_EXPIRIES_PER_TRIGGER}. */
+    private final ConcurrentLinkedQueue<String> expiredWindows = new ConcurrentLinkedQueue<>();
+    /** Dropped requests whose tracking is not finished yet, see {@link #MAX_QUEUE_EXPIRIES_PER_TRIGGER}. */
+    private final ConcurrentLinkedQueue<ExpiredRequest> expiredRequests = new ConcurrentLinkedQueue<>();
+
     /**
      * Gateway application-level security events; shared with the Jetty handlers, read in onTrigger.
      * Held in an {@link AtomicReference} (a thread-safe type) so the @OnScheduled publish and the
@@ -164,6 +284,44 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
     final AtomicReference<SecurityEventCounter> httpSecurityEvents = new AtomicReference<>();
     /** Config service supplying the token-sheriff token-validation counter; resolved in onScheduled. */
     final AtomicReference<JwtIssuerConfigService> configService = new AtomicReference<>();
+    /**
+     * What a live route reload needs from the running schedule; set in onScheduled once the server
+     * started and cleared in onStopped, {@code null} in between.
+     */
+    private final AtomicReference<LiveRouting> liveRouting = new AtomicReference<>();
+    /** {@link System#nanoTime()} of the next external config file check; claimed by one trigger at a time. */
+    private final AtomicLong nextRouteReloadCheck = new AtomicLong();
+
+    /**
+     * State kept from onScheduled to rebuild the route handlers of the running server.
+     *
+     * @param gateway            the dispatcher the server runs with
+     * @param managementHandlers the built-in endpoints, kept as they are on a reload
+     * @param routes             the route definitions currently in use
+     * @param configManager      the external configuration file the routes were partly read from
+     * @param traceIdGenerator   the trace ID generator shared by all route handlers
+     * @param uploadSpool        the resumable-upload spool, {@code null} without resumable uploads
+     */
+    private record LiveRouting(GatewayRequestHandler gateway, List<EndpointHandler> managementHandlers,
+            List<RouteConfiguration> routes, ConfigurationManager configManager,
+            TraceIdGenerator traceIdGenerator, @Nullable UploadSpool uploadSpool) {
+
+        LiveRouting withRoutes(List<RouteConfiguration> reloaded) {
+            return new LiveRouting(gateway, managementHandlers, reloaded, configManager, traceIdGenerator,
+                    uploadSpool);
+        }
+    }
+
+    /**
+     * The tracking work left over from a request dropped at its queue deadline.
+     *
+     * @param traceId      the request's trace ID, {@code null} for untracked routes
+     * @param uploadId     the resumable upload the request completed, {@code null} otherwise
+     * @param waitedMillis how long the request waited in the queue
+     */
+    private record ExpiredRequest(@Nullable String traceId, @Nullable String uploadId, long waitedMillis) {
+    }
+
     /**
      * Last-published cumulative count per counter name. onTrigger publishes the delta
      * (current cumulative count − last-published count) as a NiFi counter so the native
@@ -207,7 +365,7 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
      * a cache client a route with {@code tracking-mode=simple|attachments} silently degrades (bare
      * 202/200 without traceId/Location/_links, and the /status + /attachments endpoints are never
      * registered). Surfacing it as an invalid-processor state prevents that silent functional
-     * downgrade.
+     * downgrade. The same holds for {@code resumable-uploads=true}, whose offsets live in the cache.
      */
     @Override
     protected Collection<ValidationResult> customValidate(ValidationContext validationContext) {
@@ -217,21 +375,45 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
                 properties.put(descriptor.getName(), value);
             }
         });
-        boolean anyTracked = RouteConfigurationParser.parse(properties).stream()
-                .anyMatch(RouteConfiguration::isTracked);
+        List<RouteConfiguration> routes = RouteConfigurationParser.parse(properties);
+        List<ValidationResult> results = new ArrayList<>();
+        boolean anyTracked = routes.stream()
+                .anyMatch(route -> route.isTracked() || route.resumableUploads());
         boolean cacheClientSet = validationContext.getProperty(
                 RestApiGatewayConstants.Properties.DISTRIBUTED_MAP_CACHE_CLIENT).isSet();
         if (anyTracked && !cacheClientSet) {
-            return List.of(new ValidationResult.Builder()
+            results.add(new ValidationResult.Builder()
                     .subject(RestApiGatewayConstants.Properties.DISTRIBUTED_MAP_CACHE_CLIENT.getDisplayName())
                     .valid(false)
                     .explanation("A Distributed Map Cache Client is required when any route has "
-                            + "tracking-mode other than 'none'. Configure the '"
+                            + "tracking-mode other than 'none' or resumable-uploads=true. Configure the '"
+                            + RestApiGatewayConstants.Properties.DISTRIBUTED_MAP_CACHE_CLIENT.getDisplayName()
+                            + "' property, or set every route to tracking-mode=none without resumable uploads.")
+                    .build());
+        }
+        boolean anyBatched = routes.stream().anyMatch(RouteConfiguration::isBatched);
+        if (anyBatched && !validationContext.getProperty(
+                RestApiGatewayConstants.Properties.BATCH_RECORD_WRITER).isSet()) {
+            results.add(new ValidationResult.Builder()
+                    .subject(RestApiGatewayConstants.Properties.BATCH_RECORD_WRITER.getDisplayName())
+                    .valid(false)
+                    .explanation("A Batch Record Writer is required when any route sets batch-max-records.")
+                    .build());
+        }
+        boolean distributedIdempotency = validationContext.getProperty(
+                RestApiGatewayConstants.Properties.IDEMPOTENCY_TTL).asTimePeriod(TimeUnit.MILLISECONDS) > 0
+                && RestApiGatewayConstants.Properties.IDEMPOTENCY_STORE_DISTRIBUTED.equals(validationContext
+                        .getProperty(RestApiGatewayConstants.Properties.IDEMPOTENCY_STORE).getValue());
+        if (distributedIdempotency && !cacheClientSet) {
+            results.add(new ValidationResult.Builder()
+                    .subject(RestApiGatewayConstants.Properties.IDEMPOTENCY_STORE.getDisplayName())
+                    .valid(false)
+                    .explanation("The distributed idempotency store requires the '"
                             + RestApiGatewayConstants.Properties.DISTRIBUTED_MAP_CACHE_CLIENT.getDisplayName()
-                            + "' property, or set every route to tracking-mode=none.")
+                            + "' property.")
                     .build());
         }
-        return List.of();
+        return results;
     }
 
     private void loadExternalConfigRelationships() {
@@ -246,7 +428,11 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
     }
 
     private Map<String, String> getExternalRouteProperties() {
-        var configManager = (configurationManager != null) ? configurationManager : new ConfigurationManager();
+        return getExternalRouteProperties(
+                (configurationManager != null) ? configurationManager : new ConfigurationManager());
+    }
+
+    private static Map<String, String> getExternalRouteProperties(ConfigurationManager configManager) {
         if (!configManager.isConfigurationLoaded()) {
             return Map.of();
         }
@@ -263,9 +449,11 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
     public void onScheduled(ProcessContext context) {
         int queueSize = context.getProperty(RestApiGatewayConstants.Properties.REQUEST_QUEUE_SIZE).asInteger();
         requestQueue = new LinkedBlockingQueue<>(queueSize);
+        concurrencyLimiter = createConcurrencyLimiter(context, requestQueue, queueSize);
 
         // Load external config file routes first (lower priority)
-        Map<String, String> allProperties = new HashMap<>(getExternalRouteProperties());
+        var configManager = (configurationManager != null) ? configurationManager : new ConfigurationManager();
+        Map<String, String> allProperties = new HashMap<>(getExternalRouteProperties(configManager));
         if (!allProperties.isEmpty()) {
             LOGGER.info(RestApiLogMessages.INFO.EXTERNAL_ROUTES_LOADED, allProperties.size());
         }
@@ -299,7 +487,9 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
         int port = context.getProperty(RestApiGatewayConstants.Properties.LISTENING_PORT).asInteger();
 
         // Build JSON Schema validator from route configurations (absent when no route uses one)
-        JsonSchemaValidator schemaValidator = buildSchemaValidator(routes).orElse(null);
+        JsonSchemaValidator schemaValidator = buildSchemaValidator(routes,
+                context.getProperty(RestApiGatewayConstants.Properties.SCHEMA_MAX_VIOLATIONS).asInteger())
+                .orElse(null);
 
         // Pre-create shared event counters so all handlers + dispatcher share them.
         // Held as fields so onTrigger can bridge their cumulative counts to NiFi counters.
@@ -311,17 +501,33 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
         // republishes from the freshly-zeroed counters without spurious deltas.
         lastPublishedCounts.clear();
 
+        if (schemaValidator != null
+                && context.getProperty(RestApiGatewayConstants.Properties.SCHEMA_HOT_RELOAD).asBoolean()) {
+            this.schemaFileWatcher = createSchemaFileWatcher(schemaValidator, gatewaySecurityEvents);
+        }
+
         // Resolve optional DistributedMapCacheClient for request tracking
         DistributedMapCacheClient cacheClient = context.getProperty(
                 RestApiGatewayConstants.Properties.DISTRIBUTED_MAP_CACHE_CLIENT)
                 .asControllerService(DistributedMapCacheClient.class);
-        RequestStatusStore statusStore = (cacheClient != null) ? new RequestStatusStore(cacheClient) : null;
+        GuardedMapCacheClient guardedCacheClient = (cacheClient != null) ? createCacheGuard(context, cacheClient) : null;
+        RequestStatusStore statusStore = (guardedCacheClient != null)
+                ? createStatusStore(context, guardedCacheClient) : null;
+        this.cacheGuard = guardedCacheClient;
         this.trackingStore = statusStore;
 
+        int sanitizationCacheSize = context.getProperty(
+                RestApiGatewayConstants.Properties.SANITIZATION_CACHE_SIZE).asInteger();
+        // The two cache generations need at least one entry each
+        SanitizationCache sanitizationCache = (sanitizationCacheSize > 0)
+                ? new SanitizationCache(Math.max(2, sanitizationCacheSize)) : null;
+
         // Build endpoint handlers: built-in management first, then user routes
         List<EndpointHandler> handlers = new ArrayList<>(List.of(
-                createHealthHandler(context),
-                createMetricsHandler(context, configService, httpSecurityEvents, gatewaySecurityEvents)));
+                createHealthHandler(context, guardedCacheClient),
+                createMetricsHandler(context, configService, httpSecurityEvents, gatewaySecurityEvents,
+                        statusStore instanceof WriteBehindStatusStore writeBehind ? writeBehind : null,
+                        guardedCacheClient, sanitizationCache, concurrencyLimiter)));
         if (statusStore != null) {
             handlers.add(createStatusHandler(context, statusStore));
         }
@@ -331,19 +537,40 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
                 RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_HARD_LIMIT).asInteger();
         validateAndRegisterAttachmentRoutes(routes, hardLimit);
 
+        TraceIdGenerator traceIdGenerator = createTraceIdGenerator(context);
+
         // Attachments endpoint (only if cache client is available)
+        AttachmentWindowTimer windowTimer = null;
+        AttachmentCounter counter = null;
         if (statusStore != null) {
-            handlers.add(createAttachmentsHandler(context, statusStore, gatewaySecurityEvents));
+            this.attachmentAggregator = createAttachmentAggregator(context, routes, statusStore, hardLimit);
+            counter = createAttachmentCounter(context, statusStore);
+            handlers.add(createAttachmentsHandler(context, routes, statusStore, counter, gatewaySecurityEvents,
+                    traceIdGenerator));
             routeToOutcome.put(AttachmentsEndpointHandler.ATTACHMENTS_ROUTE_NAME, "attachments");
             dynamicRelationships.put("attachments", RestApiGatewayConstants.Relationships.ATTACHMENTS);
+            windowTimer = createAttachmentWindowTimer(routes);
+            if (windowTimer != null) {
+                dynamicRelationships.put(RestApiGatewayConstants.Relationships.ATTACHMENTS_TIMEOUT.getName(),
+                        RestApiGatewayConstants.Relationships.ATTACHMENTS_TIMEOUT);
+            }
         }
-
-        // User route handlers — pass the attachments hard limit so ApiRouteHandler can resolve the
-        // C1 fallback (attachments-max-count = 0 ⇒ hard limit) at registration time.
-        for (RouteConfiguration route : routes) {
-            handlers.add(new ApiRouteHandler(route, requestQueue, maxRequestSize,
-                    schemaValidator, gatewaySecurityEvents, statusStore, hardLimit));
-        }
+        this.attachmentCounter = counter;
+        this.attachmentWindowTimer = windowTimer;
+        expiredWindows.clear();
+        expiredRequests.clear();
+
+        this.requestBatcher = createRequestBatcher(routes);
+        this.idempotencyStore = createIdempotencyStore(context, statusStore);
+        routeToMaxQueueAge.clear();
+        routeToMaxQueueAge.putAll(maxQueueAges(routes));
+        this.batchWriterFactory = context.getProperty(RestApiGatewayConstants.Properties.BATCH_RECORD_WRITER)
+                .asControllerService(RecordSetWriterFactory.class);
+
+        List<EndpointHandler> managementHandlers = List.copyOf(handlers);
+        UploadSpool uploadSpool = (statusStore != null) ? createUploadSpool(context, routes, statusStore) : null;
+        handlers.addAll(createRouteHandlers(context, routes, schemaValidator, gatewaySecurityEvents, statusStore,
+                traceIdGenerator, uploadSpool));
 
         // Build the configured forwarded-header resolver from the full proxy config surface
         // (secure by default: with no opt-in nothing is honored, so a direct client on the
@@ -367,8 +594,17 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
                 securityConfigPreset);
 
         boolean contextPathHonoringConfigured = trustAllProxyContextPaths || !allowedContextPaths.isEmpty();
+        this.accessLog = createAccessLog(context);
         var gatewayHandler = new GatewayRequestHandler(handlers, configService, maxRequestSize,
-                httpSecurityEvents, gatewaySecurityEvents, forwardedResolver, contextPathHonoringConfigured);
+                GatewayRequestHandler.Options.builder()
+                        .httpSecurityEvents(httpSecurityEvents)
+                        .gatewaySecurityEvents(gatewaySecurityEvents)
+                        .forwardedResolver(forwardedResolver)
+                        .contextPathHonoringConfigured(contextPathHonoringConfigured)
+                        .accessLog(accessLog)
+                        .sanitizationCache(sanitizationCache)
+                        .concurrencyLimiter(concurrencyLimiter)
+                        .build());
 
         // Resolve optional SSL context for HTTPS
         SSLContextProvider sslProvider = context.getProperty(
@@ -380,10 +616,159 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
         String host = context.getProperty(RestApiGatewayConstants.Properties.LISTENING_HOST).getValue();
 
         serverManager.start(port, host, gatewayHandler, sslContext);
+        liveRouting.set(new LiveRouting(gatewayHandler, managementHandlers, routes, configManager,
+                traceIdGenerator, uploadSpool));
+        nextRouteReloadCheck.set(System.nanoTime()
+                + context.getProperty(RestApiGatewayConstants.Properties.ROUTE_RELOAD_INTERVAL)
+                .asTimePeriod(TimeUnit.NANOSECONDS));
 
         LOGGER.info(RestApiLogMessages.INFO.PROCESSOR_INITIALIZED);
     }
 
+    /**
+     * Creates the handlers of the user routes (and their resumable-upload endpoints). Pass the
+     * attachments hard limit so ApiRouteHandler can resolve the C1 fallback
+     * (attachments-max-count = 0 ⇒ hard limit) at registration time.
+     */
+    private List<EndpointHandler> createRouteHandlers(ProcessContext context, List<RouteConfiguration> routes,
+            @Nullable JsonSchemaValidator schemaValidator, GatewaySecurityEvents gatewaySecurityEvents,
+            @Nullable RequestStatusStore statusStore, TraceIdGenerator traceIdGenerator,
+            @Nullable UploadSpool uploadSpool) {
+        int maxRequestSize = context.getProperty(RestApiGatewayConstants.Properties.MAX_REQUEST_SIZE).asInteger();
+        int hardLimit = context.getProperty(
+                RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_HARD_LIMIT).asInteger();
+        List<EndpointHandler> handlers = new ArrayList<>();
+        for (RouteConfiguration route : routes) {
+            handlers.add(new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                    .route(route)
+                    .queue(requestQueue)
+                    .globalMaxRequestSize(maxRequestSize)
+                    .schemaValidator(schemaValidator)
+                    .gatewaySecurityEvents(gatewaySecurityEvents)
+                    .statusStore(statusStore)
+                    .attachmentsHardLimit(hardLimit)
+                    .windowTimer(attachmentWindowTimer)
+                    .traceIdGenerator(traceIdGenerator)
+                    .idempotencyStore(idempotencyStore)
+                    .build()));
+            if (uploadSpool != null && route.resumableUploads()) {
+                handlers.add(new ResumableUploadHandler(ResumableUploadHandler.Config.builder()
+                        .route(route)
+                        .statusStore(statusStore)
+                        .spool(uploadSpool)
+                        .queue(requestQueue)
+                        .globalMaxRequestSize(maxRequestSize)
+                        .maxUploadSize(context.getProperty(RestApiGatewayConstants.Properties.UPLOADS_MAX_SIZE)
+                                .asDataSize(DataUnit.B).longValue())
+                        .gatewaySecurityEvents(gatewaySecurityEvents)
+                        .httpSecurityEvents(httpSecurityEvents.get())
+                        .build()));
+            }
+        }
+        return handlers;
+    }
+
+    /**
+     * Checks the external configuration file at most once per reload interval and applies changed
+     * route definitions to the running server.
+     */
+    private void reloadRoutesIfDue(ProcessContext context) {
+        LiveRouting live = liveRouting.get();
+        if (live == null) {
+            return;
+        }
+        long interval = context.getProperty(RestApiGatewayConstants.Properties.ROUTE_RELOAD_INTERVAL)
+                .asTimePeriod(TimeUnit.NANOSECONDS);
+        long now = System.nanoTime();
+        long due = nextRouteReloadCheck.get();
+        if (interval <= 0 || now - due < 0 || !nextRouteReloadCheck.compareAndSet(due, now + interval)) {
+            return;
+        }
+        if (live.configManager().checkAndReloadConfiguration()) {
+            applyRouteReload(context, live);
+        }
+    }
+
+    /**
+     * Rebuilds the route handlers and the schema validator from the reloaded configuration and swaps
+     * them into the running dispatcher. The listening connector, the request queue and all
+     * processor-owned state stay as they are, so the reload is only applied when every route keeps
+     * its name, relationship and stateful settings (see {@link RouteConfiguration#isLiveReloadableFrom});
+     * anything else still needs a stop/start.
+     */
+    private void applyRouteReload(ProcessContext context, LiveRouting live) {
+        Map<String, String> allProperties = new HashMap<>(getExternalRouteProperties(live.configManager()));
+        context.getProperties().forEach((key, value) -> allProperties.put(key.getName(), value));
+        List<RouteConfiguration> routes = RouteConfigurationParser.parse(allProperties);
+        Optional<String> restartRequired = findRestartRequiredRoute(live.routes(), routes);
+        if (restartRequired.isPresent()) {
+            LOGGER.warn(RestApiLogMessages.WARN.ROUTE_RELOAD_REQUIRES_RESTART, restartRequired.get());
+            return;
+        }
+        GatewaySecurityEvents events = gatewaySecurityEvents.get();
+        JsonSchemaValidator schemaValidator;
+        Map<String, Long> maxQueueAges;
+        try {
+            maxQueueAges = maxQueueAges(routes);
+            schemaValidator = buildSchemaValidator(routes,
+                    context.getProperty(RestApiGatewayConstants.Properties.SCHEMA_MAX_VIOLATIONS).asInteger())
+                    .orElse(null);
+            List<EndpointHandler> handlers = new ArrayList<>(live.managementHandlers());
+            handlers.addAll(createRouteHandlers(context, routes, schemaValidator, events, trackingStore,
+                    live.traceIdGenerator(), live.uploadSpool()));
+            live.gateway().replaceHandlers(handlers);
+        } catch (RuntimeException e) {
+            // RuntimeException: unreadable schema files (IllegalStateException), uncompilable schemas
+            // and duplicate paths (IllegalArgumentException) — as well as invalid max queue ages
+            // (ProcessException) — must all keep the running routes in place
+            LOGGER.warn(RestApiLogMessages.WARN.ROUTE_RELOAD_FAILED, e.getMessage());
+            return;
+        }
+
+        SchemaFileWatcher previousWatcher = this.schemaFileWatcher;
+        this.schemaFileWatcher = (schemaValidator != null
+                && context.getProperty(RestApiGatewayConstants.Properties.SCHEMA_HOT_RELOAD).asBoolean())
+                ? createSchemaFileWatcher(schemaValidator, events) : null;
+        if (previousWatcher != null) {
+            previousWatcher.close();
+        }
+        // Route names are unchanged, so every projection entry is overwritten or removed — no clear()
+        // that onTrigger could observe half-way
+        for (RouteConfiguration route : routes) {
+            if (route.createFlowFile() && !route.claimProjection().isUnrestricted()) {
+                routeToClaimProjection.put(route.name(), route.claimProjection());
+            } else {
+                routeToClaimProjection.remove(route.name());
+            }
+            Long maxQueueAge = maxQueueAges.get(route.name());
+            if (maxQueueAge != null) {
+                routeToMaxQueueAge.put(route.name(), maxQueueAge);
+            } else {
+                routeToMaxQueueAge.remove(route.name());
+            }
+        }
+        liveRouting.set(live.withRoutes(routes));
+        LOGGER.info(RestApiLogMessages.INFO.ROUTES_RELOADED, routes.size(),
+                routes.stream().map(RouteConfiguration::name).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * @return the name of the first route that was added, removed or changed in a way a running
+     *         gateway cannot apply; empty if the reloaded routes can be swapped in
+     */
+    private static Optional<String> findRestartRequiredRoute(List<RouteConfiguration> current,
+            List<RouteConfiguration> reloaded) {
+        Map<String, RouteConfiguration> remaining = new HashMap<>();
+        current.forEach(route -> remaining.put(route.name(), route));
+        for (RouteConfiguration route : reloaded) {
+            RouteConfiguration previous = remaining.remove(route.name());
+            if (previous == null || !route.isLiveReloadableFrom(previous)) {
+                return Optional.of(route.name());
+            }
+        }
+        return remaining.keySet().stream().findFirst();
+    }
+
     /**
      * Parses the comma-separated trusted-proxies property into a set of trimmed, non-blank
      * IP / CIDR specs. A {@code null} or blank value yields an empty set (secure default: no
@@ -407,6 +792,40 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
         return trustedProxies;
     }
 
+    /**
+     * Wraps the configured cache client with per-call deadlines and a circuit breaker, so a hanging
+     * cache server fails requests fast with 503 instead of blocking the Jetty threads.
+     */
+    private static GuardedMapCacheClient createCacheGuard(ProcessContext context, DistributedMapCacheClient cacheClient) {
+        long callTimeoutMillis = context.getProperty(RestApiGatewayConstants.Properties.CACHE_CALL_TIMEOUT)
+                .asTimePeriod(TimeUnit.MILLISECONDS);
+        long openMillis = context.getProperty(RestApiGatewayConstants.Properties.CACHE_CIRCUIT_OPEN_DURATION)
+                .asTimePeriod(TimeUnit.MILLISECONDS);
+        var breaker = new CacheCircuitBreaker(
+                context.getProperty(RestApiGatewayConstants.Properties.CACHE_CIRCUIT_FAILURE_THRESHOLD).asInteger(),
+                Duration.ofMillis(Math.max(1L, openMillis)));
+        return GuardedMapCacheClient.wrap(cacheClient, breaker, Duration.ofMillis(Math.max(1L, callTimeoutMillis)));
+    }
+
+    /**
+     * Creates the tracking store: a {@link WriteBehindStatusStore} with a running flush thread when a
+     * write-behind buffer is configured, otherwise a synchronous {@link RequestStatusStore}.
+     */
+    private static RequestStatusStore createStatusStore(ProcessContext context, DistributedMapCacheClient cacheClient) {
+        int bufferSize = context.getProperty(
+                RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_WRITE_BEHIND_BUFFER_SIZE).asInteger();
+        if (bufferSize <= 0) {
+            return new RequestStatusStore(cacheClient);
+        }
+        long flushIntervalMillis = context.getProperty(
+                RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_WRITE_BEHIND_FLUSH_INTERVAL)
+                .asTimePeriod(TimeUnit.MILLISECONDS);
+        var store = new WriteBehindStatusStore(cacheClient, bufferSize,
+                Duration.ofMillis(Math.max(1L, flushIntervalMillis)));
+        store.start();
+        return store;
+    }
+
     private StatusEndpointHandler createStatusHandler(ProcessContext context,
             RequestStatusStore statusStore) {
         return new StatusEndpointHandler(statusStore,
@@ -431,6 +850,10 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
             LOGGER.info(RestApiLogMessages.INFO.ROUTE_ATTACHMENTS_BOUNDS,
                     route.name(), route.attachmentsMinCount(), route.attachmentsMaxCount(),
                     effectiveMax, hardLimit);
+            if (route.aggregateAttachments()) {
+                // Assembled by the gateway — no Wait/Notify attributes needed downstream
+                continue;
+            }
             if (route.attachmentsTimeout() != null) {
                 routeToAttachmentsTimeout.put(route.name(), route.attachmentsTimeout());
             }
@@ -441,7 +864,8 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
     }
 
     private AttachmentsEndpointHandler createAttachmentsHandler(ProcessContext context,
-            RequestStatusStore statusStore, GatewaySecurityEvents gatewaySecurityEvents) {
+            List<RouteConfiguration> routes, RequestStatusStore statusStore, AttachmentCounter counter,
+            GatewaySecurityEvents gatewaySecurityEvents, TraceIdGenerator traceIdGenerator) {
         var config = AttachmentsEndpointHandler.Config.builder()
                 .statusStore(statusStore)
                 .queue(requestQueue)
@@ -456,23 +880,239 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
                 .requiredScopes(parseCommaSeparated(context.getProperty(
                         RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_REQUIRED_SCOPES).getValue()))
                 .gatewaySecurityEvents(gatewaySecurityEvents)
+                .attachmentCounter(counter)
+                .aggregatingRoutes(routes.stream()
+                        .filter(RouteConfiguration::aggregateAttachments)
+                        .map(RouteConfiguration::name)
+                        .collect(Collectors.toSet()))
+                .traceIdGenerator(traceIdGenerator)
+                .maxParts(context.getProperty(
+                        RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_MAX_PARTS).asInteger())
                 .build();
         return new AttachmentsEndpointHandler(config);
     }
 
-    private HealthEndpointHandler createHealthHandler(ProcessContext context) {
-        return new HealthEndpointHandler(
+    @Nullable
+    private static AccessLog createAccessLog(ProcessContext context) {
+        String directory = context.getProperty(RestApiGatewayConstants.Properties.ACCESS_LOG_DIRECTORY).getValue();
+        if (directory == null || directory.isBlank()) {
+            return null;
+        }
+        try {
+            return new AccessLog(Path.of(directory),
+                    context.getProperty(RestApiGatewayConstants.Properties.ACCESS_LOG_BUFFER_SIZE).asInteger(),
+                    context.getProperty(RestApiGatewayConstants.Properties.ACCESS_LOG_SAMPLE_PERCENT).asInteger(),
+                    context.getProperty(RestApiGatewayConstants.Properties.ACCESS_LOG_MAX_FILE_SIZE)
+                            .asDataSize(DataUnit.B).longValue(),
+                    context.getProperty(RestApiGatewayConstants.Properties.ACCESS_LOG_MAX_FILES).asInteger());
+        } catch (IOException e) {
+            throw new ProcessException("Cannot create access log directory " + directory, e);
+        }
+    }
+
+    private static TraceIdGenerator createTraceIdGenerator(ProcessContext context) {
+        String format = context.getProperty(RestApiGatewayConstants.Properties.TRACE_ID_FORMAT).getValue();
+        if (RestApiGatewayConstants.Properties.TRACE_ID_FORMAT_TIME_ORDERED.equals(format)) {
+            return TraceIdGenerator.timeOrdered();
+        }
+        return TraceIdGenerator.random();
+    }
+
+    private static AttachmentCounter createAttachmentCounter(ProcessContext context,
+            RequestStatusStore statusStore) {
+        int maxEntries = context.getProperty(
+                RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_MAX_ENTRIES).asInteger();
+        Duration expiry = Duration.ofMillis(context.getProperty(
+                RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_EXPIRY)
+                .asTimePeriod(TimeUnit.MILLISECONDS));
+        String mode = context.getProperty(
+                RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_MODE).getValue();
+        if (RestApiGatewayConstants.Properties.ATTACHMENTS_COUNTER_MODE_DISTRIBUTED.equals(mode)) {
+            int leaseSize = context.getProperty(
+                    RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_LEASE_SIZE).asInteger();
+            return new DistributedAttachmentCounter(statusStore, leaseSize, maxEntries, expiry);
+        }
+        return new LocalAttachmentCounter(maxEntries, expiry);
+    }
+
+    /**
+     * Creates the attachment aggregator when any route enables {@code aggregate-attachments}.
+     * Each route's window uses its minimum count, its effective maximum (falling back to the hard
+     * limit) and its {@code attachments-timeout}.
+     *
+     * @return the aggregator, or {@code null} when no route aggregates attachments
+     */
+    private static AttachmentAggregator createAttachmentAggregator(ProcessContext context,
+            List<RouteConfiguration> routes, RequestStatusStore statusStore, int hardLimit) {
+        Map<String, AttachmentAggregator.Window> windows = new HashMap<>();
+        for (RouteConfiguration route : routes) {
+            if (!route.aggregateAttachments()) {
+                continue;
+            }
+            int effectiveMax = route.attachmentsMaxCount() > 0 ? route.attachmentsMaxCount() : hardLimit;
+            windows.put(route.name(), new AttachmentAggregator.Window(route.attachmentsMinCount(), effectiveMax,
+                    attachmentsWindow(route)));
+        }
+        if (windows.isEmpty()) {
+            return null;
+        }
+        Path directory = Path.of(context.getProperty(
+                RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_AGGREGATION_DIRECTORY).getValue());
+        try {
+            return new AttachmentAggregator(directory, windows, statusStore);
+        } catch (IOException e) {
+            throw new ProcessException("Cannot prepare attachment aggregation directory " + directory, e);
+        }
+    }
+
+    /**
+     * Creates the attachment window timer for the {@code tracking-mode=attachments} routes that do not
+     * aggregate (the aggregator times out its own groups).
+     *
+     * @return the timer, or {@code null} when no such route exists
+     */
+    private static AttachmentWindowTimer createAttachmentWindowTimer(List<RouteConfiguration> routes) {
+        Map<String, Duration> windows = new HashMap<>();
+        for (RouteConfiguration route : routes) {
+            if (route.trackingMode() == TrackingMode.ATTACHMENTS && !route.aggregateAttachments()) {
+                windows.put(route.name(), attachmentsWindow(route));
+            }
+        }
+        return windows.isEmpty() ? null : new AttachmentWindowTimer(windows);
+    }
+
+    /**
+     * Creates the record batcher for the routes with {@code batch-max-records}.
+     *
+     * @return the batcher, or {@code null} when no route batches
+     */
+    private static RequestBatcher createRequestBatcher(List<RouteConfiguration> routes) {
+        Map<String, RequestBatcher.Limits> limits = new HashMap<>();
+        for (RouteConfiguration route : routes) {
+            if (route.isBatched()) {
+                Duration maxWait = parseDuration(route, "batch-max-wait", route.batchMaxWait());
+                limits.put(route.name(), new RequestBatcher.Limits(route.batchMaxRecords(), route.batchMaxBytes(),
+                        maxWait));
+                LOGGER.info(RestApiLogMessages.INFO.RECORD_BATCHING_ENABLED, route.name(),
+                        route.batchMaxRecords(), route.batchMaxBytes(), route.batchMaxWait());
+            }
+        }
+        return limits.isEmpty() ? null : new RequestBatcher(limits);
+    }
+
+    /**
+     * Resolves the max queue age of the routes that set one.
+     *
+     * @return route name → max queue age in nanoseconds
+     */
+    private static Map<String, Long> maxQueueAges(List<RouteConfiguration> routes) {
+        Map<String, Long> maxQueueAges = new HashMap<>();
+        for (RouteConfiguration route : routes) {
+            if (route.hasMaxQueueAge()) {
+                maxQueueAges.put(route.name(), parseDuration(route, "max-queue-age", route.maxQueueAge()).toNanos());
+            }
+        }
+        return maxQueueAges;
+    }
+
+    private static Duration attachmentsWindow(RouteConfiguration route) {
+        return parseDuration(route, "attachments-timeout", route.attachmentsTimeout());
+    }
+
+    private static Duration parseDuration(RouteConfiguration route, String key, @Nullable String value) {
+        try {
+            return Duration.ofMillis(DurationFormat.getTimeDuration(
+                    value != null ? value : "", TimeUnit.MILLISECONDS));
+        } catch (IllegalArgumentException e) {
+            throw new ProcessException("Route '%s' has an invalid %s '%s'"
+                    .formatted(route.name(), key, value), e);
+        }
+    }
+
+    /**
+     * Creates the resumable upload spool when any route enables resumable uploads, and removes the
+     * uploads that expired while the processor was stopped.
+     *
+     * @return the spool, or {@code null} when no route uses resumable uploads
+     */
+    private static UploadSpool createUploadSpool(ProcessContext context, List<RouteConfiguration> routes,
+            RequestStatusStore statusStore) {
+        if (routes.stream().noneMatch(RouteConfiguration::resumableUploads)) {
+            return null;
+        }
+        Path directory = Path.of(context.getProperty(
+                RestApiGatewayConstants.Properties.UPLOADS_SPOOL_DIRECTORY).getValue());
+        Duration expiry = Duration.ofMillis(context.getProperty(
+                RestApiGatewayConstants.Properties.UPLOADS_EXPIRY).asTimePeriod(TimeUnit.MILLISECONDS));
+        UploadSpool spool;
+        try {
+            spool = new UploadSpool(directory, expiry);
+        } catch (IOException e) {
+            throw new ProcessException("Cannot create resumable upload spool directory " + directory, e);
+        }
+        spool.sweepExpired(statusStore, Instant.now());
+        return spool;
+    }
+
+    private HealthEndpointHandler createHealthHandler(ProcessContext context,
+            @Nullable GuardedMapCacheClient guardedCacheClient) {
+        return new HealthEndpointHandler(guardedCacheClient,
                 context.getProperty(RestApiGatewayConstants.Properties.MANAGEMENT_HEALTH_ENABLED).asBoolean(),
                 AuthMode.fromValues(context.getProperty(RestApiGatewayConstants.Properties.MANAGEMENT_HEALTH_AUTH_MODE).getValue()),
                 parseCommaSeparated(context.getProperty(RestApiGatewayConstants.Properties.MANAGEMENT_HEALTH_REQUIRED_ROLES).getValue()),
                 parseCommaSeparated(context.getProperty(RestApiGatewayConstants.Properties.MANAGEMENT_HEALTH_REQUIRED_SCOPES).getValue()));
     }
 
+    /**
+     * Creates the store behind Idempotency-Key support. Validation guarantees a status store when the
+     * distributed store is configured.
+     *
+     * @return the store, or {@code null} when idempotency is disabled
+     */
+    private static IdempotencyStore createIdempotencyStore(ProcessContext context,
+            @Nullable RequestStatusStore statusStore) {
+        long ttlMillis = context.getProperty(RestApiGatewayConstants.Properties.IDEMPOTENCY_TTL)
+                .asTimePeriod(TimeUnit.MILLISECONDS);
+        if (ttlMillis <= 0) {
+            return null;
+        }
+        String store = context.getProperty(RestApiGatewayConstants.Properties.IDEMPOTENCY_STORE).getValue();
+        LOGGER.info(RestApiLogMessages.INFO.IDEMPOTENCY_ENABLED, store, ttlMillis);
+        Duration ttl = Duration.ofMillis(ttlMillis);
+        if (statusStore != null && RestApiGatewayConstants.Properties.IDEMPOTENCY_STORE_DISTRIBUTED.equals(store)) {
+            return new DistributedIdempotencyStore(statusStore, ttl);
+        }
+        return new LocalIdempotencyStore(context.getProperty(
+                RestApiGatewayConstants.Properties.IDEMPOTENCY_MAX_ENTRIES).asInteger(), ttl);
+    }
+
+    /**
+     * Creates the adaptive concurrency limit on the request queue.
+     *
+     * @return the limiter, or {@code null} when load shedding is disabled
+     */
+    private static AdaptiveConcurrencyLimiter createConcurrencyLimiter(ProcessContext context,
+            LinkedBlockingQueue<HttpRequestContainer> queue, int queueSize) {
+        long targetWaitNanos = context.getProperty(RestApiGatewayConstants.Properties.LOAD_SHEDDING_TARGET_QUEUE_WAIT)
+                .asTimePeriod(TimeUnit.NANOSECONDS);
+        if (targetWaitNanos <= 0) {
+            return null;
+        }
+        LOGGER.info(RestApiLogMessages.INFO.LOAD_SHEDDING_ENABLED,
+                TimeUnit.NANOSECONDS.toMillis(targetWaitNanos), queueSize);
+        return new AdaptiveConcurrencyLimiter(queue::size, queueSize, targetWaitNanos);
+    }
+
     private MetricsEndpointHandler createMetricsHandler(ProcessContext context,
             JwtIssuerConfigService configService,
             SecurityEventCounter httpSecurityEvents,
-            GatewaySecurityEvents gatewaySecurityEvents) {
-        return new MetricsEndpointHandler(configService, httpSecurityEvents, gatewaySecurityEvents,
+            GatewaySecurityEvents gatewaySecurityEvents,
+            @Nullable WriteBehindStatusStore writeBehindStore,
+            @Nullable GuardedMapCacheClient guardedCacheClient,
+            @Nullable SanitizationCache sanitizationCache,
+            @Nullable AdaptiveConcurrencyLimiter limiter) {
+        return new MetricsEndpointHandler(configService, httpSecurityEvents, gatewaySecurityEvents, writeBehindStore,
+                guardedCacheClient, sanitizationCache, limiter,
                 context.getProperty(RestApiGatewayConstants.Properties.MANAGEMENT_METRICS_ENABLED).asBoolean(),
                 AuthMode.fromValues(context.getProperty(RestApiGatewayConstants.Properties.MANAGEMENT_METRICS_AUTH_MODE).getValue()),
                 parseCommaSeparated(context.getProperty(RestApiGatewayConstants.Properties.MANAGEMENT_METRICS_REQUIRED_ROLES).getValue()),
@@ -484,8 +1124,29 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
         // Bridge gateway metric counts to NiFi-native counters before any early return,
         // so idle ticks (no queued request) still flush newly-accumulated event deltas.
         publishCounterDeltas(session);
+        reloadRoutesIfDue(context);
+        expireAttachmentWindows(session);
+        finishExpiredRequests();
+        AttachmentCounter counter = this.attachmentCounter;
+        if (counter != null) {
+            counter.drainEvicted(MAX_SLOT_RETURNS_PER_TRIGGER);
+        }
 
-        HttpRequestContainer container = requestQueue.poll();
+        HttpRequestContainer container = nextContainer();
+        RequestBatcher batcher = this.requestBatcher;
+        if (batcher != null) {
+            batcher.pollExpired().forEach(batch -> emitBatch(session, batch));
+            // Batched requests only append a record, so absorb a run of them in one trigger
+            int absorbed = 0;
+            while (container != null && batcher.isBatched(container)) {
+                batcher.add(container).forEach(batch -> emitBatch(session, batch));
+                absorbed++;
+                container = absorbed < MAX_BATCHED_REQUESTS_PER_TRIGGER ? nextContainer() : null;
+            }
+            if (container == null && absorbed > 0) {
+                return;
+            }
+        }
         if (container == null) {
             context.yield();
             return;
@@ -523,18 +1184,17 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
                     attributes.put(RestApiAttributes.QUERY_PARAM_PREFIX + key, value));
 
             // Set sanitized request headers (Authorization is excluded upstream);
-            // header names are lowercased for deterministic attribute keys.
-            // Null values are skipped — FlowFile attributes reject null.
-            container.headers().forEach((name, value) -> {
-                if (value != null) {
-                    attributes.put(RestApiAttributes.HEADER_PREFIX + name.toLowerCase(Locale.ROOT), value);
-                }
-            });
+            // the header map hands over the names already lowercased for deterministic attribute keys.
+            HeaderMap.copyOf(container.headers()).forEachNormalized((name, value) ->
+                    attributes.put(RestApiAttributes.HEADER_PREFIX + name, value));
 
             // Set path parameters extracted from a pattern-matched route
             container.pathParameters().forEach((key, value) ->
                     attributes.put(RestApiAttributes.PATH_PARAM_PREFIX + key, value));
 
+            // Set handler-contributed attributes (e.g. multipart part metadata)
+            attributes.putAll(container.attributes());
+
             // Set trace ID attributes for request tracking
             if (container.traceId() != null) {
                 attributes.put(RestApiAttributes.TRACE_ID, container.traceId());
@@ -557,15 +1217,19 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
             // Map JWT claims (guard against null token for unauthenticated routes)
             var token = container.token();
             if (token != null) {
-                attributes.putAll(TokenClaimMapper.mapToAttributes(token));
+                putClaimAttributes(attributes, TokenClaimMapper.mapToAttributes(token),
+                        routeToClaimProjection.get(container.routeName()));
             }
 
             attributes.put(RestApiAttributes.ROUTE_OUTCOME, outcome);
 
             flowFile = session.putAllAttributes(flowFile, attributes);
 
-            // Write body content
-            if (container.body().length > 0) {
+            // Write body content — a spooled body (completed resumable upload) is imported from disk
+            // and consumed on commit instead of being copied through the heap
+            if (container.spooledBody() != null) {
+                flowFile = session.importFrom(container.spooledBody(), false, flowFile);
+            } else if (container.body().length > 0) {
                 flowFile = session.write(flowFile, out -> out.write(container.body()));
             }
 
@@ -581,7 +1245,7 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
             }
             session.transfer(flowFile, target);
 
-            LOGGER.info(RestApiLogMessages.INFO.FLOWFILE_CREATED, container.routeName(), container.body().length);
+            LOGGER.debug("FlowFile created for route '%s' with %s bytes content", container.routeName(), flowFile.getSize());
 
         } catch (ProcessException | FlowFileAccessException e) {
             // FlowFileAccessException (thrown by session.write on an I/O failure) does NOT extend
@@ -601,6 +1265,249 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * Writes a closed batch as one FlowFile of records through the Batch Record Writer and routes it to
+     * the route's outcome relationship. A batch that cannot be written is reported on {@code failure}.
+     */
+    private void emitBatch(ProcessSession session, RequestBatcher.Batch batch) {
+        FlowFile flowFile = null;
+        try {
+            String outcome = routeToOutcome.get(batch.routeName());
+            Relationship target = outcome != null ? dynamicRelationships.get(outcome) : null;
+            RecordSetWriterFactory writerFactory = this.batchWriterFactory;
+            if (target == null || writerFactory == null) {
+                throw new ProcessException(
+                        "No outcome relationship or record writer for batched route '%s' — internal state inconsistency"
+                                .formatted(batch.routeName()));
+            }
+
+            Map<String, String> attributes = new HashMap<>();
+            attributes.put(RestApiAttributes.ROUTE_NAME, batch.routeName());
+            attributes.put(RestApiAttributes.ROUTE_OUTCOME, outcome);
+
+            flowFile = session.create();
+            flowFile = session.write(flowFile, out -> {
+                try (RecordSetWriter writer = writerFactory.createWriter(getLogger(),
+                        writerFactory.getSchema(attributes, RequestBatcher.SCHEMA), out, attributes)) {
+                    writer.beginRecordSet();
+                    for (Record batched : batch.records()) {
+                        writer.write(batched);
+                    }
+                    WriteResult result = writer.finishRecordSet();
+                    attributes.putAll(result.getAttributes());
+                    attributes.put(RestApiAttributes.RECORD_COUNT, String.valueOf(result.getRecordCount()));
+                    attributes.put(RestApiAttributes.CONTENT_TYPE, writer.getMimeType());
+                } catch (SchemaNotFoundException e) {
+                    throw new ProcessException(e.getMessage(), e);
+                }
+            });
+            flowFile = session.putAllAttributes(flowFile, attributes);
+
+            session.getProvenanceReporter().receive(flowFile, "rest-gateway://" + batch.routeName(),
+                    "Batch of " + batch.records().size() + " requests");
+            session.transfer(flowFile, target);
+        } catch (ProcessException | FlowFileAccessException e) {
+            LOGGER.error(e, RestApiLogMessages.ERROR.BATCH_WRITE_FAILED, batch.records().size(), batch.routeName(),
+                    e.getMessage());
+            if (flowFile != null) {
+                session.remove(flowFile);
+            }
+            FlowFile errorFile = session.create();
+            errorFile = session.putAttribute(errorFile, "error.message", String.valueOf(e.getMessage()));
+            session.transfer(errorFile, RestApiGatewayConstants.Relationships.FAILURE);
+        }
+    }
+
+    /**
+     * Advances the attachment window timer and expires the parents it reports: a parent still
+     * {@code COLLECTING_ATTACHMENTS} moves to {@code EXPIRED} (a conditional transition, so a parent
+     * that met its minimum meanwhile is left alone), its attachment counter is released, and an empty
+     * FlowFile describing it is routed to {@code attachments.timeout}.
+     */
+    private void expireAttachmentWindows(ProcessSession session) {
+        AttachmentWindowTimer timer = this.attachmentWindowTimer;
+        RequestStatusStore store = this.trackingStore;
+        if (timer == null || store == null) {
+            return;
+        }
+        expiredWindows.addAll(timer.advance());
+        String traceId;
+        for (int handled = 0; handled < MAX_WINDOW_EXPIRIES_PER_TRIGGER
+                && (traceId = expiredWindows.poll()) != null; handled++) {
+            Optional<RequestStatusEntry> expired;
+            try {
+                expired = store.transitionStatus(traceId, RequestStatus.COLLECTING_ATTACHMENTS,
+                        RequestStatus.EXPIRED, "Attachment window expired before the minimum attachment count was reached");
+            } catch (IOException e) {
+                LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+                continue;
+            }
+            expired.ifPresent(entry -> emitWindowExpired(session, entry));
+        }
+    }
+
+    private void emitWindowExpired(ProcessSession session, RequestStatusEntry entry) {
+        AttachmentCounter counter = this.attachmentCounter;
+        if (counter != null) {
+            try {
+                counter.evict(entry.traceId());
+            } catch (IOException e) {
+                LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            }
+        }
+        String routeName = entry.routeName() != null ? entry.routeName() : "";
+        LOGGER.info(RestApiLogMessages.INFO.ATTACHMENT_WINDOW_EXPIRED,
+                entry.traceId(), routeName, entry.attachmentsMinCount());
+
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put(RestApiAttributes.ROUTE_NAME, routeName);
+        attributes.put(RestApiAttributes.TRACE_ID, entry.traceId());
+        attributes.put(RestApiAttributes.TRACE_STATUS, RequestStatus.EXPIRED.name());
+        attributes.put(RestApiAttributes.TRACE_ACCEPTED_AT, entry.acceptedAt().toString());
+        attributes.put(RestApiAttributes.TRACE_ATTACHMENTS_MIN_COUNT, String.valueOf(entry.attachmentsMinCount()));
+        if (entry.parentTraceId() != null) {
+            attributes.put(RestApiAttributes.PARENT_TRACE_ID, entry.parentTraceId());
+        }
+        FlowFile flowFile = session.putAllAttributes(session.create(), attributes);
+        session.transfer(flowFile, RestApiGatewayConstants.Relationships.ATTACHMENTS_TIMEOUT);
+    }
+
+    /**
+     * Returns the next container to emit. With attachment aggregation enabled, a timed-out group
+     * takes precedence; queued containers held by an open group are consumed without emitting.
+     * A container the aggregator fails to spool or assemble is emitted as is.
+     *
+     * @return the container, or {@code null} if there is nothing to emit
+     */
+    private HttpRequestContainer nextContainer() {
+        AttachmentAggregator aggregator = this.attachmentAggregator;
+        if (aggregator == null) {
+            return pollQueue();
+        }
+        try {
+            HttpRequestContainer expired = aggregator.pollExpired();
+            if (expired != null) {
+                return expired;
+            }
+        } catch (IOException e) {
+            // Logged by the aggregator, which also set the parent to ERROR
+            LOGGER.debug("Expired aggregation group dropped: %s", e.getMessage());
+        }
+        HttpRequestContainer container;
+        while ((container = pollQueue()) != null) {
+            try {
+                HttpRequestContainer emitted = aggregator.absorb(container);
+                if (emitted != null) {
+                    return emitted;
+                }
+            } catch (IOException e) {
+                // Logged by the aggregator — deliver the container on its own
+                return container;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes the next request off the queue, reporting its queue wait to the concurrency limiter.
+     * Requests that outlived their queue deadline are dropped on the way: their client has most
+     * likely given up, so turning them into FlowFiles would only spend the backlog on dead work.
+     */
+    private HttpRequestContainer pollQueue() {
+        HttpRequestContainer container;
+        while ((container = requestQueue.poll()) != null) {
+            AdaptiveConcurrencyLimiter limiter = this.concurrencyLimiter;
+            if (limiter != null) {
+                limiter.onDequeued(container.receivedNanos());
+            }
+            long deadlineNanos = queueDeadlineNanos(container);
+            long waitedNanos = System.nanoTime() - container.receivedNanos();
+            if (deadlineNanos <= 0 || waitedNanos <= deadlineNanos) {
+                return container;
+            }
+            dropExpired(container, waitedNanos, deadlineNanos);
+        }
+        return null;
+    }
+
+    /**
+     * The route's max queue age, shortened by a valid {@code X-Request-Timeout-Ms} header.
+     *
+     * @return the deadline in nanoseconds, or {@code 0} when the route sets none
+     */
+    private long queueDeadlineNanos(HttpRequestContainer container) {
+        Long maxQueueAge = routeToMaxQueueAge.get(container.routeName());
+        if (maxQueueAge == null) {
+            return 0;
+        }
+        String timeout = container.headers().get(ApiRouteHandler.X_REQUEST_TIMEOUT_MS);
+        if (timeout == null) {
+            return maxQueueAge;
+        }
+        try {
+            long timeoutMillis = Long.parseLong(timeout.strip());
+            // A non-positive budget is ignored; a budget above the route's age cannot extend it
+            return timeoutMillis > 0
+                    ? Math.min(maxQueueAge, TimeUnit.MILLISECONDS.toNanos(timeoutMillis))
+                    : maxQueueAge;
+        } catch (NumberFormatException e) {
+            return maxQueueAge;
+        }
+    }
+
+    /**
+     * Drops a request that outlived its queue deadline: its spooled body is deleted at once, while
+     * moving its tracking entry from ACCEPTED to EXPIRED — a cache round trip — is left to
+     * {@link #finishExpiredRequests()}, so a backlog of stale requests cannot stall one trigger.
+     */
+    private void dropExpired(HttpRequestContainer container, long waitedNanos, long deadlineNanos) {
+        LOGGER.warn(RestApiLogMessages.WARN.QUEUE_EXPIRED,
+                container.traceId() != null ? container.traceId() : container.requestUri(), container.routeName(),
+                TimeUnit.NANOSECONDS.toMillis(waitedNanos), TimeUnit.NANOSECONDS.toMillis(deadlineNanos));
+        GatewaySecurityEvents events = gatewaySecurityEvents.get();
+        if (events != null) {
+            events.recordQueueExpired(container.routeName());
+        }
+        deleteSpooledBody(container);
+        String uploadId = container.attributes().get(RestApiAttributes.UPLOAD_ID);
+        if (this.trackingStore != null && (container.traceId() != null || uploadId != null)) {
+            expiredRequests.add(new ExpiredRequest(container.traceId(), uploadId,
+                    TimeUnit.NANOSECONDS.toMillis(waitedNanos)));
+        }
+    }
+
+    /**
+     * Finishes the tracking of requests dropped at their queue deadline, at most
+     * {@link #MAX_QUEUE_EXPIRIES_PER_TRIGGER} per trigger: the completed resumable upload is removed
+     * and the tracking entry moves from ACCEPTED to EXPIRED, so a client polling the status endpoint
+     * learns that the request was never processed.
+     */
+    private void finishExpiredRequests() {
+        RequestStatusStore store = this.trackingStore;
+        if (store == null) {
+            return;
+        }
+        ExpiredRequest expired;
+        for (int handled = 0; handled < MAX_QUEUE_EXPIRIES_PER_TRIGGER
+                && (expired = expiredRequests.poll()) != null; handled++) {
+            if (expired.uploadId() != null) {
+                try {
+                    store.removeUpload(expired.uploadId());
+                } catch (IOException e) {
+                    LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+                }
+            }
+            if (expired.traceId() != null) {
+                try {
+                    store.transitionStatus(expired.traceId(), RequestStatus.ACCEPTED, RequestStatus.EXPIRED,
+                            "Request expired after %d ms in the gateway queue".formatted(expired.waitedMillis()));
+                } catch (IOException e) {
+                    LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+                }
+            }
+        }
+    }
+
     /**
      * Bridges the gateway's three internal event sources to NiFi-native counters.
      * <p>
@@ -671,6 +1578,7 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
 
     @OnStopped
     public void onStopped() {
+        liveRouting.set(null);
         serverManager.stop();
 
         int drained = 0;
@@ -680,20 +1588,66 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
             drained = pending.size();
             removeTrackedEntries(pending);
         }
+        AttachmentAggregator aggregator = this.attachmentAggregator;
+        if (aggregator != null) {
+            removeTrackedTraceIds(aggregator.discardAll());
+            this.attachmentAggregator = null;
+        }
+        RequestBatcher batcher = this.requestBatcher;
+        if (batcher != null) {
+            removeTrackedTraceIds(batcher.discardAll());
+            this.requestBatcher = null;
+        }
+        // Pending window timeouts are dropped; parents still collecting keep their cache entry
+        this.attachmentWindowTimer = null;
+        expiredWindows.clear();
+        // Dropped requests not yet finished keep their ACCEPTED entry until it expires by TTL
+        expiredRequests.clear();
+        // Local keys are forgotten with the server; distributed keys expire by their TTL
+        this.idempotencyStore = null;
+        // After the evictions above, so evicted entries are not written by the final flush
+        if (trackingStore instanceof WriteBehindStatusStore writeBehind) {
+            writeBehind.close();
+        }
+        SchemaFileWatcher watcher = this.schemaFileWatcher;
+        if (watcher != null) {
+            watcher.close();
+            this.schemaFileWatcher = null;
+        }
+        GuardedMapCacheClient guard = this.cacheGuard;
+        if (guard != null) {
+            guard.shutdown();
+            this.cacheGuard = null;
+        }
+        AccessLog log = this.accessLog;
+        if (log != null) {
+            log.close();
+            this.accessLog = null;
+        }
         LOGGER.info(RestApiLogMessages.INFO.PROCESSOR_STOPPED, drained);
     }
 
     /**
      * M5: on shutdown the queued containers are discarded without ever producing a FlowFile, yet
      * their clients already received a 202 + traceId. Evict their non-terminal tracking entries so
-     * they do not remain ACCEPTED/COLLECTING_ATTACHMENTS in the distributed cache forever.
+     * they do not remain ACCEPTED/COLLECTING_ATTACHMENTS in the distributed cache forever. Completed
+     * resumable uploads lose their spool file and progress entry the same way.
      */
     private void removeTrackedEntries(List<HttpRequestContainer> pending) {
+        pending.forEach(RestApiGatewayProcessor::deleteSpooledBody);
         RequestStatusStore store = this.trackingStore;
         if (store == null) {
             return;
         }
         for (HttpRequestContainer container : pending) {
+            String uploadId = container.attributes().get(RestApiAttributes.UPLOAD_ID);
+            if (uploadId != null) {
+                try {
+                    store.removeUpload(uploadId);
+                } catch (IOException e) {
+                    LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+                }
+            }
             String traceId = container.traceId();
             if (traceId != null) {
                 try {
@@ -705,7 +1659,55 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
         }
     }
 
-    private static Optional<JsonSchemaValidator> buildSchemaValidator(List<RouteConfiguration> routes) {
+    /**
+     * Evicts the tracking entries of the parents and attachments held by discarded aggregation groups.
+     */
+    private void removeTrackedTraceIds(List<String> traceIds) {
+        RequestStatusStore store = this.trackingStore;
+        if (store == null) {
+            return;
+        }
+        for (String traceId : traceIds) {
+            try {
+                store.remove(traceId);
+            } catch (IOException e) {
+                LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Copies the mapped token attributes, dropping the {@code jwt.content.*} custom claims the
+     * route's claim projection excludes. Dedicated attributes (subject, issuer, roles, …) are
+     * always kept — downstream authorization relies on them and their size is bounded.
+     */
+    private static void putClaimAttributes(Map<String, String> attributes, Map<String, String> claimAttributes,
+            @Nullable AttributeProjection projection) {
+        if (projection == null) {
+            attributes.putAll(claimAttributes);
+            return;
+        }
+        claimAttributes.forEach((key, value) -> {
+            if (!key.startsWith(JwtAttributes.Content.PREFIX)
+                    || projection.includes(key.substring(JwtAttributes.Content.PREFIX.length()))) {
+                attributes.put(key, value);
+            }
+        });
+    }
+
+    private static void deleteSpooledBody(HttpRequestContainer container) {
+        if (container.spooledBody() == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(container.spooledBody());
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.UPLOAD_SPOOL_ERROR, container.spooledBody(), e.getMessage());
+        }
+    }
+
+    private static Optional<JsonSchemaValidator> buildSchemaValidator(List<RouteConfiguration> routes,
+            int maxViolations) {
         Map<String, String> routeSchemas = new HashMap<>();
         for (RouteConfiguration route : routes) {
             if (route.hasSchemaValidation()) {
@@ -716,7 +1718,28 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
         if (routeSchemas.isEmpty()) {
             return Optional.empty();
         }
-        return Optional.of(new JsonSchemaValidator(routeSchemas));
+        return Optional.of(new JsonSchemaValidator(routeSchemas, maxViolations));
+    }
+
+    /**
+     * Starts watching the validator's file-based schemas; reload outcomes are counted as gateway
+     * events so they show up on {@code /metrics}. A watch service that cannot be created only
+     * disables hot reload, the gateway still starts with the schemas loaded at schedule time.
+     */
+    private static SchemaFileWatcher createSchemaFileWatcher(JsonSchemaValidator schemaValidator,
+            GatewaySecurityEvents gatewaySecurityEvents) {
+        if (schemaValidator.schemaDirectories().isEmpty()) {
+            return null;
+        }
+        try {
+            return new SchemaFileWatcher(schemaValidator, (routeName, outcome) -> gatewaySecurityEvents.increment(
+                    outcome == JsonSchemaValidator.ReloadOutcome.RELOADED
+                            ? GatewaySecurityEvents.EventType.SCHEMA_RELOADED
+                            : GatewaySecurityEvents.EventType.SCHEMA_RELOAD_FAILED));
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.SCHEMA_WATCH_FAILED, e.getMessage());
+            return null;
+        }
     }
 
     private void updateDynamicRelationships(List<RouteConfiguration> routes) {
@@ -724,6 +1747,7 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
         routeToOutcome.clear();
         routeToAttachmentsTimeout.clear();
         routeToAttachmentsMinCount.clear();
+        routeToClaimProjection.clear();
         for (RouteConfiguration route : routes) {
             if (!route.createFlowFile()) {
                 LOGGER.info(RestApiLogMessages.INFO.ROUTE_NO_RELATIONSHIP, route.name());
@@ -731,6 +1755,9 @@ public class RestApiGatewayProcessor extends AbstractProcessor {
             }
             String outcome = route.successOutcome();
             routeToOutcome.put(route.name(), outcome);
+            if (!route.claimProjection().isUnrestricted()) {
+                routeToClaimProjection.put(route.name(), route.claimProjection());
+            }
             dynamicRelationships.computeIfAbsent(outcome, k ->
                     new Relationship.Builder()
                             .name(k)
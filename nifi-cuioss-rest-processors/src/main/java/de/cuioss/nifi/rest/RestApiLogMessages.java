@@ -26,8 +26,10 @@ import lombok.experimental.UtilityClass;
  * <p>
  * Identifier ranges:
  * <ul>
- *   <li>INFO 1-22: server lifecycle, route matching, request processing, proxy configuration</li>
- *   <li>WARN 100-124: auth failures, validation failures, back-pressure, tracking-store errors</li>
+ *   <li>INFO 1-29: server lifecycle, route matching, request processing, proxy configuration, resumable uploads,
+ *       attachment aggregation and window timeouts, cache circuit recovery</li>
+ *   <li>WARN 100-135: auth failures, validation failures, back-pressure, tracking-store and spool errors, status updates,
+ *       cache circuit breaker, access log</li>
  *   <li>ERROR 200-203: server start/stop failures, handler errors, FlowFile creation failures</li>
  * </ul>
  */
@@ -51,24 +53,6 @@ public final class RestApiLogMessages {
                 .template("REST API Gateway server stopped")
                 .build();
 
-        public static final LogRecord ROUTE_MATCHED = LogRecordModel.builder()
-                .prefix(PREFIX)
-                .identifier(3)
-                .template("Route matched: %s %s -> route '%s'")
-                .build();
-
-        public static final LogRecord REQUEST_PROCESSED = LogRecordModel.builder()
-                .prefix(PREFIX)
-                .identifier(4)
-                .template("Request processed for route '%s': %s %s from %s")
-                .build();
-
-        public static final LogRecord FLOWFILE_CREATED = LogRecordModel.builder()
-                .prefix(PREFIX)
-                .identifier(5)
-                .template("FlowFile created for route '%s' with %s bytes content")
-                .build();
-
         public static final LogRecord ROUTES_CONFIGURED = LogRecordModel.builder()
                 .prefix(PREFIX)
                 .identifier(6)
@@ -87,36 +71,12 @@ public final class RestApiLogMessages {
                 .template("RestApiGateway processor stopped, drained %s pending requests")
                 .build();
 
-        public static final LogRecord AUTH_SUCCESSFUL = LogRecordModel.builder()
-                .prefix(PREFIX)
-                .identifier(9)
-                .template("Authentication successful for %s %s from %s")
-                .build();
-
         public static final LogRecord EXTERNAL_ROUTES_LOADED = LogRecordModel.builder()
                 .prefix(PREFIX)
                 .identifier(10)
                 .template("Loaded %s route properties from external configuration file")
                 .build();
 
-        public static final LogRecord REQUEST_TRACKED = LogRecordModel.builder()
-                .prefix(PREFIX)
-                .identifier(11)
-                .template("Request accepted with traceId=%s, route=%s")
-                .build();
-
-        public static final LogRecord STATUS_QUERIED = LogRecordModel.builder()
-                .prefix(PREFIX)
-                .identifier(12)
-                .template("Status queried for traceId=%s, status=%s")
-                .build();
-
-        public static final LogRecord ATTACHMENT_ACCEPTED = LogRecordModel.builder()
-                .prefix(PREFIX)
-                .identifier(13)
-                .template("Attachment accepted with traceId=%s, parentTraceId=%s (count %s/%s)")
-                .build();
-
         public static final LogRecord ATTACHMENTS_MIN_MET = LogRecordModel.builder()
                 .prefix(PREFIX)
                 .identifier(14)
@@ -141,12 +101,6 @@ public final class RestApiLogMessages {
                 .template("Route '%s' has createFlowFile=false — no NiFi relationship created")
                 .build();
 
-        public static final LogRecord ROUTE_FLOWFILE_SKIPPED = LogRecordModel.builder()
-                .prefix(PREFIX)
-                .identifier(18)
-                .template("Route '%s' has createFlowFile=false — skipping FlowFile creation")
-                .build();
-
         public static final LogRecord SCHEMA_REGISTERED_INLINE = LogRecordModel.builder()
                 .prefix(PREFIX)
                 .identifier(19)
@@ -171,6 +125,66 @@ public final class RestApiLogMessages {
                 .template("Forwarded resolution configured: trusted-proxies=%s, security-config preset=%s")
                 .build();
 
+        public static final LogRecord UPLOADS_EXPIRED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(26)
+                .template("Removed %s expired resumable uploads from spool %s")
+                .build();
+
+        public static final LogRecord ATTACHMENTS_AGGREGATED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(27)
+                .template("Aggregated parent %s with %s attachments into one FlowFile (complete=%s)")
+                .build();
+
+        public static final LogRecord ATTACHMENT_WINDOW_EXPIRED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(28)
+                .template("Attachment window of parent %s on route '%s' expired before the minimum of %s attachments")
+                .build();
+
+        public static final LogRecord CACHE_CIRCUIT_CLOSED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(29)
+                .template("Distributed cache circuit closed after a successful probe call")
+                .build();
+
+        public static final LogRecord RECORD_BATCHING_ENABLED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(30)
+                .template("Record batching enabled for route '%s': up to %s records, %s bytes or %s per FlowFile")
+                .build();
+
+        public static final LogRecord SCHEMA_RELOADED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(31)
+                .template("Reloaded JSON Schema for route '%s' from %s")
+                .build();
+
+        public static final LogRecord SCHEMA_WATCH_STARTED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(32)
+                .template("Watching %s schema directories for changes")
+                .build();
+
+        public static final LogRecord ROUTES_RELOADED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(33)
+                .template("Applied reloaded configuration of %s routes without restart: %s")
+                .build();
+
+        public static final LogRecord LOAD_SHEDDING_ENABLED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(34)
+                .template("Adaptive load shedding enabled: target queue wait %s ms, limit %s")
+                .build();
+
+        public static final LogRecord IDEMPOTENCY_ENABLED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(35)
+                .template("Idempotency-Key support enabled: %s store, keys kept for %s ms")
+                .build();
+
     }
 
     @UtilityClass
@@ -329,6 +343,153 @@ public final class RestApiLogMessages {
                 .identifier(124)
                 .template("Status update for traceId '%s' abandoned after exhausting compare-and-swap retries")
                 .build();
+
+        public static final LogRecord ATTACHMENT_COUNTERS_EVICTED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(125)
+                .template("Evicted %s active attachment counters to stay within the bound of %s entries — "
+                        + "raise 'rest.gateway.management.attachments.counter.max-entries' if parents are "
+                        + "still collecting")
+                .build();
+
+        public static final LogRecord MULTIPART_MALFORMED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(126)
+                .template("Multipart attachment upload for parent %s rejected: %s")
+                .build();
+
+        public static final LogRecord UPLOAD_OFFSET_MISMATCH = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(127)
+                .template("Resumable upload %s: chunk at offset %s rejected, expected offset %s")
+                .build();
+
+        public static final LogRecord UPLOAD_SPOOL_ERROR = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(128)
+                .template("Resumable upload spool operation failed for %s: %s")
+                .build();
+
+        public static final LogRecord ATTACHMENT_AGGREGATION_FAILED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(129)
+                .template("Attachment aggregation failed for parent %s: %s")
+                .build();
+
+        public static final LogRecord STATUS_UPDATE_MISSING_TRACE_ID = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(130)
+                .template("FlowFile %s has no trace ID attribute, routing to failure")
+                .build();
+
+        public static final LogRecord STATUS_UPDATE_INVALID_STATUS = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(131)
+                .template("FlowFile %s resolved to status '%s', expected one of %s — routing to failure")
+                .build();
+
+        public static final LogRecord STATUS_WRITE_BEHIND_FLUSH_FAILED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(132)
+                .template("Write-behind flush of %s buffered status entries failed, retrying: %s")
+                .build();
+
+        public static final LogRecord STATUS_WRITE_BEHIND_ENTRIES_LOST = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(133)
+                .template("%s buffered status entries could not be written on shutdown: %s")
+                .build();
+
+        public static final LogRecord CACHE_CIRCUIT_OPENED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(134)
+                .template("Distributed cache circuit opened after %s consecutive failed calls, failing fast for %s ms: %s")
+                .build();
+
+        public static final LogRecord ACCESS_LOG_WRITE_FAILED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(135)
+                .template("Failed to write access log %s, dropping the current batch: %s")
+                .build();
+
+        public static final LogRecord INVALID_SPLIT_MODE = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(136)
+                .template("Invalid split-mode '%s', defaulting to NONE")
+                .build();
+
+        public static final LogRecord SPLIT_BODY_MALFORMED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(137)
+                .template("Request body of split route '%s' could not be split: %s")
+                .build();
+
+        public static final LogRecord SPLIT_ELEMENTS_REJECTED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(138)
+                .template("Rejected %s of %s body elements on route '%s' after JSON Schema validation")
+                .build();
+
+        public static final LogRecord SCHEMA_RELOAD_FAILED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(139)
+                .template("Failed to reload JSON Schema for route '%s' from %s, keeping the previous version: %s")
+                .build();
+
+        public static final LogRecord SCHEMA_WATCH_FAILED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(140)
+                .template("Schema hot reload disabled, cannot watch schema directories: %s")
+                .build();
+
+        public static final LogRecord ROUTE_RELOAD_REQUIRES_RESTART = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(141)
+                .template("Reloaded configuration adds, removes or restructures route '%s', which requires a processor restart; keeping the current routes")
+                .build();
+
+        public static final LogRecord ROUTE_RELOAD_FAILED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(142)
+                .template("Failed to apply reloaded route configuration, keeping the current routes: %s")
+                .build();
+
+        public static final LogRecord INVALID_RATE_LIMIT_KEY = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(143)
+                .template("Invalid rate-limit-key '%s', defaulting to SUBJECT")
+                .build();
+
+        public static final LogRecord RATE_LIMITED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(144)
+                .template("Rate limit exceeded for %s %s by %s key '%s', retry after %s s")
+                .build();
+
+        public static final LogRecord INVALID_ROUTE_PRIORITY = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(145)
+                .template("Invalid route priority '%s', defaulting to NORMAL")
+                .build();
+
+        public static final LogRecord LOAD_SHED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(146)
+                .template("Shedding %s-priority %s %s from %s: %s requests queued at limit %s")
+                .build();
+
+        public static final LogRecord QUEUE_EXPIRED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(147)
+                .template("Dropping request %s on route '%s': queued for %s ms, deadline %s ms")
+                .build();
+
+        public static final LogRecord IDEMPOTENCY_KEYS_EVICTED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(148)
+                .template("Evicted %s idempotency keys before their time to live to stay within the bound of "
+                        + "%s entries — raise 'rest.gateway.idempotency.max-entries' if retries are not recognized")
+                .build();
     }
 
     @UtilityClass
@@ -357,5 +518,11 @@ public final class RestApiLogMessages {
                 .identifier(203)
                 .template("Failed to create FlowFile for route '%s': %s")
                 .build();
+
+        public static final LogRecord BATCH_WRITE_FAILED = LogRecordModel.builder()
+                .prefix(PREFIX)
+                .identifier(204)
+                .template("Failed to write a batch of %s records for route '%s': %s")
+                .build();
     }
 }
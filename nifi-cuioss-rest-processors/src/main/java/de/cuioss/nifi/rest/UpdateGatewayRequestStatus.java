@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest;
+
+import de.cuioss.nifi.rest.handler.RequestStatus;
+import de.cuioss.nifi.rest.handler.RequestStatusStore;
+import de.cuioss.nifi.rest.handler.RequestStatusStore.StatusUpdate;
+import de.cuioss.nifi.rest.handler.RequestStatusStore.UpdateOutcome;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.Getter;
+import org.apache.nifi.annotation.behavior.DynamicProperty;
+import org.apache.nifi.annotation.behavior.ReadsAttribute;
+import org.apache.nifi.annotation.behavior.ReadsAttributes;
+import org.apache.nifi.annotation.behavior.WritesAttribute;
+import org.apache.nifi.annotation.behavior.WritesAttributes;
+import org.apache.nifi.annotation.documentation.CapabilityDescription;
+import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnScheduled;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.distributed.cache.client.DistributedMapCacheClient;
+import org.apache.nifi.expression.ExpressionLanguageScope;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.processor.AbstractProcessor;
+import org.apache.nifi.processor.ProcessContext;
+import org.apache.nifi.processor.ProcessSession;
+import org.apache.nifi.processor.ProcessorInitializationContext;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.processor.util.StandardValidators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static de.cuioss.nifi.rest.UpdateGatewayRequestStatusConstants.Properties;
+import static de.cuioss.nifi.rest.UpdateGatewayRequestStatusConstants.Relationships;
+
+/**
+ * Reports the downstream outcome of a gateway request back to its tracking entry, so that
+ * {@code GET /status/{traceId}} reflects what the flow did with the request.
+ * <p>
+ * All FlowFiles of one trigger are coalesced per trace ID — a later FlowFile's status wins, details
+ * and additional fields are merged — and written with a single
+ * {@link RequestStatusStore#updateStatuses batch call}. Coalescing is what saves cache round trips:
+ * with an atomic cache client each coalesced entry is still fetched and compare-and-swapped on its
+ * own, in rounds that retry all conflicting entries together.
+ *
+ * @see RestApiGatewayProcessor
+ */
+// S2160: NiFi processors use identity equality (component identifier) inherited from
+// AbstractProcessor; the added fields are runtime state, not part of identity.
+@SuppressWarnings("java:S2160")
+@Tags({"rest", "api", "gateway", "status", "tracking"})
+@CapabilityDescription("Sets the tracking status, error detail and additional fields of requests accepted by "
+        + "the RestApiGateway processor. Updates of one trigger are coalesced per trace ID, so each entry "
+        + "is written to the Distributed Map Cache once per trigger.")
+@ReadsAttributes({
+        @ReadsAttribute(attribute = RestApiAttributes.TRACE_ID,
+                description = "Trace ID of the tracking entry to update")
+})
+@WritesAttributes({
+        @WritesAttribute(attribute = RestApiAttributes.TRACE_STATUS,
+                description = "The status written for FlowFiles routed to success")
+})
+@DynamicProperty(name = "Additional field name", value = "Additional field value",
+        expressionLanguageScope = ExpressionLanguageScope.FLOWFILE_ATTRIBUTES,
+        description = "Adds or replaces a top-level field of the tracking entry, returned by the /status endpoint")
+public class UpdateGatewayRequestStatus extends AbstractProcessor {
+
+    private static final CuiLogger LOGGER = new CuiLogger(UpdateGatewayRequestStatus.class);
+
+    /** Statuses a flow may report; the remaining ones are owned by the gateway itself. */
+    static final Set<RequestStatus> SETTABLE_STATUSES = EnumSet.of(RequestStatus.PROCESSING,
+            RequestStatus.PROCESSED, RequestStatus.REJECTED, RequestStatus.RETRY, RequestStatus.ERROR);
+
+    @Getter private List<PropertyDescriptor> supportedPropertyDescriptors;
+    @Getter private Set<Relationship> relationships;
+
+    private RequestStatusStore statusStore;
+
+    @Override
+    protected void init(ProcessorInitializationContext context) {
+        supportedPropertyDescriptors = List.of(
+                Properties.DISTRIBUTED_MAP_CACHE_CLIENT,
+                Properties.STATUS,
+                Properties.ERROR_DETAIL,
+                Properties.BATCH_SIZE);
+        relationships = Set.of(Relationships.SUCCESS, Relationships.NOT_FOUND, Relationships.FAILURE);
+    }
+
+    @Override
+    protected PropertyDescriptor getSupportedDynamicPropertyDescriptor(String propertyDescriptorName) {
+        return new PropertyDescriptor.Builder()
+                .name(propertyDescriptorName)
+                .dynamic(true)
+                .expressionLanguageSupported(ExpressionLanguageScope.FLOWFILE_ATTRIBUTES)
+                .addValidator(StandardValidators.NON_EMPTY_EL_VALIDATOR)
+                .build();
+    }
+
+    @OnScheduled
+    public void onScheduled(ProcessContext context) {
+        statusStore = new RequestStatusStore(context.getProperty(Properties.DISTRIBUTED_MAP_CACHE_CLIENT)
+                .asControllerService(DistributedMapCacheClient.class));
+    }
+
+    @Override
+    public void onTrigger(ProcessContext context, ProcessSession session) {
+        List<FlowFile> flowFiles = session.get(context.getProperty(Properties.BATCH_SIZE).asInteger());
+        if (flowFiles.isEmpty()) {
+            return;
+        }
+
+        List<FlowFile> pending = new ArrayList<>(flowFiles.size());
+        List<String> pendingStatuses = new ArrayList<>(flowFiles.size());
+        Map<String, StatusUpdate> updates = new LinkedHashMap<>();
+        for (FlowFile flowFile : flowFiles) {
+            StatusUpdate update = toUpdate(context, flowFile);
+            if (update == null) {
+                session.transfer(flowFile, Relationships.FAILURE);
+                continue;
+            }
+            pending.add(flowFile);
+            pendingStatuses.add(update.status().name());
+            updates.merge(flowFile.getAttribute(RestApiAttributes.TRACE_ID), update, StatusUpdate::followedBy);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, UpdateOutcome> outcomes;
+        try {
+            outcomes = statusStore.updateStatuses(updates);
+        } catch (IOException e) {
+            LOGGER.warn(e, RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            session.transfer(pending, Relationships.FAILURE);
+            return;
+        }
+
+        for (int i = 0; i < pending.size(); i++) {
+            FlowFile flowFile = pending.get(i);
+            switch (outcomes.get(flowFile.getAttribute(RestApiAttributes.TRACE_ID))) {
+                case UPDATED -> session.transfer(
+                        session.putAttribute(flowFile, RestApiAttributes.TRACE_STATUS, pendingStatuses.get(i)),
+                        Relationships.SUCCESS);
+                case NOT_FOUND -> session.transfer(flowFile, Relationships.NOT_FOUND);
+                case CONFLICT -> session.transfer(flowFile, Relationships.FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the configured update for one FlowFile.
+     *
+     * @return the update, or {@code null} if the FlowFile has no trace ID or resolves to a status
+     *         that may not be set
+     */
+    private StatusUpdate toUpdate(ProcessContext context, FlowFile flowFile) {
+        String traceId = flowFile.getAttribute(RestApiAttributes.TRACE_ID);
+        if (traceId == null || traceId.isBlank()) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_UPDATE_MISSING_TRACE_ID, flowFile);
+            return null;
+        }
+        String statusValue = context.getProperty(Properties.STATUS).evaluateAttributeExpressions(flowFile).getValue();
+        RequestStatus status = parseStatus(statusValue);
+        if (status == null) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_UPDATE_INVALID_STATUS, flowFile, statusValue,
+                    SETTABLE_STATUSES);
+            return null;
+        }
+        String errorDetail = context.getProperty(Properties.ERROR_DETAIL).evaluateAttributeExpressions(flowFile)
+                .getValue();
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (PropertyDescriptor descriptor : context.getProperties().keySet()) {
+            if (descriptor.isDynamic()) {
+                String value = context.getProperty(descriptor).evaluateAttributeExpressions(flowFile).getValue();
+                if (value != null && !value.isEmpty()) {
+                    fields.put(descriptor.getName(), value);
+                }
+            }
+        }
+        return new StatusUpdate(status, errorDetail == null || errorDetail.isEmpty() ? null : errorDetail, fields);
+    }
+
+    private static RequestStatus parseStatus(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            RequestStatus status = RequestStatus.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            return SETTABLE_STATUSES.contains(status) ? status : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
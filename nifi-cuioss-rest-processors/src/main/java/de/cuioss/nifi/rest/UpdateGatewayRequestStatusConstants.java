@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest;
+
+import lombok.experimental.UtilityClass;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.distributed.cache.client.DistributedMapCacheClient;
+import org.apache.nifi.expression.ExpressionLanguageScope;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.processor.util.StandardValidators;
+
+/**
+ * DSL-style nested constants for the UpdateGatewayRequestStatus processor configuration.
+ *
+ * @see UpdateGatewayRequestStatus
+ */
+@UtilityClass
+public final class UpdateGatewayRequestStatusConstants {
+
+    @UtilityClass
+    public static final class Relationships {
+        public static final Relationship SUCCESS = new Relationship.Builder()
+                .name("success")
+                .description("FlowFiles whose tracking status was updated are routed here")
+                .build();
+
+        public static final Relationship NOT_FOUND = new Relationship.Builder()
+                .name("not.found")
+                .description("FlowFiles whose trace ID has no tracking entry (never tracked, expired or evicted) "
+                        + "are routed here")
+                .build();
+
+        public static final Relationship FAILURE = new Relationship.Builder()
+                .name("failure")
+                .description("FlowFiles without a trace ID, with an invalid status, or whose update could not "
+                        + "be written to the cache are routed here")
+                .build();
+    }
+
+    @UtilityClass
+    public static final class Properties {
+
+        public static final PropertyDescriptor DISTRIBUTED_MAP_CACHE_CLIENT = new PropertyDescriptor.Builder()
+                .name("rest.status.distributed-map-cache-client")
+                .displayName("Distributed Map Cache Client")
+                .description("The Controller Service holding the gateway's request tracking entries. "
+                        + "Must be the same cache the RestApiGateway processor writes to.")
+                .required(true)
+                .identifiesControllerService(DistributedMapCacheClient.class)
+                .build();
+
+        public static final PropertyDescriptor STATUS = new PropertyDescriptor.Builder()
+                .name("rest.status.status")
+                .displayName("Status")
+                .description("The status to set: PROCESSING, PROCESSED, REJECTED, RETRY or ERROR. "
+                        + "Evaluated per FlowFile; FlowFiles resolving to any other value are routed to failure.")
+                .required(true)
+                .defaultValue("PROCESSED")
+                .expressionLanguageSupported(ExpressionLanguageScope.FLOWFILE_ATTRIBUTES)
+                .addValidator(StandardValidators.NON_EMPTY_EL_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor ERROR_DETAIL = new PropertyDescriptor.Builder()
+                .name("rest.status.error-detail")
+                .displayName("Error Detail")
+                .description("Detail message stored with the status and shown by the /status endpoint. "
+                        + "When empty, an existing detail is kept.")
+                .required(false)
+                .expressionLanguageSupported(ExpressionLanguageScope.FLOWFILE_ATTRIBUTES)
+                .addValidator(StandardValidators.NON_EMPTY_EL_VALIDATOR)
+                .build();
+
+        public static final PropertyDescriptor BATCH_SIZE = new PropertyDescriptor.Builder()
+                .name("rest.status.batch-size")
+                .displayName("Batch Size")
+                .description("Maximum number of FlowFiles taken per trigger. Updates of one trigger are coalesced "
+                        + "per trace ID, so each entry is written once per trigger.")
+                .required(true)
+                .defaultValue("100")
+                .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.config;
+
+/**
+ * Selects what a route's rate limit is applied to — every distinct key gets its own token bucket.
+ *
+ * <ul>
+ *   <li>{@link #SUBJECT} — The token's {@code sub} claim (default).</li>
+ *   <li>{@link #AUTHORIZED_PARTY} — The token's {@code azp} claim, i.e. the client application.</li>
+ *   <li>{@link #ISSUER} — The token's {@code iss} claim, i.e. one bucket per identity provider or tenant.</li>
+ *   <li>{@link #CLIENT_IP} — The client IP, honoring {@code rest.gateway.proxy.trusted-proxies}.</li>
+ * </ul>
+ * Requests without a token, or whose token lacks the claim, are keyed by client IP.
+ */
+public enum RateLimitKey {
+    SUBJECT,
+    AUTHORIZED_PARTY,
+    ISSUER,
+    CLIENT_IP
+}
@@ -16,6 +16,7 @@
  */
 package de.cuioss.nifi.rest.config;
 
+import de.cuioss.nifi.jwt.util.AttributeProjection;
 import de.cuioss.nifi.jwt.util.AuthorizationRequirements;
 import lombok.Builder;
 import lombok.NonNull;
@@ -49,6 +50,30 @@ import java.util.Set;
  * @param attachmentsMinCount minimum number of attachments required (only valid when trackingMode is ATTACHMENTS)
  * @param attachmentsMaxCount maximum number of attachments allowed (only valid when trackingMode is ATTACHMENTS; 0 means use global hard limit)
  * @param attachmentsTimeout  NiFi time duration for the Wait processor expiration (only valid when trackingMode is ATTACHMENTS; e.g. "30 sec")
+ * @param resumableUploads    whether the route additionally exposes a resumable upload endpoint under
+ *                            {@code <path>/uploads} (requires createFlowFile and a literal path)
+ * @param aggregateAttachments whether the gateway merges the parent request and its attachments into a single
+ *                            FlowFile (only valid when trackingMode is ATTACHMENTS and createFlowFile is true)
+ * @param headerProjection    which request headers become {@code http.header.*} attributes (default: all)
+ * @param queryProjection     which query parameters become {@code http.query.*} attributes (default: all)
+ * @param claimProjection     which custom token claims become {@code jwt.content.*} attributes (default: all)
+ * @param batchMaxRecords     maximum records per batch FlowFile; {@code 0} (default) emits one FlowFile per request
+ * @param batchMaxBytes       maximum summed body size of a batch FlowFile in bytes (only relevant when batching)
+ * @param batchMaxWait        NiFi time duration a batch stays open after its first request (only set when batching;
+ *                            e.g. "1 sec")
+ * @param splitMode           whether a JSON array or NDJSON body is fanned out into one FlowFile per element
+ *                            (default: NONE; requires createFlowFile, not valid with trackingMode ATTACHMENTS)
+ * @param splitMaxElements    maximum number of elements a split body may have (default: 1000; only relevant when
+ *                            splitting)
+ * @param rateLimit           sustained requests per second allowed per rate-limit key; {@code 0} (default) disables
+ *                            rate limiting
+ * @param rateLimitBurst      requests a key may send at once before the sustained rate applies; {@code 0} means
+ *                            the same as {@code rateLimit}
+ * @param rateLimitKey        what the rate limit is applied to (default: SUBJECT)
+ * @param priority            load-shedding class under the adaptive concurrency limit (default: NORMAL)
+ * @param maxQueueAge         NiFi time duration a request may wait in the gateway queue before it is dropped
+ *                            instead of becoming a FlowFile (default: none; requires createFlowFile, not valid
+ *                            with trackingMode ATTACHMENTS; e.g. "5 sec")
  */
 @Builder
 @SuppressWarnings("java:S1068") // Record fields are used by Lombok @Builder generated code
@@ -67,11 +92,32 @@ int maxRequestSize,
 @NonNull TrackingMode trackingMode,
 int attachmentsMinCount,
 int attachmentsMaxCount,
-@Nullable String attachmentsTimeout) {
+@Nullable String attachmentsTimeout,
+boolean resumableUploads,
+boolean aggregateAttachments,
+@NonNull AttributeProjection headerProjection,
+@NonNull AttributeProjection queryProjection,
+@NonNull AttributeProjection claimProjection,
+int batchMaxRecords,
+int batchMaxBytes,
+@Nullable String batchMaxWait,
+@NonNull SplitMode splitMode,
+int splitMaxElements,
+int rateLimit,
+int rateLimitBurst,
+@NonNull RateLimitKey rateLimitKey,
+@NonNull RoutePriority priority,
+@Nullable String maxQueueAge) {
 
     /** Default allowed HTTP methods when none are configured. */
     public static final Set<String> DEFAULT_METHODS = Set.of("GET", "POST", "PUT", "DELETE");
 
+    /** Default maximum summed body size of a batch FlowFile: 1 MiB. */
+    public static final int DEFAULT_BATCH_MAX_BYTES = 1024 * 1024;
+
+    /** Default maximum number of elements of a split body. */
+    public static final int DEFAULT_SPLIT_MAX_ELEMENTS = 1000;
+
     /**
      * Compact constructor — validates inputs and creates defensive copies.
      */
@@ -85,7 +131,58 @@ int attachmentsMaxCount,
         requiredScopes = requiredScopes != null ? Set.copyOf(requiredScopes) : Set.of();
         authModes = authModes != null && !authModes.isEmpty() ? Set.copyOf(authModes) : EnumSet.of(AuthMode.BEARER);
         trackingMode = trackingMode != null ? trackingMode : TrackingMode.NONE;
+        headerProjection = headerProjection != null ? headerProjection : AttributeProjection.ALL;
+        queryProjection = queryProjection != null ? queryProjection : AttributeProjection.ALL;
+        claimProjection = claimProjection != null ? claimProjection : AttributeProjection.ALL;
+        splitMode = splitMode != null ? splitMode : SplitMode.NONE;
+        rateLimitKey = rateLimitKey != null ? rateLimitKey : RateLimitKey.SUBJECT;
+        priority = priority != null ? priority : RoutePriority.NORMAL;
         validateAttachmentSettings(trackingMode, attachmentsMinCount, attachmentsMaxCount, attachmentsTimeout);
+        validateResumableUploadSettings(resumableUploads, createFlowFile, path);
+        if (aggregateAttachments && (trackingMode != TrackingMode.ATTACHMENTS || !createFlowFile)) {
+            throw new IllegalArgumentException(
+                    "aggregateAttachments requires trackingMode ATTACHMENTS and createFlowFile");
+        }
+        validateBatchSettings(batchMaxRecords, batchMaxBytes, batchMaxWait, createFlowFile, trackingMode);
+        if (splitMode != SplitMode.NONE && (!createFlowFile || trackingMode == TrackingMode.ATTACHMENTS)) {
+            throw new IllegalArgumentException(
+                    "splitMode requires createFlowFile and is not supported with trackingMode ATTACHMENTS");
+        }
+        if (splitMaxElements <= 0) {
+            throw new IllegalArgumentException("splitMaxElements must be > 0");
+        }
+        if (rateLimit < 0 || rateLimitBurst < 0) {
+            throw new IllegalArgumentException("rateLimit and rateLimitBurst must be >= 0");
+        }
+        if (rateLimit == 0 && rateLimitBurst != 0) {
+            throw new IllegalArgumentException("rateLimitBurst can only be set when rateLimit > 0");
+        }
+        if (maxQueueAge != null && (!createFlowFile || trackingMode == TrackingMode.ATTACHMENTS)) {
+            throw new IllegalArgumentException(
+                    "maxQueueAge requires createFlowFile and is not supported with trackingMode ATTACHMENTS");
+        }
+    }
+
+    private static void validateBatchSettings(int batchMaxRecords, int batchMaxBytes, String batchMaxWait,
+            boolean createFlowFile, TrackingMode trackingMode) {
+        if (batchMaxRecords < 0) {
+            throw new IllegalArgumentException("batchMaxRecords must be >= 0");
+        }
+        if (batchMaxRecords == 0) {
+            if (batchMaxWait != null) {
+                throw new IllegalArgumentException("batchMaxWait can only be set when batchMaxRecords > 0");
+            }
+            return;
+        }
+        if (!createFlowFile) {
+            throw new IllegalArgumentException("record batching requires createFlowFile");
+        }
+        if (trackingMode == TrackingMode.ATTACHMENTS) {
+            throw new IllegalArgumentException("record batching is not supported with trackingMode ATTACHMENTS");
+        }
+        if (batchMaxBytes <= 0) {
+            throw new IllegalArgumentException("batchMaxBytes must be > 0");
+        }
     }
 
     private static void validateAttachmentSettings(TrackingMode trackingMode,
@@ -106,6 +203,26 @@ int attachmentsMaxCount,
         }
     }
 
+    private static void validateResumableUploadSettings(boolean resumableUploads, boolean createFlowFile,
+            String path) {
+        if (!resumableUploads) {
+            return;
+        }
+        if (!createFlowFile) {
+            throw new IllegalArgumentException("resumableUploads requires createFlowFile");
+        }
+        if (RoutePattern.containsPlaceholders(path)) {
+            throw new IllegalArgumentException("resumableUploads requires a literal path without placeholders");
+        }
+    }
+
+    /**
+     * Path of the resumable upload endpoint of this route.
+     */
+    public String uploadsPath() {
+        return (path.endsWith("/") ? path.substring(0, path.length() - 1) : path) + "/uploads";
+    }
+
     /**
      * Whether this route has any form of request tracking enabled.
      */
@@ -113,6 +230,41 @@ int attachmentsMaxCount,
         return trackingMode != TrackingMode.NONE;
     }
 
+    /**
+     * Whether this route writes its requests as records into batch FlowFiles.
+     */
+    public boolean isBatched() {
+        return batchMaxRecords > 0;
+    }
+
+    /**
+     * Whether this route fans a multi-element body out into one FlowFile per element.
+     */
+    public boolean isSplit() {
+        return splitMode != SplitMode.NONE;
+    }
+
+    /**
+     * Whether requests to this route are rate limited.
+     */
+    public boolean isRateLimited() {
+        return rateLimit > 0;
+    }
+
+    /**
+     * Requests a key may send at once: the configured burst, or the rate when no burst is set.
+     */
+    public int effectiveRateLimitBurst() {
+        return rateLimitBurst > 0 ? rateLimitBurst : rateLimit;
+    }
+
+    /**
+     * Whether queued requests of this route are dropped once they outlive {@link #maxQueueAge()}.
+     */
+    public boolean hasMaxQueueAge() {
+        return maxQueueAge != null;
+    }
+
     /**
      * Whether this route has JSON Schema validation configured.
      */
@@ -127,6 +279,30 @@ int attachmentsMaxCount,
         return !requiredRoles.isEmpty() || !requiredScopes.isEmpty();
     }
 
+    /**
+     * Whether a running gateway can switch from the given previous definition of this route to this
+     * one without a restart. Paths, methods, authentication, authorization, schema, size limit,
+     * projections, split mode, rate limit, priority and max queue age can change live; the settings that shape relationships or
+     * processor-owned state — FlowFile creation, outcome, tracking, attachments, uploads and
+     * batching — cannot.
+     *
+     * @param previous the definition currently in use
+     */
+    public boolean isLiveReloadableFrom(RouteConfiguration previous) {
+        return name.equals(previous.name)
+                && createFlowFile == previous.createFlowFile
+                && Objects.equals(successOutcome, previous.successOutcome)
+                && trackingMode == previous.trackingMode
+                && attachmentsMinCount == previous.attachmentsMinCount
+                && attachmentsMaxCount == previous.attachmentsMaxCount
+                && Objects.equals(attachmentsTimeout, previous.attachmentsTimeout)
+                && resumableUploads == previous.resumableUploads
+                && aggregateAttachments == previous.aggregateAttachments
+                && batchMaxRecords == previous.batchMaxRecords
+                && batchMaxBytes == previous.batchMaxBytes
+                && Objects.equals(batchMaxWait, previous.batchMaxWait);
+    }
+
     /**
      * Converts this route's authorization requirements to an {@link AuthorizationRequirements}
      * instance for use with {@link de.cuioss.nifi.jwt.util.AuthorizationValidator}.
@@ -150,5 +326,20 @@ int attachmentsMaxCount,
         private int attachmentsMinCount = 0;
         private int attachmentsMaxCount = 0;
         private String attachmentsTimeout = null;
+        private boolean resumableUploads = false;
+        private boolean aggregateAttachments = false;
+        private AttributeProjection headerProjection = AttributeProjection.ALL;
+        private AttributeProjection queryProjection = AttributeProjection.ALL;
+        private AttributeProjection claimProjection = AttributeProjection.ALL;
+        private int batchMaxRecords = 0;
+        private int batchMaxBytes = DEFAULT_BATCH_MAX_BYTES;
+        private String batchMaxWait = null;
+        private SplitMode splitMode = SplitMode.NONE;
+        private int splitMaxElements = DEFAULT_SPLIT_MAX_ELEMENTS;
+        private int rateLimit = 0;
+        private int rateLimitBurst = 0;
+        private RateLimitKey rateLimitKey = RateLimitKey.SUBJECT;
+        private RoutePriority priority = RoutePriority.NORMAL;
+        private String maxQueueAge = null;
     }
 }
@@ -16,6 +16,7 @@
  */
 package de.cuioss.nifi.rest.config;
 
+import de.cuioss.nifi.jwt.util.AttributeProjection;
 import de.cuioss.nifi.jwt.util.DynamicPropertyGroupParser;
 import de.cuioss.nifi.rest.RestApiLogMessages;
 import de.cuioss.tools.logging.CuiLogger;
@@ -57,6 +58,21 @@ import static de.cuioss.nifi.jwt.util.AuthorizationRequirements.parseCommaSepara
  *   <li>{@code attachments-min-count} — minimum attachments required (only with tracking-mode=attachments)</li>
  *   <li>{@code attachments-max-count} — maximum attachments allowed, 0 = global hard limit (only with tracking-mode=attachments)</li>
  *   <li>{@code attachments-timeout} — attachment collection timeout, NiFi duration (only with tracking-mode=attachments)</li>
+ *   <li>{@code resumable-uploads} — whether to expose a resumable upload endpoint under {@code <path>/uploads} (default: false)</li>
+ *   <li>{@code aggregate-attachments} — whether the gateway merges parent and attachments into one FlowFile (only with tracking-mode=attachments, default: false)</li>
+ *   <li>{@code header-allowlist} / {@code header-denylist} — comma-separated header names or {@code prefix*} patterns carried as {@code http.header.*} attributes (case-insensitive, default: all)</li>
+ *   <li>{@code query-allowlist} / {@code query-denylist} — comma-separated query parameter names or patterns carried as {@code http.query.*} attributes (default: all)</li>
+ *   <li>{@code claim-allowlist} / {@code claim-denylist} — comma-separated custom claim names or patterns carried as {@code jwt.content.*} attributes (default: all)</li>
+ *   <li>{@code batch-max-records} — write up to this many requests as records into one FlowFile, 0 = one FlowFile per request (default: 0)</li>
+ *   <li>{@code batch-max-bytes} — maximum summed body size of a batch in bytes (only with batch-max-records, default: 1 MiB)</li>
+ *   <li>{@code batch-max-wait} — time a batch stays open after its first request, NiFi duration (only with batch-max-records, default: 1 sec)</li>
+ *   <li>{@code split-mode} — {@code none}, {@code json-array} or {@code ndjson}: one FlowFile per body element (default: none)</li>
+ *   <li>{@code split-max-elements} — maximum number of elements of a split body (only with split-mode, default: 1000)</li>
+ *   <li>{@code rate-limit} — sustained requests per second per rate-limit key, 0 = unlimited (default: 0)</li>
+ *   <li>{@code rate-limit-burst} — requests a key may send at once (only with rate-limit, default: the rate)</li>
+ *   <li>{@code rate-limit-key} — {@code subject}, {@code authorized-party}, {@code issuer} or {@code client-ip} (default: subject)</li>
+ *   <li>{@code priority} — {@code low}, {@code normal} or {@code high}: load-shedding class (default: normal)</li>
+ *   <li>{@code max-queue-age} — time a request may wait in the gateway queue before it is dropped, NiFi duration (default: none)</li>
  * </ul>
  */
 @UtilityClass
@@ -96,6 +112,44 @@ public class RouteConfigurationParser {
     static final String ATTACHMENTS_MAX_COUNT_KEY = "attachments-max-count";
     /** Property key for attachment collection timeout (NiFi time duration, e.g. "30s"). */
     static final String ATTACHMENTS_TIMEOUT_KEY = "attachments-timeout";
+    /** Property key for the resumable upload endpoint flag. */
+    static final String RESUMABLE_UPLOADS_KEY = "resumable-uploads";
+    /** Property key for gateway-side aggregation of a parent and its attachments into one FlowFile. */
+    static final String AGGREGATE_ATTACHMENTS_KEY = "aggregate-attachments";
+    /** Property key for the header names carried onto FlowFiles. */
+    static final String HEADER_ALLOWLIST_KEY = "header-allowlist";
+    /** Property key for the header names never carried onto FlowFiles. */
+    static final String HEADER_DENYLIST_KEY = "header-denylist";
+    /** Property key for the query parameter names carried onto FlowFiles. */
+    static final String QUERY_ALLOWLIST_KEY = "query-allowlist";
+    /** Property key for the query parameter names never carried onto FlowFiles. */
+    static final String QUERY_DENYLIST_KEY = "query-denylist";
+    /** Property key for the custom claim names carried onto FlowFiles. */
+    static final String CLAIM_ALLOWLIST_KEY = "claim-allowlist";
+    /** Property key for the custom claim names never carried onto FlowFiles. */
+    static final String CLAIM_DENYLIST_KEY = "claim-denylist";
+    /** Property key for the maximum number of records per batch FlowFile. */
+    static final String BATCH_MAX_RECORDS_KEY = "batch-max-records";
+    /** Property key for the maximum summed body size of a batch FlowFile. */
+    static final String BATCH_MAX_BYTES_KEY = "batch-max-bytes";
+    /** Property key for the time a batch stays open (NiFi time duration, e.g. "500 ms"). */
+    static final String BATCH_MAX_WAIT_KEY = "batch-max-wait";
+    /** Property key for fanning a multi-element body out into one FlowFile per element. */
+    static final String SPLIT_MODE_KEY = "split-mode";
+    /** Property key for the maximum number of elements of a split body. */
+    static final String SPLIT_MAX_ELEMENTS_KEY = "split-max-elements";
+    /** Property key for the sustained requests per second per rate-limit key. */
+    static final String RATE_LIMIT_KEY = "rate-limit";
+    /** Property key for the requests a rate-limit key may send at once. */
+    static final String RATE_LIMIT_BURST_KEY = "rate-limit-burst";
+    /** Property key for what the rate limit is applied to. */
+    static final String RATE_LIMIT_KEY_KEY = "rate-limit-key";
+    /** Property key for the route's load-shedding class. */
+    static final String PRIORITY_KEY = "priority";
+    /** Property key for the time a request may wait in the gateway queue. */
+    static final String MAX_QUEUE_AGE_KEY = "max-queue-age";
+    /** Default time a batch stays open after its first request. */
+    static final String DEFAULT_BATCH_MAX_WAIT = "1 sec";
     /** Default timeout for attachment collection. */
     static final String DEFAULT_ATTACHMENTS_TIMEOUT = "30 sec";
 
@@ -141,6 +195,29 @@ public class RouteConfigurationParser {
         String attachmentsTimeout = trackingMode == TrackingMode.ATTACHMENTS
                 ? parseAttachmentsTimeout(routeProps.get(ATTACHMENTS_TIMEOUT_KEY))
                 : null;
+        boolean resumableUploads = "true".equalsIgnoreCase(routeProps.get(RESUMABLE_UPLOADS_KEY));
+        boolean aggregateAttachments = "true".equalsIgnoreCase(routeProps.get(AGGREGATE_ATTACHMENTS_KEY));
+        AttributeProjection headerProjection =
+                parseProjection(routeProps, HEADER_ALLOWLIST_KEY, HEADER_DENYLIST_KEY, true);
+        AttributeProjection queryProjection =
+                parseProjection(routeProps, QUERY_ALLOWLIST_KEY, QUERY_DENYLIST_KEY, false);
+        AttributeProjection claimProjection =
+                parseProjection(routeProps, CLAIM_ALLOWLIST_KEY, CLAIM_DENYLIST_KEY, false);
+        int batchMaxRecords = parseNonNegativeInt(routeProps.get(BATCH_MAX_RECORDS_KEY), 0);
+        int batchMaxBytes = parsePositiveInt(routeProps.get(BATCH_MAX_BYTES_KEY),
+                RouteConfiguration.DEFAULT_BATCH_MAX_BYTES);
+        String batchMaxWait = batchMaxRecords > 0
+                ? parseBatchMaxWait(routeProps.get(BATCH_MAX_WAIT_KEY))
+                : null;
+
+        SplitMode splitMode = parseSplitMode(routeProps.get(SPLIT_MODE_KEY));
+        int splitMaxElements = parsePositiveInt(routeProps.get(SPLIT_MAX_ELEMENTS_KEY),
+                RouteConfiguration.DEFAULT_SPLIT_MAX_ELEMENTS);
+        int rateLimit = parseNonNegativeInt(routeProps.get(RATE_LIMIT_KEY), 0);
+        int rateLimitBurst = rateLimit > 0 ? parseNonNegativeInt(routeProps.get(RATE_LIMIT_BURST_KEY), 0) : 0;
+        RateLimitKey rateLimitKey = parseRateLimitKey(routeProps.get(RATE_LIMIT_KEY_KEY));
+        RoutePriority priority = parsePriority(routeProps.get(PRIORITY_KEY));
+        String maxQueueAge = parseOptionalDuration(routeProps.get(MAX_QUEUE_AGE_KEY));
 
         warnIfNoneAuthWithRolesOrScopes(routeName, authModes, roles, scopes);
 
@@ -155,9 +232,24 @@ public class RouteConfigurationParser {
                     .attachmentsMinCount(attachmentsMinCount)
                     .attachmentsMaxCount(attachmentsMaxCount)
                     .attachmentsTimeout(attachmentsTimeout)
+                    .resumableUploads(resumableUploads)
+                    .aggregateAttachments(aggregateAttachments)
+                    .headerProjection(headerProjection)
+                    .queryProjection(queryProjection)
+                    .claimProjection(claimProjection)
+                    .batchMaxRecords(batchMaxRecords)
+                    .batchMaxBytes(batchMaxBytes)
+                    .batchMaxWait(batchMaxWait)
+                    .splitMode(splitMode)
+                    .splitMaxElements(splitMaxElements)
+                    .rateLimit(rateLimit)
+                    .rateLimitBurst(rateLimitBurst)
+                    .rateLimitKey(rateLimitKey)
+                    .priority(priority)
+                    .maxQueueAge(maxQueueAge)
                     .build();
         } catch (IllegalArgumentException e) {
-            // Invalid attachment settings (e.g. attachments-* configured without
+            // Invalid attachment or upload settings (e.g. attachments-* configured without
             // tracking-mode=attachments) warn-and-skip this single route — matching the
             // missing-`path` behaviour — instead of throwing out of parse() /
             // getRelationships() on a framework/UI thread and killing ALL routes.
@@ -198,6 +290,12 @@ public class RouteConfigurationParser {
         }
     }
 
+    private static AttributeProjection parseProjection(Map<String, String> routeProps, String allowlistKey,
+            String denylistKey, boolean ignoreCase) {
+        return AttributeProjection.of(parseCommaSeparated(routeProps.get(allowlistKey)),
+                parseCommaSeparated(routeProps.get(denylistKey)), ignoreCase);
+    }
+
     private static Set<String> parseHttpMethods(String value) {
         if (value == null || value.isBlank()) {
             return Set.of();
@@ -247,6 +345,20 @@ public class RouteConfigurationParser {
         return value.strip();
     }
 
+    private static String parseBatchMaxWait(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_BATCH_MAX_WAIT;
+        }
+        return value.strip();
+    }
+
+    private static String parseOptionalDuration(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.strip();
+    }
+
     private static TrackingMode parseTrackingMode(String value) {
         if (value == null || value.isBlank()) {
             return TrackingMode.NONE;
@@ -258,4 +370,40 @@ public class RouteConfigurationParser {
             return TrackingMode.NONE;
         }
     }
+
+    private static SplitMode parseSplitMode(String value) {
+        if (value == null || value.isBlank()) {
+            return SplitMode.NONE;
+        }
+        try {
+            return SplitMode.valueOf(value.strip().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.INVALID_SPLIT_MODE, value);
+            return SplitMode.NONE;
+        }
+    }
+
+    private static RateLimitKey parseRateLimitKey(String value) {
+        if (value == null || value.isBlank()) {
+            return RateLimitKey.SUBJECT;
+        }
+        try {
+            return RateLimitKey.valueOf(value.strip().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.INVALID_RATE_LIMIT_KEY, value);
+            return RateLimitKey.SUBJECT;
+        }
+    }
+
+    private static RoutePriority parsePriority(String value) {
+        if (value == null || value.isBlank()) {
+            return RoutePriority.NORMAL;
+        }
+        try {
+            return RoutePriority.valueOf(value.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.INVALID_ROUTE_PRIORITY, value);
+            return RoutePriority.NORMAL;
+        }
+    }
 }
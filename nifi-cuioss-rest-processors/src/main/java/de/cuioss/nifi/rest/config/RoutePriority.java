@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.config;
+
+/**
+ * Load-shedding class of a route: which routes give way first when the gateway's adaptive
+ * concurrency limit is reached.
+ *
+ * <ul>
+ *   <li>{@link #LOW} — Shed once the queue holds half the current limit.</li>
+ *   <li>{@link #NORMAL} — Shed once the queue holds the current limit (default).</li>
+ *   <li>{@link #HIGH} — Never shed by the limit; only a full queue rejects it.</li>
+ * </ul>
+ */
+public enum RoutePriority {
+    LOW,
+    NORMAL,
+    HIGH
+}
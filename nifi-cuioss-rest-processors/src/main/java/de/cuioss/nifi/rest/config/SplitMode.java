@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.config;
+
+/**
+ * Controls whether a route fans a multi-element JSON body out into one FlowFile per element.
+ *
+ * <ul>
+ *   <li>{@link #NONE} — The body is one FlowFile (default).</li>
+ *   <li>{@link #JSON_ARRAY} — The body is a JSON array; every element becomes its own FlowFile.</li>
+ *   <li>{@link #NDJSON} — The body is newline-delimited JSON; every non-blank line becomes its own
+ *       FlowFile.</li>
+ * </ul>
+ */
+public enum SplitMode {
+    NONE,
+    JSON_ARRAY,
+    NDJSON
+}
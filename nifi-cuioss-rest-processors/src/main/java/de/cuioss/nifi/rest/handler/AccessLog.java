@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.tools.logging.CuiLogger;
+import jakarta.json.Json;
+import jakarta.json.JsonObjectBuilder;
+import lombok.NonNull;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous structured access log of the gateway: one JSON line per request.
+ * <p>
+ * The request thread only samples the finished request and appends its {@link AccessLogRecord}
+ * to a lock-free {@link AccessLogRing}; serialization and file I/O happen on a single background
+ * writer thread that drains the ring in batches. When the ring is full the record is dropped and
+ * counted — the access log never slows down or blocks request processing.
+ * <p>
+ * Successful requests (status below 400) are sampled with the configured percentage; rejected and
+ * failed requests are always logged. The file {@value #FILE_NAME} is rotated once it exceeds the
+ * configured size: the current file becomes {@code .1}, older files shift up and the oldest beyond
+ * the configured count is deleted.
+ */
+public final class AccessLog implements AutoCloseable {
+
+    private static final CuiLogger LOGGER = new CuiLogger(AccessLog.class);
+
+    /** Name of the active access-log file inside the configured directory. */
+    public static final String FILE_NAME = "access.log";
+
+    /** Request attribute naming the route or management endpoint that handled the request. */
+    public static final String ROUTE_ATTRIBUTE = "de.cuioss.nifi.rest.accessLog.route";
+    /** Request attribute holding the client address, preferring the honored forwarded client IP. */
+    public static final String CLIENT_ATTRIBUTE = "de.cuioss.nifi.rest.accessLog.client";
+    /** Request attribute holding the authenticated token subject. */
+    public static final String SUBJECT_ATTRIBUTE = "de.cuioss.nifi.rest.accessLog.subject";
+    /** Request attribute holding the trace ID(s) minted for the request. */
+    public static final String TRACE_ID_ATTRIBUTE = "de.cuioss.nifi.rest.accessLog.traceId";
+
+    /** Maximum number of records written per batch. */
+    static final int MAX_BATCH_SIZE = 512;
+
+    /** Idle time of the writer thread when the ring is empty. */
+    private static final Duration IDLE_WAIT = Duration.ofMillis(20);
+
+    /** Time {@link #close} waits for the writer thread before writing the remainder itself. */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Point-in-time view of the access log.
+     *
+     * @param written    records written to the file
+     * @param dropped    records dropped because the ring was full or the write failed
+     * @param sampledOut successful requests skipped by sampling
+     */
+    public record Stats(long written, long dropped, long sampledOut) {
+    }
+
+    private final Path file;
+    private final int samplePercent;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final AccessLogRing<AccessLogRecord> ring;
+    @Nullable private final Thread writerThread;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+
+    private volatile boolean running = true;
+    /** Only used by the writer thread, or by {@link #close} after it stopped. */
+    @Nullable private OutputStream out;
+    private long fileSize;
+
+    /**
+     * @param directory     directory of the access-log files, created if absent
+     * @param capacity      ring buffer slots (rounded up to a power of two)
+     * @param samplePercent percentage of successful requests to log (0-100)
+     * @param maxFileSize   size in bytes after which the file is rotated
+     * @param maxFiles      number of rotated files to keep
+     * @throws IOException if the directory cannot be created
+     */
+    public AccessLog(@NonNull Path directory, int capacity, int samplePercent, long maxFileSize, int maxFiles)
+            throws IOException {
+        this(directory, capacity, samplePercent, maxFileSize, maxFiles, true);
+    }
+
+    /**
+     * @param background {@code false} starts no writer thread; tests call {@link #drain()} instead
+     */
+    AccessLog(Path directory, int capacity, int samplePercent, long maxFileSize, int maxFiles, boolean background)
+            throws IOException {
+        if (samplePercent < 0 || samplePercent > 100) {
+            throw new IllegalArgumentException("samplePercent must be between 0 and 100: " + samplePercent);
+        }
+        if (maxFileSize <= 0 || maxFiles < 0) {
+            throw new IllegalArgumentException("maxFileSize must be positive and maxFiles not negative");
+        }
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        this.samplePercent = samplePercent;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.ring = new AccessLogRing<>(capacity);
+        this.writerThread = background
+                ? Thread.ofPlatform().name("rest-gateway-access-log").daemon().start(this::runWriteLoop)
+                : null;
+    }
+
+    /**
+     * Samples a finished request and queues its record; called on the Jetty thread when the
+     * response completed.
+     *
+     * @param request    the request, carrying the route, client, subject and trace ID attributes
+     * @param response   the committed response
+     * @param startNanos {@link System#nanoTime()} when dispatch started
+     */
+    public void log(Request request, Response response, long startNanos) {
+        int status = response.getStatus();
+        if (!admit(status)) {
+            return;
+        }
+        var accessLogRecord = new AccessLogRecord(
+                System.currentTimeMillis(),
+                request.getMethod(),
+                request.getHttpURI().getPath(),
+                attribute(request, ROUTE_ATTRIBUTE),
+                status,
+                Request.getContentBytesRead(request),
+                Response.getContentBytesWritten(response),
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos),
+                clientAddress(request),
+                attribute(request, SUBJECT_ATTRIBUTE),
+                attribute(request, TRACE_ID_ATTRIBUTE));
+        append(accessLogRecord);
+    }
+
+    /**
+     * Queues a record without sampling.
+     */
+    void append(AccessLogRecord accessLogRecord) {
+        if (!running || !ring.offer(accessLogRecord)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the current counters
+     */
+    public Stats stats() {
+        return new Stats(written.get(), dropped.get(), sampledOut.get());
+    }
+
+    /**
+     * Stops the writer thread, writes the records still queued and closes the file.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(SHUTDOWN_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (writerThread == null || !writerThread.isAlive()) {
+            drain();
+            closeFile();
+        }
+    }
+
+    /**
+     * Applies sampling: rejected and failed requests are always admitted.
+     */
+    boolean admit(int status) {
+        if (status >= 400 || samplePercent >= 100
+                || samplePercent > 0 && ThreadLocalRandom.current().nextInt(100) < samplePercent) {
+            return true;
+        }
+        sampledOut.incrementAndGet();
+        return false;
+    }
+
+    @Nullable
+    private static String attribute(Request request, String name) {
+        return request.getAttribute(name) instanceof String value ? value : null;
+    }
+
+    private static String clientAddress(Request request) {
+        String client = attribute(request, CLIENT_ATTRIBUTE);
+        return client != null ? client : Request.getRemoteAddr(request);
+    }
+
+    private void runWriteLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_WAIT.toNanos());
+            }
+        }
+    }
+
+    /**
+     * Writes up to {@link #MAX_BATCH_SIZE} queued records and flushes the file.
+     *
+     * @return the number of records taken from the ring
+     */
+    int drain() {
+        int count = 0;
+        AccessLogRecord next;
+        try {
+            while (count < MAX_BATCH_SIZE && (next = ring.poll()) != null) {
+                count++;
+                write(toJsonLine(next));
+                written.incrementAndGet();
+            }
+            if (out != null && count > 0) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Drop the rest of this batch; the next batch reopens the file
+            LOGGER.warn(RestApiLogMessages.WARN.ACCESS_LOG_WRITE_FAILED, file, e.getMessage());
+            dropBatchRemainder(count);
+            closeFile();
+        }
+        return count;
+    }
+
+    private void dropBatchRemainder(int taken) {
+        long lost = 1;
+        for (int i = taken; i < MAX_BATCH_SIZE && ring.poll() != null; i++) {
+            lost++;
+        }
+        dropped.addAndGet(lost);
+    }
+
+    private void write(byte[] line) throws IOException {
+        if (out == null) {
+            fileSize = Files.exists(file) ? Files.size(file) : 0;
+            out = new BufferedOutputStream(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        }
+        out.write(line);
+        fileSize += line.length;
+        if (fileSize >= maxFileSize) {
+            rotate();
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeFile();
+        if (maxFiles == 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = rotated(i);
+            if (Files.exists(source)) {
+                Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(FILE_NAME + "." + index);
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOGGER.warn(RestApiLogMessages.WARN.ACCESS_LOG_WRITE_FAILED, file, e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    static byte[] toJsonLine(AccessLogRecord accessLogRecord) {
+        JsonObjectBuilder json = Json.createObjectBuilder()
+                .add("timestamp", Instant.ofEpochMilli(accessLogRecord.timestampMillis()).toString())
+                .add("method", accessLogRecord.method())
+                .add("path", accessLogRecord.path());
+        addIfPresent(json, "route", accessLogRecord.route());
+        json.add("status", accessLogRecord.status())
+                .add("requestBytes", accessLogRecord.requestBytes())
+                .add("responseBytes", accessLogRecord.responseBytes())
+                .add("durationMicros", accessLogRecord.durationMicros())
+                .add("remoteHost", accessLogRecord.remoteHost());
+        addIfPresent(json, "subject", accessLogRecord.subject());
+        addIfPresent(json, "traceId", accessLogRecord.traceId());
+        return (json.build() + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void addIfPresent(JsonObjectBuilder json, String name, @Nullable String value) {
+        if (value != null) {
+            json.add(name, value);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * One structured access-log line: the outcome of a single gateway request.
+ *
+ * @param timestampMillis  completion time in Unix epoch milliseconds
+ * @param method           the HTTP method
+ * @param path             the request path as received
+ * @param route            the matched route or management endpoint, {@code null} if none matched
+ * @param status           the HTTP status sent
+ * @param requestBytes     request body bytes read
+ * @param responseBytes    response body bytes written
+ * @param durationMicros   time from dispatch to completion of the response
+ * @param remoteHost       the client address
+ * @param subject          the token subject, {@code null} for unauthenticated requests
+ * @param traceId          the trace ID(s) of a tracked request, {@code null} if untracked
+ */
+public record AccessLogRecord(long timestampMillis, String method, String path, @Nullable String route,
+        int status, long requestBytes, long responseBytes, long durationMicros, String remoteHost,
+        @Nullable String subject, @Nullable String traceId) {
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer single-consumer ring buffer.
+ * <p>
+ * Each slot carries a sequence number: producers claim a position with a single CAS on the tail
+ * and publish the element by advancing the slot's sequence, the consumer takes the element once the
+ * sequence shows it is published and hands the slot back by advancing the sequence a full lap. A
+ * full ring makes {@link #offer} fail instead of blocking the producer.
+ *
+ * @param <E> the element type
+ */
+final class AccessLogRing<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** Only read and written by the single consumer. */
+    private long head;
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two
+     */
+    AccessLogRing(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit((capacity - 1) << 1);
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Appends an element; safe to call from any thread.
+     *
+     * @return {@code false} if the ring is full
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long distance = sequences.get(index) - position;
+            if (distance == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (distance < 0) {
+                // The slot still holds an element of the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest published element; must only be called by the consumer thread.
+     *
+     * @return the element, or {@code null} if the ring is empty
+     */
+    @Nullable
+    E poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.set(index, null);
+        sequences.set(index, head + mask + 1);
+        head++;
+        return element;
+    }
+
+    /**
+     * @return the number of slots
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.config.RoutePriority;
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptive limit on the requests waiting in the gateway's request queue, shedding low-priority
+ * routes first.
+ * <p>
+ * The queue absorbs short bursts, but once {@code onTrigger} falls behind every queued request
+ * waits longer, and a full queue rejects all routes alike. This limiter keeps the queue short
+ * instead: its limit follows the measured queue wait with additive increase and multiplicative
+ * decrease. Every dequeued request that waited no longer than the target raises the limit by one.
+ * A longer wait lowers it by a tenth, and so does a non-empty queue that has not been drained for
+ * longer than the target, as when NiFi back-pressure stalls {@code onTrigger}. Decreases happen at
+ * most once per target interval, so one slow drain is not counted once per request it held.
+ * <p>
+ * Admission compares the queue occupancy with the limit per {@link RoutePriority}: {@code LOW}
+ * routes are shed at half the limit, {@code NORMAL} routes at the limit and {@code HIGH} routes
+ * only by the queue's own capacity.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Snapshot of the limiter state.
+     *
+     * @param limit    the current limit
+     * @param inFlight requests currently queued
+     * @param shed     requests rejected so far, per priority
+     */
+    public record Stats(int limit, int inFlight, Map<RoutePriority, Long> shed) {
+    }
+
+    private static final double DECREASE_FACTOR = 0.9;
+    private static final double WAIT_SMOOTHING = 0.2;
+
+    private final IntSupplier occupancy;
+    private final int maxLimit;
+    private final long targetWaitNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger limit;
+    private final AtomicLong lastDrainNanos;
+    private final AtomicLong lastDecreaseNanos;
+    private final AtomicLong smoothedWaitNanos = new AtomicLong();
+    private final Map<RoutePriority, LongAdder> shed = new EnumMap<>(RoutePriority.class);
+
+    /**
+     * @param occupancy       the number of requests currently queued
+     * @param capacity        the queue capacity, which is also the initial and maximum limit
+     * @param targetWaitNanos the queue wait above which the limit is lowered (positive)
+     */
+    public AdaptiveConcurrencyLimiter(@NonNull IntSupplier occupancy, int capacity, long targetWaitNanos) {
+        this(occupancy, capacity, targetWaitNanos, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(@NonNull IntSupplier occupancy, int capacity, long targetWaitNanos,
+            @NonNull LongSupplier nanoClock) {
+        if (capacity <= 0 || targetWaitNanos <= 0) {
+            throw new IllegalArgumentException("capacity and targetWaitNanos must be positive");
+        }
+        this.occupancy = occupancy;
+        this.maxLimit = capacity;
+        this.targetWaitNanos = targetWaitNanos;
+        this.nanoClock = nanoClock;
+        this.limit = new AtomicInteger(capacity);
+        long now = nanoClock.getAsLong();
+        this.lastDrainNanos = new AtomicLong(now);
+        this.lastDecreaseNanos = new AtomicLong(now - targetWaitNanos);
+        for (RoutePriority priority : RoutePriority.values()) {
+            shed.put(priority, new LongAdder());
+        }
+    }
+
+    /**
+     * Decides whether a request of the given priority may be queued, counting it as shed if not.
+     *
+     * @param priority the load-shedding class of the request's route
+     * @return {@code true} if the request is admitted
+     */
+    public boolean tryAdmit(@NonNull RoutePriority priority) {
+        if (priority == RoutePriority.HIGH) {
+            return true;
+        }
+        int queued = occupancy.getAsInt();
+        long now = nanoClock.getAsLong();
+        if (queued == 0) {
+            // An empty queue is as good as drained; the stall check measures from here
+            lastDrainNanos.set(now);
+        } else if (now - lastDrainNanos.get() > targetWaitNanos) {
+            decrease(now);
+        }
+        int current = limit.get();
+        int threshold = priority == RoutePriority.LOW ? Math.max(1, current / 2) : current;
+        if (queued < threshold) {
+            return true;
+        }
+        shed.get(priority).increment();
+        return false;
+    }
+
+    /**
+     * Records that a request left the queue.
+     *
+     * @param receivedNanos the {@link System#nanoTime()} at which the request was queued
+     */
+    public void onDequeued(long receivedNanos) {
+        long now = nanoClock.getAsLong();
+        lastDrainNanos.set(now);
+        long wait = Math.max(0L, now - receivedNanos);
+        long smoothed = smoothedWaitNanos.get();
+        // Lost updates under contention only delay the average slightly
+        smoothedWaitNanos.set(smoothed + (long) ((wait - smoothed) * WAIT_SMOOTHING));
+        if (wait > targetWaitNanos) {
+            decrease(now);
+        } else if (limit.get() < maxLimit) {
+            limit.getAndUpdate(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    /**
+     * @return the {@code Retry-After} seconds for a shed request: the smoothed queue wait, rounded
+     * up, and at least one second
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(smoothedWaitNanos.get() + 999_999_999L));
+    }
+
+    /**
+     * @return the current limit
+     */
+    public int limit() {
+        return limit.get();
+    }
+
+    /**
+     * @return the number of requests currently queued
+     */
+    public int inFlight() {
+        return occupancy.getAsInt();
+    }
+
+    /**
+     * @return a snapshot of the limit, the queued requests and the shed counts
+     */
+    public Stats stats() {
+        Map<RoutePriority, Long> shedCounts = new EnumMap<>(RoutePriority.class);
+        shed.forEach((priority, count) -> shedCounts.put(priority, count.sum()));
+        return new Stats(limit.get(), occupancy.getAsInt(), Collections.unmodifiableMap(shedCounts));
+    }
+
+    private void decrease(long now) {
+        long last = lastDecreaseNanos.get();
+        if (now - last >= targetWaitNanos && lastDecreaseNanos.compareAndSet(last, now)) {
+            limit.getAndUpdate(current -> Math.max(1, (int) (current * DECREASE_FACTOR)));
+        }
+    }
+}
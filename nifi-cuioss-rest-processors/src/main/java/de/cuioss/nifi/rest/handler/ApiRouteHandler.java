@@ -16,14 +16,19 @@
  */
 package de.cuioss.nifi.rest.handler;
 
+import de.cuioss.nifi.rest.RestApiAttributes;
 import de.cuioss.nifi.rest.RestApiLogMessages;
 import de.cuioss.nifi.rest.config.AuthMode;
 import de.cuioss.nifi.rest.config.RouteConfiguration;
+import de.cuioss.nifi.rest.config.RoutePriority;
 import de.cuioss.nifi.rest.config.TrackingMode;
 import de.cuioss.nifi.rest.validation.JsonSchemaValidator;
 import de.cuioss.nifi.rest.validation.SchemaViolation;
 import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
 import de.cuioss.tools.logging.CuiLogger;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import lombok.Builder;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Response;
@@ -33,8 +38,13 @@ import org.jspecify.annotations.Nullable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
@@ -52,6 +62,19 @@ public final class ApiRouteHandler implements EndpointHandler {
 
     private static final String X_PARENT_TRACE_ID = "X-Parent-Trace-Id";
 
+    /**
+     * Client-supplied time budget in milliseconds. On routes with a {@code max-queue-age} it shortens
+     * the queue deadline of the request; it can never extend it.
+     */
+    public static final String X_REQUEST_TIMEOUT_MS = "X-Request-Timeout-Ms";
+
+    /** Client-chosen key that makes retries of a body request safe. */
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    /** Marks a response answered from a stored Idempotency-Key outcome. */
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final String ELEMENT_CONTENT_TYPE = "application/json";
+
     private final RouteConfiguration route;
     private final BlockingQueue<HttpRequestContainer> queue;
     private final int globalMaxRequestSize;
@@ -59,38 +82,48 @@ public final class ApiRouteHandler implements EndpointHandler {
     private final GatewaySecurityEvents gatewaySecurityEvents;
     @Nullable private final RequestStatusStore statusStore;
     private final int attachmentsHardLimit;
+    @Nullable private final AttachmentWindowTimer windowTimer;
+    private final TraceIdGenerator traceIdGenerator;
+    @Nullable private final RateLimiter rateLimiter;
+    @Nullable private final IdempotencyStore idempotencyStore;
 
-    public ApiRouteHandler(RouteConfiguration route,
-            BlockingQueue<HttpRequestContainer> queue,
-            int globalMaxRequestSize,
-            @Nullable JsonSchemaValidator schemaValidator,
-            GatewaySecurityEvents gatewaySecurityEvents) {
-        this(route, queue, globalMaxRequestSize, schemaValidator, gatewaySecurityEvents, null, 0);
-    }
-
-    public ApiRouteHandler(RouteConfiguration route,
-            BlockingQueue<HttpRequestContainer> queue,
-            int globalMaxRequestSize,
-            @Nullable JsonSchemaValidator schemaValidator,
-            GatewaySecurityEvents gatewaySecurityEvents,
-            @Nullable RequestStatusStore statusStore) {
-        this(route, queue, globalMaxRequestSize, schemaValidator, gatewaySecurityEvents, statusStore, 0);
-    }
-
-    public ApiRouteHandler(RouteConfiguration route,
-            BlockingQueue<HttpRequestContainer> queue,
-            int globalMaxRequestSize,
-            @Nullable JsonSchemaValidator schemaValidator,
-            GatewaySecurityEvents gatewaySecurityEvents,
-            @Nullable RequestStatusStore statusStore,
-            int attachmentsHardLimit) {
-        this.route = route;
-        this.queue = queue;
-        this.globalMaxRequestSize = globalMaxRequestSize;
-        this.schemaValidator = schemaValidator;
-        this.gatewaySecurityEvents = gatewaySecurityEvents;
-        this.statusStore = statusStore;
-        this.attachmentsHardLimit = attachmentsHardLimit;
+    /**
+     * Configuration holder for ApiRouteHandler construction parameters. Only {@code route},
+     * {@code queue}, {@code globalMaxRequestSize} and {@code gatewaySecurityEvents} are required.
+     * A {@code null} {@code statusStore} disables request tracking; {@code attachmentsHardLimit} is
+     * the cap of an attachments route that leaves {@code attachments-max-count} at 0; a {@code null}
+     * {@code traceIdGenerator} selects {@link TraceIdGenerator#random()}; a {@code null}
+     * {@code idempotencyStore} ignores {@code Idempotency-Key} headers.
+     */
+    @Builder
+    public record Config(
+    RouteConfiguration route,
+    BlockingQueue<HttpRequestContainer> queue,
+    int globalMaxRequestSize,
+    @Nullable JsonSchemaValidator schemaValidator,
+    GatewaySecurityEvents gatewaySecurityEvents,
+    @Nullable RequestStatusStore statusStore,
+    int attachmentsHardLimit,
+    @Nullable AttachmentWindowTimer windowTimer,
+    @Nullable TraceIdGenerator traceIdGenerator,
+    @Nullable IdempotencyStore idempotencyStore) {
+    }
+
+    public ApiRouteHandler(Config config) {
+        this.route = config.route();
+        this.queue = config.queue();
+        this.globalMaxRequestSize = config.globalMaxRequestSize();
+        this.schemaValidator = config.schemaValidator();
+        this.gatewaySecurityEvents = config.gatewaySecurityEvents();
+        this.statusStore = config.statusStore();
+        this.attachmentsHardLimit = config.attachmentsHardLimit();
+        this.windowTimer = config.windowTimer();
+        this.traceIdGenerator = (config.traceIdGenerator() != null)
+                ? config.traceIdGenerator() : TraceIdGenerator.random();
+        this.rateLimiter = route.isRateLimited()
+                ? new RateLimiter(route.rateLimit(), route.effectiveRateLimitBurst(), route.rateLimitKey())
+                : null;
+        this.idempotencyStore = config.idempotencyStore();
     }
 
     @Override
@@ -138,19 +171,80 @@ public final class ApiRouteHandler implements EndpointHandler {
         return route.maxRequestSize() > 0 ? route.maxRequestSize() : globalMaxRequestSize;
     }
 
+    /**
+     * Applies the route's header projection; {@code X-Parent-Trace-Id} is always retained because
+     * tracked requests resolve their parent linkage from it, {@code X-Request-Timeout-Ms} on routes
+     * with a max queue age because the queue deadline is derived from it, and {@code Idempotency-Key}
+     * while idempotency is enabled because duplicates are recognized by it.
+     */
+    @Override
+    public boolean retainsHeader(String name) {
+        return route.headerProjection().includes(name) || X_PARENT_TRACE_ID.equalsIgnoreCase(name)
+                || (route.hasMaxQueueAge() && X_REQUEST_TIMEOUT_MS.equalsIgnoreCase(name))
+                || (idempotencyStore != null && IDEMPOTENCY_KEY.equalsIgnoreCase(name));
+    }
+
+    @Override
+    public boolean retainsQueryParameter(String name) {
+        return route.queryProjection().includes(name);
+    }
+
+    @Override
+    public @Nullable RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    @Override
+    public @Nullable RoutePriority priority() {
+        return route.createFlowFile() ? route.priority() : null;
+    }
+
     @Override
     public void process(SanitizedRequest sanitized,
             @Nullable AccessTokenContent token,
             byte[] body,
             Request request, Response response, Callback callback) throws IOException {
         String method = request.getMethod();
-        String path = sanitized.path();
+        if (route.isSplit() && isBodyMethod(method)) {
+            processElements(sanitized, token, body, request, response, callback);
+            return;
+        }
+
+        String idempotencyKey = (idempotencyStore != null && route.createFlowFile() && isBodyMethod(method))
+                ? sanitized.headers().get(IDEMPOTENCY_KEY)
+                : null;
+        if (idempotencyKey != null) {
+            processIdempotent(idempotencyKey, sanitized, token, body, request, response, callback);
+            return;
+        }
+        Accepted accepted = accept(sanitized, token, body, request, response, callback);
+        if (accepted != null) {
+            sendAccepted(accepted, sanitized, request, response, callback);
+        }
+    }
+
+    /**
+     * Outcome of a request that passed validation and was enqueued.
+     *
+     * @param traceId the trace ID of a tracked request, {@code null} otherwise
+     */
+    private record Accepted(@Nullable String traceId) {
+    }
+
+    /**
+     * Validates, tracks and enqueues a single request.
+     *
+     * @return the accepted request, or {@code null} if an error response has already been sent
+     */
+    private @Nullable Accepted accept(SanitizedRequest sanitized, @Nullable AccessTokenContent token,
+            byte[] body, Request request, Response response, Callback callback) {
+        String method = request.getMethod();
 
         // Schema validation applies only when a body is expected (POST/PUT/PATCH) or a body
         // is actually present. Body-less methods (GET/DELETE) with an empty body are not
         // 422'd — an empty body is unparseable JSON and must not be treated as a violation.
         if ((isBodyMethod(method) || body.length > 0) && !validateSchema(body, response, callback)) {
-            return;
+            return null;
         }
 
         // Determine if this is a tracked body method
@@ -159,10 +253,10 @@ public final class ApiRouteHandler implements EndpointHandler {
         String parentTraceId = null;
 
         if (tracked) {
-            traceId = UUID.randomUUID().toString();
-            parentTraceId = getHeaderIgnoreCase(sanitized.headers(), X_PARENT_TRACE_ID);
+            traceId = traceIdGenerator.nextTraceId();
+            parentTraceId = sanitized.headers().get(X_PARENT_TRACE_ID);
             if (!registerTracking(traceId, parentTraceId, response, callback)) {
-                return;
+                return null;
             }
         }
 
@@ -170,19 +264,283 @@ public final class ApiRouteHandler implements EndpointHandler {
                 new TrackingContext(traceId, parentTraceId), response, callback)) {
             // M5: enqueueFlowFile has already evicted the tracking entry (before flushing the 503),
             // so a queue-full response never leaves an orphaned non-terminal entry in the cache.
-            return;
+            return null;
         }
 
-        // Success response — audit logging prefers the honored forwarded client IP.
+        // Audit logging prefers the honored forwarded client IP.
         String remoteHost = sanitized.forwarding().clientIp().orElse(Request.getRemoteAddr(request));
-        LOGGER.info(RestApiLogMessages.INFO.REQUEST_PROCESSED,
-                route.name(), method, path, remoteHost);
-        if (tracked) {
-            RequestUtils.sendAcceptedResponse(request, sanitized, response, callback, traceId,
+        LOGGER.debug("Request processed for route '%s': %s %s from %s", route.name(), method, sanitized.path(),
+                remoteHost);
+        return new Accepted(traceId);
+    }
+
+    private void sendAccepted(Accepted accepted, SanitizedRequest sanitized, Request request, Response response,
+            Callback callback) {
+        if (accepted.traceId() != null) {
+            RequestUtils.sendAcceptedResponse(request, sanitized, response, callback, accepted.traceId(),
                     route.trackingMode() == TrackingMode.ATTACHMENTS);
         } else {
-            sendSuccessResponse(response, callback, method);
+            sendSuccessResponse(response, callback, request.getMethod());
+        }
+    }
+
+    /**
+     * Variant of {@link #process} for a request carrying an {@code Idempotency-Key}. The first request
+     * with a key is processed and its outcome stored; a retry of the same request with the same key is
+     * answered with that outcome — the original trace ID on tracked routes — without being enqueued
+     * again. Keys are scoped to the route and the caller, so two clients can never see each other's
+     * outcome.
+     */
+    private void processIdempotent(String idempotencyKey, SanitizedRequest sanitized,
+            @Nullable AccessTokenContent token, byte[] body, Request request, Response response, Callback callback) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            ProblemDetail.badRequest("Idempotency-Key must be 1 to %d characters long"
+                    .formatted(MAX_IDEMPOTENCY_KEY_LENGTH)).sendResponse(response, callback);
+            return;
+        }
+        String remoteHost = sanitized.forwarding().clientIp().orElse(Request.getRemoteAddr(request));
+        String key = sha256Hex(utf8(route.name()), utf8(callerOf(token, remoteHost)), utf8(idempotencyKey));
+        String fingerprint = sha256Hex(utf8(request.getMethod()), utf8(sanitized.path()), body);
+        IdempotencyStore.Claim claim;
+        try {
+            claim = idempotencyStore.claim(key, fingerprint);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            ProblemDetail.serviceUnavailable("Idempotency store temporarily unavailable")
+                    .sendResponse(response, callback);
+            return;
+        }
+        switch (claim.outcome()) {
+            case CLAIMED -> processClaimed(key, fingerprint, sanitized, token, body, request, response, callback);
+            case COMPLETED -> {
+                gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.IDEMPOTENT_REPLAY);
+                LOGGER.debug("Replaying the stored outcome of a request for route '%s' from %s",
+                        route.name(), remoteHost);
+                response.getHeaders().put(IDEMPOTENT_REPLAYED, "true");
+                sendAccepted(new Accepted(claim.traceId()), sanitized, request, response, callback);
+            }
+            case IN_FLIGHT -> {
+                gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.IDEMPOTENCY_CONFLICT);
+                response.getHeaders().put(HttpHeader.RETRY_AFTER, 1);
+                ProblemDetail.conflict("A request with this Idempotency-Key is still being processed")
+                        .sendResponse(response, callback);
+            }
+            case MISMATCH -> {
+                gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.IDEMPOTENCY_CONFLICT);
+                ProblemDetail.validationError("Idempotency-Key was already used for a different request")
+                        .sendResponse(response, callback);
+            }
+        }
+    }
+
+    /**
+     * Processes the request that claimed its idempotency key. The key is completed before the
+     * response is sent, so a retry after the response always finds the outcome; a rejected request
+     * releases its key so the client can retry with it.
+     */
+    private void processClaimed(String key, String fingerprint, SanitizedRequest sanitized,
+            @Nullable AccessTokenContent token, byte[] body, Request request, Response response, Callback callback) {
+        Accepted accepted = null;
+        try {
+            accepted = accept(sanitized, token, body, request, response, callback);
+        } finally {
+            settleIdempotencyKey(key, fingerprint, accepted);
+        }
+        if (accepted != null) {
+            sendAccepted(accepted, sanitized, request, response, callback);
+        }
+    }
+
+    private void settleIdempotencyKey(String key, String fingerprint, @Nullable Accepted accepted) {
+        try {
+            if (accepted != null) {
+                idempotencyStore.complete(key, fingerprint, accepted.traceId());
+            } else {
+                idempotencyStore.release(key);
+            }
+        } catch (IOException e) {
+            // The request itself is unaffected; a retry meets the in-flight key until it expires
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+        }
+    }
+
+    /**
+     * Identifies the caller an idempotency key belongs to: the token's issuer and subject, or the
+     * client IP for anonymous requests.
+     */
+    private static String callerOf(@Nullable AccessTokenContent token, String remoteHost) {
+        if (token == null || token.getSubject().isEmpty()) {
+            return "ip:" + remoteHost;
+        }
+        return "sub:" + token.getIssuer() + "|" + token.getSubject().get();
+    }
+
+    /**
+     * SHA-256 over the length-prefixed parts, hex encoded. Keeps cache keys short and free of
+     * client-controlled characters, and fingerprints independent of the body size.
+     */
+    private static String sha256Hex(byte[]... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+        for (byte[] part : parts) {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(part.length).flip());
+            digest.update(part);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Split-route variant of {@link #process}: every body element is validated against the route's
+     * schema on its own, the valid elements are enqueued as one container each (all or none), and the
+     * client receives a 207 Multi-Status with one result per element.
+     */
+    private void processElements(SanitizedRequest sanitized, @Nullable AccessTokenContent token, byte[] body,
+            Request request, Response response, Callback callback) {
+        List<byte[]> elements;
+        try {
+            elements = JsonElementSplitter.split(route.splitMode(), body, route.splitMaxElements());
+        } catch (JsonElementSplitter.TooManyElementsException e) {
+            gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.BODY_TOO_LARGE);
+            ProblemDetail.payloadTooLarge(e.getMessage()).sendResponse(response, callback);
+            return;
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.SPLIT_BODY_MALFORMED, route.name(), e.getMessage());
+            ProblemDetail.validationError(e.getMessage()).sendResponse(response, callback);
+            return;
+        }
+        if (elements.isEmpty()) {
+            ProblemDetail.validationError("Request body contains no elements").sendResponse(response, callback);
+            return;
+        }
+
+        List<List<SchemaViolation>> violations = new ArrayList<>(elements.size());
+        List<Integer> accepted = new ArrayList<>(elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            List<SchemaViolation> elementViolations = schemaValidator != null && route.hasSchemaValidation()
+                    ? schemaValidator.validate(route.name(), elements.get(i))
+                    : List.of();
+            violations.add(elementViolations);
+            if (elementViolations.isEmpty()) {
+                accepted.add(i);
+            }
+        }
+        if (accepted.size() < elements.size()) {
+            gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.SCHEMA_VALIDATION_FAILED);
+            LOGGER.warn(RestApiLogMessages.WARN.SPLIT_ELEMENTS_REJECTED,
+                    elements.size() - accepted.size(), elements.size(), route.name());
+        }
+
+        boolean tracked = route.isTracked() && statusStore != null;
+        String parentTraceId = tracked ? sanitized.headers().get(X_PARENT_TRACE_ID) : null;
+        Optional<List<String>> traceIds = tracked
+                ? registerElementTracking(accepted.size(), parentTraceId, response, callback)
+                : Optional.of(List.of());
+        if (traceIds.isEmpty()) {
+            return;
         }
+
+        List<HttpRequestContainer> containers = new ArrayList<>(accepted.size());
+        String remoteHost = sanitized.forwarding().clientIp().orElse(Request.getRemoteAddr(request));
+        String fragmentId = UUID.randomUUID().toString();
+        for (int k = 0; k < accepted.size(); k++) {
+            Map<String, String> attributes = Map.of(
+                    RestApiAttributes.FRAGMENT_IDENTIFIER, fragmentId,
+                    RestApiAttributes.FRAGMENT_INDEX, String.valueOf(k),
+                    RestApiAttributes.FRAGMENT_COUNT, String.valueOf(accepted.size()),
+                    RestApiAttributes.SPLIT_ELEMENT_INDEX, String.valueOf(accepted.get(k)));
+            containers.add(new HttpRequestContainer(
+                    route.name(), request.getMethod(), sanitized.path(),
+                    sanitized.queryParameters(), sanitized.headers(),
+                    remoteHost,
+                    elements.get(accepted.get(k)),
+                    ELEMENT_CONTENT_TYPE,
+                    token,
+                    tracked ? traceIds.get().get(k) : null,
+                    parentTraceId,
+                    sanitized.pathParameters(),
+                    attributes));
+        }
+        if (!enqueueElements(containers, traceIds.get(), request, sanitized, remoteHost, response, callback)) {
+            return;
+        }
+
+        JsonArrayBuilder results = Json.createArrayBuilder();
+        int next = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            var result = Json.createObjectBuilder().add("index", i);
+            if (violations.get(i).isEmpty()) {
+                result.add("status", 202);
+                if (tracked) {
+                    result.add("traceId", traceIds.get().get(next));
+                }
+                next++;
+            } else {
+                JsonArrayBuilder elementViolations = Json.createArrayBuilder();
+                violations.get(i).forEach(v -> elementViolations.add(Json.createObjectBuilder()
+                        .add("pointer", v.pointer())
+                        .add("message", v.message())));
+                result.add("status", 422).add("violations", elementViolations);
+            }
+            results.add(result);
+        }
+        LOGGER.debug("Split request processed for route '%s': %s of %s elements accepted",
+                route.name(), accepted.size(), elements.size());
+        RequestUtils.sendMultiStatusResponse(sanitized, response, callback, accepted.size(), results.build());
+    }
+
+    /**
+     * Registers one tracking entry per accepted element. If the status store fails part-way, the
+     * entries registered so far are evicted again and the 503 has already been sent.
+     */
+    private Optional<List<String>> registerElementTracking(int count, @Nullable String parentTraceId,
+            Response response, Callback callback) {
+        List<String> traceIds = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            String traceId = traceIdGenerator.nextTraceId();
+            if (!registerTracking(traceId, parentTraceId, response, callback)) {
+                traceIds.forEach(this::removeTracking);
+                return Optional.empty();
+            }
+            traceIds.add(traceId);
+        }
+        return Optional.of(traceIds);
+    }
+
+    /**
+     * Enqueues the containers of a split request all or none, so the {@code fragment.count} of every
+     * delivered FlowFile holds. Containers already picked up by the processor cannot be withdrawn.
+     */
+    private boolean enqueueElements(List<HttpRequestContainer> containers, List<String> traceIds,
+            Request request, SanitizedRequest sanitized, String remoteHost, Response response, Callback callback) {
+        int queued = 0;
+        if (queue.remainingCapacity() >= containers.size()) {
+            while (queued < containers.size() && queue.offer(containers.get(queued))) {
+                queued++;
+            }
+        }
+        if (queued == containers.size()) {
+            return true;
+        }
+        for (int k = 0; k < containers.size(); k++) {
+            boolean notDelivered = k >= queued || queue.remove(containers.get(k));
+            if (notDelivered && !traceIds.isEmpty()) {
+                removeTracking(traceIds.get(k));
+            }
+        }
+        gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.QUEUE_FULL);
+        LOGGER.warn(RestApiLogMessages.WARN.QUEUE_FULL, request.getMethod(), sanitized.path(), remoteHost);
+        ProblemDetail.serviceUnavailable("Server is at capacity, please retry later")
+                .sendResponse(response, callback);
+        return false;
     }
 
     private boolean validateSchema(byte[] body, Response response, Callback callback) {
@@ -209,25 +567,6 @@ public final class ApiRouteHandler implements EndpointHandler {
         return false;
     }
 
-    /**
-     * Case-insensitive header lookup (RFC 9110 §5.1: field names are case-insensitive).
-     * The sanitized header map is keyed by the name exactly as the client sent it, so a
-     * client sending {@code x-parent-trace-id} must still resolve the parent linkage.
-     */
-    @Nullable
-    private static String getHeaderIgnoreCase(Map<String, String> headers, String name) {
-        String direct = headers.get(name);
-        if (direct != null) {
-            return direct;
-        }
-        for (Map.Entry<String, String> entry : headers.entrySet()) {
-            if (entry.getKey().equalsIgnoreCase(name)) {
-                return entry.getValue();
-            }
-        }
-        return null;
-    }
-
     private boolean registerTracking(String traceId, @Nullable String parentTraceId,
             Response response, Callback callback) {
         try {
@@ -241,6 +580,9 @@ public final class ApiRouteHandler implements EndpointHandler {
                         : attachmentsHardLimit;
                 statusStore.collectingAttachments(traceId, parentTraceId, route.name(),
                         effectiveMax, route.attachmentsMinCount());
+                if (windowTimer != null) {
+                    windowTimer.schedule(traceId, route.name());
+                }
             } else {
                 statusStore.accept(traceId, parentTraceId);
             }
@@ -250,7 +592,7 @@ public final class ApiRouteHandler implements EndpointHandler {
                     .sendResponse(response, callback);
             return false;
         }
-        LOGGER.info(RestApiLogMessages.INFO.REQUEST_TRACKED, traceId, route.name());
+        LOGGER.debug("Request accepted with traceId=%s, route=%s", traceId, route.name());
         return true;
     }
 
@@ -274,7 +616,7 @@ public final class ApiRouteHandler implements EndpointHandler {
             byte[] body, Request request, TrackingContext tracking,
             Response response, Callback callback) {
         if (!route.createFlowFile()) {
-            LOGGER.info(RestApiLogMessages.INFO.ROUTE_FLOWFILE_SKIPPED, route.name());
+            LOGGER.debug("Route '%s' has createFlowFile=false — skipping FlowFile creation", route.name());
             return true;
         }
         String remoteHost = sanitized.forwarding().clientIp().orElse(Request.getRemoteAddr(request));
@@ -0,0 +1,421 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.RestApiAttributes;
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.tools.logging.CuiLogger;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObjectBuilder;
+import lombok.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Gateway-side assembly of an attachments-tracked parent request and its attachments into a
+ * single FlowFile, replacing the downstream Wait/Notify re-assembly.
+ * <p>
+ * The processor passes every dequeued container through {@link #absorb}. The parent request of
+ * an aggregating route opens a group; attachments of an open group are written next to it. Bodies
+ * are spooled to disk as they arrive, so an open group holds only metadata on the heap. A group
+ * is emitted as one ZIP archive — the parent body, every attachment and a {@code manifest.json} —
+ * as soon as the route's minimum attachment count (or, without a minimum, its maximum) is reached,
+ * or by {@link #pollExpired} once the attachment window has timed out. Emitting moves the parent
+ * to {@link RequestStatus#PROCESSING}, which closes its attachment window.
+ * <p>
+ * Groups are node-local and held in memory: an attachment processed on a node that does not hold
+ * its parent's group, or one that arrives after the group was emitted, is delivered as a separate
+ * FlowFile exactly as without aggregation.
+ */
+public final class AttachmentAggregator {
+
+    private static final CuiLogger LOGGER = new CuiLogger(AttachmentAggregator.class);
+
+    static final String MANIFEST_ENTRY = "manifest.json";
+    static final String PARENT_ENTRY = "parent";
+    static final String ATTACHMENT_ENTRY_PREFIX = "attachments/";
+    static final String ARCHIVE_CONTENT_TYPE = "application/zip";
+    private static final String ARCHIVE_SUFFIX = ".zip";
+
+    /**
+     * Aggregation settings of one route.
+     *
+     * @param minCount attachments that complete a group; {@code 0} waits for {@code maxCount} or the timeout
+     * @param maxCount the effective maximum number of attachments (route limit or global hard limit)
+     * @param timeout  how long a group waits for attachments before it is emitted incomplete
+     */
+    public record Window(int minCount, int maxCount, @NonNull Duration timeout) {
+
+        int completionCount() {
+            return minCount > 0 ? minCount : maxCount;
+        }
+    }
+
+    private final Path directory;
+    private final Map<String, Window> windows;
+    private final RequestStatusStore statusStore;
+    private final LongSupplier nanoClock;
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    /** Open groups by deadline; emitted groups are skipped lazily. Guarded by itself. */
+    private final PriorityQueue<Group> deadlines = new PriorityQueue<>(Comparator.comparingLong(g -> g.deadline));
+
+    /**
+     * @param directory   the spool directory; leftovers of an earlier run are removed
+     * @param windows     aggregation settings keyed by route name
+     * @param statusStore the store holding the parent status entries
+     * @throws IOException if the directory cannot be prepared
+     */
+    public AttachmentAggregator(@NonNull Path directory, @NonNull Map<String, Window> windows,
+            @NonNull RequestStatusStore statusStore) throws IOException {
+        this(directory, windows, statusStore, System::nanoTime);
+    }
+
+    AttachmentAggregator(Path directory, Map<String, Window> windows, RequestStatusStore statusStore,
+            LongSupplier nanoClock) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.windows = Map.copyOf(windows);
+        this.statusStore = statusStore;
+        this.nanoClock = nanoClock;
+        removeLeftovers();
+    }
+
+    /**
+     * Offers a dequeued container to the aggregator.
+     *
+     * @param container the container taken from the request queue
+     * @return {@code null} if the container was held in a group, the aggregated container if it
+     *         completed a group, otherwise the unchanged container
+     * @throws IOException if the container could not be spooled or its group not be assembled; the
+     *                     failure is logged and the container is not held, so it is delivered as is
+     */
+    @Nullable
+    public HttpRequestContainer absorb(HttpRequestContainer container) throws IOException {
+        Window window = windows.get(container.routeName());
+        if (window != null && container.traceId() != null) {
+            try {
+                open(container, window);
+            } catch (IOException e) {
+                LOGGER.warn(RestApiLogMessages.WARN.ATTACHMENT_AGGREGATION_FAILED, container.traceId(), e.getMessage());
+                deleteRecursively(directory.resolve(container.traceId()));
+                throw e;
+            }
+            return null;
+        }
+        if (container.parentTraceId() == null
+                || !AttachmentsEndpointHandler.ATTACHMENTS_ROUTE_NAME.equals(container.routeName())) {
+            return container;
+        }
+        Group group = groups.get(container.parentTraceId());
+        if (group == null) {
+            return container;
+        }
+        synchronized (group) {
+            if (group.emitted) {
+                return container;
+            }
+            int index = group.attachments.size() + 1;
+            try {
+                Files.write(group.partFile(index), container.body());
+            } catch (IOException e) {
+                LOGGER.warn(RestApiLogMessages.WARN.ATTACHMENT_AGGREGATION_FAILED, container.parentTraceId(), e.getMessage());
+                throw e;
+            }
+            group.attachments.add(new Attachment(index, container.traceId(), container.contentType(),
+                    container.attributes(), container.body().length));
+            if (group.attachments.size() < group.window.completionCount()) {
+                return null;
+            }
+            return emit(group, true);
+        }
+    }
+
+    /**
+     * Emits the next group whose attachment window has timed out.
+     *
+     * @return the aggregated container, or {@code null} if no group is due
+     * @throws IOException if the archive could not be written; the failure is logged, the group
+     *                     discarded and its parent set to ERROR
+     */
+    @Nullable
+    public HttpRequestContainer pollExpired() throws IOException {
+        long now = nanoClock.getAsLong();
+        while (true) {
+            Group group;
+            synchronized (deadlines) {
+                Group next = deadlines.peek();
+                if (next == null || now - next.deadline < 0) {
+                    return null;
+                }
+                group = deadlines.poll();
+            }
+            synchronized (group) {
+                if (!group.emitted) {
+                    return emit(group, group.attachments.size() >= group.window.completionCount());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of open groups
+     */
+    public int size() {
+        return groups.size();
+    }
+
+    /**
+     * Discards all open groups and their spooled data, e.g. when the processor stops.
+     *
+     * @return the trace IDs of the held parents and attachments, whose clients were already answered
+     */
+    public List<String> discardAll() {
+        List<String> traceIds = new ArrayList<>();
+        for (Group group : List.copyOf(groups.values())) {
+            synchronized (group) {
+                if (group.emitted) {
+                    continue;
+                }
+                group.emitted = true;
+                groups.remove(group.parent.traceId());
+                traceIds.add(group.parent.traceId());
+                group.attachments.forEach(attachment -> traceIds.add(attachment.traceId()));
+                deleteGroupDirectory(group);
+            }
+        }
+        synchronized (deadlines) {
+            deadlines.clear();
+        }
+        return traceIds;
+    }
+
+    private void open(HttpRequestContainer parent, Window window) throws IOException {
+        Group group = new Group(withoutBody(parent), window, directory.resolve(parent.traceId()),
+                nanoClock.getAsLong() + window.timeout().toNanos());
+        Files.createDirectories(group.directory);
+        Files.write(group.directory.resolve(PARENT_ENTRY), parent.body());
+        group.parentSize = parent.body().length;
+        groups.put(parent.traceId(), group);
+        synchronized (deadlines) {
+            deadlines.add(group);
+        }
+    }
+
+    /**
+     * Writes the archive, closes the parent's attachment window and returns the container that
+     * carries the archive. Must be called holding the group's monitor.
+     */
+    private HttpRequestContainer emit(Group group, boolean complete) throws IOException {
+        group.emitted = true;
+        String parentTraceId = group.parent.traceId();
+        groups.remove(parentTraceId);
+        Path archive = directory.resolve(parentTraceId + ARCHIVE_SUFFIX);
+        try {
+            writeArchive(group, archive, complete);
+        } catch (IOException e) {
+            Files.deleteIfExists(archive);
+            deleteGroupDirectory(group);
+            LOGGER.warn(RestApiLogMessages.WARN.ATTACHMENT_AGGREGATION_FAILED, parentTraceId, e.getMessage());
+            updateParentStatus(parentTraceId, RequestStatus.ERROR);
+            throw e;
+        }
+        deleteGroupDirectory(group);
+        updateParentStatus(parentTraceId, RequestStatus.PROCESSING);
+        LOGGER.info(RestApiLogMessages.INFO.ATTACHMENTS_AGGREGATED,
+                parentTraceId, group.attachments.size(), complete);
+
+        HttpRequestContainer parent = group.parent;
+        Map<String, String> attributes = new HashMap<>(parent.attributes());
+        attributes.put(RestApiAttributes.ATTACHMENTS_AGGREGATED_COUNT, String.valueOf(group.attachments.size()));
+        attributes.put(RestApiAttributes.ATTACHMENTS_AGGREGATED_COMPLETE, String.valueOf(complete));
+        return new HttpRequestContainer(parent.routeName(), parent.method(), parent.requestUri(),
+                parent.queryParameters(), parent.headers(), parent.remoteHost(), new byte[0],
+                ARCHIVE_CONTENT_TYPE, parent.token(), parentTraceId, parent.parentTraceId(),
+                parent.pathParameters(), attributes, archive);
+    }
+
+    private static void writeArchive(Group group, Path archive, boolean complete) throws IOException {
+        JsonArrayBuilder attachments = Json.createArrayBuilder();
+        try (OutputStream file = Files.newOutputStream(archive);
+             ZipOutputStream zip = new ZipOutputStream(file)) {
+            copyEntry(zip, PARENT_ENTRY, group.directory.resolve(PARENT_ENTRY));
+            for (Attachment attachment : group.attachments) {
+                String entryName = attachment.entryName();
+                copyEntry(zip, entryName, group.partFile(attachment.index()));
+                attachments.add(attachment.toJson(entryName));
+            }
+            JsonObjectBuilder parent = Json.createObjectBuilder()
+                    .add("traceId", group.parent.traceId())
+                    .add("entry", PARENT_ENTRY)
+                    .add("size", group.parentSize);
+            if (group.parent.contentType() != null) {
+                parent.add("contentType", group.parent.contentType());
+            }
+            String manifest = Json.createObjectBuilder()
+                    .add("routeName", group.parent.routeName())
+                    .add("complete", complete)
+                    .add("parent", parent)
+                    .add("attachments", attachments)
+                    .build()
+                    .toString();
+            zip.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+            zip.write(manifest.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    private static void copyEntry(ZipOutputStream zip, String entryName, Path source) throws IOException {
+        zip.putNextEntry(new ZipEntry(entryName));
+        Files.copy(source, zip);
+        zip.closeEntry();
+    }
+
+    private void updateParentStatus(String parentTraceId, RequestStatus status) {
+        try {
+            statusStore.updateStatus(parentTraceId, status);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+        }
+    }
+
+    private static void deleteGroupDirectory(Group group) {
+        try {
+            deleteRecursively(group.directory);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.ATTACHMENT_AGGREGATION_FAILED, group.parent.traceId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Groups live only in memory, so spooled data found at start-up belongs to a previous run.
+     * Only UUID-named entries are touched.
+     */
+    private void removeLeftovers() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                String id = name.endsWith(ARCHIVE_SUFFIX) ? name.substring(0, name.length() - ARCHIVE_SUFFIX.length()) : name;
+                if (isUuid(id)) {
+                    deleteRecursively(entry);
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> children = Files.list(path)) {
+                for (Path child : children.toList()) {
+                    deleteRecursively(child);
+                }
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+
+    private static boolean isUuid(String value) {
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static HttpRequestContainer withoutBody(HttpRequestContainer container) {
+        return new HttpRequestContainer(container.routeName(), container.method(), container.requestUri(),
+                container.queryParameters(), container.headers(), container.remoteHost(), new byte[0],
+                container.contentType(), container.token(), container.traceId(), container.parentTraceId(),
+                container.pathParameters(), container.attributes());
+    }
+
+    /**
+     * An attachment spooled into a group.
+     */
+    private record Attachment(int index, @Nullable String traceId, @Nullable String contentType,
+            Map<String, String> attributes, long size) {
+
+        String entryName() {
+            String filename = attributes.get(RestApiAttributes.FILENAME);
+            return ATTACHMENT_ENTRY_PREFIX + index + (filename != null ? "-" + filename : "");
+        }
+
+        JsonObjectBuilder toJson(String entryName) {
+            JsonObjectBuilder json = Json.createObjectBuilder()
+                    .add("entry", entryName)
+                    .add("size", size);
+            if (traceId != null) {
+                json.add("traceId", traceId);
+            }
+            if (contentType != null) {
+                json.add("contentType", contentType);
+            }
+            String filename = attributes.get(RestApiAttributes.FILENAME);
+            if (filename != null) {
+                json.add("filename", filename);
+            }
+            String partName = attributes.get(RestApiAttributes.ATTACHMENT_PART_NAME);
+            if (partName != null) {
+                json.add("part", partName);
+            }
+            return json;
+        }
+    }
+
+    /**
+     * An open aggregation group. Mutable state is guarded by the group's monitor.
+     */
+    private static final class Group {
+        final HttpRequestContainer parent;
+        final Window window;
+        final Path directory;
+        final long deadline;
+        final List<Attachment> attachments = new ArrayList<>();
+        long parentSize;
+        boolean emitted;
+
+        Group(HttpRequestContainer parent, Window window, Path directory, long deadline) {
+            this.parent = parent;
+            this.window = window;
+            this.directory = directory;
+            this.deadline = deadline;
+        }
+
+        Path partFile(int index) {
+            return directory.resolve(String.valueOf(index));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import java.io.IOException;
+
+/**
+ * Per-parent attachment counter used by {@link AttachmentsEndpointHandler} to enforce
+ * {@code attachments-max-count}.
+ * <p>
+ * Implementations are thread-safe. {@link LocalAttachmentCounter} keeps a bounded, idle-expiring
+ * count per node; {@link DistributedAttachmentCounter} keeps the authoritative count in the
+ * distributed cache so the limit holds across a cluster.
+ */
+public interface AttachmentCounter {
+
+    /**
+     * Atomically reserves {@code slots} attachment slots for the parent, all-or-nothing.
+     *
+     * @param parentTraceId the parent trace ID
+     * @param slots         the number of slots to reserve (positive)
+     * @param maxCount      the parent's effective attachments-max-count
+     * @return the reservation outcome — when granted, {@link Reservation#count()} is the count
+     * including the reserved slots; when denied, it is the count already reserved
+     * @throws IOException if the backing store cannot be reached
+     */
+    Reservation reserve(String parentTraceId, int slots, int maxCount) throws IOException;
+
+    /**
+     * Returns previously reserved slots for a rolled-back registration. A parent without a
+     * counter needs no rollback.
+     *
+     * @param parentTraceId the parent trace ID
+     * @param slots         the number of slots to return
+     * @throws IOException if the backing store cannot be reached
+     */
+    void release(String parentTraceId, int slots) throws IOException;
+
+    /**
+     * Drops the counter of a parent whose attachment window is closed or which no longer exists.
+     *
+     * @param parentTraceId the parent trace ID
+     * @throws IOException if the backing store cannot be reached
+     */
+    void evict(String parentTraceId) throws IOException;
+
+    /**
+     * @return the number of parents currently tracked on this node
+     */
+    int size();
+
+    /**
+     * Hands the slots of counters dropped by an expiry or capacity sweep back to the backing store.
+     * Sweeps run on request threads, so a counter whose hand-back needs a cache round trip queues it
+     * there and completes it here; the processor calls this from {@code onTrigger}. Failures are
+     * logged, not thrown.
+     *
+     * @param max the maximum number of dropped counters to hand back
+     * @return the number handed back
+     */
+    default int drainEvicted(int max) {
+        return 0;
+    }
+
+    /**
+     * Outcome of {@link #reserve}.
+     *
+     * @param granted whether the slots were reserved
+     * @param count   the parent's count after the reservation (granted) or before it (denied)
+     */
+    record Reservation(boolean granted, int count) {
+
+        static Reservation granted(int count) {
+            return new Reservation(true, count);
+        }
+
+        static Reservation denied(int count) {
+            return new Reservation(false, count);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timer wheel for the attachment windows of {@code COLLECTING_ATTACHMENTS} parents.
+ * <p>
+ * {@link #schedule} is called on the Jetty threads and only appends to a lock-free inbox. The
+ * wheel itself is advanced by {@link #advance}, which the processor calls on every trigger: pending
+ * timeouts are moved into the bucket of their deadline tick, and the buckets of all ticks elapsed
+ * since the previous advance are swept for due entries. Scheduling is O(1) and each advance only
+ * touches the elapsed buckets, so hundreds of thousands of open windows cost one small object each.
+ * <p>
+ * Deadlines are not cancelled when a window closes early — the caller checks the parent's status
+ * when the timeout fires, which is cheaper than tracking every transition.
+ */
+public final class AttachmentWindowTimer {
+
+    /** Default tick length; window timeouts are NiFi durations of seconds or more. */
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+    /** Default number of buckets (power of two): one revolution covers 51.2 seconds at the default tick. */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private record Timeout(String traceId, long deadlineTick) {
+    }
+
+    private final Map<String, Duration> windows;
+    private final long tickNanos;
+    private final int mask;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final Queue<Timeout> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    /** Guards the buckets and {@link #lastTick}; advancing threads that lose the race skip the tick. */
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private final List<ArrayDeque<Timeout>> buckets;
+    private long lastTick;
+
+    /**
+     * @param windows attachment window length keyed by route name
+     */
+    public AttachmentWindowTimer(@NonNull Map<String, Duration> windows) {
+        this(windows, DEFAULT_TICK, DEFAULT_WHEEL_SIZE, System::nanoTime);
+    }
+
+    /**
+     * @param windows   attachment window length keyed by route name
+     * @param tick      the tick length (positive)
+     * @param wheelSize the number of buckets, a power of two
+     * @param nanoClock monotonic clock in nanoseconds
+     */
+    AttachmentWindowTimer(@NonNull Map<String, Duration> windows, @NonNull Duration tick, int wheelSize,
+            @NonNull LongSupplier nanoClock) {
+        if (tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("tick must be positive: " + tick);
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        this.windows = Map.copyOf(windows);
+        this.tickNanos = tick.toNanos();
+        this.mask = wheelSize - 1;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Schedules the window timeout of a parent accepted on the given route.
+     *
+     * @param traceId   the parent trace ID
+     * @param routeName the route that accepted the parent; routes without a window are ignored
+     */
+    public void schedule(String traceId, String routeName) {
+        Duration timeout = windows.get(routeName);
+        if (timeout != null) {
+            schedule(traceId, timeout);
+        }
+    }
+
+    void schedule(String traceId, Duration timeout) {
+        long elapsed = nanoClock.getAsLong() - startNanos + timeout.toNanos();
+        // Round up so a window never fires before its full timeout has elapsed
+        long deadlineTick = Math.max(1L, (elapsed + tickNanos - 1) / tickNanos);
+        inbox.add(new Timeout(traceId, deadlineTick));
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Advances the wheel to the current time.
+     *
+     * @return the trace IDs whose window timed out since the previous advance; empty if another
+     *         thread is currently advancing
+     */
+    public List<String> advance() {
+        if (!wheelLock.tryLock()) {
+            return List.of();
+        }
+        try {
+            long currentTick = (nanoClock.getAsLong() - startNanos) / tickNanos;
+            transferInbox();
+            if (currentTick <= lastTick) {
+                return List.of();
+            }
+            List<String> expired = new ArrayList<>();
+            // After a pause longer than one revolution every bucket is due once
+            long first = Math.max(lastTick + 1, currentTick - mask);
+            for (long tick = first; tick <= currentTick; tick++) {
+                expireBucket(buckets.get((int) (tick & mask)), currentTick, expired);
+            }
+            lastTick = currentTick;
+            pending.addAndGet(-expired.size());
+            return expired;
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of scheduled timeouts that have not fired yet
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    private void transferInbox() {
+        Timeout timeout;
+        while ((timeout = inbox.poll()) != null) {
+            // A deadline already in the past lands in the next bucket to be swept
+            long tick = Math.max(timeout.deadlineTick(), lastTick + 1);
+            buckets.get((int) (tick & mask)).add(timeout);
+        }
+    }
+
+    private static void expireBucket(ArrayDeque<Timeout> bucket, long currentTick, List<String> expired) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            // Entries of a later revolution share the bucket and stay for another turn
+            if (timeout.deadlineTick() <= currentTick) {
+                iterator.remove();
+                expired.add(timeout.traceId());
+            }
+        }
+    }
+}
@@ -16,10 +16,13 @@
  */
 package de.cuioss.nifi.rest.handler;
 
+import de.cuioss.nifi.rest.RestApiAttributes;
 import de.cuioss.nifi.rest.RestApiLogMessages;
 import de.cuioss.nifi.rest.config.AuthMode;
 import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
 import de.cuioss.tools.logging.CuiLogger;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
 import jakarta.json.JsonException;
 import lombok.Builder;
 import org.eclipse.jetty.http.HttpHeader;
@@ -29,20 +32,25 @@ import org.eclipse.jetty.util.Callback;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Built-in handler for the {@code /attachments/{parentTraceId}} endpoint.
  * Accepts POST requests to upload attachments linked to a parent tracked request.
  * <p>
- * Attachment counting is done in-memory via {@link ConcurrentHashMap}. Counters reset
- * on processor restart (documented limitation — worst case: allows slightly more
- * attachments than configured after restart).
+ * A {@code multipart/form-data} body uploads several attachments at once: the parent is looked up
+ * once, the slots for all parts are reserved in a single all-or-nothing step, and every part becomes
+ * its own attachment FlowFile with its own traceId.
+ * <p>
+ * Attachment counting is delegated to an {@link AttachmentCounter}: by default a bounded,
+ * idle-expiring {@link LocalAttachmentCounter} (per node, reset on processor restart), or a
+ * {@link DistributedAttachmentCounter} that enforces the limit cluster-wide.
  */
 public final class AttachmentsEndpointHandler implements EndpointHandler {
 
@@ -51,7 +59,11 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
     static final String ATTACHMENTS_PATH = "/attachments";
     @SuppressWarnings("java:S1075") // URL path, not filesystem path
     private static final String ATTACHMENTS_PATH_PREFIX = ATTACHMENTS_PATH + "/";
+    /** RFC 7578 §4.4: the default content type of a form-data part. */
+    private static final String DEFAULT_PART_CONTENT_TYPE = "text/plain";
     public static final String ATTACHMENTS_ROUTE_NAME = "_attachments";
+    /** Default maximum number of parts of a multipart upload. */
+    public static final int DEFAULT_MAX_PARTS = 20;
 
     private final RequestStatusStore statusStore;
     private final BlockingQueue<HttpRequestContainer> queue;
@@ -61,11 +73,18 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
     private final Set<String> requiredRoles;
     private final Set<String> requiredScopes;
     private final GatewaySecurityEvents gatewaySecurityEvents;
-
-    private final ConcurrentHashMap<String, AtomicInteger> attachmentCounters = new ConcurrentHashMap<>();
+    private final AttachmentCounter attachmentCounter;
+    private final Set<String> aggregatingRoutes;
+    private final TraceIdGenerator traceIdGenerator;
+    private final int maxParts;
 
     /**
      * Configuration holder for AttachmentsEndpointHandler construction parameters.
+     * A {@code null} {@code attachmentCounter} selects {@link LocalAttachmentCounter#withDefaults()};
+     * {@code aggregatingRoutes} names the parent routes assembled by the {@link AttachmentAggregator}
+     * ({@code null} means none); a {@code null} {@code traceIdGenerator} selects
+     * {@link TraceIdGenerator#random()}; a {@code maxParts} of {@code 0} selects
+     * {@link #DEFAULT_MAX_PARTS}.
      */
     @Builder
     public record Config(
@@ -76,7 +95,11 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
     Set<AuthMode> authModes,
     Set<String> requiredRoles,
     Set<String> requiredScopes,
-    GatewaySecurityEvents gatewaySecurityEvents) {
+    GatewaySecurityEvents gatewaySecurityEvents,
+    @Nullable AttachmentCounter attachmentCounter,
+    @Nullable Set<String> aggregatingRoutes,
+    @Nullable TraceIdGenerator traceIdGenerator,
+    int maxParts) {
     }
 
     public AttachmentsEndpointHandler(Config config) {
@@ -88,6 +111,13 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
         this.requiredRoles = config.requiredRoles();
         this.requiredScopes = config.requiredScopes();
         this.gatewaySecurityEvents = config.gatewaySecurityEvents();
+        this.attachmentCounter = (config.attachmentCounter() != null)
+                ? config.attachmentCounter() : LocalAttachmentCounter.withDefaults();
+        this.aggregatingRoutes = (config.aggregatingRoutes() != null)
+                ? Set.copyOf(config.aggregatingRoutes()) : Set.of();
+        this.traceIdGenerator = (config.traceIdGenerator() != null)
+                ? config.traceIdGenerator() : TraceIdGenerator.random();
+        this.maxParts = (config.maxParts() > 0) ? config.maxParts() : DEFAULT_MAX_PARTS;
     }
 
 
@@ -152,12 +182,19 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
             return;
         }
 
+        String contentType = request.getHeaders().get(HttpHeader.CONTENT_TYPE);
+        if (MultipartFormParser.isMultipartFormData(contentType)) {
+            processMultipart(parentTraceId.get(), contentType, sanitized, token, body, request, response, callback);
+            return;
+        }
+
         Optional<RequestStatusEntry> parent = lookupAndValidateParent(parentTraceId.get(), response, callback);
         if (parent.isEmpty()) {
             return;
         }
 
-        Optional<Integer> attachmentCount = enforceAttachmentLimit(parentTraceId.get(), parent.get(), response, callback);
+        Optional<Integer> attachmentCount = enforceAttachmentLimit(parentTraceId.get(), parent.get(), 1,
+                response, callback);
         if (attachmentCount.isEmpty()) {
             return;
         }
@@ -177,6 +214,69 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
         RequestUtils.sendAcceptedResponse(request, sanitized, response, callback, traceId, false);
     }
 
+    /**
+     * Multipart variant of {@link #process}: one parent lookup and one slot reservation for the
+     * whole batch, then one child status entry and one queued container per part.
+     */
+    @SuppressWarnings("java:S107") // mirrors process() plus the pre-extracted parent and content type
+    private void processMultipart(String parentTraceId, String contentType, SanitizedRequest sanitized,
+            @Nullable AccessTokenContent token, byte[] body,
+            Request request, Response response, Callback callback) {
+        // Parse before touching the status store: a malformed upload costs no cache round trip
+        List<MultipartFormParser.Part> parts;
+        try {
+            String boundary = MultipartFormParser.boundary(contentType)
+                    .orElseThrow(() -> new IllegalArgumentException("Missing or invalid multipart boundary"));
+            parts = MultipartFormParser.parse(body, boundary, maxParts);
+        } catch (MultipartFormParser.TooManyPartsException e) {
+            gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.BODY_TOO_LARGE);
+            LOGGER.warn(RestApiLogMessages.WARN.MULTIPART_MALFORMED, parentTraceId, e.getMessage());
+            ProblemDetail.payloadTooLarge(e.getMessage()).sendResponse(response, callback);
+            return;
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.MULTIPART_MALFORMED, parentTraceId, e.getMessage());
+            ProblemDetail.badRequest(e.getMessage()).sendResponse(response, callback);
+            return;
+        }
+
+        Optional<RequestStatusEntry> parent = lookupAndValidateParent(parentTraceId, response, callback);
+        if (parent.isEmpty()) {
+            return;
+        }
+
+        Optional<Integer> attachmentCount = enforceAttachmentLimit(parentTraceId, parent.get(), parts.size(),
+                response, callback);
+        if (attachmentCount.isEmpty()) {
+            return;
+        }
+
+        Optional<List<String>> traceIds = registerAttachments(parentTraceId, parts.size(), response, callback);
+        if (traceIds.isEmpty()) {
+            return;
+        }
+
+        if (!enqueueParts(sanitized, token, request, parentTraceId, parts, traceIds.get(), response, callback)) {
+            return;
+        }
+        LOGGER.debug("Multipart upload accepted: %s attachments for parentTraceId=%s (count %s/%s)",
+                parts.size(), parentTraceId, attachmentCount.get(), parent.get().attachmentsMaxCount());
+
+        autoTransitionToProcessedIfMinMet(parentTraceId, parent.get(), attachmentCount.get());
+
+        JsonArrayBuilder accepted = Json.createArrayBuilder();
+        for (int i = 0; i < parts.size(); i++) {
+            var entry = Json.createObjectBuilder()
+                    .add("part", parts.get(i).name())
+                    .add("traceId", traceIds.get().get(i));
+            if (parts.get(i).filename() != null) {
+                entry.add("filename", parts.get(i).filename());
+            }
+            accepted.add(entry);
+        }
+        RequestUtils.sendBatchAcceptedResponse(request, sanitized, response, callback,
+                parentTraceId, accepted.build());
+    }
+
     private Optional<String> extractAndValidateParentTraceId(String path, Response response, Callback callback) {
         return RequestUtils.extractUuidPathParameter(
                 path, ATTACHMENTS_PATH_PREFIX, "parentTraceId", response, callback);
@@ -193,7 +293,7 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
             return Optional.empty();
         }
         if (parentEntry.isEmpty()) {
-            attachmentCounters.remove(parentTraceId);
+            evictAttachmentCount(parentTraceId);
             LOGGER.warn(RestApiLogMessages.WARN.PARENT_TRACE_NOT_FOUND, parentTraceId);
             ProblemDetail.notFound("No parent request found for traceId: " + parentTraceId)
                     .sendResponse(response, callback);
@@ -211,9 +311,8 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
             return Optional.empty();
         }
         if (!isAttachmentWindowOpen(parent)) {
-            // Terminal for this parent — evict its in-memory counter so the map
-            // does not grow unboundedly over the processor's lifetime
-            attachmentCounters.remove(parentTraceId);
+            // Terminal for this parent — evict its counter eagerly instead of waiting for expiry
+            evictAttachmentCount(parentTraceId);
             LOGGER.warn(RestApiLogMessages.WARN.ATTACHMENT_WINDOW_CLOSED,
                     parentTraceId, parent.status());
             ProblemDetail.conflict("Attachment window closed — parent request is already being processed")
@@ -228,45 +327,151 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
                 || parent.status() == RequestStatus.PROCESSED;
     }
 
-    private Optional<Integer> enforceAttachmentLimit(String parentTraceId, RequestStatusEntry parent,
+    private Optional<Integer> enforceAttachmentLimit(String parentTraceId, RequestStatusEntry parent, int slots,
             Response response, Callback callback) {
-        int count = attachmentCounters
-                .computeIfAbsent(parentTraceId, k -> new AtomicInteger(0))
-                .incrementAndGet();
-        if (count > parent.attachmentsMaxCount()) {
-            rollbackAttachmentCount(parentTraceId);
-            LOGGER.warn(RestApiLogMessages.WARN.ATTACHMENT_LIMIT_REACHED,
-                    parentTraceId, count - 1, parent.attachmentsMaxCount());
-            ProblemDetail.conflict("Attachment limit reached: " + parent.attachmentsMaxCount())
+        AttachmentCounter.Reservation reservation;
+        try {
+            reservation = attachmentCounter.reserve(parentTraceId, slots, parent.attachmentsMaxCount());
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            ProblemDetail.serviceUnavailable("Status store temporarily unavailable")
                     .sendResponse(response, callback);
             return Optional.empty();
         }
-        return Optional.of(count);
+        if (!reservation.granted()) {
+            LOGGER.warn(RestApiLogMessages.WARN.ATTACHMENT_LIMIT_REACHED,
+                    parentTraceId, reservation.count(), parent.attachmentsMaxCount());
+            String detail = (slots == 1)
+                    ? "Attachment limit reached: " + parent.attachmentsMaxCount()
+                    : "Attachment limit reached: %d attachments exceed the remaining %d of %d"
+                            .formatted(slots, Math.max(0, parent.attachmentsMaxCount() - reservation.count()),
+                                    parent.attachmentsMaxCount());
+            ProblemDetail.conflict(detail).sendResponse(response, callback);
+            return Optional.empty();
+        }
+        return Optional.of(reservation.count());
     }
 
     @Nullable
     private String registerAttachment(String parentTraceId, int count, RequestStatusEntry parent,
             Response response, Callback callback) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = traceIdGenerator.nextTraceId();
         try {
             statusStore.accept(traceId, parentTraceId);
         } catch (IOException e) {
-            rollbackAttachmentCount(parentTraceId);
+            rollbackAttachmentCount(parentTraceId, 1);
             LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
             ProblemDetail.serviceUnavailable("Status store temporarily unavailable")
                     .sendResponse(response, callback);
             return null;
         }
-        LOGGER.info(RestApiLogMessages.INFO.ATTACHMENT_ACCEPTED,
+        LOGGER.debug("Attachment accepted with traceId=%s, parentTraceId=%s (count %s/%s)",
                 traceId, parentTraceId, count, parent.attachmentsMaxCount());
         return traceId;
     }
 
+    /**
+     * Persists one ACCEPTED child entry per part. On a store failure the entries written so far are
+     * removed and the whole batch reservation is returned, so a failed upload leaves no trace.
+     */
+    private Optional<List<String>> registerAttachments(String parentTraceId, int count,
+            Response response, Callback callback) {
+        List<String> traceIds = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                String traceId = traceIdGenerator.nextTraceId();
+                statusStore.accept(traceId, parentTraceId);
+                traceIds.add(traceId);
+            }
+        } catch (IOException e) {
+            traceIds.forEach(this::removeChildStatusEntry);
+            rollbackAttachmentCount(parentTraceId, count);
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            ProblemDetail.serviceUnavailable("Status store temporarily unavailable")
+                    .sendResponse(response, callback);
+            return Optional.empty();
+        }
+        return Optional.of(traceIds);
+    }
+
+    /**
+     * Queues one container per part. The free queue capacity is checked up front so a full queue
+     * rejects the batch before anything is queued; if a concurrent producer still fills the queue
+     * mid-batch, the parts queued so far are withdrawn. A part the processor already consumed can
+     * no longer be withdrawn — it keeps its slot and status entry and is delivered even though the
+     * batch is answered with 503.
+     */
+    @SuppressWarnings("java:S107") // request context + batch state; a holder type would only move the parameters
+    private boolean enqueueParts(SanitizedRequest sanitized, @Nullable AccessTokenContent token,
+            Request request, String parentTraceId, List<MultipartFormParser.Part> parts, List<String> traceIds,
+            Response response, Callback callback) {
+        String remoteHost = remoteHost(sanitized, request);
+        List<HttpRequestContainer> containers = new ArrayList<>(parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            containers.add(partContainer(sanitized, token, remoteHost, parts.get(i), i, parts.size(),
+                    new TrackingContext(traceIds.get(i), parentTraceId)));
+        }
+
+        int queued = 0;
+        if (queue.remainingCapacity() >= containers.size()) {
+            while (queued < containers.size() && queue.offer(containers.get(queued))) {
+                queued++;
+            }
+        }
+        if (queued == containers.size()) {
+            return true;
+        }
+
+        int withdrawn = containers.size() - queued;
+        for (int i = 0; i < containers.size(); i++) {
+            boolean notDelivered = i >= queued || queue.remove(containers.get(i));
+            if (notDelivered) {
+                removeChildStatusEntry(traceIds.get(i));
+                if (i < queued) {
+                    withdrawn++;
+                }
+            }
+        }
+        rollbackAttachmentCount(parentTraceId, withdrawn);
+        gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.QUEUE_FULL);
+        LOGGER.warn(RestApiLogMessages.WARN.QUEUE_FULL, "POST", sanitized.path(), remoteHost);
+        ProblemDetail.serviceUnavailable("Server is at capacity, please retry later")
+                .sendResponse(response, callback);
+        return false;
+    }
+
+    private static HttpRequestContainer partContainer(SanitizedRequest sanitized,
+            @Nullable AccessTokenContent token, String remoteHost, MultipartFormParser.Part part,
+            int index, int count, TrackingContext tracking) {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put(RestApiAttributes.ATTACHMENT_PART_NAME, part.name());
+        attributes.put(RestApiAttributes.ATTACHMENT_PART_INDEX, String.valueOf(index));
+        attributes.put(RestApiAttributes.ATTACHMENT_PART_COUNT, String.valueOf(count));
+        if (part.filename() != null) {
+            attributes.put(RestApiAttributes.FILENAME, part.filename());
+        }
+        return new HttpRequestContainer(
+                ATTACHMENTS_ROUTE_NAME, "POST", sanitized.path(),
+                sanitized.queryParameters(), sanitized.headers(),
+                remoteHost,
+                part.content(),
+                part.contentType() != null ? part.contentType() : DEFAULT_PART_CONTENT_TYPE,
+                token,
+                tracking.traceId(),
+                tracking.parentTraceId(),
+                sanitized.pathParameters(),
+                attributes);
+    }
+
+    private static String remoteHost(SanitizedRequest sanitized, Request request) {
+        return sanitized.forwarding().clientIp().orElse(Request.getRemoteAddr(request));
+    }
+
     private boolean enqueueAttachment(SanitizedRequest sanitized, @Nullable AccessTokenContent token,
             byte[] body, Request request, TrackingContext tracking,
             Response response, Callback callback) {
         String parentTraceId = tracking.parentTraceId();
-        String remoteHost = sanitized.forwarding().clientIp().orElse(Request.getRemoteAddr(request));
+        String remoteHost = remoteHost(sanitized, request);
         var container = new HttpRequestContainer(
                 ATTACHMENTS_ROUTE_NAME, "POST", sanitized.path(),
                 sanitized.queryParameters(), sanitized.headers(),
@@ -279,7 +484,7 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
                 sanitized.pathParameters());
 
         if (!queue.offer(container)) {
-            rollbackAttachmentCount(parentTraceId);
+            rollbackAttachmentCount(parentTraceId, 1);
             gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.QUEUE_FULL);
             LOGGER.warn(RestApiLogMessages.WARN.QUEUE_FULL, "POST", sanitized.path(),
                     remoteHost);
@@ -308,19 +513,34 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
     }
 
     /**
-     * Decrements the attachment counter for a rolled-back registration. Null-safe:
-     * the counter may have been evicted concurrently by {@code lookupAndValidateParent}
-     * (parent gone or window closed on another thread) — a missing entry needs no rollback.
+     * Returns the slots of a rolled-back registration. The counter may have been evicted
+     * concurrently by {@code lookupAndValidateParent} (parent gone or window closed on another
+     * thread) — a missing counter needs no rollback. A store failure is logged only: the request
+     * is already being answered with an error, and the stale slot errs on the restrictive side.
      */
-    private void rollbackAttachmentCount(String parentTraceId) {
-        attachmentCounters.computeIfPresent(parentTraceId, (k, counter) -> {
-            counter.decrementAndGet();
-            return counter;
-        });
+    private void rollbackAttachmentCount(String parentTraceId, int slots) {
+        if (slots <= 0) {
+            return;
+        }
+        try {
+            attachmentCounter.release(parentTraceId, slots);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+        }
+    }
+
+    private void evictAttachmentCount(String parentTraceId) {
+        try {
+            attachmentCounter.evict(parentTraceId);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+        }
     }
 
     private void autoTransitionToProcessedIfMinMet(String parentTraceId, RequestStatusEntry parent, int count) {
+        // Aggregated parents stay COLLECTING_ATTACHMENTS until the aggregator emits them
         boolean shouldTransition = parent.status() == RequestStatus.COLLECTING_ATTACHMENTS
+                && (parent.routeName() == null || !aggregatingRoutes.contains(parent.routeName()))
                 && parent.attachmentsMinCount() > 0
                 && count >= parent.attachmentsMinCount();
         if (shouldTransition) {
@@ -333,9 +553,8 @@ public final class AttachmentsEndpointHandler implements EndpointHandler {
                 // is met), so the counter remains authoritative for max enforcement — evicting it
                 // would reset the count and let a parent exceed its max. The counter IS evicted when
                 // the window is observed closed (parent gone / status past the open window) in
-                // lookupAndValidateParent. The residual leak for a parent whose attachments simply
-                // stop is one bounded AtomicInteger and would require a time-based sweeper (a TTL) to
-                // reclaim eagerly — out of the lean scope of this change; accepted as a bounded risk.
+                // lookupAndValidateParent; the counter of a parent whose attachments simply stop is
+                // reclaimed by the counter's idle expiry (see ExpiringSlotMap).
             } catch (IOException e) {
                 LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
             }
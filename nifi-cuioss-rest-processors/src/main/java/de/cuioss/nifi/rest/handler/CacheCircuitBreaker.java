@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Closed/open/half-open circuit breaker for the distributed cache.
+ * <p>
+ * {@link #failureThreshold} consecutive failed calls open the circuit; while open every call is
+ * refused without touching the cache. After {@link #openDuration} a single probe call is let
+ * through (half-open): its success closes the circuit, its failure opens it for another period.
+ */
+public final class CacheCircuitBreaker {
+
+    private static final CuiLogger LOGGER = new CuiLogger(CacheCircuitBreaker.class);
+
+    /** Circuit state. */
+    public enum State {
+        /** Calls pass through. */
+        CLOSED,
+        /** Calls are refused until the open period has elapsed. */
+        OPEN,
+        /** One probe call is in flight; further calls are refused until it completes. */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+
+    /**
+     * @param failureThreshold consecutive failures that open the circuit (positive)
+     * @param openDuration     time the circuit stays open before a probe call (positive)
+     */
+    public CacheCircuitBreaker(int failureThreshold, @NonNull Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CacheCircuitBreaker(int failureThreshold, @NonNull Duration openDuration, @NonNull LongSupplier nanoClock) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive: " + failureThreshold);
+        }
+        if (openDuration.isZero() || openDuration.isNegative()) {
+            throw new IllegalArgumentException("openDuration must be positive: " + openDuration);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Asks permission for one call. A caller that is granted permission must report the outcome
+     * with {@link #onSuccess} or {@link #onFailure}.
+     *
+     * @return {@code true} if the call may proceed
+     */
+    public synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> {
+                if (nanoClock.getAsLong() - openUntilNanos < 0) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                yield true;
+            }
+        };
+    }
+
+    /** Records a successful call; closes the circuit after a successful probe. */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            LOGGER.info(RestApiLogMessages.INFO.CACHE_CIRCUIT_CLOSED);
+        }
+    }
+
+    /**
+     * Releases a permission whose call never reached the cache. A pending probe is given back, so
+     * the next call probes again.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    /**
+     * Records a failed call; opens the circuit at the threshold or after a failed probe.
+     *
+     * @param cause description of the failure, for the log
+     */
+    public synchronized void onFailure(String cause) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openUntilNanos = nanoClock.getAsLong() + openDurationNanos;
+            LOGGER.warn(RestApiLogMessages.WARN.CACHE_CIRCUIT_OPENED, consecutiveFailures,
+                    openDurationNanos / 1_000_000, cause);
+        }
+    }
+
+    /**
+     * @return the current state; an open circuit whose period has elapsed is still reported as
+     *         {@link State#OPEN} until the next call probes it
+     */
+    public synchronized State state() {
+        return state;
+    }
+}
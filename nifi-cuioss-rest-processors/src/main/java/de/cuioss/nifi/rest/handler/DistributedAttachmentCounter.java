@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Cluster-wide {@link AttachmentCounter}: the authoritative per-parent count lives in the
+ * distributed cache and is advanced with compare-and-swap increments
+ * ({@link RequestStatusStore#reserveAttachmentSlots}), so {@code attachments-max-count} holds
+ * across all nodes and survives a processor restart.
+ * <p>
+ * To avoid a cache round trip per attachment, each node leases up to {@code leaseSize} slots at
+ * once and hands them out locally; only when its lease is exhausted does it go back to the cache.
+ * Leased-but-unused slots count against the limit, so with a lease size above 1 a parent may be
+ * rejected on one node while another node still holds unused slots — a lease size of 1 (the
+ * default) keeps the limit exact. Unused slots are returned to the cache when a lease expires or is
+ * dropped for capacity. The reported count is the cluster-wide count minus this node's unused
+ * lease slots.
+ * <p>
+ * The lease monitor is only held for the local bookkeeping, never across a cache round trip. A
+ * reservation the lease cannot cover takes the lease's remaining slots, asks the cache for the rest
+ * outside the monitor, and then settles the outcome with the lease again. Leases are swept on the
+ * request threads, so the unused slots of a swept lease are only queued there and handed back to
+ * the cache by {@link #drainEvicted}, which the processor calls from {@code onTrigger}.
+ */
+public final class DistributedAttachmentCounter implements AttachmentCounter {
+
+    private static final CuiLogger LOGGER = new CuiLogger(DistributedAttachmentCounter.class);
+
+    private final RequestStatusStore statusStore;
+    private final int leaseSize;
+    private final ExpiringSlotMap<Lease> leases;
+    /** Unused slots of swept leases, not yet handed back to the cache. */
+    private final Queue<EvictedLease> evictedLeases = new ConcurrentLinkedQueue<>();
+
+    public DistributedAttachmentCounter(@NonNull RequestStatusStore statusStore, int leaseSize,
+            int maxEntries, Duration expiry) {
+        this(statusStore, leaseSize, maxEntries, expiry, System::nanoTime);
+    }
+
+    DistributedAttachmentCounter(RequestStatusStore statusStore, int leaseSize,
+            int maxEntries, Duration expiry, LongSupplier nanoClock) {
+        if (leaseSize <= 0) {
+            throw new IllegalArgumentException("leaseSize must be positive: " + leaseSize);
+        }
+        this.statusStore = statusStore;
+        this.leaseSize = leaseSize;
+        this.leases = new ExpiringSlotMap<>(maxEntries, expiry, nanoClock, this::queueUnusedSlots);
+    }
+
+    @Override
+    public Reservation reserve(String parentTraceId, int slots, int maxCount) throws IOException {
+        LeaseClaim claim = leases.withSlot(parentTraceId, Lease::new, lease -> {
+            if (lease.remaining >= slots) {
+                lease.remaining -= slots;
+                return new LeaseClaim(Reservation.granted(lease.total - lease.remaining), 0);
+            }
+            int taken = lease.remaining;
+            lease.remaining = 0;
+            return new LeaseClaim(null, taken);
+        });
+        if (claim.reservation() != null) {
+            return claim.reservation();
+        }
+
+        int taken = claim.taken();
+        RequestStatusStore.SlotGrant grant;
+        try {
+            grant = statusStore.reserveAttachmentSlots(parentTraceId, slots - taken, leaseSize, maxCount);
+        } catch (IOException e) {
+            try {
+                if (taken > 0) {
+                    release(parentTraceId, taken);
+                }
+            } catch (IOException releaseFailure) {
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+        // The lease may have been swept meanwhile; a fresh one then takes the settled slots
+        return leases.withSlot(parentTraceId, Lease::new, lease -> {
+            lease.total = grant.total();
+            if (grant.granted() == 0) {
+                lease.remaining += taken;
+                return Reservation.denied(lease.total - lease.remaining);
+            }
+            lease.remaining += taken + grant.granted() - slots;
+            return Reservation.granted(lease.total - lease.remaining);
+        });
+    }
+
+    @Override
+    public void release(String parentTraceId, int slots) throws IOException {
+        boolean returnedToLease = leases.withExistingSlot(parentTraceId, lease -> {
+            lease.remaining += slots;
+            return null;
+        });
+        if (!returnedToLease) {
+            statusStore.releaseAttachmentSlots(parentTraceId, slots);
+        }
+    }
+
+    @Override
+    public void evict(String parentTraceId) throws IOException {
+        leases.remove(parentTraceId);
+        statusStore.removeAttachmentCount(parentTraceId);
+    }
+
+    @Override
+    public int size() {
+        return leases.size();
+    }
+
+    /** Sweeps expired leases now; exposed for tests driving a fake clock. */
+    void sweep(long nowNanos) {
+        leases.sweep(nowNanos);
+    }
+
+    @Override
+    public int drainEvicted(int max) {
+        int drained = 0;
+        EvictedLease evicted;
+        while (drained < max && (evicted = evictedLeases.poll()) != null) {
+            try {
+                statusStore.releaseAttachmentSlots(evicted.parentTraceId(), evicted.unused());
+            } catch (IOException e) {
+                LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    private void queueUnusedSlots(String parentTraceId, Lease lease) {
+        // The lease is retired, so its remaining count is stable
+        int unused;
+        synchronized (lease) {
+            unused = lease.remaining;
+        }
+        if (unused > 0) {
+            evictedLeases.add(new EvictedLease(parentTraceId, unused));
+        }
+    }
+
+    /**
+     * Outcome of the first, local step of {@link #reserve}: either the reservation served from the
+     * lease, or the slots taken from the lease before going to the cache.
+     */
+    private record LeaseClaim(@Nullable Reservation reservation, int taken) {
+    }
+
+    private record EvictedLease(String parentTraceId, int unused) {
+    }
+
+    static final class Lease extends ExpiringSlotMap.Slot {
+        /** Slots leased from the cache but not yet handed out on this node. */
+        int remaining;
+        /** Cluster-wide count observed at the last cache round trip. */
+        int total;
+    }
+}
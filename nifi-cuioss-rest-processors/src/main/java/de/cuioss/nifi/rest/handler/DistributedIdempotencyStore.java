@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import lombok.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cluster-wide {@link IdempotencyStore}: every key lives in the distributed cache as an
+ * {@link IdempotencyEntry} ({@link RequestStatusStore#claimIdempotencyKey}), so a retry is
+ * recognized on whichever node it reaches and survives a processor restart.
+ * <p>
+ * Claims are a compare-and-swap on atomic cache clients, so of two concurrent duplicates exactly
+ * one is processed. The other is reported as {@link Outcome#IN_FLIGHT} right away rather than
+ * waiting for the original, which may be running on another node. The cache does not expire
+ * entries by itself; an entry older than the time to live is treated as absent and replaced by
+ * the next claim of its key.
+ */
+public final class DistributedIdempotencyStore implements IdempotencyStore {
+
+    private final RequestStatusStore statusStore;
+    private final Duration ttl;
+
+    public DistributedIdempotencyStore(@NonNull RequestStatusStore statusStore, @NonNull Duration ttl) {
+        this.statusStore = statusStore;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint) throws IOException {
+        Optional<IdempotencyEntry> existing = statusStore.claimIdempotencyKey(key,
+                IdempotencyEntry.inFlight(fingerprint), ttl);
+        if (existing.isEmpty()) {
+            return Claim.claimed();
+        }
+        IdempotencyEntry entry = existing.get();
+        if (!entry.fingerprint().equals(fingerprint)) {
+            return Claim.mismatch();
+        }
+        return entry.completed() ? Claim.completed(entry.traceId()) : Claim.inFlight();
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, @Nullable String traceId) throws IOException {
+        statusStore.putIdempotencyEntry(key, IdempotencyEntry.completed(fingerprint, traceId));
+    }
+
+    @Override
+    public void release(String key) throws IOException {
+        statusStore.removeIdempotencyKey(key);
+    }
+}
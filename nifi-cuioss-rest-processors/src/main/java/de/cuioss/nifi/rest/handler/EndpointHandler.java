@@ -17,6 +17,7 @@
 package de.cuioss.nifi.rest.handler;
 
 import de.cuioss.nifi.rest.config.AuthMode;
+import de.cuioss.nifi.rest.config.RoutePriority;
 import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Response;
@@ -34,7 +35,7 @@ import java.util.Set;
  * before delegating to {@link #process(SanitizedRequest, AccessTokenContent, byte[], Request, Response, Callback)}.
  */
 public sealed interface EndpointHandler
-        permits AbstractManagementHandler, ApiRouteHandler, AttachmentsEndpointHandler {
+        permits AbstractManagementHandler, ApiRouteHandler, AttachmentsEndpointHandler, ResumableUploadHandler {
 
     /** Human-readable name for logging and diagnostics. */
     String name();
@@ -83,6 +84,46 @@ public sealed interface EndpointHandler
      */
     int maxRequestSize();
 
+    /**
+     * Whether the dispatcher sanitizes the given request header and hands it to
+     * {@link #process}. Headers that are not retained skip the security pipeline entirely and
+     * never reach {@link SanitizedRequest#headers()}.
+     *
+     * @param name the header name as sent by the client
+     * @return {@code true} to retain the header (default)
+     */
+    default boolean retainsHeader(String name) {
+        return true;
+    }
+
+    /**
+     * Whether the dispatcher sanitizes the given query parameter and hands it to {@link #process}.
+     *
+     * @param name the query parameter name
+     * @return {@code true} to retain the parameter (default)
+     */
+    default boolean retainsQueryParameter(String name) {
+        return true;
+    }
+
+    /**
+     * The rate limiter the dispatcher applies after authorization and before reading the body.
+     *
+     * @return the limiter, or {@code null} when requests are not rate limited (default)
+     */
+    default @Nullable RateLimiter rateLimiter() {
+        return null;
+    }
+
+    /**
+     * The load-shedding class of the requests this handler queues for FlowFile creation.
+     *
+     * @return the priority, or {@code null} when the handler queues nothing and is never shed (default)
+     */
+    default @Nullable RoutePriority priority() {
+        return null;
+    }
+
     /**
      * Processes the request after the dispatcher has completed shared checks:
      * sanitization, method check, auth-mode dispatch, authorization, and body size check.
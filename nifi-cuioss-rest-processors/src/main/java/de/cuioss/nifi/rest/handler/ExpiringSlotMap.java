@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.tools.logging.CuiLogger;
+import de.cuioss.tools.logging.LogRecord;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, idle-expiring map of per-key mutable slots, shared by the attachment counters and the
+ * local idempotency store.
+ * <p>
+ * Slots are mutated under their own monitor via {@link #withSlot}. Expiry is lazy: a sweep runs on
+ * the calling thread once per half expiry interval, or immediately when the map exceeds
+ * {@code maxEntries}. A sweep first drops slots idle for longer than the expiry, then — if the map
+ * is still over its bound — the least-recently-used slots down to 90% of the bound, so a burst of
+ * new keys does not trigger a sweep per request.
+ * <p>
+ * A swept slot is marked retired under its monitor before it is unlinked; a thread that fetched the
+ * slot just before the sweep observes the flag and retries against a fresh slot, so an update can
+ * never be applied to a detached slot and silently lost.
+ *
+ * @param <S> the slot type
+ */
+final class ExpiringSlotMap<S extends ExpiringSlotMap.Slot> {
+
+    private static final CuiLogger LOGGER = new CuiLogger(ExpiringSlotMap.class);
+
+    /**
+     * Mutable per-key state; all fields are guarded by the slot's own monitor. The bookkeeping
+     * fields are package-private rather than private because they are accessed through the type
+     * variable {@code S}, which does not expose private members.
+     */
+    abstract static class Slot {
+        volatile long lastAccess;
+        boolean retired;
+    }
+
+    /** Action applied to a slot under its monitor. */
+    @FunctionalInterface
+    interface SlotAction<S, R> {
+        R apply(S slot) throws IOException;
+    }
+
+    private final ConcurrentHashMap<String, S> slots = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long expiryNanos;
+    private final LongSupplier nanoClock;
+    private final BiConsumer<String, S> onEvicted;
+    private final LogRecord capacityWarning;
+    private final AtomicLong nextSweepAt;
+
+    /**
+     * @param maxEntries upper bound of tracked keys (positive)
+     * @param expiry     idle time after which a slot is dropped (positive)
+     * @param nanoClock  monotonic clock in nanoseconds
+     * @param onEvicted  callback for each slot removed by a sweep, invoked outside the slot monitor on the
+     *                   thread that ran the sweep — usually a request thread, so it must not block
+     */
+    ExpiringSlotMap(int maxEntries, Duration expiry, LongSupplier nanoClock, BiConsumer<String, S> onEvicted) {
+        this(maxEntries, expiry, nanoClock, onEvicted, RestApiLogMessages.WARN.ATTACHMENT_COUNTERS_EVICTED);
+    }
+
+    /**
+     * @param capacityWarning logged with the evicted count and the bound when slots are dropped for capacity
+     */
+    ExpiringSlotMap(int maxEntries, Duration expiry, LongSupplier nanoClock, BiConsumer<String, S> onEvicted,
+            LogRecord capacityWarning) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        if (expiry.isZero() || expiry.isNegative()) {
+            throw new IllegalArgumentException("expiry must be positive: " + expiry);
+        }
+        this.maxEntries = maxEntries;
+        this.expiryNanos = expiry.toNanos();
+        this.nanoClock = nanoClock;
+        this.onEvicted = onEvicted;
+        this.capacityWarning = capacityWarning;
+        this.nextSweepAt = new AtomicLong(nanoClock.getAsLong() + sweepInterval());
+    }
+
+    /**
+     * Applies {@code action} to the slot for {@code key}, creating it when absent.
+     */
+    <R> R withSlot(String key, Supplier<S> factory, SlotAction<S, R> action) throws IOException {
+        R result;
+        while (true) {
+            S slot = slots.computeIfAbsent(key, k -> factory.get());
+            synchronized (slot) {
+                if (slot.retired) {
+                    continue;
+                }
+                slot.lastAccess = nanoClock.getAsLong();
+                result = action.apply(slot);
+                break;
+            }
+        }
+        sweepIfDue();
+        return result;
+    }
+
+    /**
+     * Applies {@code action} to the existing slot for {@code key}.
+     *
+     * @return {@code false} if no live slot exists for the key
+     */
+    boolean withExistingSlot(String key, SlotAction<S, ?> action) throws IOException {
+        S slot = slots.get(key);
+        if (slot == null) {
+            return false;
+        }
+        synchronized (slot) {
+            if (slot.retired) {
+                return false;
+            }
+            slot.lastAccess = nanoClock.getAsLong();
+            action.apply(slot);
+            return true;
+        }
+    }
+
+    /**
+     * Unlinks and retires the slot for {@code key} without invoking the eviction callback.
+     */
+    void remove(String key) {
+        S slot = slots.remove(key);
+        if (slot != null) {
+            synchronized (slot) {
+                slot.retired = true;
+            }
+        }
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    private void sweepIfDue() {
+        long now = nanoClock.getAsLong();
+        long due = nextSweepAt.get();
+        boolean overCapacity = slots.size() > maxEntries;
+        if ((overCapacity || now - due >= 0) && nextSweepAt.compareAndSet(due, now + sweepInterval())) {
+            sweep(now);
+        }
+    }
+
+    /**
+     * Drops idle slots and, if still over the bound, the least-recently-used ones.
+     */
+    void sweep(long now) {
+        List<Map.Entry<String, S>> evicted = new ArrayList<>();
+        for (Map.Entry<String, S> entry : slots.entrySet()) {
+            if (isIdle(entry.getValue(), now) && retire(entry.getKey(), entry.getValue(), now, true)) {
+                evicted.add(entry);
+            }
+        }
+        if (slots.size() > maxEntries) {
+            int target = slots.size() - Math.max(1, maxEntries - maxEntries / 10);
+            // Snapshot the access times: they keep moving while the sweep sorts
+            List<Candidate<S>> byAge = new ArrayList<>();
+            slots.forEach((key, slot) -> byAge.add(new Candidate<>(key, slot, slot.lastAccess)));
+            byAge.sort(Comparator.comparingLong(Candidate::lastAccess));
+            int removed = 0;
+            for (Candidate<S> candidate : byAge) {
+                if (removed >= target) {
+                    break;
+                }
+                if (retire(candidate.key(), candidate.slot(), now, false)) {
+                    evicted.add(Map.entry(candidate.key(), candidate.slot()));
+                    removed++;
+                }
+            }
+            LOGGER.warn(capacityWarning, removed, maxEntries);
+        }
+        evicted.forEach(e -> onEvicted.accept(e.getKey(), e.getValue()));
+    }
+
+    private boolean isIdle(Slot slot, long now) {
+        return now - slot.lastAccess >= expiryNanos;
+    }
+
+    /**
+     * Retires and unlinks a slot. For idle eviction the idle check is repeated under the monitor so
+     * a slot touched after the unlocked pre-check survives the sweep.
+     */
+    private boolean retire(String key, S slot, long now, boolean requireIdle) {
+        synchronized (slot) {
+            if (slot.retired || (requireIdle && !isIdle(slot, now)) || !slots.remove(key, slot)) {
+                return false;
+            }
+            slot.retired = true;
+            return true;
+        }
+    }
+
+    private record Candidate<S>(String key, S slot, long lastAccess) {
+    }
+
+    private long sweepInterval() {
+        return Math.max(1L, expiryNanos / 2);
+    }
+}
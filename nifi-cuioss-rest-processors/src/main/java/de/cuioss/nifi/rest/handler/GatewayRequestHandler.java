@@ -18,6 +18,7 @@ package de.cuioss.nifi.rest.handler;
 
 import de.cuioss.http.forwarded.ResolvedForwarding;
 import de.cuioss.http.security.config.SecurityConfiguration;
+import de.cuioss.http.security.core.HttpSecurityValidator;
 import de.cuioss.http.security.exceptions.UrlSecurityException;
 import de.cuioss.http.security.monitoring.SecurityEventCounter;
 import de.cuioss.http.security.pipeline.PipelineFactory;
@@ -29,12 +30,15 @@ import de.cuioss.nifi.jwt.util.ForwardedRequestResolver;
 import de.cuioss.nifi.rest.RestApiLogMessages;
 import de.cuioss.nifi.rest.config.AuthMode;
 import de.cuioss.nifi.rest.config.RoutePattern;
+import de.cuioss.nifi.rest.config.RoutePriority;
 import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
 import de.cuioss.sheriff.token.validation.exception.TokenValidationException;
 import de.cuioss.tools.logging.CuiLogger;
+import lombok.Builder;
 import lombok.Getter;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
 import org.eclipse.jetty.io.Content;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
@@ -44,7 +48,9 @@ import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Thin dispatcher implementing the command-pattern for endpoint handling.
@@ -52,7 +58,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * All endpoint types (built-in management + user API routes) are registered
  * as {@link EndpointHandler} instances in a handler map. The dispatcher performs
  * shared concerns (sanitization, method check, auth-mode dispatch, authorization,
- * body size check) before delegating to the handler's {@code process()} method.
+ * rate limiting, load shedding, body size check) before delegating to the handler's {@code process()} method.
  */
 public class GatewayRequestHandler extends Handler.Abstract {
 
@@ -67,14 +73,11 @@ public class GatewayRequestHandler extends Handler.Abstract {
 
     private static final int BEARER_PREFIX_LENGTH = 7;
 
-    /** Path to handler lookup map. Iteration order matches registration order. */
-    private final Map<String, EndpointHandler> handlerMap;
     /**
-     * Compiled path-template routes in registration order. Only handlers whose
-     * {@code path()} declares {@code {placeholder}} segments are compiled here;
-     * plain routes stay on the exact/prefix passes.
+     * The routing table in use. Each request reads it once, so a table installed by
+     * {@link #replaceHandlers} only affects requests that arrive afterwards.
      */
-    private final List<PatternRoute> patternRoutes;
+    private final AtomicReference<RoutingTable> routingTable;
     private final JwtIssuerConfigService configService;
     private final int globalMaxRequestSize;
     private final PipelineSet securityPipelines;
@@ -107,7 +110,7 @@ public class GatewayRequestHandler extends Handler.Abstract {
 
     /**
      * Header names whose values are credentials and must never flow into FlowFile
-     * {@code http.header.*} attributes or NiFi provenance. Compared case-insensitively.
+     * {@code http.header.*} attributes or NiFi provenance. Compared against the lower-case name.
      */
     private static final Set<String> SENSITIVE_HEADERS = Set.of(
             "authorization", "cookie", "set-cookie", "proxy-authorization",
@@ -118,6 +121,15 @@ public class GatewayRequestHandler extends Handler.Abstract {
     /** Application-level gateway security event counters. */
     @Getter private final GatewaySecurityEvents gatewaySecurityEvents;
 
+    /** Asynchronous access log; {@code null} when disabled. */
+    @Nullable private final AccessLog accessLog;
+
+    /** Memo of header and query values known to pass their pipeline; {@code null} when disabled. */
+    @Nullable private final SanitizationCache sanitizationCache;
+
+    /** Adaptive limit on the request queue; {@code null} when load shedding is disabled. */
+    @Nullable private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
     /** Package-private flag to disable loopback bypass in tests. */
     boolean loopbackBypassEnabled = true;
 
@@ -139,6 +151,36 @@ public class GatewayRequestHandler extends Handler.Abstract {
     private record PatternRoute(RoutePattern pattern, EndpointHandler handler) {
     }
 
+    /**
+     * Immutable routing state built from an ordered handler list.
+     *
+     * @param handlerMap    path to handler lookup map; iteration order matches registration order
+     * @param patternRoutes compiled path-template routes in registration order. Only handlers whose
+     *                      {@code path()} declares {@code {placeholder}} segments are compiled here;
+     *                      plain routes stay on the exact/prefix passes.
+     */
+    private record RoutingTable(Map<String, EndpointHandler> handlerMap, List<PatternRoute> patternRoutes) {
+
+        static RoutingTable of(List<EndpointHandler> handlers) {
+            Map<String, EndpointHandler> handlerMap = new LinkedHashMap<>();
+            List<PatternRoute> patternRoutes = new ArrayList<>();
+            for (EndpointHandler handler : handlers) {
+                if (handlerMap.containsKey(handler.path())) {
+                    throw new IllegalArgumentException(
+                            "Duplicate handler path: '%s' (existing: '%s', new: '%s')"
+                                    .formatted(handler.path(),
+                                            handlerMap.get(handler.path()).name(),
+                                            handler.name()));
+                }
+                handlerMap.put(handler.path(), handler);
+                if (RoutePattern.containsPlaceholders(handler.path())) {
+                    patternRoutes.add(new PatternRoute(RoutePattern.compile(handler.path()), handler));
+                }
+            }
+            return new RoutingTable(Collections.unmodifiableMap(handlerMap), List.copyOf(patternRoutes));
+        }
+    }
+
     /**
      * The outcome of route resolution: the matched handler and the path
      * parameters extracted from a pattern match (empty for exact/prefix matches).
@@ -147,85 +189,93 @@ public class GatewayRequestHandler extends Handler.Abstract {
     }
 
     /**
-     * Creates a new dispatcher with the given endpoint handlers.
-     * Event counters are created internally.
+     * Collaborators of the dispatcher beyond its routes. Every component has a default, so callers
+     * only set what they share with other components or want to enable.
      *
-     * @param handlers             ordered list of endpoint handlers (built-in first, then user routes)
-     * @param configService        JWT issuer config service for token validation
-     * @param globalMaxRequestSize global maximum request body size in bytes
+     * @param httpSecurityEvents            transport security event counter (default: a new counter)
+     * @param gatewaySecurityEvents         gateway event counter (default: a new counter)
+     * @param forwardedResolver             the configured resolver for the reverse-proxy /
+     *                                      forwarded-header family (default: secure-by-default,
+     *                                      honors nothing)
+     * @param contextPathHonoringConfigured whether any context-path honoring is configured
+     *                                      (trust-all on or a non-empty allowlist); {@code false}
+     *                                      is the secure-default posture that triggers the one-shot
+     *                                      "proxy header present but not honored" WARN
+     * @param accessLog                     writes one access-log record per request (default: off)
+     * @param sanitizationCache             memo of header and query values that passed their
+     *                                      pipeline (default: off)
+     * @param concurrencyLimiter            adaptive limit on the request queue, sheds queued-route
+     *                                      requests by priority (default: off)
      */
-    public GatewayRequestHandler(
-            List<EndpointHandler> handlers,
-            JwtIssuerConfigService configService,
-            int globalMaxRequestSize) {
-        this(handlers, configService, globalMaxRequestSize,
-                new SecurityEventCounter(), new GatewaySecurityEvents(),
-                ForwardedRequestResolver.secureDefault(), false);
+    @Builder
+    public record Options(
+    @Nullable SecurityEventCounter httpSecurityEvents,
+    @Nullable GatewaySecurityEvents gatewaySecurityEvents,
+    @Nullable ForwardedRequestResolver forwardedResolver,
+    boolean contextPathHonoringConfigured,
+    @Nullable AccessLog accessLog,
+    @Nullable SanitizationCache sanitizationCache,
+    @Nullable AdaptiveConcurrencyLimiter concurrencyLimiter) {
     }
 
     /**
-     * Creates a new dispatcher with pre-created event counters and the configured
-     * forwarded-header resolver.
-     * Use this when handlers need access to the same event counter instances.
+     * Creates a dispatcher for the given endpoint handlers.
      *
-     * @param handlers                     ordered list of endpoint handlers
-     * @param configService                JWT issuer config service for token validation
-     * @param globalMaxRequestSize         global maximum request body size in bytes
-     * @param httpSecurityEvents           pre-created transport security event counter
-     * @param gatewaySecurityEvents        pre-created gateway event counter
-     * @param forwardedResolver            the configured resolver for the reverse-proxy /
-     *                                     forwarded-header family (secure-by-default honors nothing)
-     * @param contextPathHonoringConfigured whether any context-path honoring is configured
-     *                                     (trust-all on or a non-empty allowlist); {@code false}
-     *                                     is the secure-default posture that triggers the one-shot
-     *                                     "proxy header present but not honored" WARN
+     * @param handlers             ordered list of endpoint handlers (built-in first, then user routes)
+     * @param configService        JWT issuer config service for token validation
+     * @param globalMaxRequestSize global maximum request body size in bytes
+     * @param options              event counters, forwarded-header handling and optional collaborators
      */
     public GatewayRequestHandler(
             List<EndpointHandler> handlers,
             JwtIssuerConfigService configService,
             int globalMaxRequestSize,
-            SecurityEventCounter httpSecurityEvents,
-            GatewaySecurityEvents gatewaySecurityEvents,
-            ForwardedRequestResolver forwardedResolver,
-            boolean contextPathHonoringConfigured) {
+            Options options) {
+        this.accessLog = options.accessLog();
+        this.sanitizationCache = options.sanitizationCache();
+        this.concurrencyLimiter = options.concurrencyLimiter();
         this.configService = Objects.requireNonNull(configService);
         this.globalMaxRequestSize = globalMaxRequestSize;
-        this.forwardedResolver = Objects.requireNonNull(forwardedResolver);
-        this.contextPathHonoringConfigured = contextPathHonoringConfigured;
-        this.httpSecurityEvents = Objects.requireNonNull(httpSecurityEvents);
-        this.gatewaySecurityEvents = Objects.requireNonNull(gatewaySecurityEvents);
+        this.forwardedResolver = options.forwardedResolver() != null
+                ? options.forwardedResolver() : ForwardedRequestResolver.secureDefault();
+        this.contextPathHonoringConfigured = options.contextPathHonoringConfigured();
+        this.httpSecurityEvents = options.httpSecurityEvents() != null
+                ? options.httpSecurityEvents() : new SecurityEventCounter();
+        this.gatewaySecurityEvents = options.gatewaySecurityEvents() != null
+                ? options.gatewaySecurityEvents() : new GatewaySecurityEvents();
         // The gateway is the system's most external HTTP boundary (raw inbound
         // requests from arbitrary clients), so it uses the strict security posture —
         // consistent with the UI validation servlets (JwksValidationServlet,
         // GatewayProxyServlet) which also build their pipelines with
         // SecurityConfiguration.strict(). Hard violations are rejected with HTTP 400
-        // via the UrlSecurityException catch in validateAndSanitizeInput.
+        // via the UrlSecurityException catches in validateAndSanitizeInput / sanitizeRetainedFields.
         this.securityPipelines = PipelineFactory.createCommonPipelines(
                 SecurityConfiguration.strict(), this.httpSecurityEvents);
 
-        this.handlerMap = new LinkedHashMap<>();
-        this.patternRoutes = new ArrayList<>();
-        for (EndpointHandler handler : handlers) {
-            if (handlerMap.containsKey(handler.path())) {
-                throw new IllegalArgumentException(
-                        "Duplicate handler path: '%s' (existing: '%s', new: '%s')"
-                                .formatted(handler.path(),
-                                        handlerMap.get(handler.path()).name(),
-                                        handler.name()));
-            }
-            handlerMap.put(handler.path(), handler);
-            if (RoutePattern.containsPlaceholders(handler.path())) {
-                patternRoutes.add(new PatternRoute(RoutePattern.compile(handler.path()), handler));
-            }
-        }
+        this.routingTable = new AtomicReference<>(RoutingTable.of(handlers));
+    }
+
+    /**
+     * Atomically replaces the endpoint handlers of the running dispatcher, e.g. after a route
+     * reconfiguration. Requests already dispatched complete on the handler they resolved; the
+     * connector, the security pipelines and the event counters are kept.
+     *
+     * @param handlers ordered list of endpoint handlers (built-in first, then user routes)
+     * @throws IllegalArgumentException if two handlers share a path; the current table stays in use
+     */
+    public void replaceHandlers(List<EndpointHandler> handlers) {
+        routingTable.set(RoutingTable.of(handlers));
     }
 
     @SuppressWarnings("java:S3516")
     // Always returns true — this handler handles all requests per Jetty contract
     @Override
     public boolean handle(Request request, Response response, Callback callback) {
+        Callback completion = (accessLog != null)
+                ? new AccessLogCallback(callback, accessLog, request, response, System.nanoTime())
+                : callback;
         try {
-            dispatch(request, response, callback);
+            dispatch(request, response, completion);
         } catch (IOException | RuntimeException e) {
             // Top-level safety net at the Jetty handler boundary: any IOException or runtime
             // exception escaping dispatch() (token validation, JSON building, status store, …)
@@ -233,7 +283,7 @@ public class GatewayRequestHandler extends Handler.Abstract {
             // RFC 9457 problem-details response — never Jetty's default HTML error page.
             LOGGER.error(e, RestApiLogMessages.ERROR.HANDLER_ERROR, e.getMessage());
             gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.HANDLER_ERROR);
-            sendProblemResponse(response, callback, ProblemDetail.internalError());
+            sendProblemResponse(response, completion, ProblemDetail.internalError());
         }
         return true;
     }
@@ -243,7 +293,7 @@ public class GatewayRequestHandler extends Handler.Abstract {
         String method = request.getMethod();
         String rawRemoteHost = Request.getRemoteAddr(request);
 
-        // 1. Sanitize input — the forwarded view (including the honored client IP) is only
+        // 1. Sanitize the path — the forwarded view (including the honored client IP) is only
         // resolved on success, so the pre-sanitize security-violation log uses the raw socket
         // address. All subsequent audit logs prefer the honored forwarded client IP when present.
         Optional<SanitizedRequest> sanitized = validateAndSanitizeInput(
@@ -270,7 +320,7 @@ public class GatewayRequestHandler extends Handler.Abstract {
         }
 
         // 2. Lookup handler (exact → prefix → pattern)
-        ResolvedRoute resolved = resolveHandler(path);
+        ResolvedRoute resolved = resolveHandler(routingTable.get(), path);
         if (resolved == null || !resolved.handler().enabled()) {
             gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.ROUTE_NOT_FOUND);
             LOGGER.warn(RestApiLogMessages.WARN.ROUTE_NOT_FOUND, rawSanitizedPath);
@@ -280,7 +330,19 @@ public class GatewayRequestHandler extends Handler.Abstract {
         }
         EndpointHandler handler = resolved.handler();
         Map<String, String> pathParameters = resolved.pathParameters();
-        LOGGER.info(RestApiLogMessages.INFO.ROUTE_MATCHED, method, path, handler.name());
+        LOGGER.debug("Route matched: %s %s -> route '%s'", method, path, handler.name());
+        if (accessLog != null) {
+            request.setAttribute(AccessLog.ROUTE_ATTRIBUTE, handler.name());
+            request.setAttribute(AccessLog.CLIENT_ATTRIBUTE, remoteHost);
+        }
+
+        // Sanitize the query parameters and headers the route retains (still before auth, so a
+        // hard violation is rejected with 400 before anything else inspects the request).
+        Optional<SanitizedRequest> projected = sanitizeRetainedFields(sanitized.get(), handler,
+                request, response, callback, method, path, remoteHost);
+        if (projected.isEmpty()) {
+            return;
+        }
 
         // 3. Auth-mode dispatch — authenticate BEFORE resolving 405 (method-not-allowed) so an
         // unauthenticated client cannot enumerate which methods a protected route allows, and
@@ -305,51 +367,105 @@ public class GatewayRequestHandler extends Handler.Abstract {
                 && !authorizeRequest(token, handler, response, callback, method, path, remoteHost)) {
             return;
         }
-        // Skip the AUTH_SUCCESSFUL audit line for anonymous (auth-mode=none) routes — no
+        // Skip the authentication-success debug line for anonymous (auth-mode=none) routes — no
         // authentication actually occurred and it is noise on the anonymous hot path.
         if (!handler.authModes().contains(AuthMode.NONE)) {
-            LOGGER.info(RestApiLogMessages.INFO.AUTH_SUCCESSFUL, method, path, remoteHost);
+            LOGGER.debug("Authentication successful for %s %s from %s", method, path, remoteHost);
+        }
+        if (accessLog != null && token != null) {
+            token.getSubject().ifPresent(subject -> request.setAttribute(AccessLog.SUBJECT_ATTRIBUTE, subject));
         }
 
-        // 6. Body read + size check
+        // 6. Rate limit (per route, keyed by token claim or client IP) — after authorization so the
+        // key is a verified identity, before the body is read so a limited client uploads nothing.
+        RateLimiter rateLimiter = handler.rateLimiter();
+        if (rateLimiter != null
+                && !admitRateLimited(rateLimiter, token, remoteHost, method, path, response, callback)) {
+            return;
+        }
+
+        // 7. Load shedding — once the adaptive limit on the request queue is reached, low-priority
+        // routes are turned away first, still before their body is read.
+        RoutePriority priority = handler.priority();
+        if (concurrencyLimiter != null && priority != null && !concurrencyLimiter.tryAdmit(priority)) {
+            shedRequest(concurrencyLimiter, priority, method, path, remoteHost, response, callback);
+            return;
+        }
+
+        // 8. Size check on the declared Content-Length, then body read + size check. Nothing
+        // reads the body before this point, so an "Expect: 100-continue" client is only told to
+        // continue once authentication, authorization and the declared size have passed.
         Optional<byte[]> bodyOpt = readAndValidateBody(request, handler, method, path, response, callback);
         if (bodyOpt.isEmpty()) {
             return;
         }
         byte[] body = bodyOpt.get();
 
-        // 7. Delegate to handler (hand it the prefix-stripped path + extracted path parameters).
+        // 9. Delegate to handler (hand it the prefix-stripped path + extracted path parameters).
         // `path` is the reverse-proxy-prefix-stripped path resolved above; when no prefix was
         // honored it equals the original sanitized path, so unproxied requests are byte-identical.
         // Handlers (StatusEndpointHandler / AttachmentsEndpointHandler) parse their path parameter
         // off sanitized.path(), so they must see the stripped path, not the /{prefix}/... one.
-        handler.process(sanitized.get().withPath(path).withPathParameters(pathParameters),
+        handler.process(projected.get().withPath(path).withPathParameters(pathParameters),
                 token, body, request, response, callback);
     }
 
+    /**
+     * Hands the finished request to the access log once the response completed, successfully or not.
+     */
+    private static final class AccessLogCallback extends Callback.Nested {
+
+        private final AccessLog accessLog;
+        private final Request request;
+        private final Response response;
+        private final long startNanos;
+
+        AccessLogCallback(Callback callback, AccessLog accessLog, Request request, Response response,
+                long startNanos) {
+            super(callback);
+            this.accessLog = accessLog;
+            this.request = request;
+            this.response = response;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void succeeded() {
+            accessLog.log(request, response, startNanos);
+            super.succeeded();
+        }
+
+        @Override
+        public void failed(Throwable x) {
+            accessLog.log(request, response, startNanos);
+            super.failed(x);
+        }
+    }
+
     /**
      * Resolves the request path to a handler using three ordered passes:
      * exact match, prefix match, then pattern match. The first pass to hit wins,
      * so a literal path that also matches a pattern resolves to its exact handler.
      *
-     * @param path the sanitized request path
+     * @param table the routing table read for this request
+     * @param path  the sanitized request path
      * @return the resolved route, or {@code null} when no pass matches
      */
     @Nullable
-    private ResolvedRoute resolveHandler(String path) {
+    private static ResolvedRoute resolveHandler(RoutingTable table, String path) {
         if (path == null) {
             return null;
         }
-        EndpointHandler exact = handlerMap.get(path);
+        EndpointHandler exact = table.handlerMap().get(path);
         if (exact != null) {
             return new ResolvedRoute(exact, Map.of());
         }
-        for (EndpointHandler h : handlerMap.values()) {
+        for (EndpointHandler h : table.handlerMap().values()) {
             if (h.prefixMatch() && path.startsWith(h.path() + "/")) {
                 return new ResolvedRoute(h, Map.of());
             }
         }
-        for (PatternRoute route : patternRoutes) {
+        for (PatternRoute route : table.patternRoutes()) {
             Optional<Map<String, String>> parameters = route.pattern().match(path);
             if (parameters.isPresent()) {
                 return new ResolvedRoute(route.handler(), parameters.get());
@@ -384,6 +500,24 @@ public class GatewayRequestHandler extends Handler.Abstract {
         // is no dead "no body expected" short-circuit. Body-less GET/DELETE requests simply read
         // an empty body under the same bound.
         int effectiveMaxSize = handler.maxRequestSize() > 0 ? handler.maxRequestSize() : globalMaxRequestSize;
+
+        // A declared Content-Length over the limit is rejected before the first read. Jetty sends
+        // the interim 100 Continue of an "Expect: 100-continue" request only when the body is first
+        // read, so such a client — like every client rejected by authentication or authorization
+        // above — never uploads the body at all. The connection is closed because the unread body
+        // cannot be skipped. Chunked bodies (no declared length) are bounded by readBody below.
+        long declaredLength = request.getLength();
+        if (declaredLength > effectiveMaxSize) {
+            gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.BODY_TOO_LARGE);
+            gatewaySecurityEvents.recordUnreadBody(declaredLength);
+            LOGGER.warn(RestApiLogMessages.WARN.BODY_TOO_LARGE, declaredLength, effectiveMaxSize, method, path);
+            response.getHeaders().put(HttpHeader.CONNECTION, HttpHeaderValue.CLOSE.asString());
+            sendProblemResponse(response, callback,
+                    ProblemDetail.payloadTooLarge(
+                            "Request body size %d exceeds maximum %d bytes".formatted(declaredLength, effectiveMaxSize)));
+            return Optional.empty();
+        }
+
         byte[] body = readBody(request, effectiveMaxSize);
         if (body.length > effectiveMaxSize) {
             gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.BODY_TOO_LARGE);
@@ -516,15 +650,43 @@ public class GatewayRequestHandler extends Handler.Abstract {
             String sanitizedPath = securityPipelines.urlPathPipeline().validate(path)
                     .orElse(path);
 
+            // Resolve the full forwarded view ONCE here — the ForwardedRequestResolver owns
+            // header precedence, sanitization (its own security pipeline), injection guards,
+            // and the trust model (allowlist / trust-all / trusted-proxies). Raw headers are
+            // passed in; the resolver sanitizes them internally, so only honored values survive.
+            ResolvedForwarding forwarding = forwardedResolver.resolve(request.getHeaders()::get);
+            maybeWarnProxyContextPathIgnored(request, forwarding);
+
+            // Query parameters and headers depend on the matched route's projection and are
+            // sanitized by sanitizeRetainedFields once the handler is known.
+            return Optional.of(new SanitizedRequest(
+                    sanitizedPath, Map.of(), HeaderMap.empty(), forwarding, Map.of()));
+        } catch (UrlSecurityException e) {
+            rejectSecurityViolation(e, response, callback, method, path, remoteHost);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Sanitizes the query parameters and headers the resolved handler retains. Values the
+     * handler's projection drops never pass the security pipelines and never reach the FlowFile.
+     */
+    private Optional<SanitizedRequest> sanitizeRetainedFields(
+            SanitizedRequest sanitized, EndpointHandler handler,
+            Request request, Response response, Callback callback,
+            String method, String path, String remoteHost) {
+        try {
             // Single-value contract for query parameters: a repeated parameter takes its FIRST
             // value (Jetty's Fields.getValue returns the first), and getNames() yields each name
             // once — so a downstream FlowFile http.query.<name> attribute is deterministic.
             var queryParams = Request.extractQueryParameters(request);
             Map<String, String> sanitizedParams = new LinkedHashMap<>();
             for (String name : queryParams.getNames()) {
-                String sanitizedValue = securityPipelines.urlParameterPipeline()
-                        .validate(queryParams.getValue(name))
-                        .orElse(queryParams.getValue(name));
+                if (!handler.retainsQueryParameter(name)) {
+                    continue;
+                }
+                String sanitizedValue = sanitize(securityPipelines.urlParameterPipeline(),
+                        queryParams.getValue(name));
                 sanitizedParams.put(name, sanitizedValue);
             }
 
@@ -532,35 +694,38 @@ public class GatewayRequestHandler extends Handler.Abstract {
             // (never leaked into http.header.* attributes / provenance), and repeated or
             // case-variant field lines for the same header name are combined into one comma-
             // separated value (RFC 9110 §5.2) so the downstream key-lowercasing cannot silently
-            // drop a case-variant duplicate.
-            Map<String, String> sanitizedHeaders = new LinkedHashMap<>();
+            // drop a case-variant duplicate. Jetty caches the lower-case name of well-known
+            // headers, so normalizing the names here rarely allocates.
+            HeaderMap.Builder sanitizedHeaders = HeaderMap.builder();
             for (HttpField field : request.getHeaders()) {
-                if (isSensitiveHeader(field.getName())) {
+                String normalizedName = field.getLowerCaseName();
+                if (SENSITIVE_HEADERS.contains(normalizedName) || !handler.retainsHeader(field.getName())) {
                     continue;
                 }
-                String sanitizedValue = securityPipelines.headerValuePipeline()
-                        .validate(field.getValue())
-                        .orElse(field.getValue());
-                mergeHeaderValue(sanitizedHeaders, field.getName(), sanitizedValue);
+                String sanitizedValue = sanitize(securityPipelines.headerValuePipeline(), field.getValue());
+                sanitizedHeaders.add(field.getName(), normalizedName, sanitizedValue);
             }
-
-            // Resolve the full forwarded view ONCE here — the ForwardedRequestResolver owns
-            // header precedence, sanitization (its own security pipeline), injection guards,
-            // and the trust model (allowlist / trust-all / trusted-proxies). Raw headers are
-            // passed in; the resolver sanitizes them internally, so only honored values survive.
-            ResolvedForwarding forwarding = forwardedResolver.resolve(request.getHeaders()::get);
-            maybeWarnProxyContextPathIgnored(request, forwarding);
-
-            return Optional.of(new SanitizedRequest(
-                    sanitizedPath, sanitizedParams, sanitizedHeaders, forwarding, Map.of()));
+            return Optional.of(sanitized.withQueryParametersAndHeaders(sanitizedParams, sanitizedHeaders.build()));
         } catch (UrlSecurityException e) {
-            LOGGER.warn(RestApiLogMessages.WARN.SECURITY_VIOLATION, method, path, remoteHost, e.getMessage());
-            sendProblemResponse(response, callback,
-                    ProblemDetail.badRequest("Request rejected: " + e.getFailureType().getDescription()));
+            rejectSecurityViolation(e, response, callback, method, path, remoteHost);
             return Optional.empty();
         }
     }
 
+    private String sanitize(HttpSecurityValidator pipeline, String value) {
+        if (sanitizationCache != null) {
+            return sanitizationCache.sanitize(pipeline, value);
+        }
+        return pipeline.validate(value).orElse(value);
+    }
+
+    private static void rejectSecurityViolation(UrlSecurityException e, Response response, Callback callback,
+            String method, String path, String remoteHost) {
+        LOGGER.warn(RestApiLogMessages.WARN.SECURITY_VIOLATION, method, path, remoteHost, e.getMessage());
+        sendProblemResponse(response, callback,
+                ProblemDetail.badRequest("Request rejected: " + e.getFailureType().getDescription()));
+    }
+
     /**
      * Surfaces the "positive-list active but empty" misconfiguration ONCE: a reverse-proxy
      * context-path header ({@code X-ProxyContextPath} / {@code X-Forwarded-Prefix}) arrived but
@@ -622,27 +787,42 @@ public class GatewayRequestHandler extends Handler.Abstract {
         return path;
     }
 
-    private static boolean hasAuthorizationRequirements(EndpointHandler handler) {
-        return !handler.requiredRoles().isEmpty() || !handler.requiredScopes().isEmpty();
-    }
-
-    private static boolean isSensitiveHeader(String name) {
-        return SENSITIVE_HEADERS.contains(name.toLowerCase(Locale.ROOT));
+    /**
+     * Takes a token from the request's rate-limit bucket, answering 429 with {@code Retry-After}
+     * (whole seconds, rounded up) when the bucket is empty.
+     */
+    private boolean admitRateLimited(RateLimiter rateLimiter, @Nullable AccessTokenContent token,
+            String remoteHost, String method, String path, Response response, Callback callback) {
+        String key = rateLimiter.keyFor(token, remoteHost);
+        long retryAfterNanos = rateLimiter.tryAcquire(key);
+        gatewaySecurityEvents.recordRateLimit(rateLimiter.getKeyClass(), retryAfterNanos == 0);
+        if (retryAfterNanos == 0) {
+            return true;
+        }
+        long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        LOGGER.warn(RestApiLogMessages.WARN.RATE_LIMITED, method, path,
+                rateLimiter.getKeyClass().name().toLowerCase(Locale.ROOT), key, retryAfterSeconds);
+        response.getHeaders().put(HttpHeader.RETRY_AFTER, retryAfterSeconds);
+        sendProblemResponse(response, callback,
+                ProblemDetail.tooManyRequests("Rate limit exceeded, retry after %d seconds".formatted(retryAfterSeconds)));
+        return false;
     }
 
     /**
-     * Applies the single-value header contract (RFC 9110 §5.2): repeated or case-variant field
-     * lines for the same header name are combined into one comma-separated value, so the
-     * downstream lowercasing of header keys cannot silently drop a case-variant duplicate.
+     * Answers a request shed by the concurrency limiter with 503 and {@code Retry-After}.
      */
-    private static void mergeHeaderValue(Map<String, String> headers, String name, String value) {
-        for (Map.Entry<String, String> entry : headers.entrySet()) {
-            if (entry.getKey().equalsIgnoreCase(name)) {
-                entry.setValue(entry.getValue() + ", " + value);
-                return;
-            }
-        }
-        headers.put(name, value);
+    private void shedRequest(AdaptiveConcurrencyLimiter limiter, RoutePriority priority, String method,
+            String path, String remoteHost, Response response, Callback callback) {
+        gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.LOAD_SHED);
+        LOGGER.warn(RestApiLogMessages.WARN.LOAD_SHED, priority.name().toLowerCase(Locale.ROOT), method, path,
+                remoteHost, limiter.inFlight(), limiter.limit());
+        response.getHeaders().put(HttpHeader.RETRY_AFTER, limiter.retryAfterSeconds());
+        sendProblemResponse(response, callback,
+                ProblemDetail.serviceUnavailable("Server is shedding load, please retry later"));
+    }
+
+    private static boolean hasAuthorizationRequirements(EndpointHandler handler) {
+        return !handler.requiredRoles().isEmpty() || !handler.requiredScopes().isEmpty();
     }
 
     private static Optional<String> extractBearerToken(Request request) {
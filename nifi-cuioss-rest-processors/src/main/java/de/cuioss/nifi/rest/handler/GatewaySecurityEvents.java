@@ -16,10 +16,16 @@
  */
 package de.cuioss.nifi.rest.handler;
 
+import de.cuioss.nifi.rest.config.RateLimitKey;
+
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
@@ -40,6 +46,18 @@ import java.util.stream.Collectors;
 public class GatewaySecurityEvents {
 
     private final ConcurrentHashMap<EventType, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final AtomicLong unreadBodies = new AtomicLong();
+    private final AtomicLong unreadBodyBytes = new AtomicLong();
+    private final Map<RateLimitKey, LongAdder> rateLimitAdmitted = new EnumMap<>(RateLimitKey.class);
+    private final Map<RateLimitKey, LongAdder> rateLimitLimited = new EnumMap<>(RateLimitKey.class);
+    private final ConcurrentHashMap<String, LongAdder> queueExpired = new ConcurrentHashMap<>();
+
+    public GatewaySecurityEvents() {
+        for (RateLimitKey keyClass : RateLimitKey.values()) {
+            rateLimitAdmitted.put(keyClass, new LongAdder());
+            rateLimitLimited.put(keyClass, new LongAdder());
+        }
+    }
 
     /**
      * Application-level security event types tracked by the gateway.
@@ -64,7 +82,30 @@ public class GatewaySecurityEvents {
         /** 503 — request queue at capacity, back-pressure applied. */
         QUEUE_FULL,
         /** 500 — an unexpected exception escaped request dispatch and was mapped to a problem response. */
-        HANDLER_ERROR
+        HANDLER_ERROR,
+        /** A changed route schema file was compiled and is now in use. */
+        SCHEMA_RELOADED,
+        /** A changed route schema file could not be read or compiled; the previous version stays in use. */
+        SCHEMA_RELOAD_FAILED,
+        /** 429 — the request exceeded its route's rate limit. */
+        RATE_LIMITED,
+        /** 503 — the request was shed by the adaptive concurrency limit. */
+        LOAD_SHED,
+        /** A queued request outlived its deadline and was dropped before becoming a FlowFile. */
+        QUEUE_EXPIRED,
+        /** A retried request was answered from its Idempotency-Key without being enqueued again. */
+        IDEMPOTENT_REPLAY,
+        /** 409/422 — the Idempotency-Key is held by a request in flight or by a different request. */
+        IDEMPOTENCY_CONFLICT
+    }
+
+    /**
+     * Rate-limit decisions of one key class.
+     *
+     * @param admitted requests within their limit
+     * @param limited  requests rejected with 429
+     */
+    public record RateLimitCounts(long admitted, long limited) {
     }
 
     /**
@@ -90,6 +131,81 @@ public class GatewaySecurityEvents {
                 .orElse(0L);
     }
 
+    /**
+     * Records a request rejected on its declared {@code Content-Length}, before any of its body
+     * was read.
+     *
+     * @param declaredLength the declared body size in bytes — the upload the rejection avoided
+     */
+    public void recordUnreadBody(long declaredLength) {
+        unreadBodies.incrementAndGet();
+        unreadBodyBytes.addAndGet(declaredLength);
+    }
+
+    /**
+     * @return the number of requests rejected on their declared {@code Content-Length}
+     */
+    public long getUnreadBodies() {
+        return unreadBodies.get();
+    }
+
+    /**
+     * @return the summed declared body size of the requests rejected before their body was read
+     */
+    public long getUnreadBodyBytes() {
+        return unreadBodyBytes.get();
+    }
+
+    /**
+     * Records a rate-limit decision. Rejections are additionally counted as {@link EventType#RATE_LIMITED}.
+     *
+     * @param keyClass what the route's limit is applied to
+     * @param admitted whether the request was within its limit
+     */
+    public void recordRateLimit(RateLimitKey keyClass, boolean admitted) {
+        if (admitted) {
+            rateLimitAdmitted.get(keyClass).increment();
+        } else {
+            rateLimitLimited.get(keyClass).increment();
+            increment(EventType.RATE_LIMITED);
+        }
+    }
+
+    /**
+     * @return the rate-limit decisions of the key classes that made any, in key-class order
+     */
+    public Map<RateLimitKey, RateLimitCounts> getRateLimitCounts() {
+        Map<RateLimitKey, RateLimitCounts> counts = new EnumMap<>(RateLimitKey.class);
+        for (RateLimitKey keyClass : RateLimitKey.values()) {
+            long admitted = rateLimitAdmitted.get(keyClass).sum();
+            long limited = rateLimitLimited.get(keyClass).sum();
+            if (admitted > 0 || limited > 0) {
+                counts.put(keyClass, new RateLimitCounts(admitted, limited));
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Records a queued request dropped because it outlived its deadline. The drop is additionally
+     * counted as {@link EventType#QUEUE_EXPIRED}.
+     *
+     * @param routeName the route the request was received on
+     */
+    public void recordQueueExpired(String routeName) {
+        queueExpired.computeIfAbsent(routeName, k -> new LongAdder()).increment();
+        increment(EventType.QUEUE_EXPIRED);
+    }
+
+    /**
+     * @return the expired queued requests of the routes that dropped any, in route-name order
+     */
+    public Map<String, Long> getQueueExpiredCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        queueExpired.forEach((routeName, adder) -> counts.put(routeName, adder.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
     /**
      * Returns a snapshot of all current counts as an immutable map.
      *
@@ -118,6 +234,11 @@ public class GatewaySecurityEvents {
      */
     public void reset() {
         counters.values().forEach(counter -> counter.set(0));
+        unreadBodies.set(0);
+        unreadBodyBytes.set(0);
+        rateLimitAdmitted.values().forEach(LongAdder::reset);
+        rateLimitLimited.values().forEach(LongAdder::reset);
+        queueExpired.values().forEach(LongAdder::reset);
     }
 
     @Override
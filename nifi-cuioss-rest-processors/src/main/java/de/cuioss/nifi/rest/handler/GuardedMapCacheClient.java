@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import lombok.NonNull;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.components.ValidationContext;
+import org.apache.nifi.components.ValidationResult;
+import org.apache.nifi.controller.ControllerServiceInitializationContext;
+import org.apache.nifi.distributed.cache.client.AtomicCacheEntry;
+import org.apache.nifi.distributed.cache.client.AtomicDistributedMapCacheClient;
+import org.apache.nifi.distributed.cache.client.Deserializer;
+import org.apache.nifi.distributed.cache.client.DistributedMapCacheClient;
+import org.apache.nifi.distributed.cache.client.Serializer;
+import org.apache.nifi.reporting.InitializationException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates the gateway's {@link DistributedMapCacheClient} so a hanging cache server cannot stall
+ * the Jetty threads.
+ * <p>
+ * Every cache call runs on a small bounded executor and is abandoned after a per-call deadline.
+ * Timeouts and {@link IOException}s are reported to a {@link CacheCircuitBreaker}; while the
+ * circuit is open, or when the executor is saturated, calls fail at once with a
+ * {@link CacheUnavailableException}. Since that is an {@link IOException}, every existing caller
+ * already turns it into the 503 {@link ProblemDetail} it sends for cache errors.
+ * <p>
+ * Use {@link #wrap} to keep the atomic compare-and-swap capability of the delegate.
+ */
+public class GuardedMapCacheClient implements DistributedMapCacheClient {
+
+    /** Threads running cache calls; calls beyond threads plus queue are refused. */
+    static final int MAX_CONCURRENT_CALLS = 8;
+    /** Calls waiting for a free thread. */
+    static final int MAX_QUEUED_CALLS = 64;
+
+    /** Thrown instead of calling the cache while the circuit is open or the executor is saturated. */
+    public static final class CacheUnavailableException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        CacheUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Point-in-time view for the {@code /metrics} and {@code /health} endpoints.
+     *
+     * @param state          the circuit state
+     * @param calls          calls that reached the cache
+     * @param failures       calls that failed with an I/O error or timed out
+     * @param timeouts       calls abandoned at the deadline (included in {@code failures})
+     * @param rejected       calls refused without reaching the cache
+     * @param latencyNanosTotal accumulated latency of the calls that reached the cache
+     * @param latencyNanosMax   longest call that reached the cache
+     */
+    public record Stats(CacheCircuitBreaker.State state, long calls, long failures, long timeouts, long rejected,
+            long latencyNanosTotal, long latencyNanosMax) {
+    }
+
+    @FunctionalInterface
+    interface CacheCall<T> {
+        T call() throws IOException;
+    }
+
+    private final DistributedMapCacheClient delegate;
+    private final CacheCircuitBreaker breaker;
+    private final long callTimeoutNanos;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong latencyNanosTotal = new AtomicLong();
+    private final AtomicLong latencyNanosMax = new AtomicLong();
+
+    GuardedMapCacheClient(DistributedMapCacheClient delegate, CacheCircuitBreaker breaker, Duration callTimeout) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.callTimeoutNanos = callTimeout.toNanos();
+        this.executor = new ThreadPoolExecutor(MAX_CONCURRENT_CALLS, MAX_CONCURRENT_CALLS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_CALLS),
+                Thread.ofPlatform().name("rest-gateway-cache-", 0).daemon().factory());
+    }
+
+    /**
+     * Guards a cache client.
+     *
+     * @param delegate    the configured cache client
+     * @param breaker     the circuit breaker shared by all calls
+     * @param callTimeout deadline of a single cache call (positive)
+     * @return a guarded client that is atomic exactly when {@code delegate} is
+     */
+    public static GuardedMapCacheClient wrap(@NonNull DistributedMapCacheClient delegate,
+            @NonNull CacheCircuitBreaker breaker, @NonNull Duration callTimeout) {
+        if (callTimeout.isZero() || callTimeout.isNegative()) {
+            throw new IllegalArgumentException("callTimeout must be positive: " + callTimeout);
+        }
+        if (delegate instanceof AtomicDistributedMapCacheClient<?> atomic) {
+            return atomic(atomic, breaker, callTimeout);
+        }
+        return new GuardedMapCacheClient(delegate, breaker, callTimeout);
+    }
+
+    private static <R> GuardedMapCacheClient atomic(AtomicDistributedMapCacheClient<R> delegate,
+            CacheCircuitBreaker breaker, Duration callTimeout) {
+        return new Atomic<>(delegate, breaker, callTimeout);
+    }
+
+    /** Stops the executor; calls still waiting are abandoned. */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the current circuit state and call statistics
+     */
+    public Stats stats() {
+        return new Stats(breaker.state(), calls.get(), failures.get(), timeouts.get(), rejected.get(),
+                latencyNanosTotal.get(), latencyNanosMax.get());
+    }
+
+    <T> T guarded(CacheCall<T> call) throws IOException {
+        if (!breaker.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new CacheUnavailableException("Distributed cache circuit is open");
+        }
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(call::call);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            // Saturation is a symptom of slow calls, which report their own outcome
+            breaker.release();
+            throw new CacheUnavailableException("Distributed cache call capacity exhausted");
+        }
+        try {
+            T result = future.get(callTimeoutNanos, TimeUnit.NANOSECONDS);
+            breaker.onSuccess();
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.incrementAndGet();
+            failures.incrementAndGet();
+            String message = "Distributed cache call exceeded its deadline of %d ms"
+                    .formatted(TimeUnit.NANOSECONDS.toMillis(callTimeoutNanos));
+            breaker.onFailure(message);
+            throw new CacheUnavailableException(message);
+        } catch (ExecutionException e) {
+            return rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            // Interrupted by our own caller, not a cache problem
+            breaker.release();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the distributed cache");
+        } finally {
+            calls.incrementAndGet();
+            long elapsed = System.nanoTime() - start;
+            latencyNanosTotal.addAndGet(elapsed);
+            latencyNanosMax.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private <T> T rethrow(Throwable cause) throws IOException {
+        if (cause instanceof IOException ioException) {
+            failures.incrementAndGet();
+            breaker.onFailure(String.valueOf(ioException.getMessage()));
+            throw ioException;
+        }
+        // The cache answered (e.g. UnsupportedOperationException, a serializer error) — it is reachable
+        breaker.onSuccess();
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw new IOException(cause);
+    }
+
+    // -----------------------------------------------------------------------
+    // DistributedMapCacheClient
+    // -----------------------------------------------------------------------
+
+    @Override
+    public <K, V> boolean putIfAbsent(K key, V value, Serializer<K> keySerializer, Serializer<V> valueSerializer)
+            throws IOException {
+        return guarded(() -> delegate.putIfAbsent(key, value, keySerializer, valueSerializer));
+    }
+
+    @Override
+    public <K, V> V getAndPutIfAbsent(K key, V value, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+            Deserializer<V> valueDeserializer) throws IOException {
+        return guarded(() -> delegate.getAndPutIfAbsent(key, value, keySerializer, valueSerializer, valueDeserializer));
+    }
+
+    @Override
+    public <K> boolean containsKey(K key, Serializer<K> keySerializer) throws IOException {
+        return guarded(() -> delegate.containsKey(key, keySerializer));
+    }
+
+    @Override
+    public <K, V> void put(K key, V value, Serializer<K> keySerializer, Serializer<V> valueSerializer)
+            throws IOException {
+        guarded(() -> {
+            delegate.put(key, value, keySerializer, valueSerializer);
+            return null;
+        });
+    }
+
+    @Override
+    public <K, V> V get(K key, Serializer<K> keySerializer, Deserializer<V> valueDeserializer) throws IOException {
+        return guarded(() -> delegate.get(key, keySerializer, valueDeserializer));
+    }
+
+    @Override
+    public <K, V> Map<K, V> subMap(Set<K> keys, Serializer<K> keySerializer, Deserializer<V> valueDeserializer)
+            throws IOException {
+        return guarded(() -> delegate.subMap(keys, keySerializer, valueDeserializer));
+    }
+
+    @Override
+    public <K> boolean remove(K key, Serializer<K> serializer) throws IOException {
+        return guarded(() -> delegate.remove(key, serializer));
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    // -----------------------------------------------------------------------
+    // ControllerService — the decorator is never registered; it only mirrors the delegate
+    // -----------------------------------------------------------------------
+
+    @Override
+    public void initialize(ControllerServiceInitializationContext context) throws InitializationException {
+        delegate.initialize(context);
+    }
+
+    @Override
+    public Collection<ValidationResult> validate(ValidationContext context) {
+        return delegate.validate(context);
+    }
+
+    @Override
+    public PropertyDescriptor getPropertyDescriptor(String name) {
+        return delegate.getPropertyDescriptor(name);
+    }
+
+    @Override
+    public void onPropertyModified(PropertyDescriptor descriptor, String oldValue, String newValue) {
+        delegate.onPropertyModified(descriptor, oldValue, newValue);
+    }
+
+    @Override
+    public List<PropertyDescriptor> getPropertyDescriptors() {
+        return delegate.getPropertyDescriptors();
+    }
+
+    @Override
+    public String getIdentifier() {
+        return delegate.getIdentifier();
+    }
+
+    /** Guarded client for a delegate with atomic compare-and-swap. */
+    static final class Atomic<R> extends GuardedMapCacheClient implements AtomicDistributedMapCacheClient<R> {
+
+        private final AtomicDistributedMapCacheClient<R> atomicDelegate;
+
+        Atomic(AtomicDistributedMapCacheClient<R> delegate, CacheCircuitBreaker breaker, Duration callTimeout) {
+            super(delegate, breaker, callTimeout);
+            this.atomicDelegate = delegate;
+        }
+
+        @Override
+        public <K, V> AtomicCacheEntry<K, V, R> fetch(K key, Serializer<K> keySerializer,
+                Deserializer<V> valueDeserializer) throws IOException {
+            return guarded(() -> atomicDelegate.fetch(key, keySerializer, valueDeserializer));
+        }
+
+        @Override
+        public <K, V> boolean replace(AtomicCacheEntry<K, V, R> entry, Serializer<K> keySerializer,
+                Serializer<V> valueSerializer) throws IOException {
+            return guarded(() -> atomicDelegate.replace(entry, keySerializer, valueSerializer));
+        }
+    }
+}
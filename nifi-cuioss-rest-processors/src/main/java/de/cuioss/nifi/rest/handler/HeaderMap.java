@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import lombok.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable, case-insensitive header map of a sanitized request.
+ * <p>
+ * Field names are case-insensitive (RFC 9110 §5.1), so every name is normalized to lower case
+ * once, when the map is built — {@link #get} and {@link #containsKey} are hash lookups on the
+ * normalized name instead of scans with {@code equalsIgnoreCase}, and FlowFile creation takes the
+ * normalized names via {@link #forEachNormalized} instead of lowercasing them again. Iteration,
+ * {@code equals} and {@code hashCode} follow the {@link Map} contract on the names as the client
+ * first sent them, in arrival order.
+ * <p>
+ * Repeated or case-variant field lines are combined into one comma-separated value (RFC 9110
+ * §5.2). The values of a repeated header are joined once in {@link Builder#build}, not on every
+ * additional line.
+ */
+public final class HeaderMap extends AbstractMap<String, String> {
+
+    private static final HeaderMap EMPTY = new HeaderMap(new String[0], new String[0], new String[0], Map.of());
+
+    private final String[] names;
+    private final String[] normalizedNames;
+    private final String[] values;
+    private final Map<String, Integer> index;
+    private final EntrySet entrySet = new EntrySet();
+
+    private HeaderMap(String[] names, String[] normalizedNames, String[] values, Map<String, Integer> index) {
+        this.names = names;
+        this.normalizedNames = normalizedNames;
+        this.values = values;
+        this.index = index;
+    }
+
+    /**
+     * @return the empty header map
+     */
+    public static HeaderMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return a builder for a header map
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the given map as a header map, combining keys that differ only in case.
+     *
+     * @param headers the headers, may be {@code null}
+     * @return the same instance if it already is a header map, otherwise a copy
+     */
+    public static HeaderMap copyOf(@Nullable Map<String, String> headers) {
+        if (headers instanceof HeaderMap headerMap) {
+            return headerMap;
+        }
+        if (headers == null || headers.isEmpty()) {
+            return EMPTY;
+        }
+        Builder builder = new Builder();
+        headers.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Normalizes a header name to lower case; names without upper-case ASCII letters — every name
+     * received over HTTP/2 and most sent by HTTP/1.1 clients — are returned as they are.
+     *
+     * @param name the header name
+     * @return the lower-case name
+     */
+    public static String normalize(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                return lowerCaseFrom(name, i);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Passes every header to the consumer with its normalized (lower-case) name.
+     *
+     * @param consumer receives the normalized name and the value
+     */
+    public void forEachNormalized(BiConsumer<String, String> consumer) {
+        for (int i = 0; i < names.length; i++) {
+            consumer.accept(normalizedNames[i], values[i]);
+        }
+    }
+
+    @Override
+    public @Nullable String get(Object key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return entrySet;
+    }
+
+    private int slotOf(@Nullable Object key) {
+        if (!(key instanceof String name)) {
+            return -1;
+        }
+        Integer slot = index.get(normalize(name));
+        return slot == null ? -1 : slot;
+    }
+
+    private static String lowerCaseFrom(String name, int firstUpper) {
+        char[] chars = name.toCharArray();
+        for (int i = firstUpper; i < chars.length; i++) {
+            char c = chars[i];
+            if (c >= 'A' && c <= 'Z') {
+                chars[i] = (char) (c + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, String>> {
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < names.length;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (next >= names.length) {
+                        throw new NoSuchElementException();
+                    }
+                    int slot = next++;
+                    return new SimpleImmutableEntry<>(names[slot], values[slot]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return names.length;
+        }
+    }
+
+    /**
+     * Collects header field lines in arrival order. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private String[] names = new String[8];
+        private String[] normalizedNames = new String[8];
+        private String[] values = new String[8];
+        /** Joined values of repeated headers; allocated on the first repeat only. */
+        private @Nullable StringBuilder @Nullable [] repeated;
+        private final Map<String, Integer> index = new HashMap<>();
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a field line, normalizing its name.
+         *
+         * @param name  the name as sent by the client
+         * @param value the value
+         * @return this builder
+         */
+        public Builder add(@NonNull String name, @NonNull String value) {
+            return add(name, normalize(name), value);
+        }
+
+        /**
+         * Adds a field line whose name is already normalized, e.g. Jetty's
+         * {@code HttpField.getLowerCaseName()}.
+         *
+         * @param name           the name as sent by the client
+         * @param normalizedName the lower-case name
+         * @param value          the value
+         * @return this builder
+         */
+        public Builder add(@NonNull String name, @NonNull String normalizedName, @NonNull String value) {
+            Integer slot = index.putIfAbsent(normalizedName, size);
+            if (slot != null) {
+                append(slot, value);
+                return this;
+            }
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                normalizedNames = Arrays.copyOf(normalizedNames, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            names[size] = name;
+            normalizedNames[size] = normalizedName;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * @return the header map; the builder must not be used afterwards
+         */
+        public HeaderMap build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            if (repeated != null) {
+                for (int i = 0; i < size; i++) {
+                    if (repeated[i] != null) {
+                        values[i] = repeated[i].toString();
+                    }
+                }
+            }
+            return new HeaderMap(Arrays.copyOf(names, size), Arrays.copyOf(normalizedNames, size),
+                    Arrays.copyOf(values, size), index);
+        }
+
+        private void append(int slot, String value) {
+            if (repeated == null) {
+                repeated = new StringBuilder[names.length];
+            } else if (repeated.length <= slot) {
+                repeated = Arrays.copyOf(repeated, names.length);
+            }
+            StringBuilder joined = repeated[slot];
+            if (joined == null) {
+                joined = new StringBuilder(values[slot]);
+                repeated[slot] = joined;
+            }
+            joined.append(", ").append(value);
+        }
+    }
+}
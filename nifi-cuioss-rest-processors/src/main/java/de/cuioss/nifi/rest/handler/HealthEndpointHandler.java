@@ -19,6 +19,7 @@ package de.cuioss.nifi.rest.handler;
 import de.cuioss.nifi.rest.config.AuthMode;
 import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
 import jakarta.json.Json;
+import jakarta.json.JsonObjectBuilder;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Response;
@@ -32,16 +33,26 @@ import java.util.Set;
 
 /**
  * Built-in handler for the {@code /health} management endpoint.
- * Returns a JSON response with status and timestamp.
+ * Returns a JSON response with status and timestamp. When request tracking is configured, a
+ * {@code cache} object reports the distributed cache circuit; an open or half-open circuit turns
+ * the overall status into {@code DEGRADED} (still 200, untracked routes keep working).
  */
 public final class HealthEndpointHandler extends AbstractManagementHandler {
 
     static final String HEALTH_PATH = "/health";
     private static final String JSON_CONTENT_TYPE = "application/json";
 
+    @Nullable private final GuardedMapCacheClient cacheGuard;
+
     public HealthEndpointHandler(boolean enabled, Set<AuthMode> authModes,
             Set<String> requiredRoles, Set<String> requiredScopes) {
+        this(null, enabled, authModes, requiredRoles, requiredScopes);
+    }
+
+    public HealthEndpointHandler(@Nullable GuardedMapCacheClient cacheGuard, boolean enabled,
+            Set<AuthMode> authModes, Set<String> requiredRoles, Set<String> requiredScopes) {
         super(enabled, authModes, requiredRoles, requiredScopes);
+        this.cacheGuard = cacheGuard;
     }
 
     @Override
@@ -59,8 +70,22 @@ public final class HealthEndpointHandler extends AbstractManagementHandler {
             @Nullable AccessTokenContent token,
             byte[] body,
             Request request, Response response, Callback callback) {
-        String responseBody = Json.createObjectBuilder()
-                .add("status", "UP")
+        JsonObjectBuilder health = Json.createObjectBuilder();
+        if (cacheGuard == null) {
+            health.add("status", "UP");
+        } else {
+            var stats = cacheGuard.stats();
+            boolean closed = stats.state() == CacheCircuitBreaker.State.CLOSED;
+            health.add("status", closed ? "UP" : "DEGRADED")
+                    .add("cache", Json.createObjectBuilder()
+                            .add("status", closed ? "UP" : "DOWN")
+                            .add("circuit", stats.state().name())
+                            .add("calls", stats.calls())
+                            .add("failures", stats.failures())
+                            .add("rejected", stats.rejected())
+                            .add("latencyMillisMax", stats.latencyNanosMax() / 1_000_000.0));
+        }
+        String responseBody = health
                 .add("timestamp", Instant.now().toString())
                 .build()
                 .toString();
@@ -20,6 +20,7 @@ import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
 import lombok.NonNull;
 import org.jspecify.annotations.Nullable;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
@@ -36,7 +37,7 @@ import java.util.Objects;
  * @param method          the HTTP method (GET, POST, etc.)
  * @param requestUri      the full request URI path
  * @param queryParameters query string parameters as key-value pairs
- * @param headers         HTTP request headers
+ * @param headers         HTTP request headers, looked up case-insensitively (see {@link HeaderMap})
  * @param remoteHost      the client's remote host address
  * @param body            the request body bytes (empty array for GET/DELETE)
  * @param contentType     the Content-Type header value
@@ -44,6 +45,13 @@ import java.util.Objects;
  * @param traceId         the unique trace identifier for request tracking (null when tracking disabled)
  * @param parentTraceId   optional parent trace ID for chained requests (null when not chained)
  * @param pathParameters  the path parameters extracted from a pattern-matched route (empty otherwise)
+ * @param attributes      additional FlowFile attributes contributed by the handler, e.g. multipart part
+ *                        metadata (empty otherwise)
+ * @param spooledBody     a spool file holding the body instead of {@code body}, e.g. a completed resumable
+ *                        upload; ownership passes to the consumer, which imports and deletes it ({@code null}
+ *                        for in-memory bodies)
+ * @param receivedNanos   the {@link System#nanoTime()} at which the container was created, just before it is
+ *                        queued; used to measure queue wait and not part of equality
  */
 public record HttpRequestContainer(
 @NonNull String routeName,
@@ -57,18 +65,60 @@ byte[] body,
 @Nullable AccessTokenContent token,
 @Nullable String traceId,
 @Nullable String parentTraceId,
-Map<String, String> pathParameters) {
+Map<String, String> pathParameters,
+Map<String, String> attributes,
+@Nullable Path spooledBody,
+long receivedNanos) {
 
     /**
      * Compact constructor — defensive copies for maps, null-safe body.
      */
     public HttpRequestContainer {
         queryParameters = queryParameters != null ? Map.copyOf(queryParameters) : Map.of();
-        headers = headers != null ? Map.copyOf(headers) : Map.of();
+        headers = HeaderMap.copyOf(headers);
         pathParameters = pathParameters != null ? Map.copyOf(pathParameters) : Map.of();
+        attributes = attributes != null ? Map.copyOf(attributes) : Map.of();
         body = body != null ? body.clone() : new byte[0];
     }
 
+    /**
+     * Creates a container received now.
+     */
+    @SuppressWarnings("java:S107") // mirrors the record components
+    public HttpRequestContainer(String routeName, String method, String requestUri,
+            Map<String, String> queryParameters, Map<String, String> headers, String remoteHost,
+            byte[] body, @Nullable String contentType, @Nullable AccessTokenContent token,
+            @Nullable String traceId, @Nullable String parentTraceId, Map<String, String> pathParameters,
+            Map<String, String> attributes, @Nullable Path spooledBody) {
+        this(routeName, method, requestUri, queryParameters, headers, remoteHost, body, contentType,
+                token, traceId, parentTraceId, pathParameters, attributes, spooledBody, System.nanoTime());
+    }
+
+    /**
+     * Creates a container without additional attributes.
+     */
+    @SuppressWarnings("java:S107") // mirrors the record components
+    public HttpRequestContainer(String routeName, String method, String requestUri,
+            Map<String, String> queryParameters, Map<String, String> headers, String remoteHost,
+            byte[] body, @Nullable String contentType, @Nullable AccessTokenContent token,
+            @Nullable String traceId, @Nullable String parentTraceId, Map<String, String> pathParameters) {
+        this(routeName, method, requestUri, queryParameters, headers, remoteHost, body, contentType,
+                token, traceId, parentTraceId, pathParameters, Map.of(), null);
+    }
+
+    /**
+     * Creates a container with an in-memory body.
+     */
+    @SuppressWarnings("java:S107") // mirrors the record components
+    public HttpRequestContainer(String routeName, String method, String requestUri,
+            Map<String, String> queryParameters, Map<String, String> headers, String remoteHost,
+            byte[] body, @Nullable String contentType, @Nullable AccessTokenContent token,
+            @Nullable String traceId, @Nullable String parentTraceId, Map<String, String> pathParameters,
+            Map<String, String> attributes) {
+        this(routeName, method, requestUri, queryParameters, headers, remoteHost, body, contentType,
+                token, traceId, parentTraceId, pathParameters, attributes, null);
+    }
+
     /**
      * Returns a copy of the request body to prevent mutation.
      */
@@ -84,7 +134,8 @@ Map<String, String> pathParameters) {
                 var thatRouteName, var thatMethod, var thatRequestUri,
                 var thatQueryParameters, var thatHeaders, var thatRemoteHost,
                 var thatBody, var thatContentType, var thatToken,
-                var thatTraceId, var thatParentTraceId, var thatPathParameters))) return false;
+                var thatTraceId, var thatParentTraceId, var thatPathParameters,
+                var thatAttributes, var thatSpooledBody, var thatReceivedNanos))) return false;
         return Objects.equals(routeName, thatRouteName)
                 && Objects.equals(method, thatMethod)
                 && Objects.equals(requestUri, thatRequestUri)
@@ -96,13 +147,16 @@ Map<String, String> pathParameters) {
                 && Objects.equals(token, thatToken)
                 && Objects.equals(traceId, thatTraceId)
                 && Objects.equals(parentTraceId, thatParentTraceId)
-                && Objects.equals(pathParameters, thatPathParameters);
+                && Objects.equals(pathParameters, thatPathParameters)
+                && Objects.equals(attributes, thatAttributes)
+                && Objects.equals(spooledBody, thatSpooledBody);
     }
 
     @Override
     public int hashCode() {
         int result = Objects.hash(routeName, method, requestUri, queryParameters,
-                headers, remoteHost, contentType, token, traceId, parentTraceId, pathParameters);
+                headers, remoteHost, contentType, token, traceId, parentTraceId, pathParameters, attributes,
+                spooledBody);
         result = 31 * result + Arrays.hashCode(body);
         return result;
     }
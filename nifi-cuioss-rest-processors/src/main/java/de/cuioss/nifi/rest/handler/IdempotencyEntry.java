@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import lombok.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Immutable record of a claimed idempotency key, stored in the distributed cache next to the
+ * request status entries by {@link DistributedIdempotencyStore}.
+ *
+ * @param fingerprint identifies the request the key was first used with
+ * @param completed   whether that request was accepted; {@code false} while it is in flight
+ * @param traceId     the trace ID returned for it, {@code null} while in flight or on untracked routes
+ * @param createdAt   when the key was claimed or, once completed, when the request was accepted
+ */
+record IdempotencyEntry(
+@NonNull String fingerprint,
+boolean completed,
+@Nullable String traceId,
+@NonNull Instant createdAt) {
+
+    private static final String KEY_FINGERPRINT = "fingerprint";
+    private static final String KEY_COMPLETED = "completed";
+    private static final String KEY_TRACE_ID = "traceId";
+    private static final String KEY_CREATED_AT = "createdAt";
+
+    /**
+     * Creates the in-flight entry of a newly claimed key.
+     */
+    static IdempotencyEntry inFlight(String fingerprint) {
+        return new IdempotencyEntry(fingerprint, false, null, Instant.now());
+    }
+
+    /**
+     * Creates the entry of a key whose request was accepted now.
+     */
+    static IdempotencyEntry completed(String fingerprint, @Nullable String traceId) {
+        return new IdempotencyEntry(fingerprint, true, traceId, Instant.now());
+    }
+
+    /**
+     * Whether this entry is older than the time to live at {@code now}.
+     */
+    boolean isExpired(Instant now, Duration ttl) {
+        return !createdAt.plus(ttl).isAfter(now);
+    }
+
+    /**
+     * Serializes this entry to a JSON string.
+     */
+    String toJson() {
+        JsonObjectBuilder builder = Json.createObjectBuilder()
+                .add(KEY_FINGERPRINT, fingerprint)
+                .add(KEY_COMPLETED, completed)
+                .add(KEY_CREATED_AT, createdAt.toString());
+        if (traceId != null) {
+            builder.add(KEY_TRACE_ID, traceId);
+        }
+        return builder.build().toString();
+    }
+
+    /**
+     * Deserializes a JSON string to an {@link IdempotencyEntry}.
+     *
+     * @param json the JSON string
+     * @return the deserialized entry
+     * @throws jakarta.json.JsonException if the JSON is malformed
+     */
+    static IdempotencyEntry fromJson(String json) {
+        JsonObject obj;
+        try (var reader = Json.createReader(new StringReader(json))) {
+            obj = reader.readObject();
+        }
+        return new IdempotencyEntry(
+                obj.getString(KEY_FINGERPRINT),
+                obj.getBoolean(KEY_COMPLETED, false),
+                obj.getString(KEY_TRACE_ID, null),
+                Instant.parse(obj.getString(KEY_CREATED_AT)));
+    }
+}
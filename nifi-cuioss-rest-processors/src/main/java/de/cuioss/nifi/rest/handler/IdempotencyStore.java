@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Store behind the {@code Idempotency-Key} support of {@link ApiRouteHandler}: maps a scoped key
+ * to the request it was first used with and to that request's outcome, so a retried request is
+ * answered with the original response instead of producing a second FlowFile.
+ * <p>
+ * A key moves from claimed (in flight) to completed, or is released again when the original
+ * request was not accepted, so the client may retry it. Implementations are thread-safe and expire
+ * keys after a fixed time to live. {@link LocalIdempotencyStore} keeps the keys per node;
+ * {@link DistributedIdempotencyStore} keeps them in the distributed cache so duplicates are
+ * recognized on every node of a cluster.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims a key for a new request, unless it is already in use.
+     *
+     * @param key         the scoped key (route, caller and client-supplied key)
+     * @param fingerprint identifies the request the key is used with
+     * @return the claim outcome
+     * @throws IOException if the backing store cannot be reached
+     */
+    Claim claim(String key, String fingerprint) throws IOException;
+
+    /**
+     * Records the outcome of the request that claimed the key.
+     *
+     * @param key         the scoped key
+     * @param fingerprint the fingerprint the key was claimed with
+     * @param traceId     the trace ID returned to the client, {@code null} on untracked routes
+     * @throws IOException if the backing store cannot be reached
+     */
+    void complete(String key, String fingerprint, @Nullable String traceId) throws IOException;
+
+    /**
+     * Releases a claimed key whose request was rejected, so the same key can be retried.
+     *
+     * @param key the scoped key
+     * @throws IOException if the backing store cannot be reached
+     */
+    void release(String key) throws IOException;
+
+    /**
+     * What a {@link #claim} found.
+     */
+    enum Outcome {
+        /** The key was free and is now claimed by the caller. */
+        CLAIMED,
+        /** The key completed with the same request; {@link Claim#traceId()} holds its outcome. */
+        COMPLETED,
+        /** Another request with the same key is still being processed. */
+        IN_FLIGHT,
+        /** The key is in use by a different request. */
+        MISMATCH
+    }
+
+    /**
+     * Outcome of {@link #claim}.
+     *
+     * @param outcome what the claim found
+     * @param traceId the trace ID of the completed request, {@code null} otherwise or on untracked routes
+     */
+    record Claim(Outcome outcome, @Nullable String traceId) {
+
+        static Claim claimed() {
+            return new Claim(Outcome.CLAIMED, null);
+        }
+
+        static Claim completed(@Nullable String traceId) {
+            return new Claim(Outcome.COMPLETED, traceId);
+        }
+
+        static Claim inFlight() {
+            return new Claim(Outcome.IN_FLIGHT, null);
+        }
+
+        static Claim mismatch() {
+            return new Claim(Outcome.MISMATCH, null);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.config.SplitMode;
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonParser;
+import lombok.experimental.UtilityClass;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits the body of a route with a {@link SplitMode} into its elements.
+ * <p>
+ * A JSON array is read with the streaming JSON-P parser, so only one element at a time is held
+ * as a JSON value before it is re-serialized; no tree of the whole array is ever built. NDJSON
+ * lines are sliced out of the body without parsing — malformed lines surface in the per-element
+ * schema validation, exactly like a malformed single-document body on a non-split route.
+ * <p>
+ * The body itself is buffered by the gateway before it is split (bounded by the route's request
+ * size limit), and every element is copied out of it, so a split request holds up to about twice
+ * its body size. The element count is capped by the route's {@code split-max-elements}; splitting
+ * stops at the first element beyond it.
+ */
+@UtilityClass
+class JsonElementSplitter {
+
+    /**
+     * Thrown when a body has more elements than allowed.
+     */
+    static final class TooManyElementsException extends IllegalArgumentException {
+
+        private static final long serialVersionUID = 1L;
+
+        TooManyElementsException(int maxElements) {
+            super("Request body has more than %d elements".formatted(maxElements));
+        }
+    }
+
+    /**
+     * Splits a body into its elements in document order.
+     *
+     * @param mode        the route's split mode, not {@link SplitMode#NONE}
+     * @param body        the request body
+     * @param maxElements the maximum number of elements
+     * @return the UTF-8 encoded elements; empty for an empty array or a body of blank lines
+     * @throws TooManyElementsException if the body has more than {@code maxElements} elements
+     * @throws IllegalArgumentException if a JSON array body is malformed
+     */
+    static List<byte[]> split(SplitMode mode, byte[] body, int maxElements) {
+        return switch (mode) {
+            case JSON_ARRAY -> splitJsonArray(body, maxElements);
+            case NDJSON -> splitLines(body, maxElements);
+            case NONE -> throw new IllegalArgumentException("Route does not split its body");
+        };
+    }
+
+    private static List<byte[]> splitJsonArray(byte[] body, int maxElements) {
+        List<byte[]> elements = new ArrayList<>();
+        try (JsonParser parser = Json.createParser(new ByteArrayInputStream(body))) {
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_ARRAY) {
+                throw new IllegalArgumentException("Request body is not a JSON array");
+            }
+            JsonParser.Event event = parser.next();
+            while (event != JsonParser.Event.END_ARRAY) {
+                if (elements.size() == maxElements) {
+                    throw new TooManyElementsException(maxElements);
+                }
+                // getValue() consumes exactly the current element, including nested structures
+                elements.add(parser.getValue().toString().getBytes(StandardCharsets.UTF_8));
+                event = parser.next();
+            }
+            if (parser.hasNext()) {
+                throw new IllegalArgumentException("Unexpected content after the JSON array");
+            }
+        } catch (JsonException | NoSuchElementException e) {
+            throw new IllegalArgumentException("Malformed JSON array: " + e.getMessage(), e);
+        }
+        return elements;
+    }
+
+    private static List<byte[]> splitLines(byte[] body, int maxElements) {
+        List<byte[]> elements = new ArrayList<>();
+        int start = 0;
+        while (start < body.length) {
+            int end = indexOf(body, (byte) '\n', start);
+            int lineEnd = end < 0 ? body.length : end;
+            int first = start;
+            int last = lineEnd;
+            while (first < last && isWhitespace(body[first])) {
+                first++;
+            }
+            while (last > first && isWhitespace(body[last - 1])) {
+                last--;
+            }
+            if (first < last) {
+                if (elements.size() == maxElements) {
+                    throw new TooManyElementsException(maxElements);
+                }
+                elements.add(Arrays.copyOfRange(body, first, last));
+            }
+            start = lineEnd + 1;
+        }
+        return elements;
+    }
+
+    private static int indexOf(byte[] body, byte value, int from) {
+        for (int i = from; i < body.length; i++) {
+            if (body[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\t' || value == '\r';
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Node-local {@link AttachmentCounter} backed by a bounded, idle-expiring map.
+ * <p>
+ * Counts live in processor memory: they reset on restart and are enforced per node, so in a
+ * cluster a parent may receive up to {@code attachments-max-count} attachments on every node. Use
+ * {@link DistributedAttachmentCounter} when the limit must hold cluster-wide.
+ * <p>
+ * A counter idle for longer than the expiry — or the least recently used one when the map is over
+ * its bound — is dropped. The expiry must therefore exceed the longest attachment window,
+ * otherwise a parent that is still collecting would restart counting from zero.
+ */
+public final class LocalAttachmentCounter implements AttachmentCounter {
+
+    /** Default upper bound of tracked parents. */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /** Default idle expiry of a parent's counter. */
+    public static final Duration DEFAULT_EXPIRY = Duration.ofHours(1);
+
+    private final ExpiringSlotMap<CountSlot> counters;
+
+    public LocalAttachmentCounter(int maxEntries, Duration expiry) {
+        this(maxEntries, expiry, System::nanoTime);
+    }
+
+    LocalAttachmentCounter(int maxEntries, Duration expiry, LongSupplier nanoClock) {
+        this.counters = new ExpiringSlotMap<>(maxEntries, expiry, nanoClock, (key, slot) -> {
+            // Nothing to hand back — a dropped local count is simply forgotten
+        });
+    }
+
+    /**
+     * @return a counter with {@link #DEFAULT_MAX_ENTRIES} and {@link #DEFAULT_EXPIRY}
+     */
+    public static LocalAttachmentCounter withDefaults() {
+        return new LocalAttachmentCounter(DEFAULT_MAX_ENTRIES, DEFAULT_EXPIRY);
+    }
+
+    @Override
+    public Reservation reserve(String parentTraceId, int slots, int maxCount) throws IOException {
+        return counters.withSlot(parentTraceId, CountSlot::new, slot -> {
+            if (slot.count + slots > maxCount) {
+                return Reservation.denied(slot.count);
+            }
+            slot.count += slots;
+            return Reservation.granted(slot.count);
+        });
+    }
+
+    @Override
+    public void release(String parentTraceId, int slots) throws IOException {
+        counters.withExistingSlot(parentTraceId, slot -> {
+            slot.count = Math.max(0, slot.count - slots);
+            return null;
+        });
+    }
+
+    @Override
+    public void evict(String parentTraceId) {
+        counters.remove(parentTraceId);
+    }
+
+    @Override
+    public int size() {
+        return counters.size();
+    }
+
+    /** Sweeps expired counters now; exposed for tests driving a fake clock. */
+    void sweep(long nowNanos) {
+        counters.sweep(nowNanos);
+    }
+
+    static final class CountSlot extends ExpiringSlotMap.Slot {
+        int count;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Node-local {@link IdempotencyStore} backed by a bounded map.
+ * <p>
+ * Keys live in processor memory: they are forgotten on restart, and in a cluster a retry that
+ * reaches another node is not recognized. Use {@link DistributedIdempotencyStore} when retries
+ * may land on any node.
+ * <p>
+ * A duplicate that arrives while the original request is still in flight waits up to
+ * {@link #DEFAULT_COALESCE_WAIT} for it and is then answered with its outcome; only if the
+ * original takes longer is the duplicate reported as {@link Outcome#IN_FLIGHT}. The wait holds a
+ * Jetty thread, so it is kept short: accepting a request only means enqueueing it, and a
+ * duplicate that misses the window is told to retry. When the map is
+ * over its bound the least recently used keys are dropped before their time to live.
+ */
+public final class LocalIdempotencyStore implements IdempotencyStore {
+
+    /** Default upper bound of remembered keys. */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /** How long a duplicate waits for the in-flight original before giving up. */
+    public static final Duration DEFAULT_COALESCE_WAIT = Duration.ofMillis(250);
+
+    private final ExpiringSlotMap<KeySlot> keys;
+    private final long ttlNanos;
+    private final long coalesceWaitNanos;
+    private final LongSupplier nanoClock;
+
+    public LocalIdempotencyStore(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, DEFAULT_COALESCE_WAIT, System::nanoTime);
+    }
+
+    LocalIdempotencyStore(int maxEntries, Duration ttl, Duration coalesceWait, LongSupplier nanoClock) {
+        this.keys = new ExpiringSlotMap<>(maxEntries, ttl, nanoClock, (key, slot) -> slot.settle(),
+                RestApiLogMessages.WARN.IDEMPOTENCY_KEYS_EVICTED);
+        this.ttlNanos = ttl.toNanos();
+        this.coalesceWaitNanos = coalesceWait.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint) throws IOException {
+        long deadline = nanoClock.getAsLong() + coalesceWaitNanos;
+        while (true) {
+            Decision decision = keys.withSlot(key, KeySlot::new, slot -> decide(slot, fingerprint));
+            if (decision.pending() == null) {
+                return decision.claim();
+            }
+            long remaining = deadline - nanoClock.getAsLong();
+            if (remaining <= 0 || !awaitSettled(decision.pending(), remaining)) {
+                return Claim.inFlight();
+            }
+            // The original completed or was released — decide again
+        }
+    }
+
+    private Decision decide(KeySlot slot, String fingerprint) {
+        long now = nanoClock.getAsLong();
+        if (slot.fingerprint == null || now - slot.createdNanos >= ttlNanos) {
+            slot.settle();
+            slot.fingerprint = fingerprint;
+            slot.createdNanos = now;
+            slot.completed = false;
+            slot.traceId = null;
+            slot.settled = new CompletableFuture<>();
+            return new Decision(Claim.claimed(), null);
+        }
+        if (!slot.fingerprint.equals(fingerprint)) {
+            return new Decision(Claim.mismatch(), null);
+        }
+        if (slot.completed) {
+            return new Decision(Claim.completed(slot.traceId), null);
+        }
+        return new Decision(null, slot.settled);
+    }
+
+    private static boolean awaitSettled(CompletableFuture<Void> settled, long timeoutNanos) throws IOException {
+        try {
+            settled.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the in-flight request", e);
+        } catch (ExecutionException e) {
+            // Never completed exceptionally; treat like a settled key and decide again
+            return true;
+        }
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, @Nullable String traceId) throws IOException {
+        keys.withExistingSlot(key, slot -> {
+            slot.completed = true;
+            slot.traceId = traceId;
+            slot.createdNanos = nanoClock.getAsLong();
+            slot.settle();
+            return null;
+        });
+    }
+
+    @Override
+    public void release(String key) throws IOException {
+        keys.withExistingSlot(key, slot -> {
+            slot.fingerprint = null;
+            slot.settle();
+            return null;
+        });
+    }
+
+    /**
+     * @return the number of keys currently remembered
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /** Sweeps expired keys now; exposed for tests driving a fake clock. */
+    void sweep(long nowNanos) {
+        keys.sweep(nowNanos);
+    }
+
+    /**
+     * @param claim   the outcome, or {@code null} when the key is in flight
+     * @param pending completes when the in-flight request completes or is released
+     */
+    private record Decision(@Nullable Claim claim, @Nullable CompletableFuture<Void> pending) {
+    }
+
+    static final class KeySlot extends ExpiringSlotMap.Slot {
+        /** Fingerprint of the request holding the key, {@code null} when the key is free. */
+        @Nullable String fingerprint;
+        long createdNanos;
+        boolean completed;
+        @Nullable String traceId;
+        @Nullable CompletableFuture<Void> settled;
+
+        /** Wakes up the duplicates waiting for the current holder. */
+        void settle() {
+            if (settled != null) {
+                settled.complete(null);
+            }
+        }
+    }
+}
@@ -41,6 +41,10 @@ import java.util.Set;
  *   <li>Token validation events (token-sheriff)</li>
  *   <li>HTTP security events (cui-http)</li>
  *   <li>Application-level gateway events ({@link GatewaySecurityEvents})</li>
+ *   <li>Status write-behind buffer ({@link WriteBehindStatusStore}), when enabled</li>
+ *   <li>Distributed cache calls and circuit state ({@link GuardedMapCacheClient}), when tracking is configured</li>
+ *   <li>Header and query sanitization memo ({@link SanitizationCache}), when enabled</li>
+ *   <li>Adaptive concurrency limit and load shedding ({@link AdaptiveConcurrencyLimiter}), when enabled</li>
  * </ol>
  * <p>
  * Supports Prometheus (default) and JSON ({@code Accept: application/json}) output formats.
@@ -54,6 +58,10 @@ public final class MetricsEndpointHandler extends AbstractManagementHandler {
     private final JwtIssuerConfigService configService;
     private final SecurityEventCounter httpSecurityEvents;
     private final GatewaySecurityEvents gatewaySecurityEvents;
+    @Nullable private final WriteBehindStatusStore writeBehindStore;
+    @Nullable private final GuardedMapCacheClient cacheGuard;
+    @Nullable private final SanitizationCache sanitizationCache;
+    @Nullable private final AdaptiveConcurrencyLimiter concurrencyLimiter;
 
     public MetricsEndpointHandler(JwtIssuerConfigService configService,
             SecurityEventCounter httpSecurityEvents,
@@ -61,10 +69,53 @@ public final class MetricsEndpointHandler extends AbstractManagementHandler {
             boolean enabled,
             Set<AuthMode> authModes,
             Set<String> requiredRoles, Set<String> requiredScopes) {
+        this(configService, httpSecurityEvents, gatewaySecurityEvents, null, null,
+                enabled, authModes, requiredRoles, requiredScopes);
+    }
+
+    public MetricsEndpointHandler(JwtIssuerConfigService configService,
+            SecurityEventCounter httpSecurityEvents,
+            GatewaySecurityEvents gatewaySecurityEvents,
+            @Nullable WriteBehindStatusStore writeBehindStore,
+            @Nullable GuardedMapCacheClient cacheGuard,
+            boolean enabled,
+            Set<AuthMode> authModes,
+            Set<String> requiredRoles, Set<String> requiredScopes) {
+        this(configService, httpSecurityEvents, gatewaySecurityEvents, writeBehindStore, cacheGuard, null,
+                enabled, authModes, requiredRoles, requiredScopes);
+    }
+
+    public MetricsEndpointHandler(JwtIssuerConfigService configService,
+            SecurityEventCounter httpSecurityEvents,
+            GatewaySecurityEvents gatewaySecurityEvents,
+            @Nullable WriteBehindStatusStore writeBehindStore,
+            @Nullable GuardedMapCacheClient cacheGuard,
+            @Nullable SanitizationCache sanitizationCache,
+            boolean enabled,
+            Set<AuthMode> authModes,
+            Set<String> requiredRoles, Set<String> requiredScopes) {
+        this(configService, httpSecurityEvents, gatewaySecurityEvents, writeBehindStore, cacheGuard,
+                sanitizationCache, null, enabled, authModes, requiredRoles, requiredScopes);
+    }
+
+    public MetricsEndpointHandler(JwtIssuerConfigService configService,
+            SecurityEventCounter httpSecurityEvents,
+            GatewaySecurityEvents gatewaySecurityEvents,
+            @Nullable WriteBehindStatusStore writeBehindStore,
+            @Nullable GuardedMapCacheClient cacheGuard,
+            @Nullable SanitizationCache sanitizationCache,
+            @Nullable AdaptiveConcurrencyLimiter concurrencyLimiter,
+            boolean enabled,
+            Set<AuthMode> authModes,
+            Set<String> requiredRoles, Set<String> requiredScopes) {
         super(enabled, authModes, requiredRoles, requiredScopes);
         this.configService = configService;
         this.httpSecurityEvents = httpSecurityEvents;
         this.gatewaySecurityEvents = gatewaySecurityEvents;
+        this.writeBehindStore = writeBehindStore;
+        this.cacheGuard = cacheGuard;
+        this.sanitizationCache = sanitizationCache;
+        this.concurrencyLimiter = concurrencyLimiter;
     }
 
     @Override
@@ -99,6 +150,12 @@ public final class MetricsEndpointHandler extends AbstractManagementHandler {
         appendTokenValidationMetrics(sb);
         appendHttpSecurityMetrics(sb);
         appendGatewayEventMetrics(sb);
+        appendRateLimitMetrics(sb);
+        appendQueueExpiredMetrics(sb);
+        appendWriteBehindMetrics(sb);
+        appendCacheMetrics(sb);
+        appendSanitizationCacheMetrics(sb);
+        appendLoadSheddingMetrics(sb);
         sendResponse(response, callback, PROMETHEUS_CONTENT_TYPE, sb.toString());
     }
 
@@ -150,6 +207,160 @@ public final class MetricsEndpointHandler extends AbstractManagementHandler {
             }
         }
         sb.append('\n');
+        sb.append("# HELP nifi_gateway_unread_bodies_total Requests rejected on their declared Content-Length before the body was read\n");
+        sb.append("# TYPE nifi_gateway_unread_bodies_total counter\n");
+        sb.append("nifi_gateway_unread_bodies_total ").append(gatewaySecurityEvents.getUnreadBodies()).append('\n');
+        sb.append("# HELP nifi_gateway_unread_body_bytes_total Declared body bytes of those requests, never uploaded\n");
+        sb.append("# TYPE nifi_gateway_unread_body_bytes_total counter\n");
+        sb.append("nifi_gateway_unread_body_bytes_total ").append(gatewaySecurityEvents.getUnreadBodyBytes())
+                .append('\n');
+        sb.append('\n');
+    }
+
+    @SuppressWarnings("java:S3457") // Prometheus text format requires literal \n, not platform-dependent %n
+    private void appendRateLimitMetrics(StringBuilder sb) {
+        var counts = gatewaySecurityEvents.getRateLimitCounts();
+        if (counts.isEmpty()) {
+            return;
+        }
+        sb.append("# HELP nifi_gateway_rate_limit_requests_total Rate-limited route requests by key class and decision\n");
+        sb.append("# TYPE nifi_gateway_rate_limit_requests_total counter\n");
+        for (var entry : counts.entrySet()) {
+            String keyClass = entry.getKey().name().toLowerCase(Locale.ROOT);
+            sb.append("nifi_gateway_rate_limit_requests_total{key=\"%s\",decision=\"admitted\"} %d\n"
+                    .formatted(keyClass, entry.getValue().admitted()));
+            sb.append("nifi_gateway_rate_limit_requests_total{key=\"%s\",decision=\"limited\"} %d\n"
+                    .formatted(keyClass, entry.getValue().limited()));
+        }
+        sb.append('\n');
+    }
+
+    @SuppressWarnings("java:S3457") // Prometheus text format requires literal \n, not platform-dependent %n
+    private void appendQueueExpiredMetrics(StringBuilder sb) {
+        var counts = gatewaySecurityEvents.getQueueExpiredCounts();
+        if (counts.isEmpty()) {
+            return;
+        }
+        sb.append("# HELP nifi_gateway_queue_expired_total Queued requests dropped after outliving their deadline\n");
+        sb.append("# TYPE nifi_gateway_queue_expired_total counter\n");
+        for (var entry : counts.entrySet()) {
+            sb.append("nifi_gateway_queue_expired_total{route=\"%s\"} %d\n"
+                    .formatted(escapeLabelValue(entry.getKey()), entry.getValue()));
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * Escapes a Prometheus label value. Route names come from operator-defined property names and
+     * are not restricted to label-safe characters.
+     */
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @SuppressWarnings("java:S3457") // Prometheus text format requires literal \n, not platform-dependent %n
+    private void appendWriteBehindMetrics(StringBuilder sb) {
+        if (writeBehindStore == null) {
+            return;
+        }
+        var stats = writeBehindStore.stats();
+        sb.append("# HELP nifi_gateway_status_write_behind_backlog Tracking entries buffered and not yet written\n");
+        sb.append("# TYPE nifi_gateway_status_write_behind_backlog gauge\n");
+        sb.append("nifi_gateway_status_write_behind_backlog %d\n".formatted(stats.backlog()));
+        sb.append("# HELP nifi_gateway_status_write_behind_batch_size Entries written by the most recent flush\n");
+        sb.append("# TYPE nifi_gateway_status_write_behind_batch_size gauge\n");
+        sb.append("nifi_gateway_status_write_behind_batch_size %d\n".formatted(stats.lastBatchSize()));
+        sb.append("# HELP nifi_gateway_status_write_behind_flush_seconds Duration of write-behind flushes\n");
+        sb.append("# TYPE nifi_gateway_status_write_behind_flush_seconds summary\n");
+        sb.append("nifi_gateway_status_write_behind_flush_seconds_sum %s\n"
+                .formatted(toSeconds(stats.flushNanosTotal())));
+        sb.append("nifi_gateway_status_write_behind_flush_seconds_count %d\n".formatted(stats.flushes()));
+        sb.append("# HELP nifi_gateway_status_write_behind_flush_seconds_max Longest write-behind flush\n");
+        sb.append("# TYPE nifi_gateway_status_write_behind_flush_seconds_max gauge\n");
+        sb.append("nifi_gateway_status_write_behind_flush_seconds_max %s\n"
+                .formatted(toSeconds(stats.flushNanosMax())));
+        sb.append("# HELP nifi_gateway_status_write_behind_entries_total Tracking entries by write path\n");
+        sb.append("# TYPE nifi_gateway_status_write_behind_entries_total counter\n");
+        sb.append("nifi_gateway_status_write_behind_entries_total{path=\"flushed\"} %d\n"
+                .formatted(stats.flushedEntries()));
+        sb.append("nifi_gateway_status_write_behind_entries_total{path=\"synchronous\"} %d\n"
+                .formatted(stats.synchronousFallbacks()));
+        sb.append("# HELP nifi_gateway_status_write_behind_flush_failures_total Flushes aborted by a cache error\n");
+        sb.append("# TYPE nifi_gateway_status_write_behind_flush_failures_total counter\n");
+        sb.append("nifi_gateway_status_write_behind_flush_failures_total %d\n".formatted(stats.flushFailures()));
+        sb.append('\n');
+    }
+
+    @SuppressWarnings("java:S3457") // Prometheus text format requires literal \n, not platform-dependent %n
+    private void appendCacheMetrics(StringBuilder sb) {
+        if (cacheGuard == null) {
+            return;
+        }
+        var stats = cacheGuard.stats();
+        sb.append("# HELP nifi_gateway_cache_circuit_state Distributed cache circuit state (1 for the current state)\n");
+        sb.append("# TYPE nifi_gateway_cache_circuit_state gauge\n");
+        for (CacheCircuitBreaker.State state : CacheCircuitBreaker.State.values()) {
+            sb.append("nifi_gateway_cache_circuit_state{state=\"%s\"} %d\n"
+                    .formatted(state.name().toLowerCase(Locale.ROOT), state == stats.state() ? 1 : 0));
+        }
+        sb.append("# HELP nifi_gateway_cache_call_seconds Latency of distributed cache calls\n");
+        sb.append("# TYPE nifi_gateway_cache_call_seconds summary\n");
+        sb.append("nifi_gateway_cache_call_seconds_sum %s\n".formatted(toSeconds(stats.latencyNanosTotal())));
+        sb.append("nifi_gateway_cache_call_seconds_count %d\n".formatted(stats.calls()));
+        sb.append("# HELP nifi_gateway_cache_call_seconds_max Longest distributed cache call\n");
+        sb.append("# TYPE nifi_gateway_cache_call_seconds_max gauge\n");
+        sb.append("nifi_gateway_cache_call_seconds_max %s\n".formatted(toSeconds(stats.latencyNanosMax())));
+        sb.append("# HELP nifi_gateway_cache_calls_failed_total Distributed cache calls by failure kind\n");
+        sb.append("# TYPE nifi_gateway_cache_calls_failed_total counter\n");
+        sb.append("nifi_gateway_cache_calls_failed_total{reason=\"error\"} %d\n"
+                .formatted(stats.failures() - stats.timeouts()));
+        sb.append("nifi_gateway_cache_calls_failed_total{reason=\"timeout\"} %d\n".formatted(stats.timeouts()));
+        sb.append("nifi_gateway_cache_calls_failed_total{reason=\"rejected\"} %d\n".formatted(stats.rejected()));
+        sb.append('\n');
+    }
+
+    @SuppressWarnings("java:S3457") // Prometheus text format requires literal \n, not platform-dependent %n
+    private void appendSanitizationCacheMetrics(StringBuilder sb) {
+        if (sanitizationCache == null) {
+            return;
+        }
+        var stats = sanitizationCache.stats();
+        sb.append("# HELP nifi_gateway_sanitization_cache_lookups_total Header and query values by memo outcome\n");
+        sb.append("# TYPE nifi_gateway_sanitization_cache_lookups_total counter\n");
+        sb.append("nifi_gateway_sanitization_cache_lookups_total{result=\"hit\"} %d\n".formatted(stats.hits()));
+        sb.append("nifi_gateway_sanitization_cache_lookups_total{result=\"miss\"} %d\n".formatted(stats.misses()));
+        sb.append("nifi_gateway_sanitization_cache_lookups_total{result=\"uncacheable\"} %d\n"
+                .formatted(stats.uncacheable()));
+        sb.append("# HELP nifi_gateway_sanitization_cache_hit_ratio Share of memo lookups answered without the pipeline\n");
+        sb.append("# TYPE nifi_gateway_sanitization_cache_hit_ratio gauge\n");
+        sb.append("nifi_gateway_sanitization_cache_hit_ratio %s\n".formatted(Double.toString(stats.hitRatio())));
+        sb.append("# HELP nifi_gateway_sanitization_cache_entries Values currently memoized\n");
+        sb.append("# TYPE nifi_gateway_sanitization_cache_entries gauge\n");
+        sb.append("nifi_gateway_sanitization_cache_entries %d\n".formatted(stats.entries()));
+        sb.append('\n');
+    }
+
+    @SuppressWarnings("java:S3457") // Prometheus text format requires literal \n, not platform-dependent %n
+    private void appendLoadSheddingMetrics(StringBuilder sb) {
+        if (concurrencyLimiter == null) {
+            return;
+        }
+        var stats = concurrencyLimiter.stats();
+        sb.append("# HELP nifi_gateway_concurrency_limit Adaptive limit on queued requests\n");
+        sb.append("# TYPE nifi_gateway_concurrency_limit gauge\n");
+        sb.append("nifi_gateway_concurrency_limit %d\n".formatted(stats.limit()));
+        sb.append("# HELP nifi_gateway_concurrency_in_flight Requests queued for FlowFile creation\n");
+        sb.append("# TYPE nifi_gateway_concurrency_in_flight gauge\n");
+        sb.append("nifi_gateway_concurrency_in_flight %d\n".formatted(stats.inFlight()));
+        sb.append("# HELP nifi_gateway_load_shed_total Requests shed by the concurrency limit by route priority\n");
+        sb.append("# TYPE nifi_gateway_load_shed_total counter\n");
+        stats.shed().forEach((priority, count) -> sb.append("nifi_gateway_load_shed_total{priority=\"%s\"} %d\n"
+                .formatted(priority.name().toLowerCase(Locale.ROOT), count)));
+        sb.append('\n');
+    }
+
+    private static String toSeconds(long nanos) {
+        return Double.toString(nanos / 1_000_000_000.0);
     }
 
     // -----------------------------------------------------------------------
@@ -180,6 +391,69 @@ public final class MetricsEndpointHandler extends AbstractManagementHandler {
             gwMetrics.add(entry.getKey().name().toLowerCase(Locale.ROOT), entry.getValue());
         }
         root.add("gatewayEvents", gwMetrics);
+        var rateLimitCounts = gatewaySecurityEvents.getRateLimitCounts();
+        if (!rateLimitCounts.isEmpty()) {
+            JsonObjectBuilder rateLimitMetrics = Json.createObjectBuilder();
+            rateLimitCounts.forEach((keyClass, counts) -> rateLimitMetrics.add(
+                    keyClass.name().toLowerCase(Locale.ROOT), Json.createObjectBuilder()
+                            .add("admitted", counts.admitted())
+                            .add("limited", counts.limited())));
+            root.add("rateLimit", rateLimitMetrics);
+        }
+        var queueExpiredCounts = gatewaySecurityEvents.getQueueExpiredCounts();
+        if (!queueExpiredCounts.isEmpty()) {
+            JsonObjectBuilder queueExpiredMetrics = Json.createObjectBuilder();
+            queueExpiredCounts.forEach((route, count) -> queueExpiredMetrics.add(route, count.longValue()));
+            root.add("queueExpired", queueExpiredMetrics);
+        }
+        root.add("unreadBodies", Json.createObjectBuilder()
+                .add("requests", gatewaySecurityEvents.getUnreadBodies())
+                .add("bytes", gatewaySecurityEvents.getUnreadBodyBytes()));
+
+        if (writeBehindStore != null) {
+            var stats = writeBehindStore.stats();
+            root.add("statusWriteBehind", Json.createObjectBuilder()
+                    .add("backlog", stats.backlog())
+                    .add("lastBatchSize", stats.lastBatchSize())
+                    .add("flushes", stats.flushes())
+                    .add("flushedEntries", stats.flushedEntries())
+                    .add("flushSecondsTotal", stats.flushNanosTotal() / 1_000_000_000.0)
+                    .add("flushSecondsMax", stats.flushNanosMax() / 1_000_000_000.0)
+                    .add("synchronousFallbacks", stats.synchronousFallbacks())
+                    .add("flushFailures", stats.flushFailures()));
+        }
+
+        if (cacheGuard != null) {
+            var stats = cacheGuard.stats();
+            root.add("cache", Json.createObjectBuilder()
+                    .add("circuit", stats.state().name())
+                    .add("calls", stats.calls())
+                    .add("failures", stats.failures())
+                    .add("timeouts", stats.timeouts())
+                    .add("rejected", stats.rejected())
+                    .add("latencySecondsTotal", stats.latencyNanosTotal() / 1_000_000_000.0)
+                    .add("latencySecondsMax", stats.latencyNanosMax() / 1_000_000_000.0));
+        }
+
+        if (sanitizationCache != null) {
+            var stats = sanitizationCache.stats();
+            root.add("sanitizationCache", Json.createObjectBuilder()
+                    .add("hits", stats.hits())
+                    .add("misses", stats.misses())
+                    .add("uncacheable", stats.uncacheable())
+                    .add("entries", stats.entries())
+                    .add("hitRatio", stats.hitRatio()));
+        }
+
+        if (concurrencyLimiter != null) {
+            var stats = concurrencyLimiter.stats();
+            JsonObjectBuilder shed = Json.createObjectBuilder();
+            stats.shed().forEach((priority, count) -> shed.add(priority.name().toLowerCase(Locale.ROOT), count));
+            root.add("loadShedding", Json.createObjectBuilder()
+                    .add("limit", stats.limit())
+                    .add("inFlight", stats.inFlight())
+                    .add("shed", shed));
+        }
 
         sendResponse(response, callback, JSON_CONTENT_TYPE, root.build().toString());
     }
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import lombok.experimental.UtilityClass;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Minimal RFC 7578 {@code multipart/form-data} parser over an already-buffered request body.
+ * <p>
+ * Parts are sliced out of the body by scanning for the boundary; part headers other than
+ * {@code Content-Disposition} and {@code Content-Type} are ignored. Malformed input is reported
+ * as {@link IllegalArgumentException} with a client-safe message.
+ * <p>
+ * The body is buffered by the gateway (bounded by the attachments endpoint size limit) and every
+ * part is copied out of it, so a multipart request holds up to about twice its body size. The
+ * number of parts is capped; parsing stops at the first part beyond the cap.
+ */
+@UtilityClass
+class MultipartFormParser {
+
+    /** RFC 2046: boundaries are 1 to 70 characters. */
+    private static final int MAX_BOUNDARY_LENGTH = 70;
+    private static final String MULTIPART_FORM_DATA = "multipart/form-data";
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+    private static final byte[] DASH_DASH = {'-', '-'};
+
+    /**
+     * A single form-data part.
+     *
+     * @param name        the form field name from {@code Content-Disposition}
+     * @param filename    the client file name with any directory components stripped, if present
+     * @param contentType the part's {@code Content-Type}, if present
+     * @param content     the part body
+     */
+    @SuppressWarnings("java:S6218") // transient parse result, never compared or hashed
+    record Part(String name, @Nullable String filename, @Nullable String contentType, byte[] content) {
+    }
+
+    /**
+     * Thrown when a body has more parts than allowed.
+     */
+    static final class TooManyPartsException extends IllegalArgumentException {
+
+        private static final long serialVersionUID = 1L;
+
+        TooManyPartsException(int maxParts) {
+            super("Multipart body has more than %d parts".formatted(maxParts));
+        }
+    }
+
+    /**
+     * Returns {@code true} if the content type denotes {@code multipart/form-data}.
+     */
+    static boolean isMultipartFormData(@Nullable String contentType) {
+        return contentType != null
+                && contentType.strip().toLowerCase(Locale.ROOT).startsWith(MULTIPART_FORM_DATA);
+    }
+
+    /**
+     * Extracts the {@code boundary} parameter of a {@code multipart/form-data} content type.
+     *
+     * @return the boundary, or empty if it is missing or not a valid RFC 2046 boundary
+     */
+    static Optional<String> boundary(String contentType) {
+        int paramsStart = contentType.indexOf(';');
+        if (paramsStart < 0) {
+            return Optional.empty();
+        }
+        String boundary = parseParameters(contentType.substring(paramsStart + 1)).get("boundary");
+        if (boundary == null || boundary.isEmpty() || boundary.length() > MAX_BOUNDARY_LENGTH
+                || boundary.endsWith(" ")) {
+            return Optional.empty();
+        }
+        return Optional.of(boundary);
+    }
+
+    /**
+     * Splits the body into its parts.
+     *
+     * @param body     the complete request body
+     * @param boundary the boundary from the content type
+     * @param maxParts the maximum number of parts
+     * @return the parts in body order, never empty
+     * @throws TooManyPartsException    if the body has more than {@code maxParts} parts
+     * @throws IllegalArgumentException if the body is not well-formed multipart/form-data
+     */
+    static List<Part> parse(byte[] body, String boundary, int maxParts) {
+        byte[] dashBoundary = ("--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        byte[] delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+
+        // The first boundary is either at the very start or follows a (discarded) preamble line
+        int pos;
+        if (startsWith(body, 0, dashBoundary)) {
+            pos = dashBoundary.length;
+        } else {
+            int first = indexOf(body, delimiter, 0);
+            if (first < 0) {
+                throw new IllegalArgumentException("Multipart body does not contain the declared boundary");
+            }
+            pos = first + delimiter.length;
+        }
+
+        List<Part> parts = new ArrayList<>();
+        while (!startsWith(body, pos, DASH_DASH)) {
+            if (parts.size() == maxParts) {
+                throw new TooManyPartsException(maxParts);
+            }
+            pos = skipTransportPadding(body, pos);
+            if (!startsWith(body, pos, CRLF)) {
+                throw new IllegalArgumentException("Malformed multipart boundary line");
+            }
+            pos += CRLF.length;
+
+            int contentStart;
+            String headerBlock;
+            if (startsWith(body, pos, CRLF)) {
+                headerBlock = "";
+                contentStart = pos + CRLF.length;
+            } else {
+                int headersEnd = indexOf(body, HEADER_END, pos);
+                if (headersEnd < 0) {
+                    throw new IllegalArgumentException("Multipart part headers are not terminated");
+                }
+                headerBlock = new String(body, pos, headersEnd - pos, StandardCharsets.UTF_8);
+                contentStart = headersEnd + HEADER_END.length;
+            }
+
+            int contentEnd = indexOf(body, delimiter, contentStart);
+            if (contentEnd < 0) {
+                throw new IllegalArgumentException("Multipart body is not terminated by the closing boundary");
+            }
+            parts.add(toPart(headerBlock, Arrays.copyOfRange(body, contentStart, contentEnd)));
+            pos = contentEnd + delimiter.length;
+        }
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException("Multipart body contains no parts");
+        }
+        return parts;
+    }
+
+    private static Part toPart(String headerBlock, byte[] content) {
+        String disposition = null;
+        String contentType = null;
+        for (String line : headerBlock.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String headerName = line.substring(0, colon).strip().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).strip();
+            if ("content-disposition".equals(headerName)) {
+                disposition = value;
+            } else if ("content-type".equals(headerName) && !value.isEmpty()) {
+                contentType = value;
+            }
+        }
+        if (disposition == null
+                || !disposition.toLowerCase(Locale.ROOT).startsWith("form-data")) {
+            throw new IllegalArgumentException("Multipart part without a form-data Content-Disposition");
+        }
+        int paramsStart = disposition.indexOf(';');
+        Map<String, String> params = paramsStart < 0
+                ? Map.of() : parseParameters(disposition.substring(paramsStart + 1));
+        String name = params.get("name");
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Multipart part without a field name");
+        }
+        return new Part(name, stripDirectories(params.get("filename")), contentType, content);
+    }
+
+    /**
+     * Browsers send a bare file name, but some clients send a full path — keep only the last
+     * segment so the value is safe to use as a FlowFile {@code filename}.
+     */
+    @Nullable
+    static String stripDirectories(@Nullable String filename) {
+        if (filename == null) {
+            return null;
+        }
+        String stripped = filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1);
+        return stripped.isEmpty() ? null : stripped;
+    }
+
+    /**
+     * Parses {@code ; key=value} parameters with optional quoted-string values. Keys are lowercased.
+     */
+    private static Map<String, String> parseParameters(String parameters) {
+        Map<String, String> result = new HashMap<>();
+        int i = 0;
+        int length = parameters.length();
+        while (i < length) {
+            int equals = parameters.indexOf('=', i);
+            if (equals < 0) {
+                break;
+            }
+            String key = parameters.substring(i, equals).strip().toLowerCase(Locale.ROOT);
+            if (key.startsWith(";")) {
+                key = key.substring(1).strip();
+            }
+            i = equals + 1;
+            StringBuilder value = new StringBuilder();
+            if (i < length && parameters.charAt(i) == '"') {
+                i++;
+                while (i < length && parameters.charAt(i) != '"') {
+                    char c = parameters.charAt(i);
+                    if (c == '\\' && i + 1 < length) {
+                        i++;
+                        c = parameters.charAt(i);
+                    }
+                    value.append(c);
+                    i++;
+                }
+                // Skip the closing quote and anything up to the next separator
+                int next = parameters.indexOf(';', i);
+                i = next < 0 ? length : next + 1;
+            } else {
+                int next = parameters.indexOf(';', i);
+                int end = next < 0 ? length : next;
+                value.append(parameters, i, end);
+                i = next < 0 ? length : next + 1;
+            }
+            result.putIfAbsent(key, value.toString().strip());
+        }
+        return result;
+    }
+
+    private static int skipTransportPadding(byte[] body, int pos) {
+        int i = pos;
+        while (i < body.length && (body[i] == ' ' || body[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWith(byte[] body, int pos, byte[] prefix) {
+        if (pos < 0 || pos + prefix.length > body.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (body[pos + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] body, byte[] pattern, int from) {
+        int last = body.length - pattern.length;
+        for (int i = Math.max(0, from); i <= last; i++) {
+            if (body[i] == pattern[0] && startsWith(body, i, pattern)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
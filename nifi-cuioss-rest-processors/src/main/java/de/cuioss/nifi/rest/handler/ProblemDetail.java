@@ -78,6 +78,8 @@ int status,
     static final String TYPE_PAYLOAD_TOO_LARGE = ERROR_DOC_BASE + "#payload-too-large";
     static final String TYPE_VALIDATION_ERROR = ERROR_DOC_BASE + "#validation-error";
     static final String TYPE_CONFLICT = ERROR_DOC_BASE + "#conflict";
+    static final String TYPE_UNSUPPORTED_MEDIA_TYPE = ERROR_DOC_BASE + "#unsupported-media-type";
+    static final String TYPE_TOO_MANY_REQUESTS = ERROR_DOC_BASE + "#too-many-requests";
     static final String TYPE_SERVICE_UNAVAILABLE = ERROR_DOC_BASE + "#service-unavailable";
     static final String TYPE_INTERNAL_ERROR = ERROR_DOC_BASE + "#internal-error";
 
@@ -91,6 +93,8 @@ int status,
     static final String TITLE_PAYLOAD_TOO_LARGE = "Payload Too Large";
     static final String TITLE_VALIDATION_ERROR = "Unprocessable Content";
     static final String TITLE_CONFLICT = "Conflict";
+    static final String TITLE_UNSUPPORTED_MEDIA_TYPE = "Unsupported Media Type";
+    static final String TITLE_TOO_MANY_REQUESTS = "Too Many Requests";
     static final String TITLE_SERVICE_UNAVAILABLE = "Service Unavailable";
     static final String TITLE_INTERNAL_ERROR = "Internal Server Error";
 
@@ -265,6 +269,34 @@ int status,
                 .build();
     }
 
+    /**
+     * Creates a 415 Unsupported Media Type problem detail.
+     *
+     * @see <a href="https://github.com/cuioss/nifi-extensions/blob/main/doc/reference/error-reference.adoc">Error Reference</a>
+     */
+    public static ProblemDetail unsupportedMediaType(String detail) {
+        return ProblemDetail.builder()
+                .type(TYPE_UNSUPPORTED_MEDIA_TYPE)
+                .title(TITLE_UNSUPPORTED_MEDIA_TYPE)
+                .status(415)
+                .detail(detail)
+                .build();
+    }
+
+    /**
+     * Creates a 429 Too Many Requests problem detail.
+     *
+     * @see <a href="https://github.com/cuioss/nifi-extensions/blob/main/doc/reference/error-reference.adoc">Error Reference</a>
+     */
+    public static ProblemDetail tooManyRequests(String detail) {
+        return ProblemDetail.builder()
+                .type(TYPE_TOO_MANY_REQUESTS)
+                .title(TITLE_TOO_MANY_REQUESTS)
+                .status(429)
+                .detail(detail)
+                .build();
+    }
+
     /**
      * Creates a 503 Service Unavailable problem detail.
      *
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.config.RateLimitKey;
+import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
+import lombok.Getter;
+import lombok.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token bucket of one rate-limited route.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding its theoretical arrival time (the generic cell
+ * rate algorithm): a request is admitted when the bucket's time lies no more than the burst
+ * tolerance ahead of now, and pushes it one emission interval further. Admission is one
+ * compare-and-set, without locks or per-request allocation for known keys.
+ * <p>
+ * A bucket whose time has fallen behind now is full again, so it can be dropped without changing any
+ * decision. Key memory is bounded by sweeping those idle buckets once the map reaches its capacity;
+ * if every tracked key is still active, further new keys share one overflow bucket until a sweep
+ * frees space.
+ */
+public final class RateLimiter {
+
+    /** Default maximum number of tracked keys per route. */
+    public static final int DEFAULT_MAX_KEYS = 10_000;
+
+    /** Shared bucket of the keys that arrive while the map is full of active keys. */
+    static final String OVERFLOW_KEY = "\u0000overflow";
+
+    private static final String AUTHORIZED_PARTY_CLAIM = "azp";
+
+    @Getter private final RateLimitKey keyClass;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    /**
+     * @param requestsPerSecond sustained rate per key (positive)
+     * @param burst             requests a key may send at once (positive)
+     * @param keyClass          what the limit is applied to
+     */
+    public RateLimiter(int requestsPerSecond, int burst, @NonNull RateLimitKey keyClass) {
+        this(requestsPerSecond, burst, keyClass, DEFAULT_MAX_KEYS, System::nanoTime);
+    }
+
+    RateLimiter(int requestsPerSecond, int burst, @NonNull RateLimitKey keyClass, int maxKeys,
+            @NonNull LongSupplier nanoClock) {
+        if (requestsPerSecond <= 0 || burst <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond, burst and maxKeys must be positive");
+        }
+        this.keyClass = keyClass;
+        this.emissionIntervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Derives the bucket key of a request.
+     *
+     * @param token    the validated token, {@code null} for anonymous requests
+     * @param clientIp the resolved client IP
+     * @return the claim selected by the key class, or the client IP when there is none
+     */
+    public String keyFor(@Nullable AccessTokenContent token, String clientIp) {
+        if (token == null) {
+            return clientIp;
+        }
+        String key = switch (keyClass) {
+            case SUBJECT -> token.getSubject().orElse(null);
+            case AUTHORIZED_PARTY -> {
+                var claim = token.getClaims().get(AUTHORIZED_PARTY_CLAIM);
+                yield claim != null ? claim.getOriginalString() : null;
+            }
+            case ISSUER -> token.getIssuer();
+            case CLIENT_IP -> null;
+        };
+        return key == null || key.isEmpty() ? clientIp : key;
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @param key the bucket key
+     * @return {@code 0} if the request is admitted, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = bucketFor(key);
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long arrival = bucket.get();
+            long earliest = Math.max(arrival, now);
+            long ahead = earliest - now;
+            if (ahead > burstToleranceNanos) {
+                return ahead - burstToleranceNanos;
+            }
+            if (bucket.compareAndSet(arrival, earliest + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return the number of keys currently tracked
+     */
+    public int trackedKeys() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketFor(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys) {
+            sweepIdle();
+            if (buckets.size() >= maxKeys) {
+                // Still full of active keys: newcomers share one bucket rather than growing the map
+                return buckets.computeIfAbsent(OVERFLOW_KEY, k -> newBucket());
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> newBucket());
+    }
+
+    private AtomicLong newBucket() {
+        return new AtomicLong(Long.MIN_VALUE);
+    }
+
+    private void sweepIdle() {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = nanoClock.getAsLong();
+            // A bucket whose arrival time is behind now is full; dropping it changes no decision
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+}
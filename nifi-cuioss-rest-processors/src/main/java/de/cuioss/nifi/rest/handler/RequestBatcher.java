@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import lombok.NonNull;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Collects the requests of routes with {@code batch-max-records} into batches that the processor
+ * writes as one record-oriented FlowFile each, instead of one FlowFile per request.
+ * <p>
+ * A batch is closed when it holds the route's maximum number of records, when the next request
+ * would push its summed body size over the byte limit, or — checked by {@link #pollExpired} on every
+ * trigger — once its maximum wait has elapsed since the first request. Per-request metadata becomes
+ * record fields (see {@link #SCHEMA}); headers, query parameters and claims other than the subject
+ * are not carried. The body is kept as raw bytes rather than decoded text, so binary and
+ * non-UTF-8 payloads reach the record writer unchanged whatever the request's Content-Type.
+ * Containers with a spooled body are never batched.
+ */
+public final class RequestBatcher {
+
+    /** Record field holding the request's trace ID ({@code null} for untracked routes). */
+    public static final String TRACE_ID_FIELD = "traceId";
+    /** Record field holding the ISO-8601 instant the request was taken from the queue. */
+    public static final String RECEIVED_AT_FIELD = "receivedAt";
+    /** Record field holding the HTTP method. */
+    public static final String METHOD_FIELD = "method";
+    /** Record field holding the request URI. */
+    public static final String REQUEST_URI_FIELD = "requestUri";
+    /** Record field holding the client's remote host. */
+    public static final String REMOTE_HOST_FIELD = "remoteHost";
+    /** Record field holding the token subject ({@code null} for unauthenticated requests). */
+    public static final String SUBJECT_FIELD = "subject";
+    /** Record field holding the request Content-Type. */
+    public static final String CONTENT_TYPE_FIELD = "contentType";
+    /** Record field holding the raw request body as an array of bytes. */
+    public static final String BODY_FIELD = "body";
+
+    /** Schema of the records written for batched requests; every field but the byte-array body is a string. */
+    public static final RecordSchema SCHEMA = new SimpleRecordSchema(List.of(
+            stringField(TRACE_ID_FIELD),
+            stringField(RECEIVED_AT_FIELD),
+            stringField(METHOD_FIELD),
+            stringField(REQUEST_URI_FIELD),
+            stringField(REMOTE_HOST_FIELD),
+            stringField(SUBJECT_FIELD),
+            stringField(CONTENT_TYPE_FIELD),
+            new RecordField(BODY_FIELD,
+                    RecordFieldType.ARRAY.getArrayDataType(RecordFieldType.BYTE.getDataType()), true)));
+
+    /**
+     * Per-route batch limits.
+     *
+     * @param maxRecords maximum number of records (positive)
+     * @param maxBytes   maximum summed body size in bytes (positive)
+     * @param maxWait    time a batch stays open after its first request
+     */
+    public record Limits(int maxRecords, long maxBytes, @NonNull Duration maxWait) {
+
+        public Limits {
+            if (maxRecords <= 0 || maxBytes <= 0) {
+                throw new IllegalArgumentException("maxRecords and maxBytes must be positive");
+            }
+        }
+    }
+
+    /**
+     * A closed batch of one route, in arrival order.
+     *
+     * @param routeName the route all requests were accepted on
+     * @param records   the requests as records of {@link #SCHEMA}
+     */
+    public record Batch(String routeName, List<Record> records) {
+
+        /**
+         * @return the trace IDs of the batched requests that carry one
+         */
+        public List<String> traceIds() {
+            List<String> traceIds = new ArrayList<>();
+            for (Record batched : records) {
+                String traceId = batched.getAsString(TRACE_ID_FIELD);
+                if (traceId != null) {
+                    traceIds.add(traceId);
+                }
+            }
+            return traceIds;
+        }
+    }
+
+    /** The open batch of one route; guarded by its own monitor. */
+    private static final class OpenBatch {
+        private final Limits limits;
+        private List<Record> records = new ArrayList<>();
+        private long bytes;
+        private long openedAtNanos;
+
+        OpenBatch(Limits limits) {
+            this.limits = limits;
+        }
+
+        Batch close(String routeName) {
+            Batch batch = new Batch(routeName, List.copyOf(records));
+            records = new ArrayList<>();
+            bytes = 0;
+            return batch;
+        }
+    }
+
+    private final Map<String, OpenBatch> batches;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param limits batch limits keyed by route name; routes without an entry are not batched
+     */
+    public RequestBatcher(@NonNull Map<String, Limits> limits) {
+        this(limits, System::nanoTime);
+    }
+
+    RequestBatcher(@NonNull Map<String, Limits> limits, @NonNull LongSupplier nanoClock) {
+        Map<String, OpenBatch> open = new HashMap<>();
+        limits.forEach((routeName, routeLimits) -> open.put(routeName, new OpenBatch(routeLimits)));
+        this.batches = Map.copyOf(open);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return whether the container is collected into a batch instead of being emitted on its own
+     */
+    public boolean isBatched(HttpRequestContainer container) {
+        return container.spooledBody() == null && batches.containsKey(container.routeName());
+    }
+
+    /**
+     * Adds a container of a batched route.
+     *
+     * @param container the container; must satisfy {@link #isBatched}
+     * @return the batches closed by this request — usually none, at most two when the request does not
+     *         fit into the open batch and alone reaches a limit
+     */
+    public List<Batch> add(HttpRequestContainer container) {
+        OpenBatch batch = batches.get(container.routeName());
+        if (batch == null) {
+            throw new IllegalArgumentException("Route is not batched: " + container.routeName());
+        }
+        byte[] body = container.body();
+        Record record = toRecord(container, body);
+        List<Batch> closed = new ArrayList<>(2);
+        synchronized (batch) {
+            if (!batch.records.isEmpty() && batch.bytes + body.length > batch.limits.maxBytes()) {
+                closed.add(batch.close(container.routeName()));
+            }
+            if (batch.records.isEmpty()) {
+                batch.openedAtNanos = nanoClock.getAsLong();
+            }
+            batch.records.add(record);
+            batch.bytes += body.length;
+            if (batch.records.size() >= batch.limits.maxRecords() || batch.bytes >= batch.limits.maxBytes()) {
+                closed.add(batch.close(container.routeName()));
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * @return the non-empty batches whose maximum wait has elapsed, now closed
+     */
+    public List<Batch> pollExpired() {
+        long now = nanoClock.getAsLong();
+        List<Batch> expired = new ArrayList<>();
+        batches.forEach((routeName, batch) -> {
+            synchronized (batch) {
+                if (!batch.records.isEmpty() && now - batch.openedAtNanos >= batch.limits.maxWait().toNanos()) {
+                    expired.add(batch.close(routeName));
+                }
+            }
+        });
+        return expired;
+    }
+
+    /**
+     * Closes all open batches without emitting them, e.g. when the processor stops.
+     *
+     * @return the trace IDs of the discarded requests
+     */
+    public List<String> discardAll() {
+        List<String> discarded = new ArrayList<>();
+        batches.forEach((routeName, batch) -> {
+            synchronized (batch) {
+                discarded.addAll(batch.close(routeName).traceIds());
+            }
+        });
+        return discarded;
+    }
+
+    /**
+     * @return the number of requests held in open batches
+     */
+    public int size() {
+        int size = 0;
+        for (OpenBatch batch : batches.values()) {
+            synchronized (batch) {
+                size += batch.records.size();
+            }
+        }
+        return size;
+    }
+
+    private static Record toRecord(HttpRequestContainer container, byte[] body) {
+        Map<String, @Nullable Object> values = new HashMap<>();
+        values.put(TRACE_ID_FIELD, container.traceId());
+        values.put(RECEIVED_AT_FIELD, Instant.now().toString());
+        values.put(METHOD_FIELD, container.method());
+        values.put(REQUEST_URI_FIELD, container.requestUri());
+        values.put(REMOTE_HOST_FIELD, container.remoteHost());
+        values.put(SUBJECT_FIELD, container.token() != null ? container.token().getSubject().orElse(null) : null);
+        values.put(CONTENT_TYPE_FIELD, container.contentType());
+        values.put(BODY_FIELD, body);
+        return new MapRecord(SCHEMA, values);
+    }
+
+    private static RecordField stringField(String name) {
+        return new RecordField(name, RecordFieldType.STRING.getDataType(), true);
+    }
+}
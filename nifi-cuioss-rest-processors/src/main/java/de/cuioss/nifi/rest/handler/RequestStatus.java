@@ -26,6 +26,8 @@ package de.cuioss.nifi.rest.handler;
  *   <li>ACCEPTED → PROCESSING → RETRY → PROCESSING</li>
  *   <li>ACCEPTED → PROCESSING → ERROR</li>
  *   <li>COLLECTING_ATTACHMENTS → PROCESSING → PROCESSED/REJECTED/ERROR</li>
+ *   <li>COLLECTING_ATTACHMENTS → EXPIRED (attachment window timed out in the gateway)</li>
+ *   <li>ACCEPTED → EXPIRED (request outlived its route's max queue age before becoming a FlowFile)</li>
  * </ul>
  */
 public enum RequestStatus {
@@ -35,5 +37,6 @@ public enum RequestStatus {
     PROCESSED,
     REJECTED,
     RETRY,
-    ERROR
+    ERROR,
+    EXPIRED
 }
@@ -28,14 +28,28 @@ import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
 
 /**
  * Typed wrapper around {@link DistributedMapCacheClient} for storing and retrieving
  * request tracking status entries.
  * <p>
  * Keys are trace IDs (strings), values are JSON-serialized {@link RequestStatusEntry} objects.
+ * Cluster-wide attachment counters ({@link DistributedAttachmentCounter}) share the cache under
+ * {@value #ATTACHMENT_COUNT_KEY_PREFIX}{@code <parentTraceId>} keys holding a decimal count, and
+ * resumable uploads ({@link ResumableUploadHandler}) keep their progress under
+ * {@value #UPLOAD_KEY_PREFIX}{@code <uploadId>} keys holding a JSON {@link UploadEntry}. The
+ * cluster-wide idempotency store ({@link DistributedIdempotencyStore}) keeps its keys under
+ * {@value #IDEMPOTENCY_KEY_PREFIX}{@code <key>} keys holding a JSON {@link IdempotencyEntry}.
  */
 public class RequestStatusStore {
 
@@ -44,6 +58,15 @@ public class RequestStatusStore {
     /** Bounded compare-and-swap retries for {@link #updateStatus} before falling back. */
     private static final int MAX_CAS_ATTEMPTS = 5;
 
+    /** Key prefix of the per-parent attachment counters; trace IDs are UUIDs, so keys never collide. */
+    static final String ATTACHMENT_COUNT_KEY_PREFIX = "attachments:";
+
+    /** Key prefix of the resumable upload progress entries. */
+    static final String UPLOAD_KEY_PREFIX = "upload:";
+
+    /** Key prefix of the idempotency keys. */
+    static final String IDEMPOTENCY_KEY_PREFIX = "idempotency:";
+
     private final DistributedMapCacheClient cacheClient;
 
     static final Serializer<String> STRING_SERIALIZER = (value, out) ->
@@ -60,6 +83,87 @@ public class RequestStatusStore {
         return RequestStatusEntry.fromJson(json);
     };
 
+    static final Serializer<Integer> COUNT_SERIALIZER = (value, out) ->
+            out.write(Integer.toString(value).getBytes(StandardCharsets.UTF_8));
+
+    static final Deserializer<Integer> COUNT_DESERIALIZER = bytes -> {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        try {
+            return Integer.valueOf(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed attachment count: " + value, e);
+        }
+    };
+
+    static final Serializer<UploadEntry> UPLOAD_SERIALIZER = (value, out) ->
+            out.write(value.toJson().getBytes(StandardCharsets.UTF_8));
+
+    static final Deserializer<UploadEntry> UPLOAD_DESERIALIZER = bytes -> {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        return UploadEntry.fromJson(new String(bytes, StandardCharsets.UTF_8));
+    };
+
+    static final Serializer<IdempotencyEntry> IDEMPOTENCY_SERIALIZER = (value, out) ->
+            out.write(value.toJson().getBytes(StandardCharsets.UTF_8));
+
+    static final Deserializer<IdempotencyEntry> IDEMPOTENCY_DESERIALIZER = bytes -> {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        return IdempotencyEntry.fromJson(new String(bytes, StandardCharsets.UTF_8));
+    };
+
+    /**
+     * Outcome of {@link #reserveAttachmentSlots}.
+     *
+     * @param granted the number of slots granted, {@code 0} when the reservation was denied
+     * @param total   the parent's cluster-wide count after the reservation (or the unchanged count when denied)
+     */
+    public record SlotGrant(int granted, int total) {
+    }
+
+    /**
+     * A status change applied by {@link #updateStatuses}.
+     *
+     * @param status           the new status
+     * @param errorDetail      the detail to store with the status, or {@code null} to keep the existing one
+     * @param additionalFields fields merged into the entry's additional fields, replacing equal keys;
+     *                         keys reserved by the entry's typed fields are ignored on write
+     */
+    public record StatusUpdate(@NonNull RequestStatus status, @Nullable String errorDetail,
+            @NonNull Map<String, String> additionalFields) {
+
+        public StatusUpdate {
+            additionalFields = Collections.unmodifiableMap(new LinkedHashMap<>(additionalFields));
+        }
+
+        /**
+         * Combines this update with a later one for the same entry: the later status wins, a later
+         * detail replaces this one, and the additional fields are merged with the later values winning.
+         */
+        public StatusUpdate followedBy(StatusUpdate later) {
+            Map<String, String> fields = new LinkedHashMap<>(additionalFields);
+            fields.putAll(later.additionalFields());
+            return new StatusUpdate(later.status(),
+                    later.errorDetail() != null ? later.errorDetail() : errorDetail, fields);
+        }
+    }
+
+    /** Per-entry result of {@link #updateStatuses}. */
+    public enum UpdateOutcome {
+        /** The update was written. */
+        UPDATED,
+        /** No entry exists for the trace ID. */
+        NOT_FOUND,
+        /** Concurrent writers kept winning until the compare-and-swap retries were exhausted. */
+        CONFLICT
+    }
+
     public RequestStatusStore(@NonNull DistributedMapCacheClient cacheClient) {
         this.cacheClient = cacheClient;
     }
@@ -72,8 +176,7 @@ public class RequestStatusStore {
      * @throws IOException if the cache operation fails
      */
     public void accept(String traceId, @Nullable String parentTraceId) throws IOException {
-        var entry = RequestStatusEntry.accepted(traceId, parentTraceId);
-        cacheClient.put(traceId, entry, STRING_SERIALIZER, ENTRY_SERIALIZER);
+        put(RequestStatusEntry.accepted(traceId, parentTraceId));
     }
 
     /**
@@ -88,8 +191,18 @@ public class RequestStatusStore {
      */
     public void collectingAttachments(String traceId, @Nullable String parentTraceId,
             @Nullable String routeName, int attachmentsMaxCount, int attachmentsMinCount) throws IOException {
-        var entry = RequestStatusEntry.collectingAttachments(traceId, parentTraceId, routeName, attachmentsMaxCount, attachmentsMinCount);
-        cacheClient.put(traceId, entry, STRING_SERIALIZER, ENTRY_SERIALIZER);
+        put(RequestStatusEntry.collectingAttachments(traceId, parentTraceId, routeName, attachmentsMaxCount, attachmentsMinCount));
+    }
+
+    /**
+     * Writes a new entry unconditionally. Subclasses override this to defer the write; the
+     * read-modify-write operations below always go to the cache.
+     *
+     * @param entry the entry to store under its trace ID
+     * @throws IOException if the cache operation fails
+     */
+    void put(RequestStatusEntry entry) throws IOException {
+        cacheClient.put(entry.traceId(), entry, STRING_SERIALIZER, ENTRY_SERIALIZER);
     }
 
     /**
@@ -146,10 +259,137 @@ public class RequestStatusStore {
         cacheClient.put(traceId, withStatus(existing, newStatus), STRING_SERIALIZER, ENTRY_SERIALIZER);
     }
 
+    /**
+     * Moves an entry to {@code newStatus} only if it is currently in {@code expectedStatus}, e.g. to
+     * expire an attachment window without overwriting a concurrent transition to PROCESSED. Uses the
+     * same bounded compare-and-swap as {@link #updateStatus}; a cache client without the atomic
+     * primitives falls back to a last-writer-wins get-check-put.
+     *
+     * @param traceId        the trace identifier to update
+     * @param expectedStatus the status the entry must currently have
+     * @param newStatus      the new status to set
+     * @param errorDetail    the detail to store with the new status, or {@code null} to keep the existing one
+     * @return the updated entry, or empty if the entry is absent, in another status, or the retries were exhausted
+     * @throws IOException if the cache operation fails
+     */
+    public Optional<RequestStatusEntry> transitionStatus(String traceId, RequestStatus expectedStatus,
+            RequestStatus newStatus, @Nullable String errorDetail) throws IOException {
+        if (cacheClient instanceof AtomicDistributedMapCacheClient<?> atomicClient) {
+            return compareAndSwapTransition(atomicClient, traceId, expectedStatus, newStatus, errorDetail);
+        }
+        RequestStatusEntry existing = cacheClient.get(traceId, STRING_SERIALIZER, ENTRY_DESERIALIZER);
+        if (existing == null || existing.status() != expectedStatus) {
+            return Optional.empty();
+        }
+        RequestStatusEntry updated = withStatus(existing, newStatus, errorDetail);
+        cacheClient.put(traceId, updated, STRING_SERIALIZER, ENTRY_SERIALIZER);
+        return Optional.of(updated);
+    }
+
+    private <R> Optional<RequestStatusEntry> compareAndSwapTransition(AtomicDistributedMapCacheClient<R> atomicClient,
+            String traceId, RequestStatus expectedStatus, RequestStatus newStatus, @Nullable String errorDetail)
+            throws IOException {
+        for (int attempt = 1; attempt <= MAX_CAS_ATTEMPTS; attempt++) {
+            AtomicCacheEntry<String, RequestStatusEntry, R> current =
+                    atomicClient.fetch(traceId, STRING_SERIALIZER, ENTRY_DESERIALIZER);
+            if (current == null || current.getValue() == null || current.getValue().status() != expectedStatus) {
+                return Optional.empty();
+            }
+            RequestStatusEntry updated = withStatus(current.getValue(), newStatus, errorDetail);
+            if (atomicClient.replace(new AtomicCacheEntry<>(traceId, updated, current.getRevision().orElse(null)),
+                    STRING_SERIALIZER, ENTRY_SERIALIZER)) {
+                return Optional.of(updated);
+            }
+        }
+        LOGGER.warn(RestApiLogMessages.WARN.STATUS_UPDATE_CAS_EXHAUSTED, traceId);
+        return Optional.empty();
+    }
+
+    /**
+     * Applies a batch of status updates, one per trace ID.
+     * <p>
+     * With an atomic cache client the writes are <em>not</em> batched on the wire: the atomic API only
+     * fetches revisions per key, so every entry costs one {@code fetch} and one {@code replace}
+     * round trip, as with {@link #updateStatus}. What the batch adds is that the entries whose
+     * revision changed underneath are retried together in the next round, up to the same bound as
+     * {@link #updateStatus}. Without atomic primitives the entries are read with one
+     * {@link DistributedMapCacheClient#subMap} call and written last-writer-wins, one put per entry.
+     *
+     * @param updates the update per trace ID
+     * @return the outcome per trace ID, in the iteration order of {@code updates}
+     * @throws IOException if the cache operation fails
+     */
+    public Map<String, UpdateOutcome> updateStatuses(Map<String, StatusUpdate> updates) throws IOException {
+        Map<String, UpdateOutcome> outcomes = new LinkedHashMap<>();
+        if (updates.isEmpty()) {
+            return outcomes;
+        }
+        updates.keySet().forEach(traceId -> outcomes.put(traceId, UpdateOutcome.CONFLICT));
+        if (cacheClient instanceof AtomicDistributedMapCacheClient<?> atomicClient) {
+            compareAndSwapBatch(atomicClient, updates, outcomes);
+            return outcomes;
+        }
+        Map<String, RequestStatusEntry> existing = cacheClient.subMap(
+                new LinkedHashSet<>(updates.keySet()), STRING_SERIALIZER, ENTRY_DESERIALIZER);
+        for (Map.Entry<String, StatusUpdate> update : updates.entrySet()) {
+            RequestStatusEntry current = existing.get(update.getKey());
+            if (current == null) {
+                outcomes.put(update.getKey(), UpdateOutcome.NOT_FOUND);
+                continue;
+            }
+            cacheClient.put(update.getKey(), withUpdate(current, update.getValue()),
+                    STRING_SERIALIZER, ENTRY_SERIALIZER);
+            outcomes.put(update.getKey(), UpdateOutcome.UPDATED);
+        }
+        return outcomes;
+    }
+
+    private <R> void compareAndSwapBatch(AtomicDistributedMapCacheClient<R> atomicClient,
+            Map<String, StatusUpdate> updates, Map<String, UpdateOutcome> outcomes) throws IOException {
+        Set<String> pending = new LinkedHashSet<>(updates.keySet());
+        for (int attempt = 1; attempt <= MAX_CAS_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            Set<String> conflicted = new LinkedHashSet<>();
+            for (String traceId : pending) {
+                AtomicCacheEntry<String, RequestStatusEntry, R> current =
+                        atomicClient.fetch(traceId, STRING_SERIALIZER, ENTRY_DESERIALIZER);
+                if (current == null || current.getValue() == null) {
+                    outcomes.put(traceId, UpdateOutcome.NOT_FOUND);
+                    continue;
+                }
+                var updated = new AtomicCacheEntry<>(traceId,
+                        withUpdate(current.getValue(), updates.get(traceId)),
+                        current.getRevision().orElse(null));
+                if (atomicClient.replace(updated, STRING_SERIALIZER, ENTRY_SERIALIZER)) {
+                    outcomes.put(traceId, UpdateOutcome.UPDATED);
+                } else {
+                    conflicted.add(traceId);
+                }
+            }
+            pending = conflicted;
+        }
+        pending.forEach(traceId -> LOGGER.warn(RestApiLogMessages.WARN.STATUS_UPDATE_CAS_EXHAUSTED, traceId));
+    }
+
+    private static RequestStatusEntry withUpdate(RequestStatusEntry existing, StatusUpdate update) {
+        Map<String, String> fields = new LinkedHashMap<>(existing.additionalFields());
+        fields.putAll(update.additionalFields());
+        return new RequestStatusEntry(
+                existing.traceId(), update.status(), existing.acceptedAt(), Instant.now(),
+                existing.parentTraceId(),
+                update.errorDetail() != null ? update.errorDetail() : existing.errorDetail(),
+                existing.attachmentsMaxCount(), existing.attachmentsMinCount(), existing.routeName(),
+                fields);
+    }
+
     private static RequestStatusEntry withStatus(RequestStatusEntry existing, RequestStatus newStatus) {
+        return withStatus(existing, newStatus, null);
+    }
+
+    private static RequestStatusEntry withStatus(RequestStatusEntry existing, RequestStatus newStatus,
+            @Nullable String errorDetail) {
         return new RequestStatusEntry(
                 existing.traceId(), newStatus, existing.acceptedAt(), Instant.now(),
-                existing.parentTraceId(), existing.errorDetail(),
+                existing.parentTraceId(), errorDetail != null ? errorDetail : existing.errorDetail(),
                 existing.attachmentsMaxCount(), existing.attachmentsMinCount(), existing.routeName(),
                 existing.additionalFields());
     }
@@ -177,4 +417,251 @@ public class RequestStatusStore {
         RequestStatusEntry entry = cacheClient.get(traceId, STRING_SERIALIZER, ENTRY_DESERIALIZER);
         return Optional.ofNullable(entry);
     }
+
+    /**
+     * Atomically reserves attachment slots in the cluster-wide counter of a parent. The reservation
+     * is denied when fewer than {@code required} slots are left under {@code maxCount}; otherwise up
+     * to {@code desired} slots are granted (at least {@code required}, capped by the remaining
+     * capacity), which lets a node lease a batch of slots in one round trip.
+     * <p>
+     * Uses the same bounded compare-and-swap as {@link #updateStatus}; a cache client without the
+     * atomic primitives falls back to last-writer-wins, which is NOT cluster-safe.
+     *
+     * @param parentTraceId the parent trace ID
+     * @param required      slots that must be granted for the reservation to succeed
+     * @param desired       slots to grant if capacity allows (values below {@code required} are raised)
+     * @param maxCount      the parent's effective attachments-max-count
+     * @return the granted slots and resulting total
+     * @throws IOException if the cache operation fails or the compare-and-swap retries are exhausted
+     */
+    public SlotGrant reserveAttachmentSlots(String parentTraceId, int required, int desired, int maxCount)
+            throws IOException {
+        int wanted = Math.max(required, desired);
+        int previous = updateAttachmentCount(parentTraceId, current -> current + required > maxCount
+                ? current
+                : current + Math.min(wanted, maxCount - current));
+        if (previous + required > maxCount) {
+            return new SlotGrant(0, previous);
+        }
+        int granted = Math.min(wanted, maxCount - previous);
+        return new SlotGrant(granted, previous + granted);
+    }
+
+    /**
+     * Returns unused or rolled-back slots to the cluster-wide counter of a parent.
+     *
+     * @param parentTraceId the parent trace ID
+     * @param slots         the number of slots to return
+     * @throws IOException if the cache operation fails or the compare-and-swap retries are exhausted
+     */
+    public void releaseAttachmentSlots(String parentTraceId, int slots) throws IOException {
+        updateAttachmentCount(parentTraceId, current -> Math.max(0, current - slots));
+    }
+
+    /**
+     * Removes the cluster-wide attachment counter of a parent whose attachment window is closed.
+     *
+     * @param parentTraceId the parent trace ID
+     * @throws IOException if the cache operation fails
+     */
+    public void removeAttachmentCount(String parentTraceId) throws IOException {
+        cacheClient.remove(ATTACHMENT_COUNT_KEY_PREFIX + parentTraceId, STRING_SERIALIZER);
+    }
+
+    /**
+     * Applies {@code update} to the stored count (absent counts as 0) and returns the count it was
+     * applied to. An unchanged result is not written.
+     */
+    private int updateAttachmentCount(String parentTraceId, IntUnaryOperator update) throws IOException {
+        String key = ATTACHMENT_COUNT_KEY_PREFIX + parentTraceId;
+        if (cacheClient instanceof AtomicDistributedMapCacheClient<?> atomicClient) {
+            return compareAndSwapCount(atomicClient, key, update);
+        }
+        // Cache client does not support atomic compare-and-swap — documented last-writer-wins.
+        Integer stored = cacheClient.get(key, STRING_SERIALIZER, COUNT_DESERIALIZER);
+        int current = (stored != null) ? stored : 0;
+        int next = update.applyAsInt(current);
+        if (next != current) {
+            cacheClient.put(key, next, STRING_SERIALIZER, COUNT_SERIALIZER);
+        }
+        return current;
+    }
+
+    private <R> int compareAndSwapCount(AtomicDistributedMapCacheClient<R> atomicClient,
+            String key, IntUnaryOperator update) throws IOException {
+        for (int attempt = 1; attempt <= MAX_CAS_ATTEMPTS; attempt++) {
+            AtomicCacheEntry<String, Integer, R> current =
+                    atomicClient.fetch(key, STRING_SERIALIZER, COUNT_DESERIALIZER);
+            int count = (current != null && current.getValue() != null) ? current.getValue() : 0;
+            int next = update.applyAsInt(count);
+            if (next == count) {
+                return count;
+            }
+            // A null revision asks the cache to insert only if the key is still absent
+            R revision = (current != null) ? current.getRevision().orElse(null) : null;
+            if (atomicClient.replace(new AtomicCacheEntry<>(key, next, revision), STRING_SERIALIZER, COUNT_SERIALIZER)) {
+                return count;
+            }
+        }
+        // Unlike a status write, a count must never be blind-written: fail the request instead.
+        throw new IOException("Attachment counter '%s' is contended — compare-and-swap retries exhausted"
+                .formatted(key));
+    }
+
+    /**
+     * Stores the progress entry of a newly created resumable upload.
+     *
+     * @param entry the upload entry at offset 0
+     * @throws IOException if the cache operation fails
+     */
+    void createUpload(UploadEntry entry) throws IOException {
+        cacheClient.put(UPLOAD_KEY_PREFIX + entry.uploadId(), entry, STRING_SERIALIZER, UPLOAD_SERIALIZER);
+    }
+
+    /**
+     * Retrieves the progress entry of a resumable upload.
+     *
+     * @param uploadId the upload identifier
+     * @return the upload entry, or empty if unknown or already removed
+     * @throws IOException if the cache operation fails
+     */
+    Optional<UploadEntry> getUpload(String uploadId) throws IOException {
+        return Optional.ofNullable(cacheClient.get(UPLOAD_KEY_PREFIX + uploadId, STRING_SERIALIZER, UPLOAD_DESERIALIZER));
+    }
+
+    /**
+     * Replaces the progress entry of a resumable upload, provided the stored entry still has the
+     * expected offset and has not been completed. With an atomic cache client this is a single
+     * compare-and-swap: any concurrent write — by definition a competing chunk — makes it fail
+     * rather than retry. Without the atomic primitives the check is a last-writer-wins
+     * get-then-put.
+     *
+     * @param updated        the new entry
+     * @param expectedOffset the offset the stored entry must still have
+     * @return {@code true} if the entry was replaced, {@code false} if it is gone or was changed
+     * @throws IOException if the cache operation fails
+     */
+    boolean updateUpload(UploadEntry updated, long expectedOffset) throws IOException {
+        return replaceUpload(updated, current -> !current.completed() && current.offset() == expectedOffset);
+    }
+
+    /**
+     * Reverts the completion of an upload whose assembled object could not be queued, so a retried
+     * final PATCH completes it again. Like {@link #updateUpload}, this is a compare-and-swap with an
+     * atomic cache client.
+     *
+     * @param open the entry as it was before it was marked completed
+     * @return {@code true} if the entry was reverted, {@code false} if it is gone or was changed
+     * @throws IOException if the cache operation fails
+     */
+    boolean reopenUpload(UploadEntry open) throws IOException {
+        return replaceUpload(open, current -> current.completed() && current.offset() == open.offset());
+    }
+
+    private boolean replaceUpload(UploadEntry updated, Predicate<UploadEntry> expected) throws IOException {
+        String key = UPLOAD_KEY_PREFIX + updated.uploadId();
+        if (cacheClient instanceof AtomicDistributedMapCacheClient<?> atomicClient) {
+            return compareAndSwapUpload(atomicClient, key, updated, expected);
+        }
+        UploadEntry current = cacheClient.get(key, STRING_SERIALIZER, UPLOAD_DESERIALIZER);
+        if (current == null || !expected.test(current)) {
+            return false;
+        }
+        cacheClient.put(key, updated, STRING_SERIALIZER, UPLOAD_SERIALIZER);
+        return true;
+    }
+
+    private <R> boolean compareAndSwapUpload(AtomicDistributedMapCacheClient<R> atomicClient,
+            String key, UploadEntry updated, Predicate<UploadEntry> expected) throws IOException {
+        AtomicCacheEntry<String, UploadEntry, R> current =
+                atomicClient.fetch(key, STRING_SERIALIZER, UPLOAD_DESERIALIZER);
+        if (current == null || current.getValue() == null || !expected.test(current.getValue())) {
+            return false;
+        }
+        return atomicClient.replace(new AtomicCacheEntry<>(key, updated, current.getRevision().orElse(null)),
+                STRING_SERIALIZER, UPLOAD_SERIALIZER);
+    }
+
+    /**
+     * Removes the progress entry of a resumable upload.
+     *
+     * @param uploadId the upload identifier
+     * @throws IOException if the cache operation fails
+     */
+    public void removeUpload(String uploadId) throws IOException {
+        cacheClient.remove(UPLOAD_KEY_PREFIX + uploadId, STRING_SERIALIZER);
+    }
+
+    /**
+     * Claims an idempotency key with an in-flight entry, unless a live entry already holds it. An
+     * entry older than {@code ttl} counts as absent and is replaced.
+     * <p>
+     * With an atomic cache client the claim is a compare-and-swap, so exactly one of several
+     * concurrent claims wins. Without the atomic primitives a fresh key is claimed with
+     * {@code getAndPutIfAbsent}, but an expired entry is replaced last-writer-wins.
+     *
+     * @param key      the scoped idempotency key
+     * @param inFlight the entry to store when the key is claimed
+     * @param ttl      the time to live of an entry
+     * @return empty if the key was claimed, otherwise the live entry holding it
+     * @throws IOException if the cache operation fails or the compare-and-swap retries are exhausted
+     */
+    Optional<IdempotencyEntry> claimIdempotencyKey(String key, IdempotencyEntry inFlight, Duration ttl)
+            throws IOException {
+        String cacheKey = IDEMPOTENCY_KEY_PREFIX + key;
+        if (cacheClient instanceof AtomicDistributedMapCacheClient<?> atomicClient) {
+            return compareAndSwapIdempotencyKey(atomicClient, cacheKey, inFlight, ttl);
+        }
+        IdempotencyEntry existing = cacheClient.getAndPutIfAbsent(cacheKey, inFlight, STRING_SERIALIZER,
+                IDEMPOTENCY_SERIALIZER, IDEMPOTENCY_DESERIALIZER);
+        if (existing == null) {
+            return Optional.empty();
+        }
+        if (existing.isExpired(Instant.now(), ttl)) {
+            cacheClient.put(cacheKey, inFlight, STRING_SERIALIZER, IDEMPOTENCY_SERIALIZER);
+            return Optional.empty();
+        }
+        return Optional.of(existing);
+    }
+
+    private <R> Optional<IdempotencyEntry> compareAndSwapIdempotencyKey(AtomicDistributedMapCacheClient<R> atomicClient,
+            String cacheKey, IdempotencyEntry inFlight, Duration ttl) throws IOException {
+        for (int attempt = 1; attempt <= MAX_CAS_ATTEMPTS; attempt++) {
+            AtomicCacheEntry<String, IdempotencyEntry, R> current =
+                    atomicClient.fetch(cacheKey, STRING_SERIALIZER, IDEMPOTENCY_DESERIALIZER);
+            IdempotencyEntry existing = (current != null) ? current.getValue() : null;
+            if (existing != null && !existing.isExpired(Instant.now(), ttl)) {
+                return Optional.of(existing);
+            }
+            // A null revision asks the cache to insert only if the key is still absent
+            R revision = (current != null) ? current.getRevision().orElse(null) : null;
+            if (atomicClient.replace(new AtomicCacheEntry<>(cacheKey, inFlight, revision),
+                    STRING_SERIALIZER, IDEMPOTENCY_SERIALIZER)) {
+                return Optional.empty();
+            }
+        }
+        throw new IOException("Idempotency key '%s' is contended — compare-and-swap retries exhausted"
+                .formatted(cacheKey));
+    }
+
+    /**
+     * Stores the entry of a claimed idempotency key, typically its completed state.
+     *
+     * @param key   the scoped idempotency key
+     * @param entry the entry to store
+     * @throws IOException if the cache operation fails
+     */
+    void putIdempotencyEntry(String key, IdempotencyEntry entry) throws IOException {
+        cacheClient.put(IDEMPOTENCY_KEY_PREFIX + key, entry, STRING_SERIALIZER, IDEMPOTENCY_SERIALIZER);
+    }
+
+    /**
+     * Removes a claimed idempotency key so it can be claimed again.
+     *
+     * @param key the scoped idempotency key
+     * @throws IOException if the cache operation fails
+     */
+    void removeIdempotencyKey(String key) throws IOException {
+        cacheClient.remove(IDEMPOTENCY_KEY_PREFIX + key, STRING_SERIALIZER);
+    }
 }
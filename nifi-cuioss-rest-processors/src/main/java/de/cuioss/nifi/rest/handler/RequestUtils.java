@@ -18,6 +18,8 @@ package de.cuioss.nifi.rest.handler;
 
 import de.cuioss.http.forwarded.ResolvedForwarding;
 import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
 import jakarta.json.JsonObjectBuilder;
 import lombok.experimental.UtilityClass;
 import org.eclipse.jetty.http.HttpHeader;
@@ -103,6 +105,19 @@ class RequestUtils {
      * @return the absolute status URI
      */
     public static String buildStatusLocationUri(Request request, SanitizedRequest sanitized, String traceId) {
+        return buildLocationUri(request, sanitized, "/status/" + traceId);
+    }
+
+    /**
+     * Builds an absolute {@code Location} URI for a gateway path, resolving scheme / host / port and
+     * the context prefix exactly like {@link #buildStatusLocationUri}.
+     *
+     * @param request   the originating Jetty request (raw scheme/host/port fallback source)
+     * @param sanitized the sanitized request carrying the honored forwarding view
+     * @param path      the gateway path, starting with {@code /}
+     * @return the absolute URI
+     */
+    public static String buildLocationUri(Request request, SanitizedRequest sanitized, String path) {
         ResolvedForwarding forwarding = sanitized.forwarding();
         String scheme = forwarding.scheme().orElseGet(() -> request.getHttpURI().getScheme());
         String host = forwarding.host().orElseGet(() -> Request.getServerName(request));
@@ -111,9 +126,9 @@ class RequestUtils {
         boolean isDefaultPort = ("http".equals(scheme) && port == 80)
                 || ("https".equals(scheme) && port == 443);
         if (isDefaultPort) {
-            return "%s://%s%s/status/%s".formatted(scheme, host, proxyContextPath, traceId);
+            return "%s://%s%s%s".formatted(scheme, host, proxyContextPath, path);
         }
-        return "%s://%s:%d%s/status/%s".formatted(scheme, host, port, proxyContextPath, traceId);
+        return "%s://%s:%d%s%s".formatted(scheme, host, port, proxyContextPath, path);
     }
 
     /**
@@ -150,6 +165,7 @@ class RequestUtils {
                 .toString()
                 .getBytes(StandardCharsets.UTF_8);
 
+        request.setAttribute(AccessLog.TRACE_ID_ATTRIBUTE, traceId);
         response.setStatus(202);
         response.getHeaders().put(HttpHeader.LOCATION,
                 buildStatusLocationUri(request, sanitized, traceId));
@@ -157,4 +173,83 @@ class RequestUtils {
         response.getHeaders().put(HttpHeader.CONTENT_LENGTH, responseBody.length);
         response.write(true, ByteBuffer.wrap(responseBody), callback);
     }
+
+    /**
+     * Sends the 202 Accepted response of a multipart attachment upload: one entry per part with
+     * its trace ID and status link. The {@code Location} header points at the parent's status, as
+     * a single header cannot address the individual attachments.
+     *
+     * @param request       the originating Jetty request
+     * @param sanitized     the sanitized request carrying the honored forwarding view
+     * @param response      the response
+     * @param callback      the Jetty callback
+     * @param parentTraceId the parent trace ID the parts were attached to
+     * @param attachments   the accepted parts, each with a {@code traceId}, in upload order
+     */
+    public static void sendBatchAcceptedResponse(Request request, SanitizedRequest sanitized,
+            Response response, Callback callback, String parentTraceId, JsonArray attachments) {
+        String proxyContextPath = sanitized.proxyContextPath();
+        var withLinks = Json.createArrayBuilder();
+        attachments.getValuesAs(JsonObject.class).forEach(attachment -> withLinks.add(
+                Json.createObjectBuilder(attachment)
+                        .add("_links", Json.createObjectBuilder()
+                                .add("status", Json.createObjectBuilder()
+                                        .add("href", proxyContextPath + "/status/" + attachment.getString("traceId"))))));
+        byte[] responseBody = Json.createObjectBuilder()
+                .add("status", "accepted")
+                .add("parentTraceId", parentTraceId)
+                .add("attachments", withLinks)
+                .build()
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+
+        // The access log records the parent; the attachment trace IDs are in the response body
+        request.setAttribute(AccessLog.TRACE_ID_ATTRIBUTE, parentTraceId);
+        response.setStatus(202);
+        response.getHeaders().put(HttpHeader.LOCATION,
+                buildStatusLocationUri(request, sanitized, parentTraceId));
+        response.getHeaders().put(HttpHeader.CONTENT_TYPE, "application/json");
+        response.getHeaders().put(HttpHeader.CONTENT_LENGTH, responseBody.length);
+        response.write(true, ByteBuffer.wrap(responseBody), callback);
+    }
+
+    /**
+     * Sends the 207 Multi-Status response of a split route: one entry per body element with its
+     * {@code index} and {@code status}, plus the {@code traceId} and status link of accepted elements
+     * on tracked routes or the violations of rejected ones.
+     *
+     * @param sanitized the sanitized request carrying the honored forwarding view
+     * @param response  the response
+     * @param callback  the Jetty callback
+     * @param accepted  the number of accepted elements
+     * @param results   the per-element results in body order
+     */
+    public static void sendMultiStatusResponse(SanitizedRequest sanitized, Response response, Callback callback,
+            int accepted, JsonArray results) {
+        String proxyContextPath = sanitized.proxyContextPath();
+        var withLinks = Json.createArrayBuilder();
+        results.getValuesAs(JsonObject.class).forEach(result -> {
+            if (result.containsKey("traceId")) {
+                withLinks.add(Json.createObjectBuilder(result)
+                        .add("_links", Json.createObjectBuilder()
+                                .add("status", Json.createObjectBuilder()
+                                        .add("href", proxyContextPath + "/status/" + result.getString("traceId")))));
+            } else {
+                withLinks.add(result);
+            }
+        });
+        byte[] responseBody = Json.createObjectBuilder()
+                .add("status", "multi-status")
+                .add("accepted", accepted)
+                .add("rejected", results.size() - accepted)
+                .add("results", withLinks)
+                .build()
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+
+        response.setStatus(207);
+        response.getHeaders().put(HttpHeader.CONTENT_TYPE, "application/json");
+        response.getHeaders().put(HttpHeader.CONTENT_LENGTH, responseBody.length);
+        response.write(true, ByteBuffer.wrap(responseBody), callback);
+    }
 }
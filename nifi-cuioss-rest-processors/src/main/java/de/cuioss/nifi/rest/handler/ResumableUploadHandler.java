@@ -0,0 +1,635 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.http.security.config.SecurityConfiguration;
+import de.cuioss.http.security.core.HttpSecurityValidator;
+import de.cuioss.http.security.exceptions.UrlSecurityException;
+import de.cuioss.http.security.monitoring.SecurityEventCounter;
+import de.cuioss.http.security.pipeline.PipelineFactory;
+import de.cuioss.nifi.rest.RestApiAttributes;
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.nifi.rest.config.AuthMode;
+import de.cuioss.nifi.rest.config.RouteConfiguration;
+import de.cuioss.sheriff.token.validation.domain.token.AccessTokenContent;
+import de.cuioss.tools.logging.CuiLogger;
+import jakarta.json.JsonException;
+import lombok.Builder;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable upload endpoint of a route with {@code resumable-uploads=true}, following the tus 1.0
+ * core protocol and its creation and termination extensions:
+ * <ul>
+ *   <li>{@code POST <path>/uploads} with {@code Upload-Length} (and optional {@code Upload-Metadata})
+ *       creates an upload and answers {@code 201} with its {@code Location}</li>
+ *   <li>{@code HEAD <path>/uploads/{uploadId}} reports the acknowledged {@code Upload-Offset}</li>
+ *   <li>{@code PATCH <path>/uploads/{uploadId}} appends an
+ *       {@code application/offset+octet-stream} chunk at the current {@code Upload-Offset}</li>
+ *   <li>{@code DELETE <path>/uploads/{uploadId}} terminates the upload</li>
+ * </ul>
+ * Chunks are staged in the {@link UploadSpool} and the acknowledged offset is kept in the
+ * {@link RequestStatusStore}, so an interrupted client resumes from the last acknowledged byte
+ * instead of re-sending the object. Each chunk is bounded by the route's request size limit; the
+ * assembled object is never held in memory. When the last byte arrives, the spool file is queued
+ * as a single FlowFile on the route's relationship.
+ * <p>
+ * The spool is node-local: in a cluster, all requests of one upload must reach the node that
+ * created it (sticky sessions). JSON Schema validation and request tracking do not apply to
+ * resumable uploads.
+ */
+public final class ResumableUploadHandler implements EndpointHandler {
+
+    private static final CuiLogger LOGGER = new CuiLogger(ResumableUploadHandler.class);
+
+    static final String TUS_VERSION = "1.0.0";
+    static final String HEADER_TUS_RESUMABLE = "Tus-Resumable";
+    static final String HEADER_UPLOAD_LENGTH = "Upload-Length";
+    static final String HEADER_UPLOAD_OFFSET = "Upload-Offset";
+    static final String HEADER_UPLOAD_METADATA = "Upload-Metadata";
+    static final String OFFSET_CONTENT_TYPE = "application/offset+octet-stream";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String METADATA_FILENAME = "filename";
+    private static final String METADATA_FILETYPE = "filetype";
+    /** Metadata keys become FlowFile attribute names, so they are restricted to a safe alphabet. */
+    private static final Pattern METADATA_KEY = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    static final int MAX_METADATA_KEYS = 32;
+    static final int MAX_METADATA_VALUE_LENGTH = 1024;
+
+    private final RouteConfiguration route;
+    private final String uploadsPath;
+    private final RequestStatusStore statusStore;
+    private final UploadSpool spool;
+    private final BlockingQueue<HttpRequestContainer> queue;
+    private final int globalMaxRequestSize;
+    private final long maxUploadSize;
+    private final GatewaySecurityEvents gatewaySecurityEvents;
+    private final HttpSecurityValidator metadataValidator;
+
+    /**
+     * Configuration holder for ResumableUploadHandler construction parameters.
+     *
+     * @param route                the route exposing the upload endpoint
+     * @param statusStore          the store keeping the upload offsets
+     * @param spool                the on-disk staging area
+     * @param queue                the processor's request queue
+     * @param globalMaxRequestSize the global body size limit, bounding a chunk when the route has none
+     * @param maxUploadSize        the largest accepted {@code Upload-Length} in bytes
+     * @param gatewaySecurityEvents the shared gateway event counter
+     * @param httpSecurityEvents   the shared HTTP security event counter, or {@code null} for a private one
+     */
+    @Builder
+    public record Config(
+    RouteConfiguration route,
+    RequestStatusStore statusStore,
+    UploadSpool spool,
+    BlockingQueue<HttpRequestContainer> queue,
+    int globalMaxRequestSize,
+    long maxUploadSize,
+    GatewaySecurityEvents gatewaySecurityEvents,
+    @Nullable SecurityEventCounter httpSecurityEvents) {
+    }
+
+    public ResumableUploadHandler(Config config) {
+        this.route = config.route();
+        this.uploadsPath = config.route().uploadsPath();
+        this.statusStore = config.statusStore();
+        this.spool = config.spool();
+        this.queue = config.queue();
+        this.globalMaxRequestSize = config.globalMaxRequestSize();
+        this.maxUploadSize = config.maxUploadSize();
+        this.gatewaySecurityEvents = config.gatewaySecurityEvents();
+        // Decoded metadata values become FlowFile attributes, so they pass the same strict header
+        // pipeline the gateway applies to retained headers
+        this.metadataValidator = PipelineFactory.createCommonPipelines(SecurityConfiguration.strict(),
+                config.httpSecurityEvents() != null ? config.httpSecurityEvents() : new SecurityEventCounter())
+                .headerValuePipeline();
+    }
+
+    @Override
+    public String name() {
+        return route.name() + "-uploads";
+    }
+
+    @Override
+    public String path() {
+        return uploadsPath;
+    }
+
+    @Override
+    public boolean prefixMatch() {
+        return true;
+    }
+
+    @Override
+    public Set<String> methods() {
+        return Set.of("POST", "HEAD", "PATCH", "DELETE");
+    }
+
+    @Override
+    public Set<AuthMode> authModes() {
+        return route.authModes();
+    }
+
+    @Override
+    public boolean enabled() {
+        return route.enabled();
+    }
+
+    @Override
+    public boolean builtIn() {
+        return false;
+    }
+
+    @Override
+    public Set<String> requiredRoles() {
+        return route.requiredRoles();
+    }
+
+    @Override
+    public Set<String> requiredScopes() {
+        return route.requiredScopes();
+    }
+
+    @Override
+    public int maxRequestSize() {
+        return route.maxRequestSize() > 0 ? route.maxRequestSize() : globalMaxRequestSize;
+    }
+
+    @Override
+    public boolean retainsHeader(String name) {
+        return route.headerProjection().includes(name);
+    }
+
+    @Override
+    public boolean retainsQueryParameter(String name) {
+        return route.queryProjection().includes(name);
+    }
+
+    @Override
+    public void process(SanitizedRequest sanitized,
+            @Nullable AccessTokenContent token,
+            byte[] body,
+            Request request, Response response, Callback callback) throws IOException {
+        response.getHeaders().put(HEADER_TUS_RESUMABLE, TUS_VERSION);
+        String method = request.getMethod().toUpperCase(Locale.ROOT);
+        if (uploadsPath.equals(sanitized.path())) {
+            if ("POST".equals(method)) {
+                create(sanitized, body, request, response, callback);
+            } else {
+                rejectMethod(method, sanitized.path(), "POST", response, callback);
+            }
+            return;
+        }
+
+        Optional<String> uploadId = RequestUtils.extractUuidPathParameter(
+                sanitized.path(), uploadsPath + "/", "uploadId", response, callback);
+        if (uploadId.isEmpty()) {
+            return;
+        }
+        switch (method) {
+            case "HEAD" -> head(uploadId.get(), response, callback);
+            case "PATCH" -> patch(uploadId.get(), sanitized, token, body, request, response, callback);
+            case "DELETE" -> terminate(uploadId.get(), response, callback);
+            default -> rejectMethod(method, sanitized.path(), "HEAD, PATCH, DELETE", response, callback);
+        }
+    }
+
+    private void create(SanitizedRequest sanitized, byte[] body, Request request,
+            Response response, Callback callback) {
+        if (body.length > 0) {
+            ProblemDetail.badRequest("Upload data must be sent with PATCH after the upload is created")
+                    .sendResponse(response, callback);
+            return;
+        }
+        long length;
+        Map<String, String> metadata;
+        try {
+            length = parseLength(request.getHeaders().get(HEADER_UPLOAD_LENGTH), HEADER_UPLOAD_LENGTH);
+            metadata = parseMetadata(request.getHeaders().get(HEADER_UPLOAD_METADATA), metadataValidator);
+        } catch (IllegalArgumentException e) {
+            ProblemDetail.badRequest(e.getMessage()).sendResponse(response, callback);
+            return;
+        } catch (UrlSecurityException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.SECURITY_VIOLATION, "POST", sanitized.path(),
+                    sanitized.forwarding().clientIp().orElse(Request.getRemoteAddr(request)), e.getMessage());
+            ProblemDetail.badRequest("Request rejected: " + e.getFailureType().getDescription())
+                    .sendResponse(response, callback);
+            return;
+        }
+        if (length > maxUploadSize) {
+            gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.BODY_TOO_LARGE);
+            ProblemDetail.payloadTooLarge("Upload-Length %d exceeds maximum %d bytes".formatted(length, maxUploadSize))
+                    .sendResponse(response, callback);
+            return;
+        }
+
+        spool.sweepIfDue(statusStore);
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            spool.create(uploadId);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.UPLOAD_SPOOL_ERROR, uploadId, e.getMessage());
+            ProblemDetail.serviceUnavailable("Upload spool temporarily unavailable").sendResponse(response, callback);
+            return;
+        }
+        try {
+            statusStore.createUpload(UploadEntry.created(uploadId, route.name(), length, metadata));
+        } catch (IOException e) {
+            discardQuietly(uploadId);
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            ProblemDetail.serviceUnavailable("Status store temporarily unavailable").sendResponse(response, callback);
+            return;
+        }
+        LOGGER.debug("Resumable upload %s created on route '%s' (%s bytes)", uploadId, route.name(), length);
+
+        response.getHeaders().put(HttpHeader.LOCATION,
+                RequestUtils.buildLocationUri(request, sanitized, uploadsPath + "/" + uploadId));
+        response.getHeaders().put(HEADER_UPLOAD_OFFSET, "0");
+        sendEmpty(201, response, callback);
+    }
+
+    private void head(String uploadId, Response response, Callback callback) {
+        Optional<UploadEntry> entry = lookup(uploadId, response, callback);
+        if (entry.isEmpty()) {
+            return;
+        }
+        response.getHeaders().put(HEADER_UPLOAD_OFFSET, String.valueOf(entry.get().offset()));
+        response.getHeaders().put(HEADER_UPLOAD_LENGTH, String.valueOf(entry.get().length()));
+        response.getHeaders().put(HttpHeader.CACHE_CONTROL, "no-store");
+        sendEmpty(200, response, callback);
+    }
+
+    private void patch(String uploadId, SanitizedRequest sanitized, @Nullable AccessTokenContent token,
+            byte[] chunk, Request request, Response response, Callback callback) {
+        if (!isOffsetContentType(request.getHeaders().get(HttpHeader.CONTENT_TYPE))) {
+            ProblemDetail.unsupportedMediaType("Upload chunks must be sent as " + OFFSET_CONTENT_TYPE)
+                    .sendResponse(response, callback);
+            return;
+        }
+        long offset;
+        try {
+            offset = parseLength(request.getHeaders().get(HEADER_UPLOAD_OFFSET), HEADER_UPLOAD_OFFSET);
+        } catch (IllegalArgumentException e) {
+            ProblemDetail.badRequest(e.getMessage()).sendResponse(response, callback);
+            return;
+        }
+        if (!spool.tryLock(uploadId)) {
+            ProblemDetail.conflict("Upload is being written by a concurrent request").sendResponse(response, callback);
+            return;
+        }
+        try {
+            Optional<UploadEntry> entry = lookup(uploadId, response, callback);
+            if (entry.isPresent()) {
+                appendChunk(entry.get(), offset, sanitized, token, chunk, request, response, callback);
+            }
+        } finally {
+            spool.unlock(uploadId);
+        }
+    }
+
+    @SuppressWarnings("java:S107") // request context + upload state; a holder type would only move the parameters
+    private void appendChunk(UploadEntry entry, long offset, SanitizedRequest sanitized,
+            @Nullable AccessTokenContent token, byte[] chunk, Request request,
+            Response response, Callback callback) {
+        String uploadId = entry.uploadId();
+        if (entry.completed()) {
+            // An empty retry of the final request is answered idempotently
+            if (chunk.length == 0 && offset == entry.length()) {
+                sendOffset(entry.length(), response, callback);
+            } else {
+                ProblemDetail.conflict("Upload is already completed").sendResponse(response, callback);
+            }
+            return;
+        }
+        if (offset != entry.offset()) {
+            LOGGER.warn(RestApiLogMessages.WARN.UPLOAD_OFFSET_MISMATCH, uploadId, offset, entry.offset());
+            response.getHeaders().put(HEADER_UPLOAD_OFFSET, String.valueOf(entry.offset()));
+            ProblemDetail.conflict("Upload-Offset %d does not match the current offset %d"
+                    .formatted(offset, entry.offset())).sendResponse(response, callback);
+            return;
+        }
+        if (chunk.length > entry.length() - offset) {
+            gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.BODY_TOO_LARGE);
+            ProblemDetail.payloadTooLarge("Chunk of %d bytes exceeds the remaining %d bytes of the upload"
+                    .formatted(chunk.length, entry.length() - offset)).sendResponse(response, callback);
+            return;
+        }
+        if (!spool.exists(uploadId)) {
+            LOGGER.warn(RestApiLogMessages.WARN.UPLOAD_SPOOL_ERROR, uploadId, "data file not present on this node");
+            ProblemDetail.notFound("Upload data for uploadId %s is not available on this node".formatted(uploadId))
+                    .sendResponse(response, callback);
+            return;
+        }
+
+        UploadEntry advanced = entry;
+        if (chunk.length > 0) {
+            Optional<UploadEntry> written = writeChunk(entry, offset, chunk, response, callback);
+            if (written.isEmpty()) {
+                return;
+            }
+            advanced = written.get();
+        }
+        if (advanced.isFullyReceived() && !complete(advanced, sanitized, token, request, response, callback)) {
+            return;
+        }
+        sendOffset(advanced.offset(), response, callback);
+    }
+
+    private Optional<UploadEntry> writeChunk(UploadEntry entry, long offset, byte[] chunk,
+            Response response, Callback callback) {
+        UploadEntry advanced = entry.withOffset(offset + chunk.length);
+        try {
+            spool.write(entry.uploadId(), offset, chunk);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.UPLOAD_SPOOL_ERROR, entry.uploadId(), e.getMessage());
+            ProblemDetail.serviceUnavailable("Upload spool temporarily unavailable").sendResponse(response, callback);
+            return Optional.empty();
+        }
+        try {
+            if (!statusStore.updateUpload(advanced, offset)) {
+                // The spooled bytes past the stored offset are truncated by the next accepted chunk
+                ProblemDetail.conflict("Upload was modified by a concurrent request").sendResponse(response, callback);
+                return Optional.empty();
+            }
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            ProblemDetail.serviceUnavailable("Status store temporarily unavailable").sendResponse(response, callback);
+            return Optional.empty();
+        }
+        return Optional.of(advanced);
+    }
+
+    /**
+     * Marks the upload completed and queues the assembled object as one container. The completion
+     * is a compare-and-swap on the progress entry, so of two concurrent final PATCHes only one
+     * queues the object; the other is answered with the current offset. On a full queue the
+     * completion is reverted and the received bytes stay spooled and acknowledged, so the client
+     * completes the upload by repeating an empty PATCH at the final offset.
+     */
+    private boolean complete(UploadEntry entry, SanitizedRequest sanitized, @Nullable AccessTokenContent token,
+            Request request, Response response, Callback callback) {
+        String uploadId = entry.uploadId();
+        try {
+            if (!statusStore.updateUpload(entry.asCompleted(), entry.offset())) {
+                // A concurrent final PATCH completed the upload first and queued it
+                lookup(uploadId, response, callback).ifPresent(current -> sendOffset(current.offset(), response,
+                        callback));
+                return false;
+            }
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            ProblemDetail.serviceUnavailable("Status store temporarily unavailable").sendResponse(response, callback);
+            return false;
+        }
+
+        String remoteHost = sanitized.forwarding().clientIp().orElse(Request.getRemoteAddr(request));
+        Map<String, String> attributes = new HashMap<>();
+        entry.metadata().forEach((key, value) -> attributes.put(RestApiAttributes.UPLOAD_METADATA_PREFIX + key, value));
+        attributes.put(RestApiAttributes.UPLOAD_ID, uploadId);
+        attributes.put(RestApiAttributes.UPLOAD_LENGTH, String.valueOf(entry.length()));
+        String filename = MultipartFormParser.stripDirectories(entry.metadata().get(METADATA_FILENAME));
+        if (filename != null) {
+            attributes.put(RestApiAttributes.FILENAME, filename);
+        }
+        String contentType = entry.metadata().getOrDefault(METADATA_FILETYPE, DEFAULT_CONTENT_TYPE);
+        var container = new HttpRequestContainer(
+                route.name(), "PATCH", sanitized.path(),
+                sanitized.queryParameters(), sanitized.headers(),
+                remoteHost,
+                new byte[0],
+                contentType.isBlank() ? DEFAULT_CONTENT_TYPE : contentType,
+                token,
+                null,
+                null,
+                Map.of(),
+                attributes,
+                spool.dataFile(uploadId));
+
+        // The marker goes first: it keeps the sweep away from a data file that awaits its import
+        try {
+            spool.markCompleted(uploadId);
+        } catch (IOException e) {
+            reopen(entry);
+            LOGGER.warn(RestApiLogMessages.WARN.UPLOAD_SPOOL_ERROR, uploadId, e.getMessage());
+            ProblemDetail.serviceUnavailable("Upload spool temporarily unavailable").sendResponse(response, callback);
+            return false;
+        }
+        if (!queue.offer(container)) {
+            reopen(entry);
+            discardMarkerQuietly(uploadId);
+            gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.QUEUE_FULL);
+            LOGGER.warn(RestApiLogMessages.WARN.QUEUE_FULL, "PATCH", sanitized.path(), remoteHost);
+            ProblemDetail.serviceUnavailable("Server is at capacity, please retry later")
+                    .sendResponse(response, callback);
+            return false;
+        }
+        LOGGER.debug("Resumable upload %s on route '%s' completed (%s bytes)", uploadId, route.name(),
+                entry.length());
+        return true;
+    }
+
+    /**
+     * Reverts the completion of an upload that could not be queued. If the revert fails, a retried
+     * final PATCH is answered as already completed although nothing was queued, so it is logged.
+     */
+    private void reopen(UploadEntry entry) {
+        try {
+            if (!statusStore.reopenUpload(entry)) {
+                LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR,
+                        "completion of upload %s could not be reverted".formatted(entry.uploadId()));
+            }
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+        }
+    }
+
+    private void terminate(String uploadId, Response response, Callback callback) {
+        if (!spool.tryLock(uploadId)) {
+            ProblemDetail.conflict("Upload is being written by a concurrent request").sendResponse(response, callback);
+            return;
+        }
+        try {
+            Optional<UploadEntry> entry = lookup(uploadId, response, callback);
+            if (entry.isEmpty()) {
+                return;
+            }
+            try {
+                statusStore.removeUpload(uploadId);
+            } catch (IOException e) {
+                LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+                ProblemDetail.serviceUnavailable("Status store temporarily unavailable")
+                        .sendResponse(response, callback);
+                return;
+            }
+            // A completed upload's data file belongs to its queued FlowFile, and its marker keeps the
+            // sweep away until the import — both are left to the sweep
+            if (!entry.get().completed()) {
+                discardQuietly(uploadId);
+            }
+            sendEmpty(204, response, callback);
+        } finally {
+            spool.unlock(uploadId);
+        }
+    }
+
+    private Optional<UploadEntry> lookup(String uploadId, Response response, Callback callback) {
+        Optional<UploadEntry> entry;
+        try {
+            entry = statusStore.getUpload(uploadId);
+        } catch (IOException | JsonException | IllegalArgumentException | ArithmeticException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            ProblemDetail.serviceUnavailable("Status store temporarily unavailable").sendResponse(response, callback);
+            return Optional.empty();
+        }
+        // An upload is only addressable through the route that created it
+        if (entry.isEmpty() || !route.name().equals(entry.get().routeName())) {
+            ProblemDetail.notFound("No upload found for uploadId: " + uploadId).sendResponse(response, callback);
+            return Optional.empty();
+        }
+        return entry;
+    }
+
+    private void rejectMethod(String method, String path, String allowed, Response response, Callback callback) {
+        gatewaySecurityEvents.increment(GatewaySecurityEvents.EventType.METHOD_NOT_ALLOWED);
+        LOGGER.warn(RestApiLogMessages.WARN.METHOD_NOT_ALLOWED, method, name(), path);
+        response.getHeaders().put(HttpHeader.ALLOW, allowed);
+        ProblemDetail.methodNotAllowed("Method %s not allowed on %s. Allowed: %s".formatted(method, path, allowed))
+                .sendResponse(response, callback);
+    }
+
+    private void discardQuietly(String uploadId) {
+        try {
+            spool.discard(uploadId);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.UPLOAD_SPOOL_ERROR, uploadId, e.getMessage());
+        }
+    }
+
+    private void discardMarkerQuietly(String uploadId) {
+        try {
+            spool.discardMarker(uploadId);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.UPLOAD_SPOOL_ERROR, uploadId, e.getMessage());
+        }
+    }
+
+    private static void sendOffset(long offset, Response response, Callback callback) {
+        response.getHeaders().put(HEADER_UPLOAD_OFFSET, String.valueOf(offset));
+        sendEmpty(204, response, callback);
+    }
+
+    private static void sendEmpty(int status, Response response, Callback callback) {
+        response.setStatus(status);
+        response.write(true, ByteBuffer.allocate(0), callback);
+    }
+
+    private static boolean isOffsetContentType(@Nullable String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int parameters = contentType.indexOf(';');
+        String mediaType = (parameters < 0) ? contentType : contentType.substring(0, parameters);
+        return OFFSET_CONTENT_TYPE.equalsIgnoreCase(mediaType.strip());
+    }
+
+    /**
+     * Parses a non-negative decimal header value.
+     *
+     * @throws IllegalArgumentException with a client-safe message if absent or malformed
+     */
+    static long parseLength(@Nullable String value, String headerName) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing " + headerName + " header");
+        }
+        try {
+            long parsed = Long.parseLong(value.strip());
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(headerName + " must be a non-negative integer");
+    }
+
+    /**
+     * Parses the tus {@code Upload-Metadata} header: comma-separated {@code key base64value} pairs,
+     * where the value may be omitted. At most {@value #MAX_METADATA_KEYS} keys are accepted, and
+     * each decoded value is limited to {@value #MAX_METADATA_VALUE_LENGTH} characters and checked
+     * by the given header value validator.
+     *
+     * @throws IllegalArgumentException with a client-safe message if the header is malformed
+     * @throws UrlSecurityException     if a decoded value violates the header security rules
+     */
+    static Map<String, String> parseMetadata(@Nullable String header, HttpSecurityValidator valueValidator) {
+        if (header == null || header.isBlank()) {
+            return Map.of();
+        }
+        Map<String, String> metadata = new LinkedHashMap<>();
+        String[] pairs = header.split(",");
+        if (pairs.length > MAX_METADATA_KEYS) {
+            throw new IllegalArgumentException(
+                    "Upload-Metadata has %d keys, at most %d are allowed".formatted(pairs.length, MAX_METADATA_KEYS));
+        }
+        for (String pair : pairs) {
+            String trimmed = pair.strip();
+            int space = trimmed.indexOf(' ');
+            String key = (space < 0) ? trimmed : trimmed.substring(0, space);
+            if (!METADATA_KEY.matcher(key).matches()) {
+                throw new IllegalArgumentException("Invalid Upload-Metadata key: '%s'".formatted(key));
+            }
+            String value = "";
+            if (space >= 0) {
+                try {
+                    value = new String(Base64.getDecoder().decode(trimmed.substring(space + 1).strip()),
+                            StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(
+                            "Upload-Metadata value of '%s' is not valid Base64".formatted(key), e);
+                }
+                if (value.length() > MAX_METADATA_VALUE_LENGTH) {
+                    throw new IllegalArgumentException("Upload-Metadata value of '%s' exceeds %d characters"
+                            .formatted(key, MAX_METADATA_VALUE_LENGTH));
+                }
+                value = valueValidator.validate(value).orElse(value);
+            }
+            if (metadata.putIfAbsent(key, value) != null) {
+                throw new IllegalArgumentException("Duplicate Upload-Metadata key: '%s'".formatted(key));
+            }
+        }
+        return metadata;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.http.security.core.HttpSecurityValidator;
+import de.cuioss.http.security.exceptions.UrlSecurityException;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded memo of header and query values that passed a security pipeline unchanged.
+ * <p>
+ * Most header values (User-Agent, Accept, tenant and proxy headers) repeat verbatim across
+ * requests, so the strict pipelines would otherwise re-validate the same strings over and over.
+ * Entries are keyed by pipeline and raw value. Only clean pass-throughs are remembered: a
+ * rejected value throws and is never stored, and a value the pipeline rewrote is validated again
+ * every time, so every violation and normalization is still seen — and counted — by the pipeline.
+ * Values longer than the configured maximum bypass the memo.
+ * <p>
+ * The bound is kept with two generations: new entries go to the young set, and once it holds half
+ * the capacity it becomes the old set and the previous old set is dropped. A hit in the old set
+ * promotes the entry, so values in steady use survive rotations while one-off values age out,
+ * without per-entry bookkeeping on the lookup path.
+ */
+public final class SanitizationCache {
+
+    /** Longest value that is memoized; longer values are rare and would dominate the memory bound. */
+    public static final int DEFAULT_MAX_VALUE_LENGTH = 512;
+
+    /**
+     * Snapshot of the memo counters.
+     *
+     * @param hits        lookups answered from the memo
+     * @param misses      lookups that ran the pipeline
+     * @param uncacheable lookups of {@code null} or over-long values that bypassed the memo
+     * @param entries     values currently remembered
+     */
+    public record Stats(long hits, long misses, long uncacheable, int entries) {
+
+        /**
+         * @return hits divided by memo lookups, {@code 0} before the first lookup
+         */
+        public double hitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    private record Key(HttpSecurityValidator pipeline, String raw) {
+    }
+
+    private final int generationCapacity;
+    private final int maxValueLength;
+    private final ReentrantLock rotationLock = new ReentrantLock();
+    // S3077: volatile only publishes the generation swap; the sets themselves are concurrent.
+    @SuppressWarnings("java:S3077")
+    private volatile Set<Key> young = ConcurrentHashMap.newKeySet();
+    // S3077: see young.
+    @SuppressWarnings("java:S3077")
+    private volatile Set<Key> old = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder uncacheable = new LongAdder();
+
+    /**
+     * @param maxEntries upper bound of remembered values (at least 2)
+     */
+    public SanitizationCache(int maxEntries) {
+        this(maxEntries, DEFAULT_MAX_VALUE_LENGTH);
+    }
+
+    /**
+     * @param maxEntries     upper bound of remembered values (at least 2)
+     * @param maxValueLength longest value that is memoized (positive)
+     */
+    public SanitizationCache(int maxEntries, int maxValueLength) {
+        if (maxEntries < 2) {
+            throw new IllegalArgumentException("maxEntries must be at least 2: " + maxEntries);
+        }
+        if (maxValueLength <= 0) {
+            throw new IllegalArgumentException("maxValueLength must be positive: " + maxValueLength);
+        }
+        this.generationCapacity = maxEntries / 2;
+        this.maxValueLength = maxValueLength;
+    }
+
+    /**
+     * Runs the value through the pipeline unless it is known to pass unchanged.
+     *
+     * @param pipeline the security pipeline the value belongs to
+     * @param raw      the raw header or query value
+     * @return the sanitized value, or the raw value if the pipeline yields none
+     * @throws UrlSecurityException if the pipeline rejects the value
+     */
+    public @Nullable String sanitize(HttpSecurityValidator pipeline, @Nullable String raw) {
+        if (raw == null || raw.length() > maxValueLength) {
+            uncacheable.increment();
+            return pipeline.validate(raw).orElse(raw);
+        }
+        Key key = new Key(pipeline, raw);
+        if (young.contains(key)) {
+            hits.increment();
+            return raw;
+        }
+        if (old.contains(key)) {
+            hits.increment();
+            remember(key);
+            return raw;
+        }
+        misses.increment();
+        String sanitized = pipeline.validate(raw).orElse(raw);
+        if (raw.equals(sanitized)) {
+            remember(key);
+        }
+        return sanitized;
+    }
+
+    /**
+     * @return the current counters
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), uncacheable.sum(), young.size() + old.size());
+    }
+
+    private void remember(Key key) {
+        Set<Key> current = young;
+        current.add(key);
+        if (current.size() >= generationCapacity && rotationLock.tryLock()) {
+            try {
+                // Re-checked under the lock: a concurrent rotation may already have replaced the set
+                if (young == current) {
+                    old = current;
+                    young = ConcurrentHashMap.newKeySet();
+                }
+            } finally {
+                rotationLock.unlock();
+            }
+        }
+    }
+}
@@ -31,7 +31,10 @@ import java.util.Map;
  * {@code pathParameters} carries the values extracted from a matched
  * {@code {placeholder}} route. It is empty for exact/prefix-matched routes and
  * is attached after route resolution via {@link #withPathParameters(Map)}, since
- * the sanitized request is built before the handler is resolved.
+ * the sanitized request is built before the handler is resolved. For the same reason
+ * {@code queryParameters} and {@code headers} are attached via
+ * {@link #withQueryParametersAndHeaders(Map, HeaderMap)}: they only contain the names the matched
+ * handler retains, so values a route's projection drops are never sanitized at all.
  *
  * <p>{@code forwarding} is the honored reverse-proxy / forwarded view — resolved once,
  * at sanitization time, by the {@code ForwardedRequestResolver} against the operator's
@@ -43,8 +46,9 @@ import java.util.Map;
  * URL, and the honored client IP for audit / rate-limit logging.
  *
  * @param path            the normalized URL path
- * @param queryParameters the normalized query parameter values (keys preserved, values sanitized)
- * @param headers         the normalized header values (Authorization excluded, values sanitized)
+ * @param queryParameters the retained, normalized query parameter values (keys preserved, values sanitized)
+ * @param headers         the retained, normalized header values (Authorization excluded, values sanitized),
+ *                        looked up case-insensitively
  * @param forwarding      the honored reverse-proxy / forwarded view (never {@code null};
  *                        {@link ResolvedForwarding#empty()} when nothing is honored)
  * @param pathParameters  the path parameters extracted from a pattern-matched route (empty otherwise)
@@ -52,11 +56,12 @@ import java.util.Map;
 record SanitizedRequest(
 String path,
 Map<String, String> queryParameters,
-Map<String, String> headers,
+HeaderMap headers,
 ResolvedForwarding forwarding,
 Map<String, String> pathParameters) {
 
     SanitizedRequest {
+        headers = headers == null ? HeaderMap.empty() : headers;
         forwarding = forwarding == null ? ResolvedForwarding.empty() : forwarding;
         pathParameters = pathParameters == null ? Map.of() : Map.copyOf(pathParameters);
     }
@@ -94,4 +99,17 @@ Map<String, String> pathParameters) {
     SanitizedRequest withPathParameters(Map<String, String> extractedPathParameters) {
         return new SanitizedRequest(path, queryParameters, headers, forwarding, extractedPathParameters);
     }
+
+    /**
+     * Returns a copy of this request carrying the sanitized query parameters and headers the
+     * matched handler retains.
+     *
+     * @param retainedQueryParameters the sanitized query parameters
+     * @param retainedHeaders         the sanitized headers
+     * @return a new immutable {@code SanitizedRequest} carrying the given values
+     */
+    SanitizedRequest withQueryParametersAndHeaders(Map<String, String> retainedQueryParameters,
+            HeaderMap retainedHeaders) {
+        return new SanitizedRequest(path, retainedQueryParameters, retainedHeaders, forwarding, pathParameters);
+    }
 }
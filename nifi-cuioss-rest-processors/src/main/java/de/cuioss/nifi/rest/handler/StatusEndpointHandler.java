@@ -117,7 +117,7 @@ public final class StatusEndpointHandler extends AbstractManagementHandler {
 
         // Build JSON response
         RequestStatusEntry statusEntry = entry.get();
-        LOGGER.info(RestApiLogMessages.INFO.STATUS_QUERIED, traceId, statusEntry.status());
+        LOGGER.debug("Status queried for traceId=%s, status=%s", traceId, statusEntry.status());
 
         JsonObjectBuilder jsonBuilder = Json.createObjectBuilder()
                 .add(FIELD_TRACE_ID, statusEntry.traceId())
@@ -131,7 +131,8 @@ public final class StatusEndpointHandler extends AbstractManagementHandler {
 
         if (statusEntry.errorDetail() != null
                 && (statusEntry.status() == RequestStatus.REJECTED
-                || statusEntry.status() == RequestStatus.ERROR)) {
+                || statusEntry.status() == RequestStatus.ERROR
+                || statusEntry.status() == RequestStatus.EXPIRED)) {
             jsonBuilder.add("error", Json.createObjectBuilder()
                     .add("detail", statusEntry.errorDetail()));
         }
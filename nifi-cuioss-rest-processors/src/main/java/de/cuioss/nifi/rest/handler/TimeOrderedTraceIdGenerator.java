@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import lombok.NonNull;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link TraceIdGenerator} for time-ordered version 7 UUIDs (RFC 9562 §5.7).
+ * <p>
+ * The 48 most significant bits hold the Unix epoch milliseconds, the remaining 74 non-version,
+ * non-variant bits are random. The random bits come from {@link ThreadLocalRandom}, so concurrent
+ * request threads never contend on the shared {@code SecureRandom} behind {@link UUID#randomUUID()},
+ * and IDs minted close together share their key prefix in the distributed cache.
+ * <p>
+ * The random part is not cryptographically strong and the creation time can be read from the ID.
+ * Trace IDs are correlation handles, not credentials — access to {@code /status} and
+ * {@code /attachments} is controlled by the endpoints' auth modes.
+ */
+public final class TimeOrderedTraceIdGenerator implements TraceIdGenerator {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long RAND_A_MASK = 0x0FFFL;
+    private static final long VARIANT_RFC_9562 = 0x8000_0000_0000_0000L;
+    private static final long RAND_B_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+    private static final long TIMESTAMP_MASK = 0xFFFF_FFFF_FFFFL;
+
+    private final LongSupplier epochMillis;
+
+    public TimeOrderedTraceIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param epochMillis clock in Unix epoch milliseconds
+     */
+    TimeOrderedTraceIdGenerator(@NonNull LongSupplier epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    @Override
+    public String nextTraceId() {
+        return nextUuid().toString();
+    }
+
+    UUID nextUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificant = ((epochMillis.getAsLong() & TIMESTAMP_MASK) << 16)
+                | VERSION_7
+                | (random.nextLong() & RAND_A_MASK);
+        long leastSignificant = VARIANT_RFC_9562 | (random.nextLong() & RAND_B_MASK);
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
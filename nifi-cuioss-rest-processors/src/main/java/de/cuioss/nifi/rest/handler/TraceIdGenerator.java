@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import java.util.UUID;
+
+/**
+ * Mints the trace IDs of tracked requests and attachments.
+ * <p>
+ * Implementations are thread-safe and return canonical UUID strings, so trace IDs stay valid path
+ * parameters of {@code /status/{traceId}} and {@code /attachments/{parentTraceId}}. {@link #random()}
+ * keeps the random version 4 UUIDs; {@link TimeOrderedTraceIdGenerator} mints time-ordered version 7
+ * UUIDs without a shared random source.
+ */
+@FunctionalInterface
+public interface TraceIdGenerator {
+
+    /**
+     * @return a new, unique trace ID in canonical UUID form
+     */
+    String nextTraceId();
+
+    /**
+     * @return a generator of random (version 4) UUIDs from the shared {@code SecureRandom}
+     */
+    static TraceIdGenerator random() {
+        return () -> UUID.randomUUID().toString();
+    }
+
+    /**
+     * @return a generator of time-ordered (version 7) UUIDs
+     */
+    static TraceIdGenerator timeOrdered() {
+        return new TimeOrderedTraceIdGenerator();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import lombok.NonNull;
+
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable progress record of a resumable upload, stored in the distributed cache next to the
+ * request status entries.
+ *
+ * @param uploadId  the upload identifier (UUID)
+ * @param routeName the route the upload was created on
+ * @param length    the total length in bytes declared on creation
+ * @param offset    the number of bytes acknowledged so far
+ * @param createdAt when the upload was created
+ * @param metadata  the decoded {@code Upload-Metadata} entries in declaration order
+ * @param completed whether the assembled upload has been handed to the flow
+ */
+record UploadEntry(
+@NonNull String uploadId,
+@NonNull String routeName,
+long length,
+long offset,
+@NonNull Instant createdAt,
+@NonNull Map<String, String> metadata,
+boolean completed) {
+
+    private static final String KEY_UPLOAD_ID = "uploadId";
+    private static final String KEY_ROUTE_NAME = "routeName";
+    private static final String KEY_LENGTH = "length";
+    private static final String KEY_OFFSET = "offset";
+    private static final String KEY_CREATED_AT = "createdAt";
+    private static final String KEY_METADATA = "metadata";
+    private static final String KEY_COMPLETED = "completed";
+
+    /**
+     * Compact constructor — validates the offset and copies the metadata into an unmodifiable,
+     * insertion-ordered map.
+     */
+    UploadEntry {
+        if (length < 0 || offset < 0 || offset > length) {
+            throw new IllegalArgumentException(
+                    "Invalid upload offset %d for length %d".formatted(offset, length));
+        }
+        metadata = Collections.unmodifiableMap(new LinkedHashMap<>(metadata));
+    }
+
+    /**
+     * Creates the entry of a freshly created upload at offset 0.
+     */
+    static UploadEntry created(String uploadId, String routeName, long length, Map<String, String> metadata) {
+        return new UploadEntry(uploadId, routeName, length, 0, Instant.now(), metadata, false);
+    }
+
+    /**
+     * Returns a copy advanced to the given offset.
+     */
+    UploadEntry withOffset(long newOffset) {
+        return new UploadEntry(uploadId, routeName, length, newOffset, createdAt, metadata, completed);
+    }
+
+    /**
+     * Returns a copy marked as completed.
+     */
+    UploadEntry asCompleted() {
+        return new UploadEntry(uploadId, routeName, length, offset, createdAt, metadata, true);
+    }
+
+    /**
+     * Whether all declared bytes have been received.
+     */
+    boolean isFullyReceived() {
+        return offset == length;
+    }
+
+    /**
+     * Serializes this entry to a JSON string.
+     */
+    String toJson() {
+        JsonObjectBuilder metadataBuilder = Json.createObjectBuilder();
+        metadata.forEach(metadataBuilder::add);
+        return Json.createObjectBuilder()
+                .add(KEY_UPLOAD_ID, uploadId)
+                .add(KEY_ROUTE_NAME, routeName)
+                .add(KEY_LENGTH, length)
+                .add(KEY_OFFSET, offset)
+                .add(KEY_CREATED_AT, createdAt.toString())
+                .add(KEY_METADATA, metadataBuilder)
+                .add(KEY_COMPLETED, completed)
+                .build()
+                .toString();
+    }
+
+    /**
+     * Deserializes a JSON string to an {@link UploadEntry}.
+     *
+     * @param json the JSON string
+     * @return the deserialized entry
+     * @throws jakarta.json.JsonException if the JSON is malformed
+     */
+    static UploadEntry fromJson(String json) {
+        JsonObject obj;
+        try (var reader = Json.createReader(new StringReader(json))) {
+            obj = reader.readObject();
+        }
+        Map<String, String> metadata = new LinkedHashMap<>();
+        if (obj.containsKey(KEY_METADATA) && obj.get(KEY_METADATA).getValueType() == JsonValue.ValueType.OBJECT) {
+            obj.getJsonObject(KEY_METADATA).forEach((key, value) -> {
+                if (value instanceof JsonString text) {
+                    metadata.put(key, text.getString());
+                }
+            });
+        }
+        return new UploadEntry(
+                obj.getString(KEY_UPLOAD_ID),
+                obj.getString(KEY_ROUTE_NAME),
+                obj.getJsonNumber(KEY_LENGTH).longValueExact(),
+                obj.getJsonNumber(KEY_OFFSET).longValueExact(),
+                Instant.parse(obj.getString(KEY_CREATED_AT)),
+                metadata,
+                obj.getBoolean(KEY_COMPLETED, false));
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.Getter;
+import lombok.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * On-disk staging area for resumable uploads.
+ * <p>
+ * Each upload owns a data file {@code <uploadId>.part} that chunks are written into at their
+ * acknowledged offset, so the gateway heap only ever holds one chunk regardless of the object
+ * size. When the upload completes, the data file is handed to the processor, which imports it
+ * into the content repository; a zero-byte {@code <uploadId>.done} marker remains so the
+ * progress entry of the completed upload can be expired later.
+ * <p>
+ * Files untouched for longer than the expiry are swept lazily — at most once per half expiry
+ * interval, triggered by upload creation — together with their progress entries. A completed
+ * upload whose data file is still present has not been imported yet and is never swept.
+ */
+public final class UploadSpool {
+
+    private static final CuiLogger LOGGER = new CuiLogger(UploadSpool.class);
+
+    private static final String DATA_SUFFIX = ".part";
+    private static final String MARKER_SUFFIX = ".done";
+
+    /** The spool directory. */
+    @Getter
+    private final Path directory;
+    private final Duration expiry;
+    private final LongSupplier nanoClock;
+    private final AtomicLong nextSweepAt;
+    /** Uploads with a chunk currently being written on this node. */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param directory the spool directory, created if absent
+     * @param expiry    idle time after which an upload is discarded (positive)
+     * @throws IOException if the directory cannot be created
+     */
+    public UploadSpool(@NonNull Path directory, @NonNull Duration expiry) throws IOException {
+        this(directory, expiry, System::nanoTime);
+    }
+
+    UploadSpool(Path directory, Duration expiry, LongSupplier nanoClock) throws IOException {
+        if (expiry.isZero() || expiry.isNegative()) {
+            throw new IllegalArgumentException("expiry must be positive: " + expiry);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.expiry = expiry;
+        this.nanoClock = nanoClock;
+        this.nextSweepAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Creates the empty data file of a new upload.
+     */
+    void create(String uploadId) throws IOException {
+        Files.createFile(dataFile(uploadId));
+    }
+
+    /**
+     * @return whether the data file of the upload exists on this node
+     */
+    boolean exists(String uploadId) {
+        return Files.isRegularFile(dataFile(uploadId));
+    }
+
+    /**
+     * Writes a chunk at the given offset. The file is first truncated to the offset, discarding the
+     * bytes of an earlier chunk that was written but never acknowledged.
+     */
+    void write(String uploadId, long offset, byte[] chunk) throws IOException {
+        try (FileChannel channel = FileChannel.open(dataFile(uploadId), StandardOpenOption.WRITE)) {
+            channel.truncate(offset);
+            ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Leaves the completion marker of an upload whose data file was handed to the processor.
+     */
+    void markCompleted(String uploadId) throws IOException {
+        try {
+            Files.createFile(markerFile(uploadId));
+        } catch (FileAlreadyExistsException e) {
+            // A retried completion — the marker is already in place
+        }
+    }
+
+    /**
+     * Deletes the data file and marker of an upload.
+     */
+    void discard(String uploadId) throws IOException {
+        Files.deleteIfExists(dataFile(uploadId));
+        Files.deleteIfExists(markerFile(uploadId));
+    }
+
+    /**
+     * Deletes the completion marker only, keeping the data file of an upload whose completion was
+     * reverted.
+     */
+    void discardMarker(String uploadId) throws IOException {
+        Files.deleteIfExists(markerFile(uploadId));
+    }
+
+    /**
+     * Claims the upload for a chunk write on this node.
+     *
+     * @return {@code false} if another request is currently writing to the upload
+     */
+    boolean tryLock(String uploadId) {
+        return inFlight.add(uploadId);
+    }
+
+    void unlock(String uploadId) {
+        inFlight.remove(uploadId);
+    }
+
+    Path dataFile(String uploadId) {
+        return directory.resolve(uploadId + DATA_SUFFIX);
+    }
+
+    private Path markerFile(String uploadId) {
+        return directory.resolve(uploadId + MARKER_SUFFIX);
+    }
+
+    /**
+     * Runs {@link #sweepExpired} if the half-expiry interval since the last sweep has elapsed.
+     */
+    void sweepIfDue(RequestStatusStore statusStore) {
+        long now = nanoClock.getAsLong();
+        long due = nextSweepAt.get();
+        if (now - due >= 0 && nextSweepAt.compareAndSet(due, now + Math.max(1L, expiry.toNanos() / 2))) {
+            sweepExpired(statusStore, Instant.now());
+        }
+    }
+
+    /**
+     * Deletes the spool files untouched since {@code now - expiry} and removes the progress entries
+     * of their uploads. Files that do not belong to an upload are left alone, and so is a completed
+     * upload until the processor has imported (and thereby removed) its data file; failures are
+     * logged.
+     *
+     * @param statusStore the store holding the progress entries
+     * @param now         the reference time
+     * @return the number of uploads removed
+     */
+    public int sweepExpired(RequestStatusStore statusStore, Instant now) {
+        Instant cutoff = now.minus(expiry);
+        Set<String> expired = new LinkedHashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String uploadId = uploadIdOf(file);
+                if (uploadId != null && !inFlight.contains(uploadId) && !awaitsImport(uploadId)
+                        && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                    expired.add(uploadId);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.UPLOAD_SPOOL_ERROR, directory, e.getMessage());
+        }
+        for (String uploadId : expired) {
+            try {
+                statusStore.removeUpload(uploadId);
+            } catch (IOException e) {
+                LOGGER.warn(RestApiLogMessages.WARN.STATUS_STORE_ERROR, e.getMessage());
+            }
+        }
+        if (!expired.isEmpty()) {
+            LOGGER.info(RestApiLogMessages.INFO.UPLOADS_EXPIRED, expired.size(), directory);
+        }
+        return expired.size();
+    }
+
+    /**
+     * @return whether the upload is completed but its data file is still queued for import
+     */
+    private boolean awaitsImport(String uploadId) {
+        return Files.exists(markerFile(uploadId)) && Files.exists(dataFile(uploadId));
+    }
+
+    /**
+     * @return the upload ID of a spool file, or {@code null} for foreign files
+     */
+    @Nullable
+    private static String uploadIdOf(Path file) {
+        String name = file.getFileName().toString();
+        String uploadId;
+        if (name.endsWith(DATA_SUFFIX)) {
+            uploadId = name.substring(0, name.length() - DATA_SUFFIX.length());
+        } else if (name.endsWith(MARKER_SUFFIX)) {
+            uploadId = name.substring(0, name.length() - MARKER_SUFFIX.length());
+        } else {
+            return null;
+        }
+        try {
+            UUID.fromString(uploadId);
+            return uploadId;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.NonNull;
+import org.apache.nifi.distributed.cache.client.DistributedMapCacheClient;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link RequestStatusStore} that defers the write of new tracking entries to a background thread,
+ * so {@link #accept} and {@link #collectingAttachments} no longer put a cache round trip on the
+ * Jetty thread before the 202 response.
+ * <p>
+ * New entries are held in a pending map and their trace IDs queued in a bounded ring buffer; the
+ * flush thread drains up to {@link #MAX_BATCH_SIZE} trace IDs per cycle and writes their entries.
+ * When the ring buffer is full the entry is written synchronously instead, so the backlog and the
+ * memory it holds stay bounded.
+ * <p>
+ * Reads are served from the pending map first (read-your-writes on this node). Every operation that
+ * reads and rewrites an entry — status updates, transitions, removal — first writes that entry's
+ * pending value synchronously, so compare-and-swap always runs against the cache. Entries are
+ * visible to other cluster nodes only after they were flushed.
+ */
+public final class WriteBehindStatusStore extends RequestStatusStore implements AutoCloseable {
+
+    private static final CuiLogger LOGGER = new CuiLogger(WriteBehindStatusStore.class);
+
+    /** Maximum number of entries written per flush cycle. */
+    static final int MAX_BATCH_SIZE = 256;
+
+    /** Time {@link #close} waits for the flush thread before writing the remainder itself. */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    /** Number of write lock stripes (power of two). */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Point-in-time view of the write-behind state for the {@code /metrics} endpoint.
+     *
+     * @param backlog              entries buffered and not yet written
+     * @param flushes              completed flush cycles
+     * @param flushedEntries       entries written by the flush thread
+     * @param lastBatchSize        entries written by the most recent flush cycle
+     * @param flushNanosTotal      accumulated duration of all flush cycles
+     * @param flushNanosMax        longest flush cycle
+     * @param synchronousFallbacks entries written synchronously because the buffer was full
+     * @param flushFailures        flush cycles aborted by a cache error
+     */
+    public record Stats(int backlog, long flushes, long flushedEntries, int lastBatchSize,
+            long flushNanosTotal, long flushNanosMax, long synchronousFallbacks, long flushFailures) {
+    }
+
+    private final Map<String, RequestStatusEntry> pending = new ConcurrentHashMap<>();
+    private final ArrayBlockingQueue<String> ring;
+    /**
+     * Striped by trace ID: serializes the write of one pending entry with its removal, so a flushed
+     * entry cannot resurrect a removed one, without making request threads wait for the whole batch.
+     */
+    private final ReentrantLock[] writeLocks = new ReentrantLock[LOCK_STRIPES];
+    private final long flushIntervalNanos;
+    @Nullable private final Thread flushThread;
+    private volatile boolean running;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedEntries = new AtomicLong();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final AtomicLong flushNanosTotal = new AtomicLong();
+    private final AtomicLong flushNanosMax = new AtomicLong();
+    private final AtomicLong synchronousFallbacks = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+
+    /**
+     * @param cacheClient   the cache the entries are written to
+     * @param capacity      the number of entries the ring buffer holds (positive)
+     * @param flushInterval the maximum time a buffered entry waits for its flush (positive)
+     */
+    public WriteBehindStatusStore(@NonNull DistributedMapCacheClient cacheClient, int capacity,
+            @NonNull Duration flushInterval) {
+        this(cacheClient, capacity, flushInterval, true);
+    }
+
+    /**
+     * @param background {@code false} to run without flush thread; buffered entries are then only
+     *                   written by {@link #flush} and {@link #close}
+     */
+    WriteBehindStatusStore(DistributedMapCacheClient cacheClient, int capacity, Duration flushInterval,
+            boolean background) {
+        super(cacheClient);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (flushInterval.isZero() || flushInterval.isNegative()) {
+            throw new IllegalArgumentException("flushInterval must be positive: " + flushInterval);
+        }
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            writeLocks[i] = new ReentrantLock();
+        }
+        this.flushThread = background
+                ? Thread.ofPlatform().name("rest-gateway-status-write-behind").daemon().unstarted(this::runFlushLoop)
+                : null;
+    }
+
+    /** Starts buffering and the flush thread. */
+    public void start() {
+        running = true;
+        if (flushThread != null) {
+            flushThread.start();
+        }
+    }
+
+    /**
+     * Stops the flush thread and writes the remaining backlog on the calling thread. Entries that
+     * still cannot be written are logged and dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (flushThread != null) {
+            flushThread.interrupt();
+            try {
+                flushThread.join(SHUTDOWN_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ring.clear();
+        // The pending map also holds the batch the flush thread was working on when it stopped
+        List<String> remainder = new ArrayList<>(pending.keySet());
+        try {
+            writeBatch(remainder);
+        } catch (IOException e) {
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_WRITE_BEHIND_ENTRIES_LOST, pending.size(), e.getMessage());
+        }
+        pending.clear();
+    }
+
+    @Override
+    void put(RequestStatusEntry entry) throws IOException {
+        if (!running) {
+            super.put(entry);
+            return;
+        }
+        String traceId = entry.traceId();
+        pending.put(traceId, entry);
+        if (ring.offer(traceId)) {
+            return;
+        }
+        synchronousFallbacks.incrementAndGet();
+        try {
+            flushPending(traceId);
+        } catch (IOException e) {
+            // Not queued for a later flush — keep the backlog free of entries nobody will write
+            pending.remove(traceId, entry);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<RequestStatusEntry> getStatus(String traceId) throws IOException {
+        RequestStatusEntry buffered = pending.get(traceId);
+        return buffered != null ? Optional.of(buffered) : super.getStatus(traceId);
+    }
+
+    @Override
+    public void updateStatus(String traceId, RequestStatus newStatus) throws IOException {
+        flushPending(traceId);
+        super.updateStatus(traceId, newStatus);
+    }
+
+    @Override
+    public Optional<RequestStatusEntry> transitionStatus(String traceId, RequestStatus expectedStatus,
+            RequestStatus newStatus, @Nullable String errorDetail) throws IOException {
+        flushPending(traceId);
+        return super.transitionStatus(traceId, expectedStatus, newStatus, errorDetail);
+    }
+
+    @Override
+    public Map<String, UpdateOutcome> updateStatuses(Map<String, StatusUpdate> updates) throws IOException {
+        for (String traceId : updates.keySet()) {
+            flushPending(traceId);
+        }
+        return super.updateStatuses(updates);
+    }
+
+    @Override
+    public void remove(String traceId) throws IOException {
+        ReentrantLock lock = writeLock(traceId);
+        lock.lock();
+        try {
+            pending.remove(traceId);
+            super.remove(traceId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the current write-behind statistics
+     */
+    public Stats stats() {
+        return new Stats(pending.size(), flushes.get(), flushedEntries.get(), lastBatchSize.get(),
+                flushNanosTotal.get(), flushNanosMax.get(), synchronousFallbacks.get(), flushFailures.get());
+    }
+
+    /**
+     * Runs one flush cycle on the calling thread: writes up to {@link #MAX_BATCH_SIZE} buffered
+     * entries. Used when running without flush thread.
+     *
+     * @return {@code false} if the cycle was aborted by a cache error
+     */
+    boolean flush() {
+        List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        ring.drainTo(batch, MAX_BATCH_SIZE);
+        return batch.isEmpty() || flushBatch(batch);
+    }
+
+    private void runFlushLoop() {
+        List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    // Wakes on the first buffered entry; the drain picks up whatever arrived meanwhile
+                    String first = ring.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    ring.drainTo(batch, MAX_BATCH_SIZE - 1);
+                }
+                if (!flushBatch(batch)) {
+                    // The unwritten trace IDs stay in the batch and are retried after one interval
+                    TimeUnit.NANOSECONDS.sleep(flushIntervalNanos);
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts to stop waiting; the remaining backlog is written there
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes one batch and records its statistics. On a cache error the unwritten trace IDs stay in
+     * {@code batch}.
+     *
+     * @return {@code false} if the batch was aborted by a cache error
+     */
+    private boolean flushBatch(List<String> batch) {
+        long start = System.nanoTime();
+        int written;
+        try {
+            written = writeBatch(batch);
+        } catch (IOException e) {
+            flushFailures.incrementAndGet();
+            LOGGER.warn(RestApiLogMessages.WARN.STATUS_WRITE_BEHIND_FLUSH_FAILED, batch.size(), e.getMessage());
+            return false;
+        }
+        long elapsed = System.nanoTime() - start;
+        flushes.incrementAndGet();
+        flushedEntries.addAndGet(written);
+        lastBatchSize.set(written);
+        flushNanosTotal.addAndGet(elapsed);
+        flushNanosMax.accumulateAndGet(elapsed, Math::max);
+        return true;
+    }
+
+    /**
+     * Writes the pending entries of the given trace IDs, removing each trace ID from the list once
+     * written.
+     *
+     * @return the number of entries written; trace IDs already flushed or removed are skipped
+     */
+    private int writeBatch(List<String> traceIds) throws IOException {
+        int written = 0;
+        Iterator<String> iterator = traceIds.iterator();
+        while (iterator.hasNext()) {
+            if (flushPending(iterator.next())) {
+                written++;
+            }
+            iterator.remove();
+        }
+        return written;
+    }
+
+    /**
+     * Writes the pending entry of one trace ID, if any.
+     *
+     * @return {@code true} if an entry was written
+     */
+    private boolean flushPending(String traceId) throws IOException {
+        if (!pending.containsKey(traceId)) {
+            return false;
+        }
+        ReentrantLock lock = writeLock(traceId);
+        lock.lock();
+        try {
+            RequestStatusEntry entry = pending.get(traceId);
+            if (entry == null) {
+                return false;
+            }
+            super.put(entry);
+            // Keep a newer entry buffered under the same trace ID
+            pending.remove(traceId, entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock writeLock(String traceId) {
+        return writeLocks[traceId.hashCode() & (LOCK_STRIPES - 1)];
+    }
+}
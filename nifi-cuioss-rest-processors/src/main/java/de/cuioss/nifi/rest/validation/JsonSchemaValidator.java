@@ -21,18 +21,28 @@ import de.cuioss.tools.logging.CuiLogger;
 import dev.harrel.jsonschema.Validator;
 import dev.harrel.jsonschema.ValidatorFactory;
 import dev.harrel.jsonschema.providers.JakartaJsonNode;
+import jakarta.json.Json;
 import jakarta.json.JsonException;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Validates JSON request bodies against JSON Schema (Draft 2020-12).
@@ -40,40 +50,124 @@ import java.util.Map;
  * Wraps {@code dev.harrel:json-schema} with the Jakarta JSON-P provider.
  * Schema sources are resolved eagerly at construction time: values starting
  * with {@code &#123;} are treated as inline JSON, all others as file paths.
- * The compiled validator is thread-safe and can be shared across Jetty handler threads.
+ * <p>
+ * The body is parsed straight from its bytes into a JSON-P value, without an intermediate
+ * {@code String} copy. A harrel {@link Validator} keeps a mutable schema registry that also
+ * resolves references lazily, so instances are never shared between threads: every route owns a
+ * small pool of validators that only know its own schema, and a Jetty thread borrows one for the
+ * duration of a single validation. The pool grows on demand and keeps at most
+ * {@link #DEFAULT_POOL_CAPACITY} idle instances per route.
+ * <p>
+ * File-based schemas can be re-read at runtime with {@link #reload}: the new version is compiled
+ * into a fresh pool that replaces the route's pool atomically, so in-flight validations finish
+ * against the version they started with. A schema that fails to load or compile leaves the
+ * previous version in place.
  */
 public class JsonSchemaValidator {
 
     private static final CuiLogger LOGGER = new CuiLogger(JsonSchemaValidator.class);
 
-    private final Validator validator;
-    private final Map<String, URI> schemaUris;
+    /** Idle validator instances kept per route; more are created under contention and then dropped. */
+    static final int DEFAULT_POOL_CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(Map.of());
+
+    /** Result of {@link #reload}. */
+    public enum ReloadOutcome {
+        /** The file changed and the new version is now in use. */
+        RELOADED,
+        /** The file content is identical to the version in use, or the route has an inline schema. */
+        UNCHANGED,
+        /** The file could not be read or compiled; the previous version stays in use. */
+        FAILED
+    }
+
+    /** A validator instance together with the URI its copy of the route schema was registered under. */
+    private record Engine(Validator validator, URI schemaUri) {
+    }
+
+    /** The compiled schema of one route and its pool of idle engines. */
+    private static final class RoutePool {
+        private final String schemaContent;
+        private final BlockingQueue<Engine> idle;
+
+        RoutePool(String schemaContent, int capacity) {
+            this.schemaContent = schemaContent;
+            this.idle = new ArrayBlockingQueue<>(capacity);
+            // Compiles once up front so an invalid schema fails the construction, not the first request
+            idle.add(createEngine(schemaContent));
+        }
+
+        Engine borrow() {
+            Engine engine = idle.poll();
+            return engine != null ? engine : createEngine(schemaContent);
+        }
+
+        void release(Engine engine) {
+            // A full pool means the burst is over; the surplus instance is left to the GC
+            idle.offer(engine);
+        }
+    }
+
+    private final Map<String, RoutePool> pools;
+    /** Normalized schema file per route; routes with an inline schema have no entry. */
+    private final Map<String, Path> schemaFiles;
+    private final int maxViolations;
+    private final int poolCapacity;
 
     /**
-     * Creates a new validator, eagerly loading and compiling all schemas.
+     * Creates a new validator that reports every violation.
      *
      * @param routeSchemas mapping of route name to schema source (inline JSON or file path)
      * @throws IllegalStateException if any schema file cannot be read or any schema is invalid
      */
     public JsonSchemaValidator(Map<String, String> routeSchemas) {
-        ValidatorFactory factory = new ValidatorFactory()
-                .withJsonNodeFactory(new JakartaJsonNode.Factory());
-        this.validator = factory.createValidator();
-        Map<String, URI> uris = new HashMap<>();
+        this(routeSchemas, 0);
+    }
+
+    /**
+     * Creates a new validator, eagerly loading and compiling all schemas.
+     *
+     * @param routeSchemas  mapping of route name to schema source (inline JSON or file path)
+     * @param maxViolations maximum number of violations reported per body; {@code 0} reports all
+     * @throws IllegalStateException if any schema file cannot be read or any schema is invalid
+     */
+    public JsonSchemaValidator(Map<String, String> routeSchemas, int maxViolations) {
+        this(routeSchemas, maxViolations, DEFAULT_POOL_CAPACITY);
+    }
 
+    JsonSchemaValidator(Map<String, String> routeSchemas, int maxViolations, int poolCapacity) {
+        if (maxViolations < 0) {
+            throw new IllegalArgumentException("maxViolations must be >= 0: " + maxViolations);
+        }
+        Map<String, RoutePool> routePools = new ConcurrentHashMap<>();
+        Map<String, Path> files = new HashMap<>();
         for (Map.Entry<String, String> entry : routeSchemas.entrySet()) {
-            String routeName = entry.getKey();
-            String schemaSource = entry.getValue();
-            String schemaContent = resolveSchemaContent(routeName, schemaSource);
-            URI schemaUri = validator.registerSchema(schemaContent);
-            uris.put(routeName, schemaUri);
+            String schemaContent = resolveSchemaContent(entry.getKey(), entry.getValue());
+            routePools.put(entry.getKey(), new RoutePool(schemaContent, poolCapacity));
+            if (!isInline(entry.getValue())) {
+                files.put(entry.getKey(), Path.of(entry.getValue()).normalize());
+            }
         }
+        this.pools = routePools;
+        this.schemaFiles = Map.copyOf(files);
+        this.maxViolations = maxViolations;
+        this.poolCapacity = poolCapacity;
+    }
+
+    private static boolean isInline(String schemaSource) {
+        return schemaSource.strip().startsWith("{");
+    }
 
-        this.schemaUris = Collections.unmodifiableMap(uris);
+    private static Engine createEngine(String schemaContent) {
+        Validator validator = new ValidatorFactory()
+                .withJsonNodeFactory(new JakartaJsonNode.Factory())
+                .createValidator();
+        return new Engine(validator, validator.registerSchema(schemaContent));
     }
 
     private static String resolveSchemaContent(String routeName, String schemaSource) {
-        if (schemaSource.strip().startsWith("{")) {
+        if (isInline(schemaSource)) {
             LOGGER.info(RestApiLogMessages.INFO.SCHEMA_REGISTERED_INLINE, routeName);
             return schemaSource;
         }
@@ -95,32 +189,99 @@ public class JsonSchemaValidator {
      * Validates a JSON body against the schema configured for the given route.
      *
      * @param routeName the route name to look up the schema for
-     * @param body      the JSON request body bytes
-     * @return empty list if valid or no schema configured; list of violations if invalid
+     * @param body      the JSON request body bytes (UTF-8, UTF-16 or UTF-32 as detected by JSON-P)
+     * @return empty list if valid or no schema configured; the first violations (up to the configured
+     *         maximum) if invalid
      */
     public List<SchemaViolation> validate(String routeName, byte[] body) {
-        URI schemaUri = schemaUris.get(routeName);
-        if (schemaUri == null) {
+        RoutePool pool = pools.get(routeName);
+        if (pool == null) {
             return List.of();
         }
 
-        String json = new String(body, StandardCharsets.UTF_8);
+        JsonValue instance;
         try {
-            Validator.Result result = validator.validate(schemaUri, json);
-            if (result.isValid()) {
-                return List.of();
-            }
-            return result.getErrors().stream()
-                    .map(error -> new SchemaViolation(
-                            error.getInstanceLocation(),
-                            error.getError()))
-                    .toList();
+            instance = parse(body);
         } catch (JsonException e) {
             // Only an unparseable/malformed JSON body is a client-facing 422 violation. Any other
             // failure (validator infrastructure error) is NOT masked as a 422 — it propagates so it
             // surfaces as a 500 via the dispatcher's top-level handler instead of being hidden.
             return List.of(new SchemaViolation("", "Invalid JSON: " + e.getMessage()));
         }
+
+        Engine engine = pool.borrow();
+        Validator.Result result;
+        try {
+            result = engine.validator().validate(engine.schemaUri(), instance);
+        } finally {
+            pool.release(engine);
+        }
+        if (result.isValid()) {
+            return List.of();
+        }
+        return result.getErrors().stream()
+                .limit(maxViolations > 0 ? maxViolations : Long.MAX_VALUE)
+                .map(error -> new SchemaViolation(
+                        error.getInstanceLocation(),
+                        error.getError()))
+                .toList();
+    }
+
+    private static JsonValue parse(byte[] body) {
+        try (JsonParser parser = PARSER_FACTORY.createParser(new ByteArrayInputStream(body))) {
+            if (!parser.hasNext()) {
+                throw new JsonException("Empty body");
+            }
+            parser.next();
+            JsonValue instance = parser.getValue();
+            if (parser.hasNext()) {
+                throw new JsonException("Unexpected content after the JSON value");
+            }
+            return instance;
+        } catch (NoSuchElementException e) {
+            throw new JsonException("Unexpected end of input", e);
+        }
+    }
+
+    /**
+     * Re-reads the schema file of a route and swaps the compiled version in if it changed.
+     *
+     * @param routeName the route whose schema file changed
+     * @return the outcome; {@link ReloadOutcome#UNCHANGED} for unknown routes and inline schemas
+     */
+    public ReloadOutcome reload(String routeName) {
+        Path schemaFile = schemaFiles.get(routeName);
+        RoutePool current = pools.get(routeName);
+        if (schemaFile == null || current == null) {
+            return ReloadOutcome.UNCHANGED;
+        }
+        RoutePool reloaded;
+        try {
+            String content = Files.readString(schemaFile, StandardCharsets.UTF_8);
+            if (content.equals(current.schemaContent)) {
+                return ReloadOutcome.UNCHANGED;
+            }
+            reloaded = new RoutePool(content, poolCapacity);
+        } catch (IOException | RuntimeException e) {
+            // RuntimeException: harrel reports unparseable and invalid schemas with several unchecked
+            // exception types; any of them must keep the previous version instead of failing the watcher
+            LOGGER.warn(RestApiLogMessages.WARN.SCHEMA_RELOAD_FAILED, routeName, schemaFile, e.getMessage());
+            return ReloadOutcome.FAILED;
+        }
+        pools.put(routeName, reloaded);
+        LOGGER.info(RestApiLogMessages.INFO.SCHEMA_RELOADED, routeName, schemaFile);
+        return ReloadOutcome.RELOADED;
+    }
+
+    /**
+     * @return the routes with a file-based schema, keyed by the directory holding the file
+     */
+    public Map<Path, Set<String>> schemaDirectories() {
+        Map<Path, Set<String>> directories = new HashMap<>();
+        schemaFiles.forEach((routeName, file) -> directories
+                .computeIfAbsent(file.toAbsolutePath().getParent(), k -> new LinkedHashSet<>())
+                .add(routeName));
+        return directories;
     }
 
     /**
@@ -130,6 +291,14 @@ public class JsonSchemaValidator {
      * @return {@code true} if a schema is registered
      */
     public boolean hasSchema(String routeName) {
-        return schemaUris.containsKey(routeName);
+        return pools.containsKey(routeName);
+    }
+
+    /**
+     * @return the number of idle validator instances pooled for the route; {@code 0} for unknown routes
+     */
+    int idleEngines(String routeName) {
+        RoutePool pool = pools.get(routeName);
+        return pool != null ? pool.idle.size() : 0;
     }
 }
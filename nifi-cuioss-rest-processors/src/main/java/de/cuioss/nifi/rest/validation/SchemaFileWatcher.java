@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.validation;
+
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.nifi.rest.validation.JsonSchemaValidator.ReloadOutcome;
+import de.cuioss.tools.logging.CuiLogger;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Watches the directories of file-based route schemas and reloads the affected routes of a
+ * {@link JsonSchemaValidator} when a file in them is created or modified.
+ * <p>
+ * Events are collected until the directory has been quiet for {@link #DEBOUNCE}, so an editor
+ * writing a file in several steps triggers a single reload. Every file-based route of a changed
+ * directory is reloaded, not only the one whose name appears in the event: Kubernetes ConfigMap
+ * volumes replace files through a {@code ..data} symlink swap that never mentions the file itself.
+ * Routes whose content did not change report {@link ReloadOutcome#UNCHANGED} and are not passed
+ * to the listener.
+ */
+public final class SchemaFileWatcher implements AutoCloseable {
+
+    private static final CuiLogger LOGGER = new CuiLogger(SchemaFileWatcher.class);
+
+    /** Quiet period after the last event of a burst before the routes are reloaded. */
+    public static final Duration DEBOUNCE = Duration.ofMillis(200);
+
+    private final JsonSchemaValidator validator;
+    private final BiConsumer<String, ReloadOutcome> listener;
+    private final WatchService watchService;
+    private final Map<WatchKey, Set<String>> routesByKey = new HashMap<>();
+    private final Thread watchThread;
+
+    /**
+     * Registers the schema directories and starts the watch thread.
+     *
+     * @param validator the validator whose file-based schemas are watched
+     * @param listener  receives every {@link ReloadOutcome#RELOADED} and {@link ReloadOutcome#FAILED}
+     *                  outcome with the route name, on the watch thread
+     * @throws IOException if the watch service cannot be created or a directory cannot be registered
+     */
+    public SchemaFileWatcher(@NonNull JsonSchemaValidator validator,
+            @NonNull BiConsumer<String, ReloadOutcome> listener) throws IOException {
+        this.validator = validator;
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            for (Map.Entry<Path, Set<String>> entry : validator.schemaDirectories().entrySet()) {
+                WatchKey key = entry.getKey().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                routesByKey.put(key, entry.getValue());
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        LOGGER.info(RestApiLogMessages.INFO.SCHEMA_WATCH_STARTED, routesByKey.size());
+        this.watchThread = Thread.ofPlatform().name("rest-gateway-schema-watcher").daemon().start(this::runWatchLoop);
+    }
+
+    private void runWatchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<String> changedRoutes = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collect(key, changedRoutes);
+                    key = watchService.poll(DEBOUNCE.toMillis(), TimeUnit.MILLISECONDS);
+                }
+                changedRoutes.forEach(this::reload);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close() was called, the loop ends normally
+        }
+    }
+
+    private void collect(WatchKey key, Set<String> changedRoutes) {
+        // Only the fact that the directory changed matters, not the individual events
+        key.pollEvents();
+        key.reset();
+        changedRoutes.addAll(routesByKey.getOrDefault(key, Set.of()));
+    }
+
+    private void reload(String routeName) {
+        ReloadOutcome outcome = validator.reload(routeName);
+        if (outcome != ReloadOutcome.UNCHANGED) {
+            listener.accept(routeName, outcome);
+        }
+    }
+
+    /** Stops watching; a reload in progress completes on the watch thread. */
+    @Override
+    public void close() {
+        watchThread.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.debug("Ignoring failure while closing the schema watch service: %s", e.getMessage());
+        }
+    }
+}
@@ -39,10 +39,12 @@ import de.cuioss.test.generator.junit.parameterized.TypeGeneratorSource;
 import de.cuioss.test.juli.LogAsserts;
 import de.cuioss.test.juli.TestLogLevel;
 import de.cuioss.test.juli.junit5.EnableTestLogger;
+import jakarta.json.Json;
 import org.apache.nifi.controller.AbstractControllerService;
 import org.apache.nifi.distributed.cache.client.DistributedMapCacheClient;
 import org.apache.nifi.distributed.cache.client.Serializer;
 import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.serialization.record.MockRecordWriter;
 import org.apache.nifi.util.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.TempDir;
@@ -51,6 +53,7 @@ import org.junit.jupiter.params.provider.ArgumentsSource;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -59,11 +62,13 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -172,6 +177,83 @@ class RestApiGatewayProcessorTest {
             assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.MANAGEMENT_METRICS_REQUIRED_SCOPES));
             assertTrue(descriptors.contains(
                     RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_MAX_ADDITIONAL_FIELDS));
+            assertTrue(descriptors.contains(
+                    RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_WRITE_BEHIND_BUFFER_SIZE));
+            assertTrue(descriptors.contains(
+                    RestApiGatewayConstants.Properties.MANAGEMENT_STATUS_WRITE_BEHIND_FLUSH_INTERVAL));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.CACHE_CALL_TIMEOUT));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.CACHE_CIRCUIT_FAILURE_THRESHOLD));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.CACHE_CIRCUIT_OPEN_DURATION));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.TRACE_ID_FORMAT));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.ACCESS_LOG_DIRECTORY));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.ACCESS_LOG_SAMPLE_PERCENT));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.ACCESS_LOG_BUFFER_SIZE));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.ACCESS_LOG_MAX_FILE_SIZE));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.ACCESS_LOG_MAX_FILES));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_MODE));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_LEASE_SIZE));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_MAX_ENTRIES));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_EXPIRY));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_AGGREGATION_DIRECTORY));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.UPLOADS_SPOOL_DIRECTORY));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.UPLOADS_MAX_SIZE));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.UPLOADS_EXPIRY));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.BATCH_RECORD_WRITER));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.SCHEMA_HOT_RELOAD));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.ROUTE_RELOAD_INTERVAL));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.SANITIZATION_CACHE_SIZE));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.LOAD_SHEDDING_TARGET_QUEUE_WAIT));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.IDEMPOTENCY_TTL));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.IDEMPOTENCY_STORE));
+            assertTrue(descriptors.contains(RestApiGatewayConstants.Properties.IDEMPOTENCY_MAX_ENTRIES));
+        }
+
+        @Test
+        @DisplayName("Resumable upload settings are validated")
+        void shouldValidateUploadSettings() {
+            testRunner.setProperty(RestApiGatewayConstants.Properties.UPLOADS_MAX_SIZE, "10 MB");
+            testRunner.setProperty(RestApiGatewayConstants.Properties.UPLOADS_EXPIRY, "1 hour");
+            testRunner.assertValid();
+
+            testRunner.setProperty(RestApiGatewayConstants.Properties.UPLOADS_MAX_SIZE, "huge");
+            testRunner.assertNotValid();
+            testRunner.setProperty(RestApiGatewayConstants.Properties.UPLOADS_MAX_SIZE, "10 MB");
+            testRunner.setProperty(RestApiGatewayConstants.Properties.UPLOADS_EXPIRY, "soon");
+            testRunner.assertNotValid();
+        }
+
+        @Test
+        @DisplayName("Idempotency settings are validated; the distributed store needs a cache client")
+        void shouldValidateIdempotencySettings() {
+            testRunner.setProperty(RestApiGatewayConstants.Properties.IDEMPOTENCY_TTL, "24 hours");
+            testRunner.setProperty(RestApiGatewayConstants.Properties.IDEMPOTENCY_MAX_ENTRIES, "500");
+            testRunner.assertValid();
+
+            testRunner.setProperty(RestApiGatewayConstants.Properties.IDEMPOTENCY_STORE,
+                    RestApiGatewayConstants.Properties.IDEMPOTENCY_STORE_DISTRIBUTED);
+            testRunner.assertNotValid();
+            testRunner.setProperty(RestApiGatewayConstants.Properties.IDEMPOTENCY_TTL, "0 sec");
+            testRunner.assertValid();
+
+            testRunner.setProperty(RestApiGatewayConstants.Properties.IDEMPOTENCY_MAX_ENTRIES, "0");
+            testRunner.assertNotValid();
+        }
+
+        @Test
+        @DisplayName("Attachment counter settings are validated")
+        void shouldValidateAttachmentCounterSettings() {
+            testRunner.setProperty(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_MODE,
+                    RestApiGatewayConstants.Properties.ATTACHMENTS_COUNTER_MODE_DISTRIBUTED);
+            testRunner.setProperty(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_LEASE_SIZE, "5");
+            testRunner.setProperty(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_EXPIRY, "2 hours");
+            testRunner.assertValid();
+
+            testRunner.setProperty(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_MODE, "cluster");
+            testRunner.assertNotValid();
+            testRunner.setProperty(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_MODE,
+                    RestApiGatewayConstants.Properties.ATTACHMENTS_COUNTER_MODE_LOCAL);
+            testRunner.setProperty(RestApiGatewayConstants.Properties.MANAGEMENT_ATTACHMENTS_COUNTER_LEASE_SIZE, "0");
+            testRunner.assertNotValid();
         }
 
         @Test
@@ -235,6 +317,16 @@ class RestApiGatewayProcessorTest {
             testRunner.assertNotValid();
         }
 
+        @Test
+        @DisplayName("A resumable-upload route without a cache client is invalid")
+        void shouldBeInvalidWhenResumableUploadsWithoutCacheClient() {
+            testRunner.setProperty("restapi.files.path", "/api/files");
+            testRunner.setProperty("restapi.files.methods", "POST");
+            testRunner.setProperty("restapi.files.resumable-uploads", "true");
+
+            testRunner.assertNotValid();
+        }
+
         @Test
         @DisplayName("M4/I14: a tracked route with a cache client is valid and advertises ATTACHMENTS")
         void shouldBeValidAndAdvertiseAttachmentsWithCacheClient() throws Exception {
@@ -447,6 +539,36 @@ class RestApiGatewayProcessorTest {
             flowFile.assertAttributeEquals(RestApiAttributes.HEADER_PREFIX + "x-custom-header", "keepme");
         }
 
+        @Test
+        @DisplayName("Should only carry the headers, query parameters and claims a route's projection keeps")
+        void shouldApplyRouteProjection() throws Exception {
+            testRunner.setProperty("restapi.health.header-allowlist", "X-Custom-*");
+            testRunner.setProperty("restapi.health.query-denylist", "debug");
+            testRunner.setProperty("restapi.health.claim-allowlist", "no-such-claim");
+            testRunner.run(1, false, true);
+            int port = getServerPort();
+
+            httpClient.send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/health?page=1&debug=true"))
+                            .header("Authorization", "Bearer " + tokenHolder.getRawToken())
+                            .header("X-Custom-Header", "keepme")
+                            .header("X-Other-Header", "dropme")
+                            .GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            testRunner.run(1, false, false);
+
+            MockFlowFile flowFile = testRunner.getFlowFilesForRelationship("health").getFirst();
+            flowFile.assertAttributeEquals(RestApiAttributes.HEADER_PREFIX + "x-custom-header", "keepme");
+            flowFile.assertAttributeNotExists(RestApiAttributes.HEADER_PREFIX + "x-other-header");
+            flowFile.assertAttributeNotExists(RestApiAttributes.HEADER_PREFIX + "user-agent");
+            flowFile.assertAttributeEquals("http.query.page", "1");
+            flowFile.assertAttributeNotExists("http.query.debug");
+            // Dedicated token attributes survive; custom jwt.content.* claims are projected away
+            flowFile.assertAttributeExists("jwt.subject");
+            assertTrue(flowFile.getAttributes().keySet().stream().noneMatch(key -> key.startsWith("jwt.content.")));
+        }
+
         @ParameterizedTest
         @TypeGeneratorSource(value = UserOrderGenerator.class, count = 5)
         @DisplayName("Should set generated path parameters from a pattern-matched route")
@@ -802,6 +924,91 @@ class RestApiGatewayProcessorTest {
             }
         }
 
+        @Test
+        @DisplayName("Should apply a changed external route on the running server without restart")
+        void shouldApplyChangedRouteLive(@TempDir Path tempDir) throws Exception {
+            writeConfigFile(tempDir, """
+                    restapi.external.path=/api/external
+                    restapi.external.methods=GET
+                    restapi.external.success-outcome=external
+                    """);
+            var runner = createRunner();
+            var processor = (RestApiGatewayProcessor) runner.getProcessor();
+            processor.configurationManager = new ConfigurationManager(tempDir.toString() + "/");
+            runner.setProperty(RestApiGatewayConstants.Properties.ROUTE_RELOAD_INTERVAL, "1 ms");
+
+            runner.run(1, false, true);
+            try {
+                int port = processor.serverManager.getPort();
+                rewriteConfigFile(tempDir, """
+                        restapi.external.path=/api/moved
+                        restapi.external.methods=GET
+                        restapi.external.success-outcome=external
+                        """);
+                Thread.sleep(5);
+                runner.run(1, false, false);
+
+                LogAsserts.assertLogMessagePresentContaining(TestLogLevel.INFO,
+                        RestApiLogMessages.INFO.ROUTES_RELOADED.resolveIdentifierString());
+                assertEquals(port, processor.serverManager.getPort());
+                assertEquals(200, get(port, "/api/moved").statusCode());
+                assertEquals(404, get(port, "/api/external").statusCode());
+
+                runner.run(1, false, false);
+                assertEquals(1, runner.getFlowFilesForRelationship("external").size());
+            } finally {
+                runner.stop();
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep the running routes when a change requires a restart")
+        void shouldKeepRoutesWhenRestartRequired(@TempDir Path tempDir) throws Exception {
+            writeConfigFile(tempDir, """
+                    restapi.external.path=/api/external
+                    restapi.external.methods=GET
+                    restapi.external.success-outcome=external
+                    """);
+            var runner = createRunner();
+            var processor = (RestApiGatewayProcessor) runner.getProcessor();
+            processor.configurationManager = new ConfigurationManager(tempDir.toString() + "/");
+            runner.setProperty(RestApiGatewayConstants.Properties.ROUTE_RELOAD_INTERVAL, "1 ms");
+
+            runner.run(1, false, true);
+            try {
+                int port = processor.serverManager.getPort();
+                rewriteConfigFile(tempDir, """
+                        restapi.external.path=/api/moved
+                        restapi.external.methods=GET
+                        restapi.external.success-outcome=renamed
+                        """);
+                Thread.sleep(5);
+                runner.run(1, false, false);
+
+                LogAsserts.assertLogMessagePresentContaining(TestLogLevel.WARN,
+                        RestApiLogMessages.WARN.ROUTE_RELOAD_REQUIRES_RESTART.resolveIdentifierString());
+                assertEquals(200, get(port, "/api/external").statusCode());
+                assertEquals(404, get(port, "/api/moved").statusCode());
+            } finally {
+                runner.stop();
+            }
+        }
+
+        private HttpResponse<String> get(int port, String path) throws Exception {
+            return httpClient.send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                            .header("Authorization", "Bearer " + tokenHolder.getRawToken())
+                            .GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+        }
+
+        /** Rewrites the config file with a modification time the reload check cannot miss. */
+        private void rewriteConfigFile(Path tempDir, String content) throws IOException {
+            writeConfigFile(tempDir, content);
+            Path configFile = tempDir.resolve("conf").resolve("cui-nifi-extensions.properties");
+            Files.setLastModifiedTime(configFile, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        }
+
         private TestRunner createRunner() throws Exception {
             var runner = TestRunners.newTestRunner(RestApiGatewayProcessor.class);
             runner.addControllerService(CS_ID, mockConfigService);
@@ -1336,6 +1543,188 @@ class RestApiGatewayProcessorTest {
         }
     }
 
+    @Nested
+    @DisplayName("Record Batching")
+    class RecordBatchingTests {
+
+        @Test
+        @DisplayName("A batched route without a record writer is invalid")
+        void shouldBeInvalidWithoutRecordWriter() {
+            testRunner.setProperty("restapi.users.batch-max-records", "2");
+
+            testRunner.assertNotValid();
+        }
+
+        @Test
+        @DisplayName("Should write the requests of a batched route as records into one FlowFile")
+        void shouldWriteBatchAsOneFlowFile() throws Exception {
+            var writer = new MockRecordWriter(null, false);
+            testRunner.addControllerService("writer", writer);
+            testRunner.enableControllerService(writer);
+            testRunner.setProperty(RestApiGatewayConstants.Properties.BATCH_RECORD_WRITER, "writer");
+            testRunner.setProperty("restapi.users.batch-max-records", "2");
+            testRunner.assertValid();
+            testRunner.run(1, false, true);
+            int port = getServerPort();
+
+            for (String name : new String[]{"first", "second"}) {
+                var response = httpClient.send(
+                        HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/users"))
+                                .header("Authorization", "Bearer " + tokenHolder.getRawToken())
+                                .header("Content-Type", "text/plain")
+                                .POST(HttpRequest.BodyPublishers.ofString(name))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString());
+                assertEquals(202, response.statusCode());
+            }
+
+            testRunner.run(1, false, false);
+
+            var usersFiles = testRunner.getFlowFilesForRelationship("users");
+            assertEquals(1, usersFiles.size(), "Both requests must end up in a single batch FlowFile");
+            MockFlowFile flowFile = usersFiles.getFirst();
+            flowFile.assertAttributeEquals(RestApiAttributes.ROUTE_NAME, "users");
+            flowFile.assertAttributeEquals(RestApiAttributes.RECORD_COUNT, "2");
+            String content = flowFile.getContent();
+            assertTrue(content.contains("first") && content.contains("second"),
+                    "Every request body must be written as a record: " + content);
+        }
+    }
+
+    @Nested
+    @DisplayName("Queue Deadline")
+    class QueueDeadlineTests {
+
+        private HttpRequestContainer queuedFor(long ageMillis, Map<String, String> headers) {
+            return new HttpRequestContainer("users", "POST", "/api/users", Map.of(), headers,
+                    "127.0.0.1", new byte[0], null, null, null, null, Map.of(), Map.of(), null,
+                    System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ageMillis));
+        }
+
+        @Test
+        @DisplayName("Should drop a request that outlived the route's max queue age")
+        void shouldDropExpiredRequest() throws Exception {
+            testRunner.setProperty("restapi.users.max-queue-age", "1 sec");
+            testRunner.run(1, false, true);
+            enqueueDirectly(queuedFor(5_000, Map.of()));
+            enqueueDirectly(queuedFor(0, Map.of()));
+
+            testRunner.run(1, false, false);
+
+            assertEquals(1, testRunner.getFlowFilesForRelationship("users").size(),
+                    "Only the fresh request may become a FlowFile");
+            var events = ((RestApiGatewayProcessor) testRunner.getProcessor()).gatewaySecurityEvents.get();
+            assertEquals(Map.of("users", 1L), events.getQueueExpiredCounts());
+        }
+
+        @Test
+        @DisplayName("Should shorten the deadline to the client's X-Request-Timeout-Ms")
+        void shouldHonorClientTimeout() throws Exception {
+            testRunner.setProperty("restapi.users.max-queue-age", "1 min");
+            testRunner.run(1, false, true);
+            enqueueDirectly(queuedFor(500, Map.of("x-request-timeout-ms", "100")));
+            enqueueDirectly(queuedFor(500, Map.of("X-Request-Timeout-Ms", "not-a-number")));
+
+            testRunner.run(1, false, false);
+
+            assertEquals(1, testRunner.getFlowFilesForRelationship("users").size(),
+                    "An unparseable timeout must fall back to the route's max queue age");
+        }
+
+        @Test
+        @DisplayName("Should keep old requests on a route without a max queue age")
+        void shouldKeepRequestsWithoutMaxQueueAge() throws Exception {
+            testRunner.run(1, false, true);
+            enqueueDirectly(queuedFor(60_000, Map.of("X-Request-Timeout-Ms", "1")));
+
+            testRunner.run(1, false, false);
+
+            assertEquals(1, testRunner.getFlowFilesForRelationship("users").size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Body Splitting")
+    class BodySplittingTests {
+
+        @BeforeEach
+        void configureSplitRoute() {
+            testRunner.setProperty("restapi.events.path", "/api/events");
+            testRunner.setProperty("restapi.events.methods", "POST");
+            testRunner.setProperty("restapi.events.split-mode", "ndjson");
+            testRunner.setProperty("restapi.events.schema",
+                    "{\"type\":\"object\",\"required\":[\"id\"]}");
+        }
+
+        private HttpResponse<String> postEvents(String body) throws Exception {
+            return httpClient.send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + getServerPort() + "/api/events"))
+                            .header("Authorization", "Bearer " + tokenHolder.getRawToken())
+                            .header("Content-Type", "application/x-ndjson")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        }
+
+        @Test
+        @DisplayName("Should emit one FlowFile per valid element and report every element in a 207")
+        void shouldFanOutValidElements() throws Exception {
+            testRunner.run(1, false, true);
+
+            var response = postEvents("{\"id\":1}\n{\"name\":\"no-id\"}\n{\"id\":3}\n");
+
+            assertEquals(207, response.statusCode());
+            var result = Json.createReader(new StringReader(response.body())).readObject();
+            assertEquals(2, result.getInt("accepted"));
+            assertEquals(1, result.getInt("rejected"));
+            var results = result.getJsonArray("results");
+            assertEquals(202, results.getJsonObject(0).getInt("status"));
+            assertEquals(422, results.getJsonObject(1).getInt("status"));
+            assertFalse(results.getJsonObject(1).getJsonArray("violations").isEmpty());
+            assertEquals(202, results.getJsonObject(2).getInt("status"));
+
+            testRunner.run(2, false, false);
+
+            var events = testRunner.getFlowFilesForRelationship("events");
+            assertEquals(2, events.size());
+            events.getFirst().assertContentEquals("{\"id\":1}");
+            events.getFirst().assertAttributeEquals(RestApiAttributes.FRAGMENT_INDEX, "0");
+            events.getFirst().assertAttributeEquals(RestApiAttributes.FRAGMENT_COUNT, "2");
+            events.getFirst().assertAttributeEquals(RestApiAttributes.SPLIT_ELEMENT_INDEX, "0");
+            events.get(1).assertContentEquals("{\"id\":3}");
+            events.get(1).assertAttributeEquals(RestApiAttributes.FRAGMENT_INDEX, "1");
+            events.get(1).assertAttributeEquals(RestApiAttributes.SPLIT_ELEMENT_INDEX, "2");
+            assertEquals(events.getFirst().getAttribute(RestApiAttributes.FRAGMENT_IDENTIFIER),
+                    events.get(1).getAttribute(RestApiAttributes.FRAGMENT_IDENTIFIER));
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed JSON array body as a whole with 422")
+        void shouldRejectMalformedArray() throws Exception {
+            testRunner.setProperty("restapi.events.split-mode", "json-array");
+            testRunner.run(1, false, true);
+
+            var response = postEvents("{\"id\":1}");
+
+            assertEquals(422, response.statusCode());
+            testRunner.run(1, false, false);
+            assertTrue(testRunner.getFlowFilesForRelationship("events").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should reject a body with more elements than split-max-elements with 413")
+        void shouldRejectTooManyElements() throws Exception {
+            testRunner.setProperty("restapi.events.split-max-elements", "2");
+            testRunner.run(1, false, true);
+
+            var response = postEvents("{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n");
+
+            assertEquals(413, response.statusCode());
+            testRunner.run(1, false, false);
+            assertTrue(testRunner.getFlowFilesForRelationship("events").isEmpty());
+        }
+    }
+
     @Nested
     @DisplayName("onStopped Drain and Tracking Eviction (M5b)")
     class OnStoppedDrainTests {
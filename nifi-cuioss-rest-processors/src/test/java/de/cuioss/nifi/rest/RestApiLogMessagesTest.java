@@ -119,15 +119,15 @@ class RestApiLogMessagesTest {
     class IdentifierRanges {
 
         @Test
-        @DisplayName("INFO identifiers stay within the documented 1-22 range")
+        @DisplayName("INFO identifiers stay within the documented 1-29 range")
         void infoIdentifiersInRange() {
-            assertIdentifiersInRange(RestApiLogMessages.INFO.class, 1, 22);
+            assertIdentifiersInRange(RestApiLogMessages.INFO.class, 1, 29);
         }
 
         @Test
-        @DisplayName("WARN identifiers stay within the documented 100-124 range")
+        @DisplayName("WARN identifiers stay within the documented 100-135 range")
         void warnIdentifiersInRange() {
-            assertIdentifiersInRange(RestApiLogMessages.WARN.class, 100, 124);
+            assertIdentifiersInRange(RestApiLogMessages.WARN.class, 100, 135);
         }
 
         @Test
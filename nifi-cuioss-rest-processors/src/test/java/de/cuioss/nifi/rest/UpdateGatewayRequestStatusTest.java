@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest;
+
+import de.cuioss.nifi.rest.handler.RequestStatusStore;
+import de.cuioss.nifi.rest.handler.RequestStatusStoreTest;
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.apache.nifi.distributed.cache.client.Deserializer;
+import org.apache.nifi.distributed.cache.client.Serializer;
+import org.apache.nifi.util.TestRunner;
+import org.apache.nifi.util.TestRunners;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UpdateGatewayRequestStatus")
+@EnableTestLogger
+class UpdateGatewayRequestStatusTest {
+
+    private static final Serializer<String> KEY_SERIALIZER = (value, out) ->
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+    private static final Deserializer<String> JSON_DESERIALIZER = bytes ->
+            bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+
+    private RequestStatusStoreTest.InMemoryMapCacheClient cache;
+    private RequestStatusStore statusStore;
+    private TestRunner testRunner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cache = new RequestStatusStoreTest.InMemoryMapCacheClient();
+        statusStore = new RequestStatusStore(cache);
+        testRunner = TestRunners.newTestRunner(UpdateGatewayRequestStatus.class);
+        testRunner.addControllerService("cache", cache);
+        testRunner.enableControllerService(cache);
+        testRunner.setProperty(UpdateGatewayRequestStatusConstants.Properties.DISTRIBUTED_MAP_CACHE_CLIENT, "cache");
+    }
+
+    @Nested
+    @DisplayName("Routing")
+    class Routing {
+
+        @Test
+        @DisplayName("Should update a tracked request and route the FlowFile to success")
+        void shouldUpdateTrackedRequest() throws IOException {
+            String traceId = accepted();
+            testRunner.setProperty(UpdateGatewayRequestStatusConstants.Properties.STATUS, "${outcome}");
+            testRunner.setProperty(UpdateGatewayRequestStatusConstants.Properties.ERROR_DETAIL, "${reason}");
+            testRunner.setProperty("orderId", "${order}");
+
+            testRunner.enqueue("", Map.of(RestApiAttributes.TRACE_ID, traceId,
+                    "outcome", "rejected", "reason", "duplicate order", "order", "4711"));
+            testRunner.run();
+
+            testRunner.assertAllFlowFilesTransferred(UpdateGatewayRequestStatusConstants.Relationships.SUCCESS, 1);
+            testRunner.getFlowFilesForRelationship(UpdateGatewayRequestStatusConstants.Relationships.SUCCESS)
+                    .getFirst().assertAttributeEquals(RestApiAttributes.TRACE_STATUS, "REJECTED");
+            JsonObject entry = storedEntry(traceId);
+            assertEquals("REJECTED", entry.getString("status"));
+            assertEquals("duplicate order", entry.getString("errorDetail"));
+            assertEquals("4711", entry.getString("orderId"));
+        }
+
+        @Test
+        @DisplayName("Should route FlowFiles of unknown trace IDs to not.found")
+        void shouldRouteUnknownTraceToNotFound() {
+            testRunner.enqueue("", Map.of(RestApiAttributes.TRACE_ID, UUID.randomUUID().toString()));
+            testRunner.run();
+
+            testRunner.assertAllFlowFilesTransferred(UpdateGatewayRequestStatusConstants.Relationships.NOT_FOUND, 1);
+        }
+
+        @Test
+        @DisplayName("Should route FlowFiles without trace ID or with a gateway-owned status to failure")
+        void shouldRouteInvalidFlowFilesToFailure() throws IOException {
+            String traceId = accepted();
+            testRunner.setProperty(UpdateGatewayRequestStatusConstants.Properties.STATUS, "${outcome}");
+
+            testRunner.enqueue("", Map.of("outcome", "PROCESSED"));
+            testRunner.enqueue("", Map.of(RestApiAttributes.TRACE_ID, traceId, "outcome", "EXPIRED"));
+            testRunner.enqueue("", Map.of(RestApiAttributes.TRACE_ID, traceId, "outcome", "DONE"));
+            testRunner.run();
+
+            testRunner.assertAllFlowFilesTransferred(UpdateGatewayRequestStatusConstants.Relationships.FAILURE, 3);
+            assertEquals("ACCEPTED", storedEntry(traceId).getString("status"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Coalescing")
+    class Coalescing {
+
+        @Test
+        @DisplayName("Should coalesce updates of one trigger with the last FlowFile's status winning")
+        void shouldCoalesceUpdatesPerTraceId() throws IOException {
+            String traceId = accepted();
+            String other = accepted();
+            testRunner.setProperty(UpdateGatewayRequestStatusConstants.Properties.STATUS, "${outcome}");
+            testRunner.setProperty("step", "${step}");
+
+            testRunner.enqueue("", Map.of(RestApiAttributes.TRACE_ID, traceId, "outcome", "PROCESSING", "step", "1"));
+            testRunner.enqueue("", Map.of(RestApiAttributes.TRACE_ID, other, "outcome", "RETRY", "step", "1"));
+            testRunner.enqueue("", Map.of(RestApiAttributes.TRACE_ID, traceId, "outcome", "PROCESSED", "step", "2"));
+            testRunner.run();
+
+            testRunner.assertAllFlowFilesTransferred(UpdateGatewayRequestStatusConstants.Relationships.SUCCESS, 3);
+            assertEquals("PROCESSED", storedEntry(traceId).getString("status"));
+            assertEquals("2", storedEntry(traceId).getString("step"));
+            assertEquals("RETRY", storedEntry(other).getString("status"));
+        }
+
+        @Test
+        @DisplayName("Should take at most Batch Size FlowFiles per trigger")
+        void shouldHonourBatchSize() throws IOException {
+            testRunner.setProperty(UpdateGatewayRequestStatusConstants.Properties.BATCH_SIZE, "2");
+            for (int i = 0; i < 3; i++) {
+                testRunner.enqueue("", Map.of(RestApiAttributes.TRACE_ID, accepted()));
+            }
+
+            testRunner.run();
+
+            testRunner.assertTransferCount(UpdateGatewayRequestStatusConstants.Relationships.SUCCESS, 2);
+            testRunner.assertQueueNotEmpty();
+        }
+    }
+
+    private String accepted() throws IOException {
+        String traceId = UUID.randomUUID().toString();
+        statusStore.accept(traceId, null);
+        return traceId;
+    }
+
+    private JsonObject storedEntry(String traceId) throws IOException {
+        String json = cache.get(traceId, KEY_SERIALIZER, JSON_DESERIALIZER);
+        assertNotNull(json);
+        return Json.createReader(new StringReader(json)).readObject();
+    }
+}
@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -529,4 +530,349 @@ class RouteConfigurationParserTest {
             assertNull(routes.getFirst().attachmentsTimeout());
         }
     }
+
+    @Nested
+    @DisplayName("Resumable Uploads")
+    class ResumableUploads {
+
+        @Test
+        @DisplayName("Should parse resumable-uploads=true")
+        void shouldParseResumableUploads() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.files.path", "/api/files");
+            properties.put("restapi.files.resumable-uploads", "true");
+
+            List<RouteConfiguration> routes = RouteConfigurationParser.parse(properties);
+
+            assertTrue(routes.getFirst().resumableUploads());
+            assertEquals("/api/files/uploads", routes.getFirst().uploadsPath());
+        }
+
+        @Test
+        @DisplayName("Should default resumable-uploads to false")
+        void shouldDefaultResumableUploadsToFalse() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.files.path", "/api/files");
+
+            List<RouteConfiguration> routes = RouteConfigurationParser.parse(properties);
+
+            assertFalse(routes.getFirst().resumableUploads());
+        }
+
+        @Test
+        @DisplayName("Should skip a route combining resumable-uploads with a path pattern")
+        void shouldSkipPatternRouteWithResumableUploads() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.files.path", "/api/files/{id}");
+            properties.put("restapi.files.resumable-uploads", "true");
+
+            List<RouteConfiguration> routes = RouteConfigurationParser.parse(properties);
+
+            assertTrue(routes.isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Attachment Aggregation")
+    class AttachmentAggregation {
+
+        @Test
+        @DisplayName("Should parse aggregate-attachments=true on an attachments-tracked route")
+        void shouldParseAggregateAttachments() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.orders.path", "/api/orders");
+            properties.put("restapi.orders.tracking-mode", "attachments");
+            properties.put("restapi.orders.aggregate-attachments", "true");
+
+            List<RouteConfiguration> routes = RouteConfigurationParser.parse(properties);
+
+            assertTrue(routes.getFirst().aggregateAttachments());
+        }
+
+        @Test
+        @DisplayName("Should skip a route requesting aggregation without attachments tracking")
+        void shouldSkipRouteWithoutAttachmentsTracking() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.orders.path", "/api/orders");
+            properties.put("restapi.orders.aggregate-attachments", "true");
+
+            List<RouteConfiguration> routes = RouteConfigurationParser.parse(properties);
+
+            assertTrue(routes.isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Attribute Projection")
+    class Projection {
+
+        @Test
+        @DisplayName("Should include every name when no projection is configured")
+        void shouldDefaultToUnrestricted() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.users.path", "/api/users");
+
+            RouteConfiguration route = RouteConfigurationParser.parse(properties).getFirst();
+
+            assertTrue(route.headerProjection().isUnrestricted());
+            assertTrue(route.queryProjection().isUnrestricted());
+            assertTrue(route.claimProjection().isUnrestricted());
+        }
+
+        @Test
+        @DisplayName("Should parse header lists case-insensitively and query/claim lists case-sensitively")
+        void shouldParseProjectionLists() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.users.path", "/api/users");
+            properties.put("restapi.users.header-allowlist", "Content-Type, X-B3-*");
+            properties.put("restapi.users.header-denylist", "x-b3-sampled");
+            properties.put("restapi.users.query-allowlist", "page,size");
+            properties.put("restapi.users.claim-denylist", "permissions");
+
+            RouteConfiguration route = RouteConfigurationParser.parse(properties).getFirst();
+
+            assertTrue(route.headerProjection().includes("content-type"));
+            assertTrue(route.headerProjection().includes("x-b3-traceid"));
+            assertFalse(route.headerProjection().includes("X-B3-Sampled"));
+            assertFalse(route.headerProjection().includes("User-Agent"));
+            assertTrue(route.queryProjection().includes("page"));
+            assertFalse(route.queryProjection().includes("Page"));
+            assertTrue(route.claimProjection().includes("tenant"));
+            assertFalse(route.claimProjection().includes("permissions"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Record Batching")
+    class RecordBatching {
+
+        @Test
+        @DisplayName("Should not batch by default")
+        void shouldNotBatchByDefault() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.events.path", "/api/events");
+
+            RouteConfiguration route = RouteConfigurationParser.parse(properties).getFirst();
+
+            assertFalse(route.isBatched());
+            assertEquals(0, route.batchMaxRecords());
+            assertNull(route.batchMaxWait());
+        }
+
+        @Test
+        @DisplayName("Should parse batch limits and default the byte limit and wait")
+        void shouldParseBatchLimits() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.events.path", "/api/events");
+            properties.put("restapi.events.batch-max-records", "500");
+
+            RouteConfiguration route = RouteConfigurationParser.parse(properties).getFirst();
+
+            assertTrue(route.isBatched());
+            assertEquals(500, route.batchMaxRecords());
+            assertEquals(RouteConfiguration.DEFAULT_BATCH_MAX_BYTES, route.batchMaxBytes());
+            assertEquals(RouteConfigurationParser.DEFAULT_BATCH_MAX_WAIT, route.batchMaxWait());
+        }
+
+        @Test
+        @DisplayName("Should skip a batched route that does not create FlowFiles")
+        void shouldSkipBatchedRouteWithoutFlowFiles() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.events.path", "/api/events");
+            properties.put("restapi.events.create-flowfile", "false");
+            properties.put("restapi.events.batch-max-records", "10");
+
+            assertTrue(RouteConfigurationParser.parse(properties).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should skip a batched route with attachments tracking")
+        void shouldSkipBatchedRouteWithAttachments() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.events.path", "/api/events");
+            properties.put("restapi.events.tracking-mode", "attachments");
+            properties.put("restapi.events.batch-max-records", "10");
+
+            assertTrue(RouteConfigurationParser.parse(properties).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Split Mode")
+    class SplitModeParsing {
+
+        @Test
+        @DisplayName("Should parse json-array and ndjson and default to none")
+        void shouldParseSplitMode() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.plain.path", "/api/plain");
+            properties.put("restapi.array.path", "/api/array");
+            properties.put("restapi.array.split-mode", "json-array");
+            properties.put("restapi.lines.path", "/api/lines");
+            properties.put("restapi.lines.split-mode", "NDJSON");
+
+            Map<String, SplitMode> modes = RouteConfigurationParser.parse(properties).stream()
+                    .collect(Collectors.toMap(RouteConfiguration::name, RouteConfiguration::splitMode));
+
+            assertEquals(Map.of("plain", SplitMode.NONE, "array", SplitMode.JSON_ARRAY, "lines", SplitMode.NDJSON),
+                    modes);
+        }
+
+        @Test
+        @DisplayName("Should parse split-max-elements and default to 1000")
+        void shouldParseSplitMaxElements() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.array.path", "/api/array");
+            properties.put("restapi.array.split-mode", "json-array");
+            properties.put("restapi.lines.path", "/api/lines");
+            properties.put("restapi.lines.split-mode", "ndjson");
+            properties.put("restapi.lines.split-max-elements", "50");
+
+            Map<String, Integer> limits = RouteConfigurationParser.parse(properties).stream()
+                    .collect(Collectors.toMap(RouteConfiguration::name, RouteConfiguration::splitMaxElements));
+
+            assertEquals(Map.of("array", RouteConfiguration.DEFAULT_SPLIT_MAX_ELEMENTS, "lines", 50), limits);
+        }
+
+        @Test
+        @DisplayName("Should warn and fall back to none for an unknown split mode")
+        void shouldDefaultUnknownSplitMode() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.events.path", "/api/events");
+            properties.put("restapi.events.split-mode", "csv");
+
+            RouteConfiguration route = RouteConfigurationParser.parse(properties).getFirst();
+
+            assertEquals(SplitMode.NONE, route.splitMode());
+            LogAsserts.assertLogMessagePresentContaining(TestLogLevel.WARN, "Invalid split-mode 'csv'");
+        }
+
+        @Test
+        @DisplayName("Should skip a split route with attachments tracking")
+        void shouldSkipSplitRouteWithAttachments() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.events.path", "/api/events");
+            properties.put("restapi.events.tracking-mode", "attachments");
+            properties.put("restapi.events.split-mode", "ndjson");
+
+            assertTrue(RouteConfigurationParser.parse(properties).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Rate Limit")
+    class RateLimitParsing {
+
+        @Test
+        @DisplayName("Should parse rate limit, burst and key")
+        void shouldParseRateLimit() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.orders.path", "/api/orders");
+            properties.put("restapi.orders.rate-limit", "5");
+            properties.put("restapi.orders.rate-limit-burst", "20");
+            properties.put("restapi.orders.rate-limit-key", "authorized-party");
+
+            RouteConfiguration route = RouteConfigurationParser.parse(properties).getFirst();
+
+            assertTrue(route.isRateLimited());
+            assertEquals(5, route.rateLimit());
+            assertEquals(20, route.effectiveRateLimitBurst());
+            assertEquals(RateLimitKey.AUTHORIZED_PARTY, route.rateLimitKey());
+        }
+
+        @Test
+        @DisplayName("Should default to unlimited and ignore a burst without a rate")
+        void shouldDefaultToUnlimited() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.orders.path", "/api/orders");
+            properties.put("restapi.orders.rate-limit-burst", "20");
+
+            RouteConfiguration route = RouteConfigurationParser.parse(properties).getFirst();
+
+            assertFalse(route.isRateLimited());
+            assertEquals(0, route.rateLimitBurst());
+            assertEquals(RateLimitKey.SUBJECT, route.rateLimitKey());
+        }
+
+        @Test
+        @DisplayName("Should warn and fall back to subject for an unknown key")
+        void shouldDefaultUnknownKey() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.orders.path", "/api/orders");
+            properties.put("restapi.orders.rate-limit", "5");
+            properties.put("restapi.orders.rate-limit-key", "tenant");
+
+            RouteConfiguration route = RouteConfigurationParser.parse(properties).getFirst();
+
+            assertEquals(RateLimitKey.SUBJECT, route.rateLimitKey());
+            LogAsserts.assertLogMessagePresentContaining(TestLogLevel.WARN, "Invalid rate-limit-key 'tenant'");
+        }
+    }
+
+    @Nested
+    @DisplayName("Priority")
+    class PriorityParsing {
+
+        @Test
+        @DisplayName("Should parse priority case-insensitively and default to normal")
+        void shouldParsePriority() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.health.path", "/api/health");
+            properties.put("restapi.health.priority", "HIGH");
+            properties.put("restapi.reports.path", "/api/reports");
+            properties.put("restapi.reports.priority", "low");
+            properties.put("restapi.orders.path", "/api/orders");
+
+            Map<String, RoutePriority> priorities = RouteConfigurationParser.parse(properties).stream()
+                    .collect(Collectors.toMap(RouteConfiguration::name, RouteConfiguration::priority));
+
+            assertEquals(Map.of("health", RoutePriority.HIGH, "reports", RoutePriority.LOW,
+                    "orders", RoutePriority.NORMAL), priorities);
+        }
+
+        @Test
+        @DisplayName("Should warn and fall back to normal for an unknown priority")
+        void shouldDefaultUnknownPriority() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.orders.path", "/api/orders");
+            properties.put("restapi.orders.priority", "urgent");
+
+            RouteConfiguration route = RouteConfigurationParser.parse(properties).getFirst();
+
+            assertEquals(RoutePriority.NORMAL, route.priority());
+            LogAsserts.assertLogMessagePresentContaining(TestLogLevel.WARN, "Invalid route priority 'urgent'");
+        }
+    }
+
+    @Nested
+    @DisplayName("Max Queue Age")
+    class MaxQueueAgeParsing {
+
+        @Test
+        @DisplayName("Should parse max-queue-age and leave it unset by default")
+        void shouldParseMaxQueueAge() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.orders.path", "/api/orders");
+            properties.put("restapi.orders.max-queue-age", " 5 sec ");
+            properties.put("restapi.reports.path", "/api/reports");
+
+            Map<String, RouteConfiguration> routes = RouteConfigurationParser.parse(properties).stream()
+                    .collect(Collectors.toMap(RouteConfiguration::name, route -> route));
+
+            assertEquals("5 sec", routes.get("orders").maxQueueAge());
+            assertFalse(routes.get("reports").hasMaxQueueAge());
+        }
+
+        @Test
+        @DisplayName("Should skip a route that combines max-queue-age with attachment tracking")
+        void shouldSkipMaxQueueAgeWithAttachments() {
+            Map<String, String> properties = new HashMap<>();
+            properties.put("restapi.orders.path", "/api/orders");
+            properties.put("restapi.orders.tracking-mode", "attachments");
+            properties.put("restapi.orders.max-queue-age", "5 sec");
+
+            assertTrue(RouteConfigurationParser.parse(properties).isEmpty());
+            LogAsserts.assertLogMessagePresentContaining(TestLogLevel.WARN, "maxQueueAge requires createFlowFile");
+        }
+    }
 }
@@ -376,4 +376,151 @@ class RouteConfigurationTest {
             assertThrows(IllegalArgumentException.class, builder::build);
         }
     }
+
+    @Nested
+    @DisplayName("Resumable Uploads")
+    class ResumableUploads {
+
+        @Test
+        @DisplayName("Should default resumableUploads to false")
+        void shouldDefaultToFalse() {
+            var route = RouteConfiguration.builder().name("files").path("/api/files").build();
+            assertFalse(route.resumableUploads());
+        }
+
+        @Test
+        @DisplayName("Should derive the uploads path from the route path")
+        void shouldDeriveUploadsPath() {
+            var route = RouteConfiguration.builder()
+                    .name("files").path("/api/files/").resumableUploads(true).build();
+            assertEquals("/api/files/uploads", route.uploadsPath());
+        }
+
+        @Test
+        @DisplayName("Should reject resumable uploads on a route without FlowFile creation")
+        void shouldRejectWithoutFlowFile() {
+            var builder = RouteConfiguration.builder()
+                    .name("files").path("/api/files")
+                    .createFlowFile(false)
+                    .resumableUploads(true);
+            assertThrows(IllegalArgumentException.class, builder::build);
+        }
+
+        @Test
+        @DisplayName("Should reject resumable uploads on a pattern route")
+        void shouldRejectPatternRoute() {
+            var builder = RouteConfiguration.builder()
+                    .name("files").path("/api/files/{id}").resumableUploads(true);
+            assertThrows(IllegalArgumentException.class, builder::build);
+        }
+    }
+
+    @Nested
+    @DisplayName("Attachment Aggregation")
+    class AttachmentAggregation {
+
+        @Test
+        @DisplayName("Should default aggregateAttachments to false")
+        void shouldDefaultToFalse() {
+            var route = RouteConfiguration.builder().name("orders").path("/api/orders").build();
+            assertFalse(route.aggregateAttachments());
+        }
+
+        @Test
+        @DisplayName("Should accept aggregation on an attachments-tracked route")
+        void shouldAcceptOnAttachmentsRoute() {
+            var route = RouteConfiguration.builder()
+                    .name("orders").path("/api/orders")
+                    .trackingMode(TrackingMode.ATTACHMENTS)
+                    .attachmentsTimeout("30 sec")
+                    .aggregateAttachments(true)
+                    .build();
+            assertTrue(route.aggregateAttachments());
+        }
+
+        @Test
+        @DisplayName("Should reject aggregation without attachments tracking")
+        void shouldRejectWithoutAttachmentsTracking() {
+            var builder = RouteConfiguration.builder()
+                    .name("orders").path("/api/orders")
+                    .trackingMode(TrackingMode.SIMPLE)
+                    .aggregateAttachments(true);
+            assertThrows(IllegalArgumentException.class, builder::build);
+        }
+    }
+
+    @Nested
+    @DisplayName("Rate Limit")
+    class RateLimit {
+
+        @Test
+        @DisplayName("Should default the burst to the sustained rate")
+        void shouldDefaultBurstToRate() {
+            var route = RouteConfiguration.builder().name("orders").path("/api/orders").rateLimit(5).build();
+            assertTrue(route.isRateLimited());
+            assertEquals(5, route.effectiveRateLimitBurst());
+        }
+
+        @Test
+        @DisplayName("Should reject a negative rate or a burst without a rate")
+        void shouldRejectInvalidRateLimit() {
+            var negative = RouteConfiguration.builder().name("orders").path("/api/orders").rateLimit(-1);
+            var burstOnly = RouteConfiguration.builder().name("orders").path("/api/orders").rateLimitBurst(5);
+            assertThrows(IllegalArgumentException.class, negative::build);
+            assertThrows(IllegalArgumentException.class, burstOnly::build);
+        }
+    }
+
+    @Nested
+    @DisplayName("Max Queue Age")
+    class MaxQueueAge {
+
+        @Test
+        @DisplayName("Should reject a max queue age on an HTTP-only route")
+        void shouldRejectMaxQueueAgeWithoutFlowFile() {
+            var httpOnly = RouteConfiguration.builder().name("health").path("/api/health")
+                    .createFlowFile(false).maxQueueAge("5 sec");
+            assertThrows(IllegalArgumentException.class, httpOnly::build);
+        }
+
+        @Test
+        @DisplayName("Should allow a max queue age change on live reload")
+        void shouldReloadMaxQueueAge() {
+            var previous = RouteConfiguration.builder().name("orders").path("/api/orders").successOutcome("orders")
+                    .build();
+            var reloaded = RouteConfiguration.builder().name("orders").path("/api/orders").successOutcome("orders")
+                    .maxQueueAge("2 sec").build();
+            assertTrue(reloaded.isLiveReloadableFrom(previous));
+        }
+    }
+
+    @Nested
+    @DisplayName("Live Reload")
+    class LiveReload {
+
+        private RouteConfiguration.RouteConfigurationBuilder orders() {
+            return RouteConfiguration.builder().name("orders").path("/api/orders").successOutcome("orders");
+        }
+
+        @Test
+        @DisplayName("Should allow changes to path, methods, auth and schema")
+        void shouldAllowStatelessChanges() {
+            var changed = orders().path("/api/v2/orders").method("PUT").requiredRole("ADMIN")
+                    .authModes(Set.of(AuthMode.NONE)).schemaPath("{\"type\": \"object\"}")
+                    .build();
+
+            assertTrue(changed.isLiveReloadableFrom(orders().build()));
+        }
+
+        @Test
+        @DisplayName("Should require a restart for outcome, tracking and batching changes")
+        void shouldRejectStatefulChanges() {
+            var current = orders().build();
+
+            assertFalse(orders().successOutcome("other").build().isLiveReloadableFrom(current));
+            assertFalse(orders().trackingMode(TrackingMode.SIMPLE).build().isLiveReloadableFrom(current));
+            assertFalse(orders().batchMaxRecords(10).build().isLiveReloadableFrom(current));
+            assertFalse(orders().createFlowFile(false).build().isLiveReloadableFrom(current));
+        }
+    }
 }
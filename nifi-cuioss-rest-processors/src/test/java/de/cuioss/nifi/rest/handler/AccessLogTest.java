@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AccessLog")
+@EnableTestLogger
+class AccessLogTest {
+
+    private static final long TIMESTAMP = 1_760_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private AccessLog accessLog;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        accessLog = new AccessLog(directory, 16, 100, 1024 * 1024, 2, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLog.close();
+    }
+
+    private static AccessLogRecord accessLogRecord(int status, String traceId) {
+        return new AccessLogRecord(TIMESTAMP, "POST", "/api/orders", "orders", status, 12, 80, 450,
+                "203.0.113.7", "alice", traceId);
+    }
+
+    private List<JsonObject> lines(Path file) throws IOException {
+        List<JsonObject> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            lines.add(Json.createReader(new StringReader(line)).readObject());
+        }
+        return lines;
+    }
+
+    @Nested
+    @DisplayName("Writing")
+    class Writing {
+
+        @Test
+        @DisplayName("Should write one JSON line per record with all fields")
+        void shouldWriteJsonLine() throws IOException {
+            accessLog.append(accessLogRecord(202, "trace-1"));
+
+            assertEquals(1, accessLog.drain());
+
+            JsonObject line = lines(directory.resolve(AccessLog.FILE_NAME)).getFirst();
+            assertEquals("2025-10-09T08:53:20Z", line.getString("timestamp"));
+            assertEquals("POST", line.getString("method"));
+            assertEquals("/api/orders", line.getString("path"));
+            assertEquals("orders", line.getString("route"));
+            assertEquals(202, line.getInt("status"));
+            assertEquals(12, line.getInt("requestBytes"));
+            assertEquals(80, line.getInt("responseBytes"));
+            assertEquals(450, line.getInt("durationMicros"));
+            assertEquals("203.0.113.7", line.getString("remoteHost"));
+            assertEquals("alice", line.getString("subject"));
+            assertEquals("trace-1", line.getString("traceId"));
+            assertEquals(1, accessLog.stats().written());
+        }
+
+        @Test
+        @DisplayName("Should omit the fields of unmatched, anonymous and untracked requests")
+        void shouldOmitAbsentFields() throws IOException {
+            accessLog.append(new AccessLogRecord(TIMESTAMP, "GET", "/nowhere", null, 404, 0, 120, 90,
+                    "127.0.0.1", null, null));
+            accessLog.drain();
+
+            JsonObject line = lines(directory.resolve(AccessLog.FILE_NAME)).getFirst();
+            assertFalse(line.containsKey("route"));
+            assertFalse(line.containsKey("subject"));
+            assertFalse(line.containsKey("traceId"));
+        }
+
+        @Test
+        @DisplayName("Should write the records still queued on close")
+        void shouldWriteRemainderOnClose() throws IOException {
+            accessLog.append(accessLogRecord(200, "trace-1"));
+            accessLog.append(accessLogRecord(200, "trace-2"));
+
+            accessLog.close();
+
+            assertEquals(2, lines(directory.resolve(AccessLog.FILE_NAME)).size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Back-pressure and sampling")
+    class BackPressureAndSampling {
+
+        @Test
+        @DisplayName("Should drop records instead of blocking when the buffer is full")
+        void shouldDropWhenFull() {
+            for (int i = 0; i < 20; i++) {
+                accessLog.append(accessLogRecord(200, "trace-" + i));
+            }
+
+            assertEquals(4, accessLog.stats().dropped());
+            assertEquals(16, accessLog.drain());
+        }
+
+        @Test
+        @DisplayName("Should sample successful requests but always admit rejected ones")
+        void shouldSampleSuccessfulOnly() throws IOException {
+            try (var sampled = new AccessLog(directory.resolve("sampled"), 16, 0, 1024, 1, false)) {
+                assertFalse(sampled.admit(200));
+                assertFalse(sampled.admit(302));
+                assertTrue(sampled.admit(401));
+                assertTrue(sampled.admit(503));
+                assertEquals(2, sampled.stats().sampledOut());
+            }
+            assertTrue(accessLog.admit(200));
+        }
+
+        @Test
+        @DisplayName("Should reject an invalid sample percentage")
+        void shouldRejectInvalidSamplePercent() {
+            Path target = directory.resolve("invalid");
+            assertThrows(IllegalArgumentException.class, () -> new AccessLog(target, 16, 101, 1024, 1, false));
+        }
+    }
+
+    @Nested
+    @DisplayName("Rotation")
+    class Rotation {
+
+        @Test
+        @DisplayName("Should rotate once the file exceeds its size and keep the configured number of files")
+        void shouldRotate() throws IOException {
+            int lineLength = AccessLog.toJsonLine(accessLogRecord(200, "trace-0")).length;
+            try (var rotating = new AccessLog(directory.resolve("rotating"), 16, 100, lineLength * 2L, 2, false)) {
+                for (int i = 0; i < 7; i++) {
+                    rotating.append(accessLogRecord(200, "trace-" + i));
+                }
+                rotating.drain();
+            }
+
+            Path base = directory.resolve("rotating");
+            assertEquals(List.of("trace-6"), traceIds(base.resolve(AccessLog.FILE_NAME)));
+            assertEquals(List.of("trace-4", "trace-5"), traceIds(base.resolve(AccessLog.FILE_NAME + ".1")));
+            assertEquals(List.of("trace-2", "trace-3"), traceIds(base.resolve(AccessLog.FILE_NAME + ".2")));
+            assertFalse(Files.exists(base.resolve(AccessLog.FILE_NAME + ".3")));
+        }
+
+        private List<String> traceIds(Path file) throws IOException {
+            return lines(file).stream().map(line -> line.getString("traceId")).toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("AccessLogRing")
+    class Ring {
+
+        @Test
+        @DisplayName("Should round the capacity up to a power of two")
+        void shouldRoundCapacity() {
+            assertEquals(1, new AccessLogRing<String>(1).capacity());
+            assertEquals(8, new AccessLogRing<String>(5).capacity());
+            assertEquals(8, new AccessLogRing<String>(8).capacity());
+        }
+
+        @Test
+        @DisplayName("Should deliver every element of concurrent producers exactly once")
+        void shouldDeliverConcurrentElements() throws InterruptedException {
+            var ring = new AccessLogRing<Integer>(1024);
+            int producers = 4;
+            int perProducer = 10_000;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!ring.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+
+            Set<Integer> received = new HashSet<>();
+            while (received.size() < producers * perProducer) {
+                Integer element = ring.poll();
+                if (element != null) {
+                    assertTrue(received.add(element), "duplicate element " + element);
+                }
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertNull(ring.poll());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.config.RoutePriority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdaptiveConcurrencyLimiter")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private AdaptiveConcurrencyLimiter limiter(int capacity) {
+        return new AdaptiveConcurrencyLimiter(queued::get, capacity, TARGET, clock::get);
+    }
+
+    @Nested
+    @DisplayName("Admission")
+    class Admission {
+
+        @Test
+        @DisplayName("Should shed low priority at half the limit and normal priority at the limit")
+        void shouldShedByPriority() {
+            var limiter = limiter(10);
+            queued.set(5);
+
+            assertFalse(limiter.tryAdmit(RoutePriority.LOW));
+            assertTrue(limiter.tryAdmit(RoutePriority.NORMAL));
+
+            queued.set(10);
+            assertFalse(limiter.tryAdmit(RoutePriority.NORMAL));
+            assertTrue(limiter.tryAdmit(RoutePriority.HIGH));
+        }
+
+        @Test
+        @DisplayName("Should count shed requests per priority")
+        void shouldCountShedRequests() {
+            var limiter = limiter(4);
+            queued.set(4);
+
+            limiter.tryAdmit(RoutePriority.LOW);
+            limiter.tryAdmit(RoutePriority.LOW);
+            limiter.tryAdmit(RoutePriority.NORMAL);
+
+            var stats = limiter.stats();
+            assertEquals(2L, stats.shed().get(RoutePriority.LOW));
+            assertEquals(1L, stats.shed().get(RoutePriority.NORMAL));
+            assertEquals(0L, stats.shed().get(RoutePriority.HIGH));
+            assertEquals(4, stats.inFlight());
+        }
+
+        @Test
+        @DisplayName("Should reject non-positive configuration")
+        void shouldRejectInvalidConfiguration() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new AdaptiveConcurrencyLimiter(queued::get, 0, TARGET));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new AdaptiveConcurrencyLimiter(queued::get, 10, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Adaptation")
+    class Adaptation {
+
+        @Test
+        @DisplayName("Should lower the limit by a tenth when the queue wait exceeds the target")
+        void shouldDecreaseOnSlowWait() {
+            var limiter = limiter(100);
+
+            limiter.onDequeued(clock.get() - 2 * TARGET);
+
+            assertEquals(90, limiter.limit());
+        }
+
+        @Test
+        @DisplayName("Should lower the limit at most once per target interval")
+        void shouldDecreaseOncePerInterval() {
+            var limiter = limiter(100);
+
+            limiter.onDequeued(clock.get() - 2 * TARGET);
+            limiter.onDequeued(clock.get() - 2 * TARGET);
+            assertEquals(90, limiter.limit());
+
+            clock.addAndGet(TARGET);
+            limiter.onDequeued(clock.get() - 2 * TARGET);
+            assertEquals(81, limiter.limit());
+        }
+
+        @Test
+        @DisplayName("Should raise the limit by one per fast dequeue up to the capacity")
+        void shouldIncreaseOnFastWait() {
+            var limiter = limiter(100);
+            limiter.onDequeued(clock.get() - 2 * TARGET);
+
+            limiter.onDequeued(clock.get());
+            assertEquals(91, limiter.limit());
+
+            for (int i = 0; i < 20; i++) {
+                limiter.onDequeued(clock.get());
+            }
+            assertEquals(100, limiter.limit());
+        }
+
+        @Test
+        @DisplayName("Should lower the limit when a non-empty queue is not drained")
+        void shouldDecreaseOnStalledDrain() {
+            var limiter = limiter(100);
+            queued.set(1);
+
+            clock.addAndGet(2 * TARGET);
+            limiter.tryAdmit(RoutePriority.NORMAL);
+
+            assertEquals(90, limiter.limit());
+        }
+
+        @Test
+        @DisplayName("Should not treat an idle empty queue as stalled")
+        void shouldNotDecreaseAfterIdle() {
+            var limiter = limiter(100);
+
+            clock.addAndGet(10 * TARGET);
+            limiter.tryAdmit(RoutePriority.NORMAL);
+            queued.set(1);
+            limiter.tryAdmit(RoutePriority.NORMAL);
+
+            assertEquals(100, limiter.limit());
+        }
+
+        @Test
+        @DisplayName("Should never lower the limit below one")
+        void shouldKeepMinimumLimit() {
+            var limiter = limiter(2);
+            for (int i = 0; i < 5; i++) {
+                clock.addAndGet(TARGET);
+                limiter.onDequeued(clock.get() - 2 * TARGET);
+            }
+
+            assertEquals(1, limiter.limit());
+        }
+
+        @Test
+        @DisplayName("Should derive Retry-After from the smoothed queue wait")
+        void shouldDeriveRetryAfter() {
+            var limiter = limiter(10);
+            assertEquals(1L, limiter.retryAfterSeconds());
+
+            for (int i = 0; i < 50; i++) {
+                limiter.onDequeued(clock.get() - TimeUnit.SECONDS.toNanos(3));
+            }
+
+            assertEquals(3L, limiter.retryAfterSeconds());
+        }
+    }
+}
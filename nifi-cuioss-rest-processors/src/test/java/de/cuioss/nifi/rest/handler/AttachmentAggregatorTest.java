@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.RestApiAttributes;
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AttachmentAggregator")
+@EnableTestLogger
+class AttachmentAggregatorTest {
+
+    private static final String ROUTE = "orders";
+
+    @TempDir
+    Path directory;
+
+    private RequestStatusStore statusStore;
+    private AtomicLong clock;
+    private AttachmentAggregator aggregator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        statusStore = new RequestStatusStore(new RequestStatusStoreTest.InMemoryMapCacheClient());
+        clock = new AtomicLong();
+        aggregator = new AttachmentAggregator(directory,
+                Map.of(ROUTE, new AttachmentAggregator.Window(2, 5, Duration.ofSeconds(30))),
+                statusStore, clock::get);
+    }
+
+    @Nested
+    @DisplayName("Grouping")
+    class Grouping {
+
+        @Test
+        @DisplayName("Should hold the parent and the attachments below the minimum count")
+        void shouldHoldUntilMinimum() throws IOException {
+            String parentId = openParent();
+
+            assertNull(aggregator.absorb(attachment(parentId, "a.txt", "first")));
+            assertEquals(1, aggregator.size());
+        }
+
+        @Test
+        @DisplayName("Should emit one ZIP with parent, attachments and manifest when the minimum is met")
+        void shouldEmitArchiveAtMinimum() throws IOException {
+            String parentId = openParent();
+            aggregator.absorb(attachment(parentId, "a.txt", "first"));
+
+            HttpRequestContainer emitted = aggregator.absorb(attachment(parentId, null, "second"));
+
+            assertNotNull(emitted);
+            assertEquals(ROUTE, emitted.routeName());
+            assertEquals(parentId, emitted.traceId());
+            assertEquals(AttachmentAggregator.ARCHIVE_CONTENT_TYPE, emitted.contentType());
+            assertEquals(0, emitted.body().length);
+            assertEquals("2", emitted.attributes().get(RestApiAttributes.ATTACHMENTS_AGGREGATED_COUNT));
+            assertEquals("true", emitted.attributes().get(RestApiAttributes.ATTACHMENTS_AGGREGATED_COMPLETE));
+
+            Map<String, String> entries = readArchive(emitted.spooledBody());
+            assertEquals("{\"order\":1}", entries.get(AttachmentAggregator.PARENT_ENTRY));
+            assertEquals("first", entries.get("attachments/1-a.txt"));
+            assertEquals("second", entries.get("attachments/2"));
+
+            JsonObject manifest = Json.createReader(
+                    new StringReader(entries.get(AttachmentAggregator.MANIFEST_ENTRY))).readObject();
+            assertTrue(manifest.getBoolean("complete"));
+            assertEquals(parentId, manifest.getJsonObject("parent").getString("traceId"));
+            assertEquals(2, manifest.getJsonArray("attachments").size());
+            assertEquals("a.txt", manifest.getJsonArray("attachments").getJsonObject(0).getString("filename"));
+        }
+
+        @Test
+        @DisplayName("Should close the attachment window and clean up the group directory on emit")
+        void shouldCloseWindowOnEmit() throws IOException {
+            String parentId = openParent();
+            aggregator.absorb(attachment(parentId, null, "first"));
+            aggregator.absorb(attachment(parentId, null, "second"));
+
+            assertEquals(RequestStatus.PROCESSING, statusStore.getStatus(parentId).orElseThrow().status());
+            assertEquals(0, aggregator.size());
+            assertFalse(Files.exists(directory.resolve(parentId)));
+        }
+
+        @Test
+        @DisplayName("Should pass through late attachments and containers of other routes")
+        void shouldPassThroughUnrelatedContainers() throws IOException {
+            var other = new HttpRequestContainer("other", "POST", "/api/other", Map.of(), Map.of(),
+                    "127.0.0.1", new byte[0], null, null, UUID.randomUUID().toString(), null, Map.of());
+            var orphan = attachment(UUID.randomUUID().toString(), null, "late");
+
+            assertSame(other, aggregator.absorb(other));
+            assertSame(orphan, aggregator.absorb(orphan));
+        }
+    }
+
+    @Nested
+    @DisplayName("Timeout")
+    class Timeout {
+
+        @Test
+        @DisplayName("Should emit an incomplete archive once the window has timed out")
+        void shouldEmitIncompleteOnTimeout() throws IOException {
+            String parentId = openParent();
+            aggregator.absorb(attachment(parentId, null, "only"));
+
+            assertNull(aggregator.pollExpired());
+            clock.addAndGet(Duration.ofSeconds(31).toNanos());
+            HttpRequestContainer emitted = aggregator.pollExpired();
+
+            assertNotNull(emitted);
+            assertEquals("1", emitted.attributes().get(RestApiAttributes.ATTACHMENTS_AGGREGATED_COUNT));
+            assertEquals("false", emitted.attributes().get(RestApiAttributes.ATTACHMENTS_AGGREGATED_COMPLETE));
+            assertNull(aggregator.pollExpired());
+        }
+
+        @Test
+        @DisplayName("Should not emit a group again after it completed before its deadline")
+        void shouldSkipEmittedGroups() throws IOException {
+            String parentId = openParent();
+            aggregator.absorb(attachment(parentId, null, "first"));
+            aggregator.absorb(attachment(parentId, null, "second"));
+
+            clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+            assertNull(aggregator.pollExpired());
+        }
+    }
+
+    @Nested
+    @DisplayName("Lifecycle")
+    class Lifecycle {
+
+        @Test
+        @DisplayName("Should discard open groups and report their trace IDs")
+        void shouldDiscardAll() throws IOException {
+            String parentId = openParent();
+            var child = attachment(parentId, null, "first");
+            aggregator.absorb(child);
+
+            List<String> discarded = aggregator.discardAll();
+
+            assertEquals(List.of(parentId, child.traceId()), discarded);
+            assertEquals(0, aggregator.size());
+            assertFalse(Files.exists(directory.resolve(parentId)));
+        }
+
+        @Test
+        @DisplayName("Should remove spooled data of a previous run but keep foreign files")
+        void shouldRemoveLeftovers() throws IOException {
+            Path leftover = Files.createDirectories(directory.resolve(UUID.randomUUID().toString()));
+            Path archive = Files.createFile(directory.resolve(UUID.randomUUID() + ".zip"));
+            Path foreign = Files.createFile(directory.resolve("keep.me"));
+
+            new AttachmentAggregator(directory, Map.of(), statusStore);
+
+            assertFalse(Files.exists(leftover));
+            assertFalse(Files.exists(archive));
+            assertTrue(Files.exists(foreign));
+        }
+    }
+
+    private String openParent() throws IOException {
+        String traceId = UUID.randomUUID().toString();
+        statusStore.collectingAttachments(traceId, null, ROUTE, 5, 2);
+        var parent = new HttpRequestContainer(ROUTE, "POST", "/api/orders", Map.of(), Map.of(),
+                "127.0.0.1", "{\"order\":1}".getBytes(StandardCharsets.UTF_8), "application/json",
+                null, traceId, null, Map.of());
+        assertNull(aggregator.absorb(parent));
+        return traceId;
+    }
+
+    private static HttpRequestContainer attachment(String parentTraceId, String filename, String content) {
+        Map<String, String> attributes = filename != null
+                ? Map.of(RestApiAttributes.FILENAME, filename) : Map.of();
+        return new HttpRequestContainer(AttachmentsEndpointHandler.ATTACHMENTS_ROUTE_NAME, "POST",
+                "/attachments/" + parentTraceId, Map.of(), Map.of(), "127.0.0.1",
+                content.getBytes(StandardCharsets.UTF_8), "text/plain", null,
+                UUID.randomUUID().toString(), parentTraceId, Map.of(), attributes);
+    }
+
+    private static Map<String, String> readArchive(Path archive) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
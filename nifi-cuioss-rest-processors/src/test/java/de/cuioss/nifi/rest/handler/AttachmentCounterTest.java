@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import org.apache.nifi.distributed.cache.client.AtomicCacheEntry;
+import org.apache.nifi.distributed.cache.client.Serializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnableTestLogger
+@DisplayName("AttachmentCounter")
+class AttachmentCounterTest {
+
+    private static final Duration EXPIRY = Duration.ofMinutes(10);
+
+    private final AtomicLong clock = new AtomicLong(1_000L);
+    private String parent;
+
+    @BeforeEach
+    void setUp() {
+        parent = UUID.randomUUID().toString();
+    }
+
+    @Nested
+    @DisplayName("LocalAttachmentCounter")
+    class Local {
+
+        private LocalAttachmentCounter counter;
+
+        @BeforeEach
+        void setUp() {
+            counter = new LocalAttachmentCounter(100, EXPIRY, clock::get);
+        }
+
+        @Test
+        @DisplayName("Should grant up to the max and deny beyond it")
+        void shouldEnforceMax() throws IOException {
+            assertEquals(AttachmentCounter.Reservation.granted(1), counter.reserve(parent, 1, 2));
+            assertEquals(AttachmentCounter.Reservation.granted(2), counter.reserve(parent, 1, 2));
+            assertEquals(AttachmentCounter.Reservation.denied(2), counter.reserve(parent, 1, 2));
+        }
+
+        @Test
+        @DisplayName("Should reserve a batch all-or-nothing")
+        void shouldReserveBatchAllOrNothing() throws IOException {
+            assertTrue(counter.reserve(parent, 2, 3).granted());
+            assertEquals(AttachmentCounter.Reservation.denied(2), counter.reserve(parent, 2, 3));
+            assertEquals(AttachmentCounter.Reservation.granted(3), counter.reserve(parent, 1, 3));
+        }
+
+        @Test
+        @DisplayName("Should return released slots and ignore releases for unknown parents")
+        void shouldReleaseSlots() throws IOException {
+            counter.reserve(parent, 2, 2);
+            counter.release(parent, 1);
+            assertEquals(AttachmentCounter.Reservation.granted(2), counter.reserve(parent, 1, 2));
+
+            assertDoesNotThrow(() -> counter.release(UUID.randomUUID().toString(), 1));
+            assertEquals(1, counter.size(), "a release must not create a counter");
+        }
+
+        @Test
+        @DisplayName("Should restart counting after eviction")
+        void shouldRestartAfterEviction() throws IOException {
+            counter.reserve(parent, 2, 2);
+            counter.evict(parent);
+            assertEquals(0, counter.size());
+            assertEquals(AttachmentCounter.Reservation.granted(1), counter.reserve(parent, 1, 2));
+        }
+
+        @Test
+        @DisplayName("Should drop idle counters once they expire")
+        void shouldExpireIdleCounters() throws IOException {
+            String active = UUID.randomUUID().toString();
+            counter.reserve(parent, 1, 5);
+            clock.addAndGet(EXPIRY.toNanos() - 1);
+            counter.reserve(active, 1, 5);
+
+            counter.sweep(clock.get() + 1);
+
+            assertEquals(1, counter.size(), "only the idle counter must be dropped");
+            assertEquals(AttachmentCounter.Reservation.granted(2), counter.reserve(active, 1, 5));
+        }
+
+        @Test
+        @DisplayName("Should expire idle counters lazily on a later reservation")
+        void shouldSweepLazily() throws IOException {
+            counter.reserve(parent, 1, 5);
+            clock.addAndGet(EXPIRY.toNanos());
+
+            counter.reserve(UUID.randomUUID().toString(), 1, 5);
+
+            assertEquals(1, counter.size());
+        }
+
+        @Test
+        @DisplayName("Should stay within the bound by dropping the least recently used counters")
+        void shouldStayWithinBound() throws IOException {
+            var bounded = new LocalAttachmentCounter(10, EXPIRY, clock::get);
+            String first = UUID.randomUUID().toString();
+            bounded.reserve(first, 1, 5);
+            for (int i = 0; i < 10; i++) {
+                clock.incrementAndGet();
+                bounded.reserve(UUID.randomUUID().toString(), 1, 5);
+            }
+
+            assertTrue(bounded.size() <= 10, "size must not exceed the bound: " + bounded.size());
+            clock.incrementAndGet();
+            assertEquals(AttachmentCounter.Reservation.granted(1), bounded.reserve(first, 1, 5),
+                    "the least recently used counter must have been dropped");
+        }
+
+        @Test
+        @DisplayName("Should reject a non-positive bound or expiry")
+        void shouldRejectInvalidSettings() {
+            assertThrows(IllegalArgumentException.class, () -> new LocalAttachmentCounter(0, EXPIRY));
+            assertThrows(IllegalArgumentException.class, () -> new LocalAttachmentCounter(1, Duration.ZERO));
+        }
+    }
+
+    @Nested
+    @DisplayName("DistributedAttachmentCounter")
+    class Distributed {
+
+        private RequestStatusStoreTest.InMemoryAtomicMapCacheClient cacheClient;
+        private RequestStatusStore store;
+
+        @BeforeEach
+        void setUp() {
+            cacheClient = new RequestStatusStoreTest.InMemoryAtomicMapCacheClient();
+            store = new RequestStatusStore(cacheClient);
+        }
+
+        private Integer storedCount() throws IOException {
+            return cacheClient.get(RequestStatusStore.ATTACHMENT_COUNT_KEY_PREFIX + parent,
+                    RequestStatusStore.STRING_SERIALIZER, RequestStatusStore.COUNT_DESERIALIZER);
+        }
+
+        @Test
+        @DisplayName("Should enforce the max across nodes sharing one cache")
+        void shouldEnforceMaxAcrossNodes() throws IOException {
+            var nodeA = new DistributedAttachmentCounter(store, 1, 100, EXPIRY, clock::get);
+            var nodeB = new DistributedAttachmentCounter(store, 1, 100, EXPIRY, clock::get);
+
+            assertEquals(AttachmentCounter.Reservation.granted(1), nodeA.reserve(parent, 1, 3));
+            assertEquals(AttachmentCounter.Reservation.granted(2), nodeB.reserve(parent, 1, 3));
+            assertEquals(AttachmentCounter.Reservation.granted(3), nodeA.reserve(parent, 1, 3));
+            assertFalse(nodeB.reserve(parent, 1, 3).granted());
+            assertEquals(3, storedCount());
+        }
+
+        @Test
+        @DisplayName("Should serve leased slots locally without a cache round trip")
+        void shouldServeLeasedSlotsLocally() throws IOException {
+            var counter = new DistributedAttachmentCounter(store, 3, 100, EXPIRY, clock::get);
+
+            assertEquals(AttachmentCounter.Reservation.granted(1), counter.reserve(parent, 1, 10));
+            long revision = cacheClient.revisionOf(RequestStatusStore.ATTACHMENT_COUNT_KEY_PREFIX + parent);
+            assertEquals(AttachmentCounter.Reservation.granted(2), counter.reserve(parent, 1, 10));
+            assertEquals(AttachmentCounter.Reservation.granted(3), counter.reserve(parent, 1, 10));
+
+            assertEquals(revision, cacheClient.revisionOf(RequestStatusStore.ATTACHMENT_COUNT_KEY_PREFIX + parent),
+                    "leased slots must not touch the cache");
+            assertEquals(3, storedCount());
+        }
+
+        @Test
+        @DisplayName("Should cap a lease at the remaining capacity")
+        void shouldCapLeaseAtRemainingCapacity() throws IOException {
+            var counter = new DistributedAttachmentCounter(store, 5, 100, EXPIRY, clock::get);
+
+            assertTrue(counter.reserve(parent, 1, 2).granted());
+            assertEquals(2, storedCount());
+            assertEquals(AttachmentCounter.Reservation.granted(2), counter.reserve(parent, 1, 2));
+            assertEquals(AttachmentCounter.Reservation.denied(2), counter.reserve(parent, 1, 2));
+        }
+
+        @Test
+        @DisplayName("Should return unused lease slots to the cache when the lease expires")
+        void shouldReturnUnusedSlotsOnExpiry() throws IOException {
+            var counter = new DistributedAttachmentCounter(store, 4, 100, EXPIRY, clock::get);
+            counter.reserve(parent, 1, 10);
+            assertEquals(4, storedCount());
+
+            counter.sweep(clock.get() + EXPIRY.toNanos());
+
+            assertEquals(0, counter.size());
+            assertEquals(4, storedCount(), "the sweep itself must not touch the cache");
+            assertEquals(1, counter.drainEvicted(10));
+            assertEquals(1, storedCount(), "the three unused slots must be handed back");
+            assertEquals(0, counter.drainEvicted(10));
+        }
+
+        @Test
+        @DisplayName("Should combine slots left in the lease with a cache reservation")
+        void shouldTopUpPartiallyCoveredReservation() throws IOException {
+            var counter = new DistributedAttachmentCounter(store, 2, 100, EXPIRY, clock::get);
+            assertEquals(AttachmentCounter.Reservation.granted(1), counter.reserve(parent, 1, 10));
+            assertEquals(2, storedCount());
+
+            assertEquals(AttachmentCounter.Reservation.granted(3), counter.reserve(parent, 2, 10),
+                    "one leased slot plus one from the cache");
+            assertEquals(4, storedCount());
+            assertEquals(AttachmentCounter.Reservation.granted(4), counter.reserve(parent, 1, 10));
+        }
+
+        @Test
+        @DisplayName("Should keep the taken lease slots when the cache denies the rest")
+        void shouldKeepTakenSlotsOnDenial() throws IOException {
+            var counter = new DistributedAttachmentCounter(store, 2, 100, EXPIRY, clock::get);
+            counter.reserve(parent, 1, 2);
+
+            assertEquals(AttachmentCounter.Reservation.denied(1), counter.reserve(parent, 2, 2));
+            assertEquals(AttachmentCounter.Reservation.granted(2), counter.reserve(parent, 1, 2));
+        }
+
+        @Test
+        @DisplayName("Should release into the lease, or into the cache when no lease is held")
+        void shouldReleaseSlots() throws IOException {
+            var counter = new DistributedAttachmentCounter(store, 1, 100, EXPIRY, clock::get);
+            counter.reserve(parent, 2, 10);
+            counter.release(parent, 1);
+            assertEquals(2, storedCount(), "a local release keeps the slot leased");
+
+            var otherNode = new DistributedAttachmentCounter(store, 1, 100, EXPIRY, clock::get);
+            otherNode.release(parent, 1);
+            assertEquals(1, storedCount());
+        }
+
+        @Test
+        @DisplayName("Should remove the cluster-wide count on eviction")
+        void shouldRemoveCountOnEviction() throws IOException {
+            var counter = new DistributedAttachmentCounter(store, 1, 100, EXPIRY, clock::get);
+            counter.reserve(parent, 1, 10);
+
+            counter.evict(parent);
+
+            assertNull(storedCount());
+            assertEquals(0, counter.size());
+        }
+
+        @Test
+        @DisplayName("Should count with last-writer-wins on a non-atomic cache client")
+        void shouldCountOnNonAtomicClient() throws IOException {
+            var plainStore = new RequestStatusStore(new RequestStatusStoreTest.InMemoryMapCacheClient());
+            var counter = new DistributedAttachmentCounter(plainStore, 1, 100, EXPIRY, clock::get);
+
+            assertTrue(counter.reserve(parent, 1, 1).granted());
+            assertFalse(counter.reserve(parent, 1, 1).granted());
+        }
+
+        @Test
+        @DisplayName("Should fail with IOException when the compare-and-swap stays contended")
+        void shouldFailWhenContended() {
+            var contendedStore = new RequestStatusStore(new RequestStatusStoreTest.InMemoryAtomicMapCacheClient() {
+                @Override
+                public <K, V> boolean replace(AtomicCacheEntry<K, V, Long> entry, Serializer<K> keySerializer,
+                        Serializer<V> valueSerializer) {
+                    return false;
+                }
+            });
+            var counter = new DistributedAttachmentCounter(contendedStore, 1, 100, EXPIRY, clock::get);
+
+            assertThrows(IOException.class, () -> counter.reserve(parent, 1, 5));
+        }
+
+        @Test
+        @DisplayName("Should reject a non-positive lease size")
+        void shouldRejectInvalidLeaseSize() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new DistributedAttachmentCounter(store, 0, 100, EXPIRY));
+        }
+    }
+}
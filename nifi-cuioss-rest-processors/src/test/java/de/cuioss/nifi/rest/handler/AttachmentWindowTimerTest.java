@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AttachmentWindowTimer")
+class AttachmentWindowTimerTest {
+
+    private static final Duration TICK = Duration.ofMillis(100);
+    private static final int WHEEL_SIZE = 8;
+
+    private AtomicLong clock;
+    private AttachmentWindowTimer timer;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000_000L);
+        timer = new AttachmentWindowTimer(Map.of("upload", Duration.ofSeconds(1)), TICK, WHEEL_SIZE, clock::get);
+    }
+
+    private void elapse(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    @Nested
+    @DisplayName("Expiry")
+    class Expiry {
+
+        @Test
+        @DisplayName("Should fire a window only once its full timeout has elapsed")
+        void shouldFireAfterTimeout() {
+            timer.schedule("parent-1", "upload");
+
+            elapse(Duration.ofMillis(900));
+            assertEquals(List.of(), timer.advance());
+            assertEquals(1, timer.size());
+
+            elapse(Duration.ofMillis(100));
+            assertEquals(List.of("parent-1"), timer.advance());
+            assertEquals(0, timer.size());
+            assertEquals(List.of(), timer.advance());
+        }
+
+        @Test
+        @DisplayName("Should keep windows of a later revolution that share a bucket")
+        void shouldKeepLaterRevolutions() {
+            // 1 second and 1.8 seconds map to the same bucket of an 8-bucket wheel with 100 ms ticks
+            timer.schedule("short", Duration.ofSeconds(1));
+            timer.schedule("long", Duration.ofMillis(1800));
+
+            elapse(Duration.ofSeconds(1));
+            assertEquals(List.of("short"), timer.advance());
+
+            elapse(Duration.ofMillis(800));
+            assertEquals(List.of("long"), timer.advance());
+        }
+
+        @Test
+        @DisplayName("Should fire every overdue window after a pause longer than one revolution")
+        void shouldFireAllAfterLongPause() {
+            for (int i = 0; i < 50; i++) {
+                timer.schedule("parent-" + i, Duration.ofMillis(100L * (i + 1)));
+            }
+
+            elapse(Duration.ofSeconds(10));
+            Set<String> fired = new HashSet<>(timer.advance());
+
+            assertEquals(50, fired.size());
+            assertEquals(0, timer.size());
+        }
+
+        @Test
+        @DisplayName("Should fire a window scheduled after its deadline tick was already swept")
+        void shouldFireLateSchedule() {
+            elapse(Duration.ofSeconds(2));
+            timer.advance();
+            timer.schedule("parent-1", Duration.ZERO);
+
+            elapse(TICK);
+            assertEquals(List.of("parent-1"), timer.advance());
+        }
+    }
+
+    @Nested
+    @DisplayName("Configuration")
+    class Configuration {
+
+        @Test
+        @DisplayName("Should ignore parents of routes without a window")
+        void shouldIgnoreUnknownRoute() {
+            timer.schedule("parent-1", "other");
+
+            assertEquals(0, timer.size());
+        }
+
+        @Test
+        @DisplayName("Should reject a wheel size that is not a power of two")
+        void shouldRejectInvalidWheelSize() {
+            Map<String, Duration> windows = Map.of();
+            assertThrows(IllegalArgumentException.class,
+                    () -> new AttachmentWindowTimer(windows, TICK, 12, () -> 0L));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new AttachmentWindowTimer(windows, Duration.ZERO, WHEEL_SIZE, () -> 0L));
+        }
+    }
+}
@@ -18,7 +18,6 @@ package de.cuioss.nifi.rest.handler;
 
 import de.cuioss.http.security.monitoring.SecurityEventCounter;
 import de.cuioss.nifi.jwt.test.TestJwtIssuerConfigService;
-import de.cuioss.nifi.jwt.util.ForwardedRequestResolver;
 import de.cuioss.nifi.rest.config.AuthMode;
 import de.cuioss.nifi.rest.config.RouteConfiguration;
 import de.cuioss.nifi.rest.config.TrackingMode;
@@ -39,6 +38,7 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -86,8 +86,13 @@ class AttachmentsEndpointHandlerTest {
                 .attachmentsMinCount(1).attachmentsMaxCount(3)
                 .authModes(Set.of(AuthMode.LOCAL_ONLY, AuthMode.BEARER))
                 .build();
-        handlers.add(new ApiRouteHandler(attachmentsRoute, queue, GLOBAL_MAX_REQUEST_SIZE,
-                null, gatewaySecurityEvents, statusStore));
+        handlers.add(new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                .route(attachmentsRoute)
+                .queue(queue)
+                .globalMaxRequestSize(GLOBAL_MAX_REQUEST_SIZE)
+                .gatewaySecurityEvents(gatewaySecurityEvents)
+                .statusStore(statusStore)
+                .build()));
 
         // Add a SIMPLE-mode route for testing 409
         var simpleRoute = RouteConfiguration.builder()
@@ -96,8 +101,13 @@ class AttachmentsEndpointHandlerTest {
                 .trackingMode(TrackingMode.SIMPLE)
                 .authModes(Set.of(AuthMode.LOCAL_ONLY, AuthMode.BEARER))
                 .build();
-        handlers.add(new ApiRouteHandler(simpleRoute, queue, GLOBAL_MAX_REQUEST_SIZE,
-                null, gatewaySecurityEvents, statusStore));
+        handlers.add(new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                .route(simpleRoute)
+                .queue(queue)
+                .globalMaxRequestSize(GLOBAL_MAX_REQUEST_SIZE)
+                .gatewaySecurityEvents(gatewaySecurityEvents)
+                .statusStore(statusStore)
+                .build()));
 
         // C1: a docs-exact ATTACHMENTS route with attachments-max-count UNSET (0) — must fall back to
         // the global hard limit (wired here via the 7-arg constructor) and accept attachments.
@@ -107,8 +117,14 @@ class AttachmentsEndpointHandlerTest {
                 .trackingMode(TrackingMode.ATTACHMENTS)
                 .authModes(Set.of(AuthMode.LOCAL_ONLY, AuthMode.BEARER))
                 .build();
-        handlers.add(new ApiRouteHandler(unsetMaxRoute, queue, GLOBAL_MAX_REQUEST_SIZE,
-                null, gatewaySecurityEvents, statusStore, C1_HARD_LIMIT));
+        handlers.add(new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                .route(unsetMaxRoute)
+                .queue(queue)
+                .globalMaxRequestSize(GLOBAL_MAX_REQUEST_SIZE)
+                .gatewaySecurityEvents(gatewaySecurityEvents)
+                .statusStore(statusStore)
+                .attachmentsHardLimit(C1_HARD_LIMIT)
+                .build()));
 
         // Attachments endpoint
         handlers.add(new AttachmentsEndpointHandler(AttachmentsEndpointHandler.Config.builder()
@@ -120,6 +136,7 @@ class AttachmentsEndpointHandlerTest {
                 .requiredRoles(Set.of())
                 .requiredScopes(Set.of())
                 .gatewaySecurityEvents(gatewaySecurityEvents)
+                .maxParts(5)
                 .build()));
 
         // Status endpoint (for verifying parentTraceId)
@@ -127,8 +144,10 @@ class AttachmentsEndpointHandlerTest {
                 Set.of(AuthMode.LOCAL_ONLY, AuthMode.BEARER), Set.of(), Set.of(), 20));
 
         var handler = new GatewayRequestHandler(handlers, configService, GLOBAL_MAX_REQUEST_SIZE,
-                httpSecurityEvents, gatewaySecurityEvents,
-                ForwardedRequestResolver.secureDefault(), false);
+                GatewayRequestHandler.Options.builder()
+                        .httpSecurityEvents(httpSecurityEvents)
+                        .gatewaySecurityEvents(gatewaySecurityEvents)
+                        .build());
 
         server = new Server();
         var connector = new ServerConnector(server);
@@ -491,4 +510,103 @@ class AttachmentsEndpointHandlerTest {
         }
         assertEquals(parentTraceId, statusJson.getString("parentTraceId"));
     }
+
+    private static final String BOUNDARY = "----gatewayTestBoundary";
+
+    private static String multipartBody(int parts) {
+        var body = new StringBuilder();
+        for (int i = 0; i < parts; i++) {
+            body.append("--").append(BOUNDARY).append("\r\n")
+                    .append("Content-Disposition: form-data; name=\"doc").append(i)
+                    .append("\"; filename=\"doc").append(i).append(".txt\"\r\n")
+                    .append("Content-Type: text/plain\r\n\r\n")
+                    .append("content ").append(i).append("\r\n");
+        }
+        return body.append("--").append(BOUNDARY).append("--\r\n").toString();
+    }
+
+    private HttpResponse<String> postMultipart(String parentTraceId, String body) throws Exception {
+        return httpClient.send(
+                HttpRequest.newBuilder()
+                        .uri(URI.create("http://127.0.0.1:%d/attachments/%s".formatted(port, parentTraceId)))
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Multipart: every part becomes its own attachment with its own traceId")
+    void shouldAcceptMultipartUploadAsSeparateAttachments() throws Exception {
+        String parentTraceId = createParentEntry("/api/upload");
+        queue.clear();
+
+        var response = postMultipart(parentTraceId, multipartBody(2));
+
+        assertEquals(202, response.statusCode());
+        JsonObject json;
+        try (var reader = Json.createReader(new StringReader(response.body()))) {
+            json = reader.readObject();
+        }
+        assertEquals(parentTraceId, json.getString("parentTraceId"));
+        var attachments = json.getJsonArray("attachments");
+        assertEquals(2, attachments.size());
+        assertEquals("doc0", attachments.getJsonObject(0).getString("part"));
+        assertEquals("doc1.txt", attachments.getJsonObject(1).getString("filename"));
+        assertTrue(attachments.getJsonObject(0).containsKey("_links"));
+
+        assertEquals(2, queue.size());
+        var first = queue.poll();
+        assertEquals(AttachmentsEndpointHandler.ATTACHMENTS_ROUTE_NAME, first.routeName());
+        assertEquals(parentTraceId, first.parentTraceId());
+        assertEquals(attachments.getJsonObject(0).getString("traceId"), first.traceId());
+        assertEquals("content 0", new String(first.body(), StandardCharsets.UTF_8));
+        assertEquals("text/plain", first.contentType());
+        assertEquals("doc0.txt", first.attributes().get("filename"));
+        assertEquals("0", first.attributes().get("rest.attachment.part.index"));
+        assertEquals("2", first.attributes().get("rest.attachment.part.count"));
+        assertTrue(statusStore.getStatus(first.traceId()).isPresent(),
+                "every part must be registered in the status store");
+    }
+
+    @Test
+    @DisplayName("Multipart: a batch exceeding the remaining slots is rejected as a whole")
+    void shouldRejectMultipartBatchOverLimit() throws Exception {
+        String parentTraceId = createParentEntry("/api/upload");
+        queue.clear();
+        int entriesBefore = cacheClient.size();
+
+        var response = postMultipart(parentTraceId, multipartBody(4));
+
+        assertEquals(409, response.statusCode());
+        assertTrue(queue.isEmpty(), "no part of a rejected batch may be queued");
+        assertEquals(entriesBefore, cacheClient.size());
+        // The rejected batch must not have consumed any slot: the full max of 3 is still available
+        assertEquals(202, postMultipart(parentTraceId, multipartBody(3)).statusCode());
+    }
+
+    @Test
+    @DisplayName("Multipart: a body with more parts than allowed is rejected with 413 before any reservation")
+    void shouldRejectTooManyParts() throws Exception {
+        String parentTraceId = createParentEntry("/api/upload");
+        queue.clear();
+        int entriesBefore = cacheClient.size();
+
+        var response = postMultipart(parentTraceId, multipartBody(6));
+
+        assertEquals(413, response.statusCode());
+        assertTrue(queue.isEmpty());
+        assertEquals(entriesBefore, cacheClient.size());
+        assertEquals(202, postMultipart(parentTraceId, multipartBody(3)).statusCode());
+    }
+
+    @Test
+    @DisplayName("Multipart: a malformed body is rejected with 400")
+    void shouldRejectMalformedMultipart() throws Exception {
+        String parentTraceId = createParentEntry("/api/upload");
+
+        var response = postMultipart(parentTraceId, "--" + BOUNDARY + "\r\nno terminating boundary");
+
+        assertEquals(400, response.statusCode());
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CacheCircuitBreaker")
+@EnableTestLogger
+class CacheCircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private AtomicLong clock;
+    private CacheCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        breaker = new CacheCircuitBreaker(3, OPEN_DURATION, clock::get);
+    }
+
+    private void failTimes(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure("boom");
+        }
+    }
+
+    @Nested
+    @DisplayName("Closed")
+    class Closed {
+
+        @Test
+        @DisplayName("Should stay closed below the failure threshold")
+        void shouldStayClosedBelowThreshold() {
+            failTimes(2);
+
+            assertEquals(CacheCircuitBreaker.State.CLOSED, breaker.state());
+            assertTrue(breaker.tryAcquire());
+        }
+
+        @Test
+        @DisplayName("Should reset the failure count on success")
+        void shouldResetOnSuccess() {
+            failTimes(2);
+            breaker.onSuccess();
+            failTimes(2);
+
+            assertEquals(CacheCircuitBreaker.State.CLOSED, breaker.state());
+        }
+    }
+
+    @Nested
+    @DisplayName("Open and Half-Open")
+    class OpenAndHalfOpen {
+
+        @Test
+        @DisplayName("Should open at the threshold and refuse calls until the open period elapsed")
+        void shouldOpenAtThreshold() {
+            failTimes(3);
+
+            assertEquals(CacheCircuitBreaker.State.OPEN, breaker.state());
+            assertFalse(breaker.tryAcquire());
+            clock.addAndGet(OPEN_DURATION.minusMillis(1).toNanos());
+            assertFalse(breaker.tryAcquire());
+        }
+
+        @Test
+        @DisplayName("Should let exactly one probe through and close on its success")
+        void shouldCloseAfterSuccessfulProbe() {
+            failTimes(3);
+            clock.addAndGet(OPEN_DURATION.toNanos());
+
+            assertTrue(breaker.tryAcquire());
+            assertEquals(CacheCircuitBreaker.State.HALF_OPEN, breaker.state());
+            assertFalse(breaker.tryAcquire());
+
+            breaker.onSuccess();
+            assertEquals(CacheCircuitBreaker.State.CLOSED, breaker.state());
+            assertTrue(breaker.tryAcquire());
+        }
+
+        @Test
+        @DisplayName("Should reopen for another period after a failed probe")
+        void shouldReopenAfterFailedProbe() {
+            failTimes(3);
+            clock.addAndGet(OPEN_DURATION.toNanos());
+            assertTrue(breaker.tryAcquire());
+
+            breaker.onFailure("still down");
+
+            assertEquals(CacheCircuitBreaker.State.OPEN, breaker.state());
+            clock.addAndGet(OPEN_DURATION.minusMillis(1).toNanos());
+            assertFalse(breaker.tryAcquire());
+        }
+
+        @Test
+        @DisplayName("Should hand a released probe to the next caller")
+        void shouldReleaseProbe() {
+            failTimes(3);
+            clock.addAndGet(OPEN_DURATION.toNanos());
+            assertTrue(breaker.tryAcquire());
+
+            breaker.release();
+
+            assertEquals(CacheCircuitBreaker.State.OPEN, breaker.state());
+            assertTrue(breaker.tryAcquire());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject invalid configuration")
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheCircuitBreaker(0, OPEN_DURATION));
+        assertThrows(IllegalArgumentException.class, () -> new CacheCircuitBreaker(1, Duration.ZERO));
+    }
+}
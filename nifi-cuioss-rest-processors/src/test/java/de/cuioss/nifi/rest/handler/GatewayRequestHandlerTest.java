@@ -18,9 +18,12 @@ package de.cuioss.nifi.rest.handler;
 
 import de.cuioss.http.security.database.*;
 import de.cuioss.nifi.jwt.test.TestJwtIssuerConfigService;
+import de.cuioss.nifi.jwt.util.AttributeProjection;
 import de.cuioss.nifi.jwt.util.ForwardedRequestResolver;
 import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.nifi.rest.config.RateLimitKey;
 import de.cuioss.nifi.rest.config.RouteConfiguration;
+import de.cuioss.nifi.rest.config.RoutePriority;
 import de.cuioss.nifi.rest.handler.GatewaySecurityEvents.EventType;
 import de.cuioss.nifi.rest.validation.JsonSchemaValidator;
 import de.cuioss.sheriff.token.validation.exception.TokenValidationException;
@@ -34,23 +37,29 @@ import de.cuioss.test.juli.junit5.EnableTestLogger;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -78,7 +87,13 @@ class GatewayRequestHandlerTest {
             GatewaySecurityEvents events) {
         List<EndpointHandler> handlers = new ArrayList<>();
         for (RouteConfiguration route : routes) {
-            handlers.add(new ApiRouteHandler(route, q, maxSize, validator, events));
+            handlers.add(new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                    .route(route)
+                    .queue(q)
+                    .globalMaxRequestSize(maxSize)
+                    .schemaValidator(validator)
+                    .gatewaySecurityEvents(events)
+                    .build()));
         }
         return handlers;
     }
@@ -106,7 +121,7 @@ class GatewayRequestHandlerTest {
 
         handler = new GatewayRequestHandler(
                 toHandlers(routes, queue, GLOBAL_MAX_REQUEST_SIZE),
-                mockConfigService, GLOBAL_MAX_REQUEST_SIZE);
+                mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
 
         server = new Server();
         ServerConnector connector = new ServerConnector(server);
@@ -240,7 +255,7 @@ class GatewayRequestHandlerTest {
             var disabledHandler = new GatewayRequestHandler(
                     toHandlers(List.of(RouteConfiguration.builder().name("disabled").path("/api/disabled")
                             .enabled(false).method("GET").build()), disabledQueue, GLOBAL_MAX_REQUEST_SIZE),
-                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE);
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
             Server disabledServer = new Server();
             ServerConnector connector = new ServerConnector(disabledServer);
             connector.setPort(0);
@@ -262,6 +277,43 @@ class GatewayRequestHandlerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Handler Replacement")
+    class HandlerReplacement {
+
+        @Test
+        @DisplayName("Should route to the replaced handlers on the running server")
+        void shouldRouteToReplacedHandlers() throws Exception {
+            handler.replaceHandlers(toHandlers(List.of(
+                    RouteConfiguration.builder().name("moved").path("/api/moved").method("GET").build()),
+                    queue, GLOBAL_MAX_REQUEST_SIZE));
+
+            var moved = sendWithRetry(requestBuilder("/api/moved").GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            var previous = sendWithRetry(requestBuilder("/api/health").GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, moved.statusCode());
+            assertEquals("moved", queue.poll().routeName());
+            assertEquals(404, previous.statusCode());
+        }
+
+        @Test
+        @DisplayName("Should keep the current handlers when the replacement has duplicate paths")
+        void shouldKeepHandlersOnDuplicatePaths() throws Exception {
+            var duplicates = toHandlers(List.of(
+                    RouteConfiguration.builder().name("a").path("/api/dup").method("GET").build(),
+                    RouteConfiguration.builder().name("b").path("/api/dup").method("GET").build()),
+                    queue, GLOBAL_MAX_REQUEST_SIZE);
+
+            assertThrows(IllegalArgumentException.class, () -> handler.replaceHandlers(duplicates));
+
+            var response = sendWithRetry(requestBuilder("/api/health").GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+        }
+    }
+
     @Nested
     @DisplayName("Pattern Route Matching")
     class PatternRouteMatching {
@@ -279,7 +331,7 @@ class GatewayRequestHandlerTest {
             patternQueue = new LinkedBlockingQueue<>(50);
             patternHandler = new GatewayRequestHandler(
                     toHandlers(routes, patternQueue, GLOBAL_MAX_REQUEST_SIZE),
-                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE);
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
             patternServer = new Server();
             ServerConnector connector = new ServerConnector(patternServer);
             connector.setPort(0);
@@ -391,7 +443,7 @@ class GatewayRequestHandlerTest {
             var smallHandler = new GatewayRequestHandler(
                     toHandlers(List.of(RouteConfiguration.builder().name("data").path("/api/data")
                             .method("POST").build()), queue, 10),
-                    mockConfigService, 10); // 10 bytes max
+                    mockConfigService, 10, GatewayRequestHandler.Options.builder().build()); // 10 bytes max
 
             Server smallServer = new Server();
             ServerConnector connector = new ServerConnector(smallServer);
@@ -426,7 +478,7 @@ class GatewayRequestHandlerTest {
             var smallHandler = new GatewayRequestHandler(
                     toHandlers(List.of(RouteConfiguration.builder().name("data").path("/api/data")
                             .method("POST").build()), queue, 10),
-                    mockConfigService, 10); // 10 bytes max
+                    mockConfigService, 10, GatewayRequestHandler.Options.builder().build()); // 10 bytes max
 
             Server smallServer = new Server();
             ServerConnector connector = new ServerConnector(smallServer);
@@ -452,6 +504,77 @@ class GatewayRequestHandlerTest {
                 smallServer.stop();
             }
         }
+
+        @Test
+        @DisplayName("Should reject a declared Content-Length over the limit without asking for the body")
+        void shouldRejectDeclaredLengthBeforeContinue() throws Exception {
+            var smallHandler = new GatewayRequestHandler(
+                    toHandlers(List.of(RouteConfiguration.builder().name("data").path("/api/data")
+                            .method("POST").build()), queue, 10),
+                    mockConfigService, 10, GatewayRequestHandler.Options.builder().build()); // 10 bytes max
+
+            Server smallServer = new Server();
+            ServerConnector connector = new ServerConnector(smallServer);
+            connector.setPort(0);
+            smallServer.addConnector(connector);
+            smallServer.setHandler(smallHandler);
+            smallServer.start();
+
+            try {
+                String statusLine = sendHeadersOnly(connector.getLocalPort(),
+                        "Authorization: Bearer " + tokenHolder.getRawToken() + "\r\n", 2_000_000_000L);
+
+                assertTrue(statusLine.startsWith("HTTP/1.1 413"), statusLine);
+                var events = smallHandler.getGatewaySecurityEvents();
+                assertEquals(1L, events.getCount(EventType.BODY_TOO_LARGE));
+                assertEquals(1L, events.getUnreadBodies());
+                assertEquals(2_000_000_000L, events.getUnreadBodyBytes());
+                assertTrue(queue.isEmpty());
+            } finally {
+                smallServer.stop();
+            }
+        }
+
+        @Test
+        @DisplayName("Should not send 100 Continue to an unauthenticated client")
+        void shouldNotContinueUnauthenticated() throws Exception {
+            String statusLine = sendHeadersOnly(port, "", 100);
+
+            assertTrue(statusLine.startsWith("HTTP/1.1 401"), statusLine);
+            assertEquals(0L, handler.getGatewaySecurityEvents().getUnreadBodies());
+        }
+
+        /**
+         * Sends a POST with {@code Expect: 100-continue} but no body and returns the first status
+         * line received — the interim {@code 100 Continue} if the server asked for the body.
+         */
+        private String sendHeadersOnly(int targetPort, String extraHeaders, long contentLength)
+                throws IOException {
+            try (Socket socket = new Socket("127.0.0.1", targetPort)) {
+                socket.setSoTimeout(5_000);
+                String head = "POST /api/data HTTP/1.1\r\n"
+                        + "Host: 127.0.0.1\r\n"
+                        + "Content-Type: application/json\r\n"
+                        + "Content-Length: " + contentLength + "\r\n"
+                        + "Expect: 100-continue\r\n"
+                        + extraHeaders
+                        + "\r\n";
+                socket.getOutputStream().write(head.getBytes(StandardCharsets.US_ASCII));
+                socket.getOutputStream().flush();
+                return readLine(socket.getInputStream());
+            }
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1 && c != '\n') {
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
     }
 
     @Nested
@@ -606,8 +729,7 @@ class GatewayRequestHandlerTest {
                     toHandlers(List.of(RouteConfiguration.builder().name("health").path("/api/health")
                             .method("GET").build()), tinyQueue, GLOBAL_MAX_REQUEST_SIZE, null, tinyEvents),
                     mockConfigService, GLOBAL_MAX_REQUEST_SIZE,
-                    new de.cuioss.http.security.monitoring.SecurityEventCounter(), tinyEvents,
-                    ForwardedRequestResolver.secureDefault(), false);
+                    GatewayRequestHandler.Options.builder().gatewaySecurityEvents(tinyEvents).build());
 
             Server tinyServer = new Server();
             ServerConnector connector = new ServerConnector(tinyServer);
@@ -642,6 +764,196 @@ class GatewayRequestHandlerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Rate Limiting")
+    class RateLimiting {
+
+        @Test
+        @DisplayName("Should return 429 with Retry-After once the subject's bucket is empty")
+        void shouldReturn429WhenRateLimited() throws Exception {
+            var limitedHandler = new GatewayRequestHandler(
+                    toHandlers(List.of(RouteConfiguration.builder().name("health").path("/api/health")
+                            .method("GET").rateLimit(1).build()), queue, GLOBAL_MAX_REQUEST_SIZE),
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
+
+            Server limitedServer = new Server();
+            ServerConnector connector = new ServerConnector(limitedServer);
+            connector.setPort(0);
+            limitedServer.addConnector(connector);
+            limitedServer.setHandler(limitedHandler);
+            limitedServer.start();
+
+            int limitedPort = connector.getLocalPort();
+            try {
+                var request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + limitedPort + "/api/health"))
+                        .header("Authorization", "Bearer " + tokenHolder.getRawToken())
+                        .GET().build();
+
+                var first = sendWithRetry(request, HttpResponse.BodyHandlers.ofString());
+                var second = sendWithRetry(request, HttpResponse.BodyHandlers.ofString());
+
+                assertEquals(200, first.statusCode());
+                assertEquals(429, second.statusCode());
+                assertTrue(second.body().contains("Too Many Requests"));
+                assertEquals("1", second.headers().firstValue("Retry-After").orElseThrow());
+                var events = limitedHandler.getGatewaySecurityEvents();
+                assertEquals(1L, events.getCount(EventType.RATE_LIMITED));
+                assertEquals(new GatewaySecurityEvents.RateLimitCounts(1, 1),
+                        events.getRateLimitCounts().get(RateLimitKey.SUBJECT));
+            } finally {
+                limitedServer.stop();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Load Shedding")
+    class LoadShedding {
+
+        @Test
+        @DisplayName("Should shed a low-priority route with 503 and Retry-After while high priority passes")
+        void shouldShedLowPriorityFirst() throws Exception {
+            var limiter = new AdaptiveConcurrencyLimiter(queue::size, 2, TimeUnit.SECONDS.toNanos(1));
+            var events = new GatewaySecurityEvents();
+            var sheddingHandler = new GatewayRequestHandler(
+                    toHandlers(List.of(
+                            RouteConfiguration.builder().name("reports").path("/api/reports").method("GET")
+                                    .priority(RoutePriority.LOW).build(),
+                            RouteConfiguration.builder().name("health").path("/api/health").method("GET")
+                                    .priority(RoutePriority.HIGH).build()),
+                            queue, GLOBAL_MAX_REQUEST_SIZE, null, events),
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE,
+                    GatewayRequestHandler.Options.builder()
+                            .gatewaySecurityEvents(events)
+                            .concurrencyLimiter(limiter)
+                            .build());
+
+            Server sheddingServer = new Server();
+            ServerConnector connector = new ServerConnector(sheddingServer);
+            connector.setPort(0);
+            sheddingServer.addConnector(connector);
+            sheddingServer.setHandler(sheddingHandler);
+            sheddingServer.start();
+
+            int sheddingPort = connector.getLocalPort();
+            try {
+                // One queued request already reaches half of the limit of 2
+                var first = sendWithRetry(HttpRequest.newBuilder(
+                                URI.create("http://127.0.0.1:" + sheddingPort + "/api/reports"))
+                        .header("Authorization", "Bearer " + tokenHolder.getRawToken()).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                var shed = sendWithRetry(HttpRequest.newBuilder(
+                                URI.create("http://127.0.0.1:" + sheddingPort + "/api/reports"))
+                        .header("Authorization", "Bearer " + tokenHolder.getRawToken()).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                var high = sendWithRetry(HttpRequest.newBuilder(
+                                URI.create("http://127.0.0.1:" + sheddingPort + "/api/health"))
+                        .header("Authorization", "Bearer " + tokenHolder.getRawToken()).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+
+                assertEquals(200, first.statusCode());
+                assertEquals(503, shed.statusCode());
+                assertTrue(shed.headers().firstValue("Retry-After").isPresent());
+                assertEquals(200, high.statusCode());
+                assertEquals(2, queue.size());
+                assertEquals(1L, events.getCount(EventType.LOAD_SHED));
+                assertEquals(1L, limiter.stats().shed().get(RoutePriority.LOW));
+            } finally {
+                sheddingServer.stop();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Idempotency")
+    class Idempotency {
+
+        private ApiRouteHandler idempotentRouteHandler(RouteConfiguration route, GatewaySecurityEvents events) {
+            return new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                    .route(route)
+                    .queue(queue)
+                    .globalMaxRequestSize(GLOBAL_MAX_REQUEST_SIZE)
+                    .gatewaySecurityEvents(events)
+                    .idempotencyStore(new LocalIdempotencyStore(LocalIdempotencyStore.DEFAULT_MAX_ENTRIES,
+                            Duration.ofMinutes(5)))
+                    .build());
+        }
+
+        @Test
+        @DisplayName("Should replay a retried request once and reject a different body under the same key")
+        void shouldReplayRetryAndRejectMismatch() throws Exception {
+            var events = new GatewaySecurityEvents();
+            var route = RouteConfiguration.builder().name("orders").path("/api/orders").method("POST").build();
+            var idempotentHandler = new GatewayRequestHandler(
+                    List.of(idempotentRouteHandler(route, events)),
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
+
+            Server idempotentServer = new Server();
+            ServerConnector connector = new ServerConnector(idempotentServer);
+            connector.setPort(0);
+            idempotentServer.addConnector(connector);
+            idempotentServer.setHandler(idempotentHandler);
+            idempotentServer.start();
+
+            int idempotentPort = connector.getLocalPort();
+            try {
+                var uri = URI.create("http://127.0.0.1:" + idempotentPort + "/api/orders");
+                var request = HttpRequest.newBuilder(uri)
+                        .header("Authorization", "Bearer " + tokenHolder.getRawToken())
+                        .header("Idempotency-Key", "order-42")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"item\":1}")).build();
+                var changed = HttpRequest.newBuilder(uri)
+                        .header("Authorization", "Bearer " + tokenHolder.getRawToken())
+                        .header("Idempotency-Key", "order-42")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"item\":2}")).build();
+
+                var first = sendWithRetry(request, HttpResponse.BodyHandlers.ofString());
+                var retry = sendWithRetry(request, HttpResponse.BodyHandlers.ofString());
+                var mismatch = sendWithRetry(changed, HttpResponse.BodyHandlers.ofString());
+
+                assertEquals(first.statusCode(), retry.statusCode());
+                assertTrue(first.headers().firstValue("Idempotent-Replayed").isEmpty());
+                assertEquals("true", retry.headers().firstValue("Idempotent-Replayed").orElseThrow());
+                assertEquals(422, mismatch.statusCode());
+                assertEquals(1, queue.size(), "the retry must not create another FlowFile");
+                assertEquals(1L, events.getCount(EventType.IDEMPOTENT_REPLAY));
+                assertEquals(1L, events.getCount(EventType.IDEMPOTENCY_CONFLICT));
+            } finally {
+                idempotentServer.stop();
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject an over-long Idempotency-Key with 400")
+        void shouldRejectOverlongKey() throws Exception {
+            var route = RouteConfiguration.builder().name("orders").path("/api/orders").method("POST").build();
+            var idempotentHandler = new GatewayRequestHandler(
+                    List.of(idempotentRouteHandler(route, new GatewaySecurityEvents())),
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
+
+            Server idempotentServer = new Server();
+            ServerConnector connector = new ServerConnector(idempotentServer);
+            connector.setPort(0);
+            idempotentServer.addConnector(connector);
+            idempotentServer.setHandler(idempotentHandler);
+            idempotentServer.start();
+
+            try {
+                var response = sendWithRetry(HttpRequest.newBuilder(
+                                URI.create("http://127.0.0.1:" + connector.getLocalPort() + "/api/orders"))
+                        .header("Authorization", "Bearer " + tokenHolder.getRawToken())
+                        .header("Idempotency-Key", "k".repeat(ApiRouteHandler.MAX_IDEMPOTENCY_KEY_LENGTH + 1))
+                        .POST(HttpRequest.BodyPublishers.ofString("{}")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+
+                assertEquals(400, response.statusCode());
+                assertTrue(queue.isEmpty());
+            } finally {
+                idempotentServer.stop();
+            }
+        }
+    }
+
     @Nested
     @DisplayName("CreateFlowFile")
     class CreateFlowFile {
@@ -654,7 +966,7 @@ class GatewayRequestHandlerTest {
             var noFlowFileHandler = new GatewayRequestHandler(
                     toHandlers(List.of(RouteConfiguration.builder().name("health").path("/api/health")
                             .method("GET").createFlowFile(false).build()), noFlowFileQueue, GLOBAL_MAX_REQUEST_SIZE),
-                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE);
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
 
             Server noFlowFileServer = new Server();
             ServerConnector connector = new ServerConnector(noFlowFileServer);
@@ -864,8 +1176,7 @@ class GatewayRequestHandlerTest {
             schemaHandler = new GatewayRequestHandler(
                     toHandlers(routes, schemaQueue, GLOBAL_MAX_REQUEST_SIZE, schemaValidator, schemaEvents),
                     mockConfigService, GLOBAL_MAX_REQUEST_SIZE,
-                    new de.cuioss.http.security.monitoring.SecurityEventCounter(), schemaEvents,
-                    ForwardedRequestResolver.secureDefault(), false);
+                    GatewayRequestHandler.Options.builder().gatewaySecurityEvents(schemaEvents).build());
 
             schemaServer = new Server();
             ServerConnector connector = new ServerConnector(schemaServer);
@@ -1025,7 +1336,7 @@ class GatewayRequestHandlerTest {
             var inlineHandler = new GatewayRequestHandler(
                     toHandlers(inlineRoutes, inlineQueue, GLOBAL_MAX_REQUEST_SIZE,
                             inlineValidator, new GatewaySecurityEvents()),
-                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE);
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
 
             Server inlineServer = new Server();
             ServerConnector connector = new ServerConnector(inlineServer);
@@ -1074,7 +1385,7 @@ class GatewayRequestHandlerTest {
             var localHandler = new GatewayRequestHandler(
                     toHandlers(List.of(RouteConfiguration.builder().name("test").path(testCase.legitimatePattern())
                             .method("GET").build()), testQueue, GLOBAL_MAX_REQUEST_SIZE),
-                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE);
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
 
             Server testServer = new Server();
             ServerConnector connector = new ServerConnector(testServer);
@@ -1120,8 +1431,12 @@ class GatewayRequestHandlerTest {
                     toHandlers(List.of(RouteConfiguration.builder().name("health").path("/api/health")
                             .method("GET").build()), proxyQueue, GLOBAL_MAX_REQUEST_SIZE, null, proxyEvents),
                     mockConfigService, GLOBAL_MAX_REQUEST_SIZE,
-                    new de.cuioss.http.security.monitoring.SecurityEventCounter(), proxyEvents,
-                    ForwardedRequestResolver.create(false, Set.of("/nifi-proxy", "/gw"), Set.of(), "defaults"), true);
+                    GatewayRequestHandler.Options.builder()
+                            .gatewaySecurityEvents(proxyEvents)
+                            .forwardedResolver(ForwardedRequestResolver.create(false,
+                                    Set.of("/nifi-proxy", "/gw"), Set.of(), "defaults"))
+                            .contextPathHonoringConfigured(true)
+                            .build());
             proxyServer = new Server();
             ServerConnector connector = new ServerConnector(proxyServer);
             connector.setPort(0);
@@ -1172,8 +1487,12 @@ class GatewayRequestHandlerTest {
                     toHandlers(List.of(RouteConfiguration.builder().name("status").path("/status/{traceId}")
                             .method("GET").build()), statusQueue, GLOBAL_MAX_REQUEST_SIZE, null, statusEvents),
                     mockConfigService, GLOBAL_MAX_REQUEST_SIZE,
-                    new de.cuioss.http.security.monitoring.SecurityEventCounter(), statusEvents,
-                    ForwardedRequestResolver.create(false, Set.of("/nifi-proxy"), Set.of(), "defaults"), true);
+                    GatewayRequestHandler.Options.builder()
+                            .gatewaySecurityEvents(statusEvents)
+                            .forwardedResolver(ForwardedRequestResolver.create(false,
+                                    Set.of("/nifi-proxy"), Set.of(), "defaults"))
+                            .contextPathHonoringConfigured(true)
+                            .build());
 
             String traceId = UUID.randomUUID().toString();
             var response = sendVia(statusHandler, "/nifi-proxy/status/" + traceId,
@@ -1247,9 +1566,12 @@ class GatewayRequestHandlerTest {
                     toHandlers(List.of(RouteConfiguration.builder().name("health").path("/api/health")
                             .method("GET").build()), q, GLOBAL_MAX_REQUEST_SIZE, null, events),
                     mockConfigService, GLOBAL_MAX_REQUEST_SIZE,
-                    new de.cuioss.http.security.monitoring.SecurityEventCounter(), events,
-                    ForwardedRequestResolver.create(trustAll, allowlist, Set.of(), "defaults"),
-                    trustAll || !allowlist.isEmpty());
+                    GatewayRequestHandler.Options.builder()
+                            .gatewaySecurityEvents(events)
+                            .forwardedResolver(ForwardedRequestResolver.create(trustAll,
+                                    allowlist, Set.of(), "defaults"))
+                            .contextPathHonoringConfigured(trustAll || !allowlist.isEmpty())
+                            .build());
         }
 
         /**
@@ -1346,8 +1668,11 @@ class GatewayRequestHandlerTest {
                     toHandlers(List.of(RouteConfiguration.builder().name("data").path("/api/data")
                             .method("GET").build()), forwardedQueue, GLOBAL_MAX_REQUEST_SIZE, null, events),
                     mockConfigService, GLOBAL_MAX_REQUEST_SIZE,
-                    new de.cuioss.http.security.monitoring.SecurityEventCounter(), events,
-                    ForwardedRequestResolver.create(false, Set.of(), trustedProxies, "defaults"), false);
+                    GatewayRequestHandler.Options.builder()
+                            .gatewaySecurityEvents(events)
+                            .forwardedResolver(ForwardedRequestResolver.create(false,
+                                    Set.of(), trustedProxies, "defaults"))
+                            .build());
         }
 
         private void start(GatewayRequestHandler handler) throws Exception {
@@ -1402,4 +1727,155 @@ class GatewayRequestHandlerTest {
                     "Without trusted proxies the raw socket remote address must be used");
         }
     }
+
+    @Nested
+    @DisplayName("Access log")
+    class AccessLogging {
+
+        @TempDir
+        Path logDirectory;
+
+        private Server srv;
+        private AccessLog accessLog;
+        private int localPort;
+
+        @BeforeEach
+        void startServer() throws Exception {
+            accessLog = new AccessLog(logDirectory, 64, 100, 1024 * 1024, 1, false);
+            var events = new GatewaySecurityEvents();
+            var loggingHandler = new GatewayRequestHandler(
+                    toHandlers(List.of(RouteConfiguration.builder().name("data").path("/api/data")
+                            .method("GET").build()), queue, GLOBAL_MAX_REQUEST_SIZE, null, events),
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE,
+                    GatewayRequestHandler.Options.builder()
+                            .gatewaySecurityEvents(events)
+                            .accessLog(accessLog)
+                            .build());
+            srv = new Server();
+            ServerConnector connector = new ServerConnector(srv);
+            connector.setPort(0);
+            srv.addConnector(connector);
+            srv.setHandler(loggingHandler);
+            srv.start();
+            localPort = connector.getLocalPort();
+        }
+
+        @AfterEach
+        void stopServer() throws Exception {
+            if (srv != null && srv.isRunning()) {
+                srv.stop();
+            }
+            accessLog.close();
+        }
+
+        private String awaitLogLine() throws Exception {
+            long deadline = System.nanoTime() + 2_000_000_000L;
+            while (accessLog.drain() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            List<String> lines = Files.readAllLines(logDirectory.resolve(AccessLog.FILE_NAME));
+            assertEquals(1, lines.size());
+            return lines.getFirst();
+        }
+
+        @Test
+        @DisplayName("Should log the route, status and token subject of a dispatched request")
+        void shouldLogDispatchedRequest() throws Exception {
+            var response = sendWithRetry(HttpRequest.newBuilder(
+                            URI.create("http://127.0.0.1:" + localPort + "/api/data"))
+                    .header("Authorization", "Bearer " + tokenHolder.getRawToken())
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            String line = awaitLogLine();
+            assertTrue(line.contains("\"route\":\"data\""), line);
+            assertTrue(line.contains("\"status\":200"), line);
+            assertTrue(line.contains("\"subject\":\"" + tokenHolder.asAccessTokenContent().getSubject().orElseThrow()
+                    + "\""), line);
+        }
+
+        @Test
+        @DisplayName("Should log requests rejected before routing")
+        void shouldLogUnroutedRequest() throws Exception {
+            var response = sendWithRetry(HttpRequest.newBuilder(
+                            URI.create("http://127.0.0.1:" + localPort + "/api/unknown"))
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(404, response.statusCode());
+            String line = awaitLogLine();
+            assertTrue(line.contains("\"status\":404"), line);
+            assertFalse(line.contains("\"route\""), line);
+        }
+    }
+
+    @Nested
+    @DisplayName("Attribute projection")
+    class AttributeProjections {
+
+        private Server srv;
+        private int localPort;
+
+        @BeforeEach
+        void startServer() throws Exception {
+            var route = RouteConfiguration.builder().name("projected").path("/api/projected").method("GET")
+                    .headerProjection(AttributeProjection.of(Set.of("x-request-id"), Set.of(), true))
+                    .queryProjection(AttributeProjection.of(Set.of("page"), Set.of(), false))
+                    .build();
+            var projectingHandler = new GatewayRequestHandler(
+                    toHandlers(List.of(route), queue, GLOBAL_MAX_REQUEST_SIZE),
+                    mockConfigService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
+            srv = new Server();
+            ServerConnector connector = new ServerConnector(srv);
+            connector.setPort(0);
+            srv.addConnector(connector);
+            srv.setHandler(projectingHandler);
+            srv.start();
+            localPort = connector.getLocalPort();
+        }
+
+        @AfterEach
+        void stopServer() throws Exception {
+            if (srv != null && srv.isRunning()) {
+                srv.stop();
+            }
+        }
+
+        private HttpRequest.Builder projectedRequest(String pathWithQuery) {
+            return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + localPort + pathWithQuery))
+                    .header("Authorization", "Bearer " + tokenHolder.getRawToken());
+        }
+
+        @Test
+        @DisplayName("Should hand only the retained headers and query parameters to the route")
+        void shouldRetainProjectedFields() throws Exception {
+            var response = sendWithRetry(projectedRequest("/api/projected?page=2&size=50")
+                    .header("X-Request-Id", "abc-123")
+                    .header("X-Tenant", "acme")
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            HttpRequestContainer container = queue.poll();
+            assertNotNull(container);
+            assertEquals(Map.of("X-Request-Id", "abc-123"), container.headers());
+            assertEquals(Map.of("page", "2"), container.queryParameters());
+        }
+
+        @Test
+        @DisplayName("Should not run dropped query parameters through the security pipeline")
+        void shouldSkipSanitizationOfDroppedFields() throws Exception {
+            var response = sendWithRetry(projectedRequest("/api/projected?page=2&size=../../../etc/passwd")
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            assertEquals(Map.of("page", "2"), queue.poll().queryParameters());
+        }
+
+        @Test
+        @DisplayName("Should still reject a malicious value of a retained query parameter")
+        void shouldRejectRetainedMaliciousValue() throws Exception {
+            assertRejected(projectedRequest("/api/projected?page=../../../etc/passwd").GET().build(),
+                    "retained page parameter");
+            assertNull(queue.poll());
+        }
+    }
 }
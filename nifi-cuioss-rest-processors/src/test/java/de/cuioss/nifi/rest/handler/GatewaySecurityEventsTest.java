@@ -16,12 +16,16 @@
  */
 package de.cuioss.nifi.rest.handler;
 
+import de.cuioss.nifi.rest.config.RateLimitKey;
 import de.cuioss.nifi.rest.handler.GatewaySecurityEvents.EventType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("GatewaySecurityEvents")
@@ -130,9 +134,9 @@ class GatewaySecurityEventsTest {
     class EventTypeCoverage {
 
         @Test
-        @DisplayName("Should have exactly 10 event types")
+        @DisplayName("Should have exactly 17 event types")
         void shouldHaveExpectedEventTypeCount() {
-            assertEquals(10, EventType.values().length);
+            assertEquals(17, EventType.values().length);
         }
 
         @Test
@@ -141,7 +145,64 @@ class GatewaySecurityEventsTest {
             for (EventType type : EventType.values()) {
                 assertEquals(1L, events.increment(type));
             }
-            assertEquals(10L, events.getTotalCount());
+            assertEquals(17L, events.getTotalCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Rate Limit Counts")
+    class RateLimitCountsTests {
+
+        @Test
+        @DisplayName("Should count decisions per key class and rejections as RATE_LIMITED events")
+        void shouldCountDecisionsPerKeyClass() {
+            events.recordRateLimit(RateLimitKey.SUBJECT, true);
+            events.recordRateLimit(RateLimitKey.SUBJECT, true);
+            events.recordRateLimit(RateLimitKey.SUBJECT, false);
+            events.recordRateLimit(RateLimitKey.CLIENT_IP, false);
+
+            assertEquals(Map.of(
+                    RateLimitKey.SUBJECT, new GatewaySecurityEvents.RateLimitCounts(2, 1),
+                    RateLimitKey.CLIENT_IP, new GatewaySecurityEvents.RateLimitCounts(0, 1)),
+                    events.getRateLimitCounts());
+            assertEquals(2L, events.getCount(EventType.RATE_LIMITED));
+        }
+
+        @Test
+        @DisplayName("Should clear rate-limit counts on reset")
+        void shouldResetRateLimitCounts() {
+            events.recordRateLimit(RateLimitKey.ISSUER, true);
+
+            events.reset();
+
+            assertTrue(events.getRateLimitCounts().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Queue Expired Counts")
+    class QueueExpiredCountsTests {
+
+        @Test
+        @DisplayName("Should count drops per route and as QUEUE_EXPIRED events")
+        void shouldCountDropsPerRoute() {
+            events.recordQueueExpired("orders");
+            events.recordQueueExpired("orders");
+            events.recordQueueExpired("audit");
+
+            assertEquals(Map.of("audit", 1L, "orders", 2L), events.getQueueExpiredCounts());
+            assertEquals(List.of("audit", "orders"), List.copyOf(events.getQueueExpiredCounts().keySet()));
+            assertEquals(3L, events.getCount(EventType.QUEUE_EXPIRED));
+        }
+
+        @Test
+        @DisplayName("Should zero queue-expired counts on reset")
+        void shouldResetQueueExpiredCounts() {
+            events.recordQueueExpired("orders");
+
+            events.reset();
+
+            assertEquals(Map.of("orders", 0L), events.getQueueExpiredCounts());
         }
     }
 
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import org.apache.nifi.distributed.cache.client.AtomicDistributedMapCacheClient;
+import org.apache.nifi.distributed.cache.client.Deserializer;
+import org.apache.nifi.distributed.cache.client.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GuardedMapCacheClient")
+@EnableTestLogger
+class GuardedMapCacheClientTest {
+
+    private static final Duration CALL_TIMEOUT = Duration.ofMillis(200);
+
+    private GuardedMapCacheClient guard;
+
+    @AfterEach
+    void tearDown() {
+        if (guard != null) {
+            guard.shutdown();
+        }
+    }
+
+    @Nested
+    @DisplayName("Delegation")
+    class Delegation {
+
+        @Test
+        @DisplayName("Should pass calls through and record their latency")
+        void shouldPassCallsThrough() throws IOException {
+            guard = GuardedMapCacheClient.wrap(new RequestStatusStoreTest.InMemoryMapCacheClient(),
+                    new CacheCircuitBreaker(3, Duration.ofSeconds(30)), CALL_TIMEOUT);
+            var store = new RequestStatusStore(guard);
+            String traceId = UUID.randomUUID().toString();
+
+            store.accept(traceId, null);
+
+            assertEquals(RequestStatus.ACCEPTED, store.getStatus(traceId).orElseThrow().status());
+            var stats = guard.stats();
+            assertEquals(2, stats.calls());
+            assertEquals(0, stats.failures());
+            assertEquals(CacheCircuitBreaker.State.CLOSED, stats.state());
+        }
+
+        @Test
+        @DisplayName("Should keep the atomic capability of the delegate")
+        void shouldKeepAtomicCapability() {
+            guard = GuardedMapCacheClient.wrap(new RequestStatusStoreTest.InMemoryAtomicMapCacheClient(),
+                    new CacheCircuitBreaker(3, Duration.ofSeconds(30)), CALL_TIMEOUT);
+            assertInstanceOf(AtomicDistributedMapCacheClient.class, guard);
+
+            var plain = GuardedMapCacheClient.wrap(new RequestStatusStoreTest.InMemoryMapCacheClient(),
+                    new CacheCircuitBreaker(3, Duration.ofSeconds(30)), CALL_TIMEOUT);
+            plain.shutdown();
+            assertFalse(plain instanceof AtomicDistributedMapCacheClient<?>);
+        }
+    }
+
+    @Nested
+    @DisplayName("Failures")
+    class Failures {
+
+        @Test
+        @DisplayName("Should abandon a hanging call at the deadline and then fail fast while open")
+        void shouldTimeOutAndOpen() {
+            var hanging = new HangingMapCacheClient();
+            guard = GuardedMapCacheClient.wrap(hanging, new CacheCircuitBreaker(1, Duration.ofMinutes(1)),
+                    CALL_TIMEOUT);
+            var store = new RequestStatusStore(guard);
+            try {
+                var timeout = assertThrows(GuardedMapCacheClient.CacheUnavailableException.class,
+                        () -> store.getStatus("trace"));
+                assertTrue(timeout.getMessage().contains("deadline"));
+
+                long start = System.nanoTime();
+                assertThrows(GuardedMapCacheClient.CacheUnavailableException.class, () -> store.getStatus("trace"));
+                assertTrue(System.nanoTime() - start < CALL_TIMEOUT.toNanos(), "an open circuit must fail fast");
+
+                var stats = guard.stats();
+                assertEquals(CacheCircuitBreaker.State.OPEN, stats.state());
+                assertEquals(1, stats.timeouts());
+                assertEquals(1, stats.rejected());
+            } finally {
+                hanging.release.countDown();
+            }
+        }
+
+        @Test
+        @DisplayName("Should count I/O errors as failures and rethrow them unchanged")
+        void shouldRethrowIoErrors() {
+            var failing = new WriteBehindStatusStoreTest.FailingMapCacheClient();
+            failing.failing = true;
+            guard = GuardedMapCacheClient.wrap(failing, new CacheCircuitBreaker(2, Duration.ofMinutes(1)),
+                    CALL_TIMEOUT);
+            var store = new RequestStatusStore(guard);
+
+            var error = assertThrows(IOException.class, () -> store.accept("trace", null));
+
+            assertEquals("cache unavailable", error.getMessage());
+            assertEquals(1, guard.stats().failures());
+            assertEquals(CacheCircuitBreaker.State.CLOSED, guard.stats().state());
+        }
+    }
+
+    /** Cache client whose reads block until {@link #release} is counted down. */
+    static class HangingMapCacheClient extends RequestStatusStoreTest.InMemoryMapCacheClient {
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public <K, V> V get(K key, Serializer<K> keySerializer, Deserializer<V> valueDeserializer)
+                throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", e);
+            }
+            return super.get(key, keySerializer, valueDeserializer);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HeaderMap")
+class HeaderMapTest {
+
+    @Nested
+    @DisplayName("Lookup")
+    class Lookup {
+
+        @Test
+        @DisplayName("Should resolve a header regardless of the case of the name")
+        void shouldLookUpCaseInsensitively() {
+            HeaderMap headers = HeaderMap.builder().add("X-Parent-Trace-Id", "parent-1").build();
+
+            assertEquals("parent-1", headers.get("x-parent-trace-id"));
+            assertEquals("parent-1", headers.get("X-PARENT-TRACE-ID"));
+            assertTrue(headers.containsKey("x-Parent-Trace-ID"));
+            assertNull(headers.get("X-Other"));
+            assertNull(headers.get(42));
+        }
+
+        @Test
+        @DisplayName("Should keep the names as first sent and the arrival order when iterating")
+        void shouldKeepOriginalNamesAndOrder() {
+            HeaderMap headers = HeaderMap.builder()
+                    .add("X-Request-Id", "abc")
+                    .add("accept", "text/plain")
+                    .build();
+
+            assertEquals(List.of("X-Request-Id", "accept"), List.copyOf(headers.keySet()));
+            assertEquals(Map.of("X-Request-Id", "abc", "accept", "text/plain"), headers);
+        }
+
+        @Test
+        @DisplayName("Should hand over lower-case names for attribute keys")
+        void shouldExposeNormalizedNames() {
+            HeaderMap headers = HeaderMap.builder().add("X-Tenant", "acme").build();
+            Map<String, String> normalized = new LinkedHashMap<>();
+
+            headers.forEachNormalized(normalized::put);
+
+            assertEquals(Map.of("x-tenant", "acme"), normalized);
+        }
+    }
+
+    @Nested
+    @DisplayName("Repeated Headers")
+    class RepeatedHeaders {
+
+        @Test
+        @DisplayName("Should combine repeated and case-variant field lines in arrival order")
+        void shouldCombineRepeatedLines() {
+            HeaderMap headers = HeaderMap.builder()
+                    .add("Accept", "text/plain")
+                    .add("X-Tenant", "acme")
+                    .add("accept", "application/json")
+                    .add("ACCEPT", "*/*")
+                    .build();
+
+            assertEquals(2, headers.size());
+            assertEquals("text/plain, application/json, */*", headers.get("Accept"));
+            assertEquals(List.of("Accept", "X-Tenant"), List.copyOf(headers.keySet()));
+        }
+
+        @Test
+        @DisplayName("Should grow beyond its initial capacity")
+        void shouldGrow() {
+            HeaderMap.Builder builder = HeaderMap.builder();
+            for (int i = 0; i < 20; i++) {
+                builder.add("X-Header-" + i, "v" + i);
+            }
+            builder.add("x-header-19", "again");
+
+            HeaderMap headers = builder.build();
+
+            assertEquals(20, headers.size());
+            assertEquals("v19, again", headers.get("X-HEADER-19"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Copy")
+    class Copy {
+
+        @Test
+        @DisplayName("Should return a header map unchanged and combine case-variant keys of other maps")
+        void shouldCopy() {
+            HeaderMap headers = HeaderMap.builder().add("Accept", "text/plain").build();
+            Map<String, String> plain = new LinkedHashMap<>();
+            plain.put("X-Tenant", "acme");
+            plain.put("x-tenant", "other");
+
+            assertSame(headers, HeaderMap.copyOf(headers));
+            assertSame(HeaderMap.empty(), HeaderMap.copyOf(null));
+            assertEquals("acme, other", HeaderMap.copyOf(plain).get("X-TENANT"));
+        }
+
+        @Test
+        @DisplayName("Should be immutable")
+        void shouldBeImmutable() {
+            HeaderMap headers = HeaderMap.builder().add("Accept", "text/plain").build();
+
+            assertThrows(UnsupportedOperationException.class, () -> headers.put("X-New", "value"));
+            assertThrows(UnsupportedOperationException.class, () -> headers.remove("Accept"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should return names without upper-case letters as they are")
+    void shouldNormalizeWithoutCopyingLowerCaseNames() {
+        String name = "content-type";
+
+        assertSame(name, HeaderMap.normalize(name));
+        assertEquals("content-type", HeaderMap.normalize("Content-Type"));
+    }
+}
@@ -23,6 +23,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -166,6 +167,45 @@ class HttpRequestContainerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Handler Attributes")
+    class HandlerAttributes {
+
+        @Test
+        @DisplayName("Should default to an empty map for the convenience constructor")
+        void shouldDefaultToEmptyMap() {
+            var container = new HttpRequestContainer(
+                    "users", "GET", "/api/users", Map.of(), Map.of(), "127.0.0.1",
+                    null, null, null, null, null, Map.of());
+
+            assertTrue(container.attributes().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should defensively copy the supplied attributes")
+        void shouldDefensivelyCopyAttributes() {
+            var mutable = new HashMap<String, String>();
+            mutable.put("filename", "a.txt");
+
+            var container = new HttpRequestContainer(
+                    "_attachments", "POST", "/attachments/1", Map.of(), Map.of(), "127.0.0.1",
+                    null, null, null, null, null, Map.of(), mutable);
+            mutable.put("filename", "mutated");
+
+            assertEquals("a.txt", container.attributes().get("filename"));
+        }
+
+        @Test
+        @DisplayName("Should have no spooled body for the convenience constructors")
+        void shouldHaveNoSpooledBody() {
+            var container = new HttpRequestContainer(
+                    "users", "GET", "/api/users", Map.of(), Map.of(), "127.0.0.1",
+                    null, null, null, null, null, Map.of(), Map.of("filename", "a.txt"));
+
+            assertNull(container.spooledBody());
+        }
+    }
+
     @Nested
     @DisplayName("Equality, hashCode and toString")
     class EqualityContract {
@@ -182,13 +222,16 @@ class HttpRequestContainerTest {
         private Map<String, String> queryParameters = Map.of("page", "1");
         private Map<String, String> headers = Map.of("H", "v");
         private Map<String, String> pathParameters = Map.of("id", "42");
+        private Map<String, String> attributes = Map.of("filename", "a.txt");
         private byte[] body = "body".getBytes(StandardCharsets.UTF_8);
+        private Path spooledBody = Path.of("spool", "a.part");
         private AccessTokenContent token =
                 TestTokenGenerators.accessTokens().next().asAccessTokenContent();
 
         private HttpRequestContainer build() {
             return new HttpRequestContainer(routeName, method, requestUri, queryParameters, headers,
-                    remoteHost, body, contentType, token, traceId, parentTraceId, pathParameters);
+                    remoteHost, body, contentType, token, traceId, parentTraceId, pathParameters, attributes,
+                    spooledBody);
         }
 
         @Test
@@ -269,6 +312,14 @@ class HttpRequestContainerTest {
             pathParameters = Map.of("id", "99");
             assertNotEquals(base, build());
             pathParameters = Map.of("id", "42");
+
+            attributes = Map.of("filename", "b.txt");
+            assertNotEquals(base, build());
+            attributes = Map.of("filename", "a.txt");
+
+            spooledBody = null;
+            assertNotEquals(base, build());
+            spooledBody = Path.of("spool", "a.part");
         }
     }
 }
@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.handler.IdempotencyStore.Claim;
+import de.cuioss.nifi.rest.handler.IdempotencyStore.Outcome;
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import org.apache.nifi.distributed.cache.client.AtomicCacheEntry;
+import org.apache.nifi.distributed.cache.client.Serializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnableTestLogger
+@DisplayName("IdempotencyStore")
+class IdempotencyStoreTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final String FINGERPRINT = "fp-1";
+    private static final String TRACE_ID = "trace-1";
+
+    private final AtomicLong clock = new AtomicLong(1_000L);
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        key = UUID.randomUUID().toString();
+    }
+
+    @Nested
+    @DisplayName("LocalIdempotencyStore")
+    class Local {
+
+        private LocalIdempotencyStore store;
+
+        @BeforeEach
+        void setUp() {
+            store = new LocalIdempotencyStore(100, TTL, Duration.ofMillis(50), clock::get);
+        }
+
+        @Test
+        @DisplayName("Should claim a new key and replay the completed outcome")
+        void shouldReplayCompletedOutcome() throws IOException {
+            assertEquals(Claim.claimed(), store.claim(key, FINGERPRINT));
+            store.complete(key, FINGERPRINT, TRACE_ID);
+
+            assertEquals(Claim.completed(TRACE_ID), store.claim(key, FINGERPRINT));
+            assertEquals(Claim.completed(TRACE_ID), store.claim(key, FINGERPRINT));
+        }
+
+        @Test
+        @DisplayName("Should replay an untracked outcome without a trace ID")
+        void shouldReplayUntrackedOutcome() throws IOException {
+            store.claim(key, FINGERPRINT);
+            store.complete(key, FINGERPRINT, null);
+
+            assertEquals(Claim.completed(null), store.claim(key, FINGERPRINT));
+        }
+
+        @Test
+        @DisplayName("Should report a different request under a used key as a mismatch")
+        void shouldReportMismatch() throws IOException {
+            store.claim(key, FINGERPRINT);
+            assertEquals(Outcome.MISMATCH, store.claim(key, "fp-2").outcome(), "while in flight");
+
+            store.complete(key, FINGERPRINT, TRACE_ID);
+            assertEquals(Outcome.MISMATCH, store.claim(key, "fp-2").outcome(), "once completed");
+        }
+
+        @Test
+        @DisplayName("Should report a duplicate as in flight when the original outlasts the coalesce wait")
+        void shouldReportInFlight() throws IOException {
+            store.claim(key, FINGERPRINT);
+
+            assertEquals(Claim.inFlight(), store.claim(key, FINGERPRINT));
+        }
+
+        @Test
+        @DisplayName("Should answer a waiting duplicate with the outcome of the original")
+        void shouldCoalesceDuplicate() throws Exception {
+            var coalescing = new LocalIdempotencyStore(100, TTL, Duration.ofSeconds(30), System::nanoTime);
+            coalescing.claim(key, FINGERPRINT);
+
+            CompletableFuture<Claim> duplicate = CompletableFuture.supplyAsync(() -> claimQuietly(coalescing));
+            assertThrows(TimeoutException.class, () -> duplicate.get(50, TimeUnit.MILLISECONDS),
+                    "the duplicate must wait for the original");
+            coalescing.complete(key, FINGERPRINT, TRACE_ID);
+
+            assertEquals(Claim.completed(TRACE_ID), duplicate.get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        @DisplayName("Should hand a released key to the next request")
+        void shouldReclaimReleasedKey() throws Exception {
+            var coalescing = new LocalIdempotencyStore(100, TTL, Duration.ofSeconds(30), System::nanoTime);
+            coalescing.claim(key, FINGERPRINT);
+
+            CompletableFuture<Claim> duplicate = CompletableFuture.supplyAsync(() -> claimQuietly(coalescing));
+            assertThrows(TimeoutException.class, () -> duplicate.get(50, TimeUnit.MILLISECONDS));
+            coalescing.release(key);
+
+            assertEquals(Claim.claimed(), duplicate.get(5, TimeUnit.SECONDS),
+                    "the waiting duplicate must take over the released key");
+            assertEquals(Outcome.MISMATCH, coalescing.claim(key, "fp-2").outcome());
+        }
+
+        @Test
+        @DisplayName("Should let a different request claim a released key")
+        void shouldReleaseKey() throws IOException {
+            store.claim(key, FINGERPRINT);
+            store.release(key);
+
+            assertEquals(Claim.claimed(), store.claim(key, "fp-2"));
+        }
+
+        @Test
+        @DisplayName("Should forget a key once its time to live has passed")
+        void shouldExpireKey() throws IOException {
+            store.claim(key, FINGERPRINT);
+            store.complete(key, FINGERPRINT, TRACE_ID);
+            clock.addAndGet(TTL.toNanos());
+
+            assertEquals(Claim.claimed(), store.claim(key, "fp-2"));
+        }
+
+        @Test
+        @DisplayName("Should drop expired keys on a sweep")
+        void shouldSweepExpiredKeys() throws IOException {
+            store.claim(key, FINGERPRINT);
+            store.complete(key, FINGERPRINT, TRACE_ID);
+
+            store.sweep(clock.get() + TTL.toNanos());
+
+            assertEquals(0, store.size());
+        }
+
+        @Test
+        @DisplayName("Should ignore completing or releasing an unknown key")
+        void shouldIgnoreUnknownKey() {
+            assertDoesNotThrow(() -> store.complete(key, FINGERPRINT, TRACE_ID));
+            assertDoesNotThrow(() -> store.release(key));
+            assertEquals(0, store.size(), "neither call must create a key");
+        }
+
+        @Test
+        @DisplayName("Should reject a non-positive bound or time to live")
+        void shouldRejectInvalidSettings() {
+            assertThrows(IllegalArgumentException.class, () -> new LocalIdempotencyStore(0, TTL));
+            assertThrows(IllegalArgumentException.class, () -> new LocalIdempotencyStore(1, Duration.ZERO));
+        }
+
+        private Claim claimQuietly(IdempotencyStore target) {
+            try {
+                return target.claim(key, FINGERPRINT);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("DistributedIdempotencyStore")
+    class Distributed {
+
+        private RequestStatusStoreTest.InMemoryAtomicMapCacheClient cacheClient;
+        private RequestStatusStore statusStore;
+
+        @BeforeEach
+        void setUp() {
+            cacheClient = new RequestStatusStoreTest.InMemoryAtomicMapCacheClient();
+            statusStore = new RequestStatusStore(cacheClient);
+        }
+
+        private IdempotencyEntry storedEntry() throws IOException {
+            return cacheClient.get(RequestStatusStore.IDEMPOTENCY_KEY_PREFIX + key,
+                    RequestStatusStore.STRING_SERIALIZER, RequestStatusStore.IDEMPOTENCY_DESERIALIZER);
+        }
+
+        @Test
+        @DisplayName("Should replay the outcome on another node sharing the cache")
+        void shouldReplayAcrossNodes() throws IOException {
+            var nodeA = new DistributedIdempotencyStore(statusStore, TTL);
+            var nodeB = new DistributedIdempotencyStore(statusStore, TTL);
+
+            assertEquals(Claim.claimed(), nodeA.claim(key, FINGERPRINT));
+            assertEquals(Claim.inFlight(), nodeB.claim(key, FINGERPRINT), "a duplicate must not wait");
+            nodeA.complete(key, FINGERPRINT, TRACE_ID);
+
+            assertEquals(Claim.completed(TRACE_ID), nodeB.claim(key, FINGERPRINT));
+            assertTrue(storedEntry().completed());
+        }
+
+        @Test
+        @DisplayName("Should report a different request under a used key as a mismatch")
+        void shouldReportMismatch() throws IOException {
+            var store = new DistributedIdempotencyStore(statusStore, TTL);
+            store.claim(key, FINGERPRINT);
+
+            assertEquals(Claim.mismatch(), store.claim(key, "fp-2"));
+        }
+
+        @Test
+        @DisplayName("Should remove a released key from the cache")
+        void shouldReleaseKey() throws IOException {
+            var store = new DistributedIdempotencyStore(statusStore, TTL);
+            store.claim(key, FINGERPRINT);
+
+            store.release(key);
+
+            assertNull(storedEntry());
+            assertEquals(Claim.claimed(), store.claim(key, "fp-2"));
+        }
+
+        @Test
+        @DisplayName("Should replace an entry older than the time to live")
+        void shouldReplaceExpiredEntry() throws IOException {
+            var store = new DistributedIdempotencyStore(statusStore, TTL);
+            statusStore.putIdempotencyEntry(key, new IdempotencyEntry(FINGERPRINT, true, TRACE_ID,
+                    Instant.now().minus(TTL)));
+
+            assertEquals(Claim.claimed(), store.claim(key, "fp-2"));
+            assertEquals("fp-2", storedEntry().fingerprint());
+            assertFalse(storedEntry().completed());
+        }
+
+        @Test
+        @DisplayName("Should claim and replay on a non-atomic cache client")
+        void shouldWorkOnNonAtomicClient() throws IOException {
+            var store = new DistributedIdempotencyStore(
+                    new RequestStatusStore(new RequestStatusStoreTest.InMemoryMapCacheClient()), TTL);
+
+            assertEquals(Claim.claimed(), store.claim(key, FINGERPRINT));
+            store.complete(key, FINGERPRINT, TRACE_ID);
+            assertEquals(Claim.completed(TRACE_ID), store.claim(key, FINGERPRINT));
+        }
+
+        @Test
+        @DisplayName("Should fail with IOException when the compare-and-swap stays contended")
+        void shouldFailWhenContended() {
+            var contendedStore = new RequestStatusStore(new RequestStatusStoreTest.InMemoryAtomicMapCacheClient() {
+                @Override
+                public <K, V> boolean replace(AtomicCacheEntry<K, V, Long> entry, Serializer<K> keySerializer,
+                        Serializer<V> valueSerializer) {
+                    return false;
+                }
+            });
+            var store = new DistributedIdempotencyStore(contendedStore, TTL);
+
+            assertThrows(IOException.class, () -> store.claim(key, FINGERPRINT));
+        }
+
+        @Test
+        @DisplayName("Should round-trip an entry through JSON")
+        void shouldRoundTripJson() {
+            var entry = new IdempotencyEntry(FINGERPRINT, true, TRACE_ID, Instant.parse("2026-01-01T00:00:00Z"));
+            var inFlight = new IdempotencyEntry(FINGERPRINT, false, null, Instant.parse("2026-01-01T00:00:00Z"));
+
+            assertEquals(entry, IdempotencyEntry.fromJson(entry.toJson()));
+            assertEquals(inFlight, IdempotencyEntry.fromJson(inFlight.toJson()));
+        }
+    }
+}
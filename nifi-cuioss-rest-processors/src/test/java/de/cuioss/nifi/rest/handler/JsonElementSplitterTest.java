@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.config.SplitMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JsonElementSplitter")
+class JsonElementSplitterTest {
+
+    private static final int MAX_ELEMENTS = 10;
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> split(SplitMode mode, String body) {
+        return JsonElementSplitter.split(mode, bytes(body), MAX_ELEMENTS).stream()
+                .map(element -> new String(element, StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    @Nested
+    @DisplayName("JSON Array")
+    class JsonArray {
+
+        @Test
+        @DisplayName("Should split objects, nested arrays and scalars in document order")
+        void shouldSplitElements() {
+            assertEquals(List.of("{\"a\":1,\"b\":[1,2]}", "[3,{\"c\":true}]", "\"text\"", "42", "null"),
+                    split(SplitMode.JSON_ARRAY, " [ {\"a\": 1, \"b\": [1, 2]}, [3, {\"c\": true}], \"text\", 42, null ] "));
+        }
+
+        @Test
+        @DisplayName("Should return no elements for an empty array")
+        void shouldHandleEmptyArray() {
+            assertEquals(List.of(), split(SplitMode.JSON_ARRAY, "[]"));
+        }
+
+        @Test
+        @DisplayName("Should reject a body that is not a well-formed JSON array")
+        void shouldRejectMalformedBodies() {
+            byte[] object = bytes("{\"a\":1}");
+            byte[] truncated = bytes("[{\"a\":1},");
+            byte[] trailing = bytes("[1] [2]");
+            byte[] empty = new byte[0];
+
+            assertThrows(IllegalArgumentException.class, () -> JsonElementSplitter.split(SplitMode.JSON_ARRAY, object, MAX_ELEMENTS));
+            assertThrows(IllegalArgumentException.class, () -> JsonElementSplitter.split(SplitMode.JSON_ARRAY, truncated, MAX_ELEMENTS));
+            assertThrows(IllegalArgumentException.class, () -> JsonElementSplitter.split(SplitMode.JSON_ARRAY, trailing, MAX_ELEMENTS));
+            assertThrows(IllegalArgumentException.class, () -> JsonElementSplitter.split(SplitMode.JSON_ARRAY, empty, MAX_ELEMENTS));
+        }
+
+        @Test
+        @DisplayName("Should stop at the first element beyond the limit")
+        void shouldRejectTooManyElements() {
+            byte[] body = bytes("[1, 2, 3]");
+
+            assertEquals(3, JsonElementSplitter.split(SplitMode.JSON_ARRAY, body, 3).size());
+            assertThrows(JsonElementSplitter.TooManyElementsException.class,
+                    () -> JsonElementSplitter.split(SplitMode.JSON_ARRAY, body, 2));
+        }
+    }
+
+    @Nested
+    @DisplayName("NDJSON")
+    class Ndjson {
+
+        @Test
+        @DisplayName("Should split lines, trimming CR and surrounding blanks and skipping blank lines")
+        void shouldSplitLines() {
+            assertEquals(List.of("{\"a\":1}", "{\"b\":2}", "{\"c\":3}"),
+                    split(SplitMode.NDJSON, "{\"a\":1}\r\n\n  {\"b\":2}  \n\t\n{\"c\":3}"));
+        }
+
+        @Test
+        @DisplayName("Should pass malformed lines through unparsed")
+        void shouldNotParseLines() {
+            assertEquals(List.of("not json"), split(SplitMode.NDJSON, "not json\n"));
+        }
+
+        @Test
+        @DisplayName("Should return no elements for a body of blank lines")
+        void shouldHandleBlankBody() {
+            assertEquals(List.of(), split(SplitMode.NDJSON, "\n \r\n"));
+        }
+
+        @Test
+        @DisplayName("Should count only non-blank lines against the limit")
+        void shouldRejectTooManyLines() {
+            byte[] body = bytes("1\n\n2\n");
+
+            assertEquals(2, JsonElementSplitter.split(SplitMode.NDJSON, body, 2).size());
+            assertThrows(JsonElementSplitter.TooManyElementsException.class,
+                    () -> JsonElementSplitter.split(SplitMode.NDJSON, bytes("1\n2\n3"), 2));
+        }
+    }
+}
@@ -18,7 +18,6 @@ package de.cuioss.nifi.rest.handler;
 
 import de.cuioss.http.security.monitoring.SecurityEventCounter;
 import de.cuioss.nifi.jwt.test.TestJwtIssuerConfigService;
-import de.cuioss.nifi.jwt.util.ForwardedRequestResolver;
 import de.cuioss.nifi.rest.config.AuthMode;
 import de.cuioss.nifi.rest.config.RouteConfiguration;
 import de.cuioss.sheriff.token.validation.exception.TokenValidationException;
@@ -91,14 +90,20 @@ class ManagementEndpointHandlerTest {
                 RouteConfiguration.builder().name("users").path("/api/users")
                         .method("GET").method("POST").requiredRole("ADMIN").build());
         for (RouteConfiguration route : routes) {
-            handlers.add(new ApiRouteHandler(
-                    route, queue, GLOBAL_MAX_REQUEST_SIZE, null, gatewaySecurityEvents));
+            handlers.add(new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                    .route(route)
+                    .queue(queue)
+                    .globalMaxRequestSize(GLOBAL_MAX_REQUEST_SIZE)
+                    .gatewaySecurityEvents(gatewaySecurityEvents)
+                    .build()));
         }
 
         handler = new GatewayRequestHandler(
                 handlers, configService, GLOBAL_MAX_REQUEST_SIZE,
-                httpSecurityEvents, gatewaySecurityEvents,
-                ForwardedRequestResolver.secureDefault(), false);
+                GatewayRequestHandler.Options.builder()
+                        .httpSecurityEvents(httpSecurityEvents)
+                        .gatewaySecurityEvents(gatewaySecurityEvents)
+                        .build());
 
         server = new Server();
         ServerConnector connector = new ServerConnector(server);
@@ -396,9 +401,7 @@ class ManagementEndpointHandlerTest {
             handlers.add(new HealthEndpointHandler(true, Set.of(AuthMode.LOCAL_ONLY),
                     Set.of(), Set.of()));
             localOnlyHandler = new GatewayRequestHandler(
-                    handlers, configService, GLOBAL_MAX_REQUEST_SIZE,
-                    new SecurityEventCounter(), new GatewaySecurityEvents(),
-                    ForwardedRequestResolver.secureDefault(), false);
+                    handlers, configService, GLOBAL_MAX_REQUEST_SIZE, GatewayRequestHandler.Options.builder().build());
 
             localOnlyServer = new Server();
             ServerConnector connector = new ServerConnector(localOnlyServer);
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MultipartFormParser")
+class MultipartFormParserTest {
+
+    private static final int MAX_PARTS = 10;
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("Content Type")
+    class ContentType {
+
+        @Test
+        @DisplayName("Should detect multipart/form-data case-insensitively")
+        void shouldDetectMultipartFormData() {
+            assertTrue(MultipartFormParser.isMultipartFormData("Multipart/Form-Data; boundary=x"));
+            assertFalse(MultipartFormParser.isMultipartFormData("application/json"));
+            assertFalse(MultipartFormParser.isMultipartFormData(null));
+        }
+
+        @Test
+        @DisplayName("Should extract plain and quoted boundaries")
+        void shouldExtractBoundary() {
+            assertEquals(Optional.of("abc"), MultipartFormParser.boundary("multipart/form-data; boundary=abc"));
+            assertEquals(Optional.of("a b;c"),
+                    MultipartFormParser.boundary("multipart/form-data; charset=utf-8; boundary=\"a b;c\""));
+        }
+
+        @Test
+        @DisplayName("Should reject a missing or over-long boundary")
+        void shouldRejectInvalidBoundary() {
+            assertTrue(MultipartFormParser.boundary("multipart/form-data").isEmpty());
+            assertTrue(MultipartFormParser.boundary("multipart/form-data; boundary=").isEmpty());
+            assertTrue(MultipartFormParser.boundary("multipart/form-data; boundary=" + "x".repeat(71)).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Parsing")
+    class Parsing {
+
+        @Test
+        @DisplayName("Should split parts with names, file names and content types")
+        void shouldSplitParts() {
+            String body = "preamble\r\n--b\r\n"
+                    + "Content-Disposition: form-data; name=\"first\"\r\n\r\n"
+                    + "one\r\n"
+                    + "--b\r\n"
+                    + "content-disposition: form-data; name=\"second\"; filename=\"C:\\\\docs\\\\report.pdf\"\r\n"
+                    + "Content-Type: application/pdf\r\n\r\n"
+                    + "two\r\nlines\r\n"
+                    + "--b--\r\nepilogue";
+
+            var parts = MultipartFormParser.parse(bytes(body), "b", MAX_PARTS);
+
+            assertEquals(2, parts.size());
+            assertEquals("first", parts.get(0).name());
+            assertNull(parts.get(0).filename());
+            assertNull(parts.get(0).contentType());
+            assertArrayEquals(bytes("one"), parts.get(0).content());
+            assertEquals("second", parts.get(1).name());
+            assertEquals("report.pdf", parts.get(1).filename(), "directory components must be stripped");
+            assertEquals("application/pdf", parts.get(1).contentType());
+            assertArrayEquals(bytes("two\r\nlines"), parts.get(1).content());
+        }
+
+        @Test
+        @DisplayName("Should keep binary content byte-exact")
+        void shouldKeepBinaryContent() {
+            byte[] payload = {0, (byte) 0xFF, '\r', '\n', '-', '-', 'x'};
+            byte[] head = bytes("--b\r\nContent-Disposition: form-data; name=\"bin\"\r\n\r\n");
+            byte[] tail = bytes("\r\n--b--");
+            byte[] body = new byte[head.length + payload.length + tail.length];
+            System.arraycopy(head, 0, body, 0, head.length);
+            System.arraycopy(payload, 0, body, head.length, payload.length);
+            System.arraycopy(tail, 0, body, head.length + payload.length, tail.length);
+
+            var parts = MultipartFormParser.parse(body, "b", MAX_PARTS);
+
+            assertArrayEquals(payload, parts.get(0).content());
+        }
+
+        @Test
+        @DisplayName("Should reject bodies without boundary, terminator, parts or field name")
+        void shouldRejectMalformedBodies() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> MultipartFormParser.parse(bytes("no boundary here"), "b", MAX_PARTS));
+            assertThrows(IllegalArgumentException.class, () -> MultipartFormParser.parse(
+                    bytes("--b\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\nunterminated"), "b", MAX_PARTS));
+            assertThrows(IllegalArgumentException.class,
+                    () -> MultipartFormParser.parse(bytes("--b--\r\n"), "b", MAX_PARTS));
+            assertThrows(IllegalArgumentException.class, () -> MultipartFormParser.parse(
+                    bytes("--b\r\nContent-Disposition: form-data\r\n\r\nx\r\n--b--"), "b", MAX_PARTS));
+            assertThrows(IllegalArgumentException.class, () -> MultipartFormParser.parse(
+                    bytes("--b\r\nContent-Type: text/plain\r\n\r\nx\r\n--b--"), "b", MAX_PARTS));
+        }
+
+        @Test
+        @DisplayName("Should stop at the first part beyond the limit")
+        void shouldRejectTooManyParts() {
+            byte[] body = bytes("--b\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\n1\r\n"
+                    + "--b\r\nContent-Disposition: form-data; name=\"b\"\r\n\r\n2\r\n--b--");
+
+            assertEquals(2, MultipartFormParser.parse(body, "b", 2).size());
+            assertThrows(MultipartFormParser.TooManyPartsException.class,
+                    () -> MultipartFormParser.parse(body, "b", 1));
+        }
+    }
+}
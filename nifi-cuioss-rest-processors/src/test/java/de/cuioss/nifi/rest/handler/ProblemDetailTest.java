@@ -223,6 +223,15 @@ class ProblemDetailTest {
             assertEquals(ProblemDetail.TYPE_PAYLOAD_TOO_LARGE, problem.type());
         }
 
+        @Test
+        @DisplayName("Should build 415 Unsupported Media Type with documentation type URI")
+        void shouldBuild415UnsupportedMediaType() {
+            var problem = ProblemDetail.unsupportedMediaType("Expected application/offset+octet-stream");
+            assertEquals(415, problem.status());
+            assertEquals(ProblemDetail.TITLE_UNSUPPORTED_MEDIA_TYPE, problem.title());
+            assertEquals(ProblemDetail.TYPE_UNSUPPORTED_MEDIA_TYPE, problem.type());
+        }
+
         @Test
         @DisplayName("Should build 422 Validation Error with documentation type URI")
         void shouldBuild422ValidationError() {
@@ -314,8 +323,8 @@ class ProblemDetailTest {
                     ProblemDetail.TYPE_FORBIDDEN, ProblemDetail.TYPE_NOT_FOUND,
                     ProblemDetail.TYPE_METHOD_NOT_ALLOWED, ProblemDetail.TYPE_PAYLOAD_TOO_LARGE,
                     ProblemDetail.TYPE_VALIDATION_ERROR, ProblemDetail.TYPE_SERVICE_UNAVAILABLE,
-                    ProblemDetail.TYPE_INTERNAL_ERROR);
-            assertEquals(9, types.size(), "All type URIs must be distinct");
+                    ProblemDetail.TYPE_INTERNAL_ERROR, ProblemDetail.TYPE_UNSUPPORTED_MEDIA_TYPE);
+            assertEquals(10, types.size(), "All type URIs must be distinct");
         }
     }
 }
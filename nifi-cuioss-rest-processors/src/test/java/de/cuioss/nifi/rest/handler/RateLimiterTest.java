@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.rest.config.RateLimitKey;
+import de.cuioss.sheriff.token.validation.test.generator.TestTokenGenerators;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RateLimiter")
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(SECOND);
+
+    private RateLimiter limiter(int rps, int burst, int maxKeys) {
+        return new RateLimiter(rps, burst, RateLimitKey.SUBJECT, maxKeys, clock::get);
+    }
+
+    @Nested
+    @DisplayName("Admission")
+    class Admission {
+
+        @Test
+        @DisplayName("Should admit the burst and then reject with the time until the next token")
+        void shouldAdmitBurstThenReject() {
+            var limiter = limiter(2, 3, 10);
+
+            assertEquals(0, limiter.tryAcquire("alice"));
+            assertEquals(0, limiter.tryAcquire("alice"));
+            assertEquals(0, limiter.tryAcquire("alice"));
+            assertEquals(SECOND / 2, limiter.tryAcquire("alice"));
+        }
+
+        @Test
+        @DisplayName("Should admit again once the emission interval has passed")
+        void shouldRefillAfterInterval() {
+            var limiter = limiter(1, 1, 10);
+
+            assertEquals(0, limiter.tryAcquire("alice"));
+            clock.addAndGet(SECOND / 4);
+            assertEquals(SECOND * 3 / 4, limiter.tryAcquire("alice"));
+            clock.addAndGet(SECOND * 3 / 4);
+            assertEquals(0, limiter.tryAcquire("alice"));
+        }
+
+        @Test
+        @DisplayName("Should not charge rejected requests against the bucket")
+        void shouldNotChargeRejections() {
+            var limiter = limiter(1, 1, 10);
+
+            assertEquals(0, limiter.tryAcquire("alice"));
+            for (int i = 0; i < 5; i++) {
+                assertTrue(limiter.tryAcquire("alice") > 0);
+            }
+            clock.addAndGet(SECOND);
+            assertEquals(0, limiter.tryAcquire("alice"));
+        }
+
+        @Test
+        @DisplayName("Should keep separate buckets per key")
+        void shouldIsolateKeys() {
+            var limiter = limiter(1, 1, 10);
+
+            assertEquals(0, limiter.tryAcquire("alice"));
+            assertTrue(limiter.tryAcquire("alice") > 0);
+            assertEquals(0, limiter.tryAcquire("bob"));
+            assertEquals(2, limiter.trackedKeys());
+        }
+
+        @Test
+        @DisplayName("Should reject non-positive configuration")
+        void shouldRejectInvalidConfiguration() {
+            assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1, RateLimitKey.SUBJECT));
+            assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 0, RateLimitKey.SUBJECT));
+        }
+    }
+
+    @Nested
+    @DisplayName("Key Bound")
+    class KeyBound {
+
+        @Test
+        @DisplayName("Should drop idle buckets when the key map is full")
+        void shouldSweepIdleBuckets() {
+            var limiter = limiter(1, 1, 2);
+            limiter.tryAcquire("alice");
+            limiter.tryAcquire("bob");
+            clock.addAndGet(2 * SECOND);
+
+            assertEquals(0, limiter.tryAcquire("carol"));
+            assertEquals(1, limiter.trackedKeys());
+        }
+
+        @Test
+        @DisplayName("Should route new keys to the shared overflow bucket while all keys are active")
+        void shouldShareOverflowBucket() {
+            var limiter = limiter(1, 1, 2);
+            limiter.tryAcquire("alice");
+            limiter.tryAcquire("bob");
+
+            assertEquals(0, limiter.tryAcquire("carol"));
+            assertTrue(limiter.tryAcquire("dave") > 0, "dave shares carol's overflow bucket");
+            assertEquals(3, limiter.trackedKeys());
+        }
+    }
+
+    @Nested
+    @DisplayName("Key Derivation")
+    class KeyDerivation {
+
+        @Test
+        @DisplayName("Should fall back to the client IP for anonymous requests")
+        void shouldUseClientIpWithoutToken() {
+            var limiter = new RateLimiter(1, 1, RateLimitKey.SUBJECT);
+
+            assertEquals("10.0.0.1", limiter.keyFor(null, "10.0.0.1"));
+        }
+
+        @Test
+        @DisplayName("Should key by subject or issuer of the token")
+        void shouldUseTokenClaims() {
+            var token = TestTokenGenerators.accessTokens().next().asAccessTokenContent();
+
+            assertEquals(token.getSubject().orElseThrow(),
+                    new RateLimiter(1, 1, RateLimitKey.SUBJECT).keyFor(token, "10.0.0.1"));
+            assertEquals(token.getIssuer(),
+                    new RateLimiter(1, 1, RateLimitKey.ISSUER).keyFor(token, "10.0.0.1"));
+        }
+
+        @Test
+        @DisplayName("Should key by client IP even when a token is present")
+        void shouldUseClientIpKeyClass() {
+            var token = TestTokenGenerators.accessTokens().next().asAccessTokenContent();
+
+            assertEquals("10.0.0.1", new RateLimiter(1, 1, RateLimitKey.CLIENT_IP).keyFor(token, "10.0.0.1"));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import org.apache.nifi.serialization.record.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequestBatcher")
+class RequestBatcherTest {
+
+    private static final String ROUTE = "events";
+
+    private AtomicLong clock;
+    private RequestBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000_000L);
+        batcher = new RequestBatcher(
+                Map.of(ROUTE, new RequestBatcher.Limits(3, 16, Duration.ofSeconds(1))), clock::get);
+    }
+
+    @Nested
+    @DisplayName("Limits")
+    class LimitTests {
+
+        @Test
+        @DisplayName("Should close a batch once it holds the maximum number of records")
+        void shouldCloseAtMaxRecords() {
+            assertEquals(List.of(), batcher.add(container("a")));
+            assertEquals(List.of(), batcher.add(container("b")));
+
+            List<RequestBatcher.Batch> closed = batcher.add(container("c"));
+
+            assertEquals(1, closed.size());
+            assertEquals(ROUTE, closed.getFirst().routeName());
+            assertEquals(List.of("a", "b", "c"), bodies(closed.getFirst()));
+            assertEquals(0, batcher.size());
+        }
+
+        @Test
+        @DisplayName("Should close the open batch before a request that would exceed the byte limit")
+        void shouldCloseBeforeByteOverflow() {
+            batcher.add(container("0123456789"));
+
+            List<RequestBatcher.Batch> closed = batcher.add(container("abcdefghij"));
+
+            assertEquals(1, closed.size());
+            assertEquals(List.of("0123456789"), bodies(closed.getFirst()));
+            assertEquals(1, batcher.size());
+        }
+
+        @Test
+        @DisplayName("Should close a batch that reaches the byte limit exactly")
+        void shouldCloseAtByteLimit() {
+            batcher.add(container("01234567"));
+
+            List<RequestBatcher.Batch> closed = batcher.add(container("89abcdef"));
+
+            assertEquals(1, closed.size());
+            assertEquals(2, closed.getFirst().records().size());
+        }
+
+        @Test
+        @DisplayName("Should reject non-positive limits")
+        void shouldRejectInvalidLimits() {
+            Duration wait = Duration.ofSeconds(1);
+            assertThrows(IllegalArgumentException.class, () -> new RequestBatcher.Limits(0, 16, wait));
+            assertThrows(IllegalArgumentException.class, () -> new RequestBatcher.Limits(1, 0, wait));
+        }
+    }
+
+    @Nested
+    @DisplayName("Expiry")
+    class Expiry {
+
+        @Test
+        @DisplayName("Should close a batch once its maximum wait has elapsed since the first request")
+        void shouldCloseAfterMaxWait() {
+            batcher.add(container("a"));
+
+            clock.addAndGet(Duration.ofMillis(999).toNanos());
+            assertEquals(List.of(), batcher.pollExpired());
+
+            clock.addAndGet(Duration.ofMillis(1).toNanos());
+            List<RequestBatcher.Batch> expired = batcher.pollExpired();
+
+            assertEquals(1, expired.size());
+            assertEquals(List.of("a"), bodies(expired.getFirst()));
+            assertEquals(List.of(), batcher.pollExpired());
+        }
+
+        @Test
+        @DisplayName("Should restart the wait with the first request of a new batch")
+        void shouldRestartWaitForNewBatch() {
+            batcher.add(container("a"));
+            batcher.add(container("b"));
+            batcher.add(container("c"));
+
+            clock.addAndGet(Duration.ofSeconds(5).toNanos());
+            batcher.add(container("d"));
+
+            assertEquals(List.of(), batcher.pollExpired());
+        }
+    }
+
+    @Nested
+    @DisplayName("Routing")
+    class Routing {
+
+        @Test
+        @DisplayName("Should only batch in-memory containers of configured routes")
+        void shouldSelectBatchedContainers() {
+            var spooled = new HttpRequestContainer(ROUTE, "POST", "/api/events", Map.of(), Map.of(),
+                    "127.0.0.1", new byte[0], null, null, UUID.randomUUID().toString(), null, Map.of(),
+                    Map.of(), Path.of("spooled.bin"));
+            var other = new HttpRequestContainer("other", "POST", "/api/other", Map.of(), Map.of(),
+                    "127.0.0.1", new byte[0], null, null, null, null, Map.of());
+
+            assertTrue(batcher.isBatched(container("a")));
+            assertFalse(batcher.isBatched(spooled));
+            assertFalse(batcher.isBatched(other));
+            assertThrows(IllegalArgumentException.class, () -> batcher.add(other));
+        }
+
+        @Test
+        @DisplayName("Should carry the request metadata as record fields")
+        void shouldMapMetadataToFields() {
+            var request = container("{\"n\":1}");
+            batcher.add(request);
+            clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+            Record record = batcher.pollExpired().getFirst().records().getFirst();
+
+            assertEquals(request.traceId(), record.getAsString(RequestBatcher.TRACE_ID_FIELD));
+            assertEquals("POST", record.getAsString(RequestBatcher.METHOD_FIELD));
+            assertEquals("/api/events", record.getAsString(RequestBatcher.REQUEST_URI_FIELD));
+            assertEquals("127.0.0.1", record.getAsString(RequestBatcher.REMOTE_HOST_FIELD));
+            assertEquals("application/json", record.getAsString(RequestBatcher.CONTENT_TYPE_FIELD));
+            assertEquals("{\"n\":1}", record.getAsString(RequestBatcher.BODY_FIELD));
+            assertNull(record.getAsString(RequestBatcher.SUBJECT_FIELD));
+            assertNotNull(record.getAsString(RequestBatcher.RECEIVED_AT_FIELD));
+        }
+
+        @Test
+        @DisplayName("Should keep a binary body byte for byte")
+        void shouldKeepBinaryBody() {
+            byte[] body = {(byte) 0xFF, 0x00, (byte) 0xC3, 0x28};
+            batcher.add(new HttpRequestContainer(ROUTE, "POST", "/api/events", Map.of(), Map.of(), "127.0.0.1",
+                    body, "application/octet-stream", null, UUID.randomUUID().toString(), null, Map.of()));
+            clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+            Record record = batcher.pollExpired().getFirst().records().getFirst();
+
+            assertArrayEquals(body, (byte[]) record.getValue(RequestBatcher.BODY_FIELD));
+        }
+    }
+
+    @Nested
+    @DisplayName("Lifecycle")
+    class Lifecycle {
+
+        @Test
+        @DisplayName("Should discard open batches and report their trace IDs")
+        void shouldDiscardAll() {
+            var first = container("a");
+            var second = container("b");
+            batcher.add(first);
+            batcher.add(second);
+
+            List<String> discarded = batcher.discardAll();
+
+            assertEquals(List.of(first.traceId(), second.traceId()), discarded);
+            assertEquals(0, batcher.size());
+            clock.addAndGet(Duration.ofSeconds(5).toNanos());
+            assertEquals(List.of(), batcher.pollExpired());
+        }
+    }
+
+    private static HttpRequestContainer container(String body) {
+        return new HttpRequestContainer(ROUTE, "POST", "/api/events", Map.of(), Map.of(), "127.0.0.1",
+                body.getBytes(StandardCharsets.UTF_8), "application/json", null,
+                UUID.randomUUID().toString(), null, Map.of());
+    }
+
+    private static List<String> bodies(RequestBatcher.Batch batch) {
+        return batch.records().stream().map(r -> r.getAsString(RequestBatcher.BODY_FIELD)).toList();
+    }
+}
@@ -220,6 +220,222 @@ public class RequestStatusStoreTest {
         }
     }
 
+    @Nested
+    @DisplayName("Batch Update")
+    class BatchUpdate {
+
+        @Test
+        @DisplayName("Should report UPDATED and NOT_FOUND per trace ID on an atomic client")
+        void shouldUpdateBatchViaCompareAndSwap() throws Exception {
+            var atomicStore = new RequestStatusStore(new InMemoryAtomicMapCacheClient());
+            String known = UUID.randomUUID().toString();
+            String unknown = UUID.randomUUID().toString();
+            atomicStore.collectingAttachments(known, null, "upload", 5, 1);
+
+            var outcomes = atomicStore.updateStatuses(Map.of(
+                    known, new RequestStatusStore.StatusUpdate(RequestStatus.ERROR, "boom", Map.of("step", "3")),
+                    unknown, new RequestStatusStore.StatusUpdate(RequestStatus.PROCESSED, null, Map.of())));
+
+            assertEquals(RequestStatusStore.UpdateOutcome.UPDATED, outcomes.get(known));
+            assertEquals(RequestStatusStore.UpdateOutcome.NOT_FOUND, outcomes.get(unknown));
+            var stored = atomicStore.getStatus(known).orElseThrow();
+            assertEquals(RequestStatus.ERROR, stored.status());
+            assertEquals("boom", stored.errorDetail());
+            assertEquals("3", stored.additionalFields().get("step"));
+            assertEquals("upload", stored.routeName());
+        }
+
+        @Test
+        @DisplayName("Should retry conflicting entries on a fresh revision without losing the concurrent write")
+        void shouldRetryConflictsOnFreshRevision() throws Exception {
+            var contendedClient = new ContendedMapCacheClient(1);
+            var atomicStore = new RequestStatusStore(contendedClient);
+            String traceId = UUID.randomUUID().toString();
+            atomicStore.accept(traceId, null);
+
+            var outcomes = atomicStore.updateStatuses(Map.of(traceId,
+                    new RequestStatusStore.StatusUpdate(RequestStatus.PROCESSED, null, Map.of("a", "1"))));
+
+            assertEquals(RequestStatusStore.UpdateOutcome.UPDATED, outcomes.get(traceId));
+            var stored = atomicStore.getStatus(traceId).orElseThrow();
+            assertEquals(RequestStatus.PROCESSED, stored.status());
+            assertEquals("1", stored.additionalFields().get("a"));
+            assertEquals("yes", stored.additionalFields().get(ContendedMapCacheClient.CONCURRENT_FIELD));
+        }
+
+        @Test
+        @DisplayName("Should report CONFLICT once the compare-and-swap rounds are exhausted")
+        void shouldReportConflictWhenRetriesExhausted() throws Exception {
+            var atomicStore = new RequestStatusStore(new ContendedMapCacheClient(Integer.MAX_VALUE));
+            String traceId = UUID.randomUUID().toString();
+            atomicStore.accept(traceId, null);
+
+            var outcomes = atomicStore.updateStatuses(Map.of(traceId,
+                    new RequestStatusStore.StatusUpdate(RequestStatus.PROCESSED, null, Map.of())));
+
+            assertEquals(RequestStatusStore.UpdateOutcome.CONFLICT, outcomes.get(traceId));
+            assertEquals(RequestStatus.ACCEPTED, atomicStore.getStatus(traceId).orElseThrow().status());
+        }
+
+        @Test
+        @DisplayName("Should update a batch on a non-atomic client and keep the existing detail")
+        void shouldUpdateBatchOnNonAtomicClient() throws Exception {
+            String traceId = UUID.randomUUID().toString();
+            store.accept(traceId, null);
+            store.transitionStatus(traceId, RequestStatus.ACCEPTED, RequestStatus.RETRY, "first attempt");
+
+            var outcomes = store.updateStatuses(Map.of(traceId,
+                    new RequestStatusStore.StatusUpdate(RequestStatus.PROCESSED, null, Map.of())));
+
+            assertEquals(RequestStatusStore.UpdateOutcome.UPDATED, outcomes.get(traceId));
+            var stored = store.getStatus(traceId).orElseThrow();
+            assertEquals(RequestStatus.PROCESSED, stored.status());
+            assertEquals("first attempt", stored.errorDetail());
+        }
+
+        @Test
+        @DisplayName("Should coalesce updates with the later status and detail winning")
+        void shouldCoalesceUpdates() {
+            var first = new RequestStatusStore.StatusUpdate(RequestStatus.PROCESSING, "detail",
+                    Map.of("a", "1", "b", "1"));
+            var second = new RequestStatusStore.StatusUpdate(RequestStatus.PROCESSED, null, Map.of("b", "2"));
+
+            var combined = first.followedBy(second);
+
+            assertEquals(RequestStatus.PROCESSED, combined.status());
+            assertEquals("detail", combined.errorDetail());
+            assertEquals(Map.of("a", "1", "b", "2"), combined.additionalFields());
+        }
+    }
+
+    @Nested
+    @DisplayName("Conditional Transition")
+    class ConditionalTransition {
+
+        @Test
+        @DisplayName("Should transition an entry in the expected status and store the detail")
+        void shouldTransitionFromExpectedStatus() throws Exception {
+            var atomicStore = new RequestStatusStore(new InMemoryAtomicMapCacheClient());
+            String traceId = UUID.randomUUID().toString();
+            atomicStore.collectingAttachments(traceId, null, "upload", 5, 2);
+
+            var updated = atomicStore.transitionStatus(traceId, RequestStatus.COLLECTING_ATTACHMENTS,
+                    RequestStatus.EXPIRED, "window expired");
+
+            assertTrue(updated.isPresent());
+            var stored = atomicStore.getStatus(traceId).orElseThrow();
+            assertEquals(RequestStatus.EXPIRED, stored.status());
+            assertEquals("window expired", stored.errorDetail());
+            assertEquals("upload", stored.routeName());
+        }
+
+        @Test
+        @DisplayName("Should leave an entry in another status untouched")
+        void shouldNotTransitionFromOtherStatus() throws Exception {
+            var atomicStore = new RequestStatusStore(new InMemoryAtomicMapCacheClient());
+            String traceId = UUID.randomUUID().toString();
+            atomicStore.collectingAttachments(traceId, null, "upload", 5, 2);
+            atomicStore.updateStatus(traceId, RequestStatus.PROCESSED);
+
+            var updated = atomicStore.transitionStatus(traceId, RequestStatus.COLLECTING_ATTACHMENTS,
+                    RequestStatus.EXPIRED, null);
+
+            assertTrue(updated.isEmpty());
+            assertEquals(RequestStatus.PROCESSED, atomicStore.getStatus(traceId).orElseThrow().status());
+        }
+
+        @Test
+        @DisplayName("Should transition on a non-atomic client and ignore unknown trace IDs")
+        void shouldTransitionOnNonAtomicClient() throws Exception {
+            String traceId = UUID.randomUUID().toString();
+            store.collectingAttachments(traceId, null, "upload", 5, 2);
+
+            assertTrue(store.transitionStatus(traceId, RequestStatus.COLLECTING_ATTACHMENTS,
+                    RequestStatus.EXPIRED, null).isPresent());
+            assertTrue(store.transitionStatus(UUID.randomUUID().toString(),
+                    RequestStatus.COLLECTING_ATTACHMENTS, RequestStatus.EXPIRED, null).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Resumable Upload Entries")
+    class UploadEntries {
+
+        @Test
+        @DisplayName("Should store and read back an upload entry with its metadata")
+        void shouldRoundTripUploadEntry() throws Exception {
+            var metadata = new LinkedHashMap<String, String>();
+            metadata.put("filename", "report.pdf");
+            metadata.put("filetype", "application/pdf");
+            var entry = UploadEntry.created(UUID.randomUUID().toString(), "files", 100, metadata);
+
+            store.createUpload(entry);
+
+            var result = store.getUpload(entry.uploadId());
+            assertTrue(result.isPresent());
+            assertEquals(entry, result.get());
+            assertEquals(metadata, result.get().metadata());
+        }
+
+        @Test
+        @DisplayName("Should advance the offset only from the expected offset")
+        void shouldAdvanceOffsetFromExpectedOffset() throws Exception {
+            var atomicStore = new RequestStatusStore(new InMemoryAtomicMapCacheClient());
+            var entry = UploadEntry.created(UUID.randomUUID().toString(), "files", 100, Map.of());
+            atomicStore.createUpload(entry);
+
+            assertTrue(atomicStore.updateUpload(entry.withOffset(40), 0));
+            assertFalse(atomicStore.updateUpload(entry.withOffset(60), 0),
+                    "A stale expected offset must be rejected");
+            assertEquals(40, atomicStore.getUpload(entry.uploadId()).orElseThrow().offset());
+        }
+
+        @Test
+        @DisplayName("Should not update a completed or removed upload")
+        void shouldNotUpdateCompletedOrRemovedUpload() throws Exception {
+            var entry = UploadEntry.created(UUID.randomUUID().toString(), "files", 10, Map.of()).withOffset(10);
+            store.createUpload(entry.asCompleted());
+
+            assertFalse(store.updateUpload(entry, 10));
+
+            store.removeUpload(entry.uploadId());
+            assertTrue(store.getUpload(entry.uploadId()).isEmpty());
+            assertFalse(store.updateUpload(entry, 10));
+        }
+
+        @Test
+        @DisplayName("Should complete an upload only once")
+        void shouldCompleteUploadOnlyOnce() throws Exception {
+            var atomicStore = new RequestStatusStore(new InMemoryAtomicMapCacheClient());
+            var entry = UploadEntry.created(UUID.randomUUID().toString(), "files", 10, Map.of()).withOffset(10);
+            atomicStore.createUpload(entry);
+
+            assertTrue(atomicStore.updateUpload(entry.asCompleted(), 10));
+            assertFalse(atomicStore.updateUpload(entry.asCompleted(), 10),
+                    "A concurrent completion must lose the compare-and-swap");
+        }
+
+        @Test
+        @DisplayName("Should reopen a completed upload so its completion can be retried")
+        void shouldReopenCompletedUpload() throws Exception {
+            var atomicStore = new RequestStatusStore(new InMemoryAtomicMapCacheClient());
+            var entry = UploadEntry.created(UUID.randomUUID().toString(), "files", 10, Map.of()).withOffset(10);
+            atomicStore.createUpload(entry.asCompleted());
+
+            assertTrue(atomicStore.reopenUpload(entry));
+            assertFalse(atomicStore.getUpload(entry.uploadId()).orElseThrow().completed());
+            assertFalse(atomicStore.reopenUpload(entry), "Only a completed entry can be reopened");
+            assertTrue(atomicStore.updateUpload(entry.asCompleted(), 10));
+        }
+
+        @Test
+        @DisplayName("Should reject an offset beyond the declared length")
+        void shouldRejectOffsetBeyondLength() {
+            var entry = UploadEntry.created(UUID.randomUUID().toString(), "files", 10, Map.of());
+            assertThrows(IllegalArgumentException.class, () -> entry.withOffset(11));
+        }
+    }
+
     @Nested
     @DisplayName("Serialization")
     class Serialization {
@@ -395,4 +611,37 @@ public class RequestStatusStoreTest {
             return true;
         }
     }
+
+    /**
+     * Atomic client that simulates a concurrent writer: the first {@code contendedReplaces} replace
+     * calls write a competing entry (carrying {@link #CONCURRENT_FIELD}) and fail, as a lost
+     * compare-and-swap race would.
+     */
+    static class ContendedMapCacheClient extends InMemoryAtomicMapCacheClient {
+
+        static final String CONCURRENT_FIELD = "concurrent";
+
+        private int contendedReplaces;
+
+        ContendedMapCacheClient(int contendedReplaces) {
+            this.contendedReplaces = contendedReplaces;
+        }
+
+        @Override
+        public <K, V> boolean replace(AtomicCacheEntry<K, V, Long> entry, Serializer<K> keySerializer,
+                Serializer<V> valueSerializer) throws IOException {
+            if (contendedReplaces > 0) {
+                contendedReplaces--;
+                RequestStatusEntry current = get(entry.getKey(), keySerializer, RequestStatusStore.ENTRY_DESERIALIZER);
+                Map<String, String> fields = new LinkedHashMap<>(current.additionalFields());
+                fields.put(CONCURRENT_FIELD, "yes");
+                put(entry.getKey(), new RequestStatusEntry(current.traceId(), current.status(),
+                        current.acceptedAt(), current.updatedAt(), current.parentTraceId(), current.errorDetail(),
+                        current.attachmentsMaxCount(), current.attachmentsMinCount(), current.routeName(), fields),
+                        keySerializer, RequestStatusStore.ENTRY_SERIALIZER);
+                return false;
+            }
+            return super.replace(entry, keySerializer, valueSerializer);
+        }
+    }
 }
@@ -81,7 +81,7 @@ class RequestUtilsTest {
                         orEmpty(request.getHeaders().get(TEST_PREFIX_HEADER)),
                         Optional.empty());
                 SanitizedRequest sanitized = new SanitizedRequest(
-                        request.getHttpURI().getPath(), Map.of(), Map.of(), forwarding, Map.of());
+                        request.getHttpURI().getPath(), Map.of(), HeaderMap.empty(), forwarding, Map.of());
                 RequestUtils.sendAcceptedResponse(request, sanitized, response, callback, TRACE_ID, includeAttachments);
                 return true;
             }
@@ -0,0 +1,420 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.nifi.jwt.test.TestJwtIssuerConfigService;
+import de.cuioss.nifi.rest.RestApiAttributes;
+import de.cuioss.nifi.rest.config.AuthMode;
+import de.cuioss.nifi.rest.config.RouteConfiguration;
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ResumableUploadHandler")
+@EnableTestLogger
+class ResumableUploadHandlerTest {
+
+    private static final int GLOBAL_MAX_REQUEST_SIZE = 1_048_576;
+    private static final long MAX_UPLOAD_SIZE = 64;
+
+    @TempDir
+    Path spoolDirectory;
+
+    private Server server;
+    private HttpClient httpClient;
+    private RequestStatusStore statusStore;
+    private UploadSpool spool;
+    private LinkedBlockingQueue<HttpRequestContainer> queue;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var configService = new TestJwtIssuerConfigService();
+        statusStore = new RequestStatusStore(new RequestStatusStoreTest.InMemoryMapCacheClient());
+        spool = new UploadSpool(spoolDirectory, Duration.ofHours(1));
+        queue = new LinkedBlockingQueue<>(1);
+        var gatewaySecurityEvents = new GatewaySecurityEvents();
+
+        var route = RouteConfiguration.builder()
+                .name("files").path("/api/files")
+                .method("POST")
+                .authModes(Set.of(AuthMode.LOCAL_ONLY))
+                .resumableUploads(true)
+                .build();
+        List<EndpointHandler> handlers = new ArrayList<>();
+        handlers.add(new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                .route(route)
+                .queue(queue)
+                .globalMaxRequestSize(GLOBAL_MAX_REQUEST_SIZE)
+                .gatewaySecurityEvents(gatewaySecurityEvents)
+                .statusStore(statusStore)
+                .build()));
+        handlers.add(new ResumableUploadHandler(ResumableUploadHandler.Config.builder()
+                .route(route)
+                .statusStore(statusStore)
+                .spool(spool)
+                .queue(queue)
+                .globalMaxRequestSize(GLOBAL_MAX_REQUEST_SIZE)
+                .maxUploadSize(MAX_UPLOAD_SIZE)
+                .gatewaySecurityEvents(gatewaySecurityEvents)
+                .build()));
+
+        var handler = new GatewayRequestHandler(handlers, configService, GLOBAL_MAX_REQUEST_SIZE,
+                GatewayRequestHandler.Options.builder().gatewaySecurityEvents(gatewaySecurityEvents).build());
+
+        server = new Server();
+        var connector = new ServerConnector(server);
+        connector.setPort(0);
+        server.addConnector(connector);
+        server.setHandler(handler);
+        server.start();
+        port = connector.getLocalPort();
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:%d%s".formatted(port, path));
+    }
+
+    private HttpResponse<String> create(long length, String metadata) throws Exception {
+        var builder = HttpRequest.newBuilder()
+                .uri(uri("/api/files/uploads"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .header("Tus-Resumable", "1.0.0")
+                .header("Upload-Length", String.valueOf(length));
+        if (metadata != null) {
+            builder.header("Upload-Metadata", metadata);
+        }
+        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String createUpload(long length, String metadata) throws Exception {
+        var response = create(length, metadata);
+        assertEquals(201, response.statusCode());
+        String location = response.headers().firstValue("Location").orElseThrow();
+        return location.substring(location.lastIndexOf('/') + 1);
+    }
+
+    private HttpResponse<String> patch(String uploadId, long offset, String chunk) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder()
+                        .uri(uri("/api/files/uploads/" + uploadId))
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(chunk))
+                        .header("Content-Type", ResumableUploadHandler.OFFSET_CONTENT_TYPE)
+                        .header("Upload-Offset", String.valueOf(offset))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> head(String uploadId) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder()
+                        .uri(uri("/api/files/uploads/" + uploadId))
+                        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String metadataEntry(String key, String value) {
+        return key + " " + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nested
+    @DisplayName("Creation")
+    class Creation {
+
+        @Test
+        @DisplayName("Should create an upload at offset 0 with a Location header")
+        void shouldCreateUpload() throws Exception {
+            var response = create(10, metadataEntry("filename", "report.pdf"));
+
+            assertEquals(201, response.statusCode());
+            assertEquals("0", response.headers().firstValue("Upload-Offset").orElseThrow());
+            assertEquals("1.0.0", response.headers().firstValue("Tus-Resumable").orElseThrow());
+            String location = response.headers().firstValue("Location").orElseThrow();
+            assertTrue(location.contains("/api/files/uploads/"), location);
+            String uploadId = location.substring(location.lastIndexOf('/') + 1);
+            assertTrue(spool.exists(uploadId));
+            assertEquals(Map.of("filename", "report.pdf"),
+                    statusStore.getUpload(uploadId).orElseThrow().metadata());
+        }
+
+        @Test
+        @DisplayName("Should reject a missing Upload-Length with 400")
+        void shouldRejectMissingLength() throws Exception {
+            var response = httpClient.send(HttpRequest.newBuilder()
+                            .uri(uri("/api/files/uploads"))
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(400, response.statusCode());
+        }
+
+        @Test
+        @DisplayName("Should reject an Upload-Length above the maximum upload size with 413")
+        void shouldRejectOversizedUpload() throws Exception {
+            assertEquals(413, create(MAX_UPLOAD_SIZE + 1, null).statusCode());
+        }
+
+        @Test
+        @DisplayName("Should reject metadata values that are not Base64 with 400")
+        void shouldRejectInvalidMetadata() throws Exception {
+            assertEquals(400, create(10, "filename not-base64!").statusCode());
+        }
+
+        @Test
+        @DisplayName("Should reject metadata values with control characters with 400")
+        void shouldRejectMetadataWithControlCharacters() throws Exception {
+            assertEquals(400, create(10, metadataEntry("filename", "report.pdf\r\nX-Injected: 1")).statusCode());
+        }
+
+        @Test
+        @DisplayName("Should reject metadata values above the length limit with 400")
+        void shouldRejectOversizedMetadataValue() throws Exception {
+            String value = "a".repeat(ResumableUploadHandler.MAX_METADATA_VALUE_LENGTH + 1);
+            assertEquals(400, create(10, metadataEntry("filename", value)).statusCode());
+        }
+
+        @Test
+        @DisplayName("Should reject more metadata keys than allowed with 400")
+        void shouldRejectTooManyMetadataKeys() throws Exception {
+            List<String> entries = new ArrayList<>();
+            for (int i = 0; i <= ResumableUploadHandler.MAX_METADATA_KEYS; i++) {
+                entries.add(metadataEntry("key" + i, "v"));
+            }
+            assertEquals(400, create(10, String.join(",", entries)).statusCode());
+        }
+
+        @Test
+        @DisplayName("Should reject metadata keys outside the token alphabet with 400")
+        void shouldRejectInvalidMetadataKey() throws Exception {
+            assertEquals(400, create(10, metadataEntry("file:name", "report.pdf")).statusCode());
+        }
+
+        @Test
+        @DisplayName("Should reject other methods on the uploads collection with 405")
+        void shouldRejectPatchOnCollection() throws Exception {
+            var response = httpClient.send(HttpRequest.newBuilder()
+                            .uri(uri("/api/files/uploads"))
+                            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(405, response.statusCode());
+        }
+    }
+
+    @Nested
+    @DisplayName("Chunk transfer")
+    class ChunkTransfer {
+
+        @Test
+        @DisplayName("Should assemble chunks and enqueue one spooled container on completion")
+        void shouldAssembleChunks() throws Exception {
+            String uploadId = createUpload(11, metadataEntry("filename", "dir/hello.txt")
+                    + "," + metadataEntry("filetype", "text/plain"));
+
+            var first = patch(uploadId, 0, "hello ");
+            assertEquals(204, first.statusCode());
+            assertEquals("6", first.headers().firstValue("Upload-Offset").orElseThrow());
+            assertTrue(queue.isEmpty(), "Nothing is enqueued before the upload is complete");
+
+            var second = patch(uploadId, 6, "world");
+            assertEquals(204, second.statusCode());
+            assertEquals("11", second.headers().firstValue("Upload-Offset").orElseThrow());
+
+            HttpRequestContainer container = queue.poll();
+            assertNotNull(container);
+            assertEquals("files", container.routeName());
+            assertEquals("text/plain", container.contentType());
+            assertEquals(0, container.body().length);
+            assertNotNull(container.spooledBody());
+            assertEquals("hello world", Files.readString(container.spooledBody()));
+            assertEquals(uploadId, container.attributes().get(RestApiAttributes.UPLOAD_ID));
+            assertEquals("11", container.attributes().get(RestApiAttributes.UPLOAD_LENGTH));
+            assertEquals("hello.txt", container.attributes().get(RestApiAttributes.FILENAME));
+            assertEquals("dir/hello.txt",
+                    container.attributes().get(RestApiAttributes.UPLOAD_METADATA_PREFIX + "filename"));
+            assertTrue(statusStore.getUpload(uploadId).orElseThrow().completed());
+        }
+
+        @Test
+        @DisplayName("Should report the acknowledged offset on HEAD")
+        void shouldReportOffset() throws Exception {
+            String uploadId = createUpload(10, null);
+            patch(uploadId, 0, "abcd");
+
+            var response = head(uploadId);
+
+            assertEquals(200, response.statusCode());
+            assertEquals("4", response.headers().firstValue("Upload-Offset").orElseThrow());
+            assertEquals("10", response.headers().firstValue("Upload-Length").orElseThrow());
+            assertEquals("no-store", response.headers().firstValue("Cache-Control").orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should reject a chunk at the wrong offset with 409 and the current offset")
+        void shouldRejectOffsetMismatch() throws Exception {
+            String uploadId = createUpload(10, null);
+            patch(uploadId, 0, "abcd");
+
+            var response = patch(uploadId, 2, "cdef");
+
+            assertEquals(409, response.statusCode());
+            assertEquals("4", response.headers().firstValue("Upload-Offset").orElseThrow());
+            assertEquals(4, statusStore.getUpload(uploadId).orElseThrow().offset());
+        }
+
+        @Test
+        @DisplayName("Should reject a chunk without the offset content type with 415")
+        void shouldRejectWrongContentType() throws Exception {
+            String uploadId = createUpload(10, null);
+
+            var response = httpClient.send(HttpRequest.newBuilder()
+                            .uri(uri("/api/files/uploads/" + uploadId))
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString("abcd"))
+                            .header("Content-Type", "application/octet-stream")
+                            .header("Upload-Offset", "0")
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(415, response.statusCode());
+        }
+
+        @Test
+        @DisplayName("Should reject a chunk exceeding the declared length with 413")
+        void shouldRejectChunkBeyondLength() throws Exception {
+            String uploadId = createUpload(3, null);
+
+            assertEquals(413, patch(uploadId, 0, "abcd").statusCode());
+        }
+
+        @Test
+        @DisplayName("Should return 404 for an unknown upload")
+        void shouldReturn404ForUnknownUpload() throws Exception {
+            assertEquals(404, head("00000000-0000-0000-0000-000000000000").statusCode());
+        }
+
+        @Test
+        @DisplayName("Should keep the upload resumable when the queue is full on completion")
+        void shouldRetryCompletionWhenQueueFull() throws Exception {
+            queue.offer(new HttpRequestContainer("other", "POST", "/other",
+                    Map.of(), Map.of(), "127.0.0.1",
+                    new byte[0], null, null, null, null, Map.of()));
+            String uploadId = createUpload(3, null);
+
+            assertEquals(503, patch(uploadId, 0, "abc").statusCode());
+            assertEquals(3, statusStore.getUpload(uploadId).orElseThrow().offset());
+            assertFalse(statusStore.getUpload(uploadId).orElseThrow().completed());
+
+            queue.clear();
+            assertEquals(204, patch(uploadId, 3, "").statusCode());
+            HttpRequestContainer container = queue.poll();
+            assertNotNull(container);
+            assertEquals("abc", Files.readString(container.spooledBody()));
+
+            assertEquals(204, patch(uploadId, 3, "").statusCode(), "A repeated completion is idempotent");
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Termination and expiry")
+    class TerminationAndExpiry {
+
+        @Test
+        @DisplayName("Should delete an unfinished upload and its spool file")
+        void shouldTerminateUpload() throws Exception {
+            String uploadId = createUpload(10, null);
+            patch(uploadId, 0, "abcd");
+
+            var response = httpClient.send(HttpRequest.newBuilder()
+                            .uri(uri("/api/files/uploads/" + uploadId))
+                            .DELETE()
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(204, response.statusCode());
+            assertFalse(spool.exists(uploadId));
+            assertTrue(statusStore.getUpload(uploadId).isEmpty());
+            assertEquals(404, head(uploadId).statusCode());
+        }
+
+        @Test
+        @DisplayName("Should sweep expired spool files together with their progress entries")
+        void shouldSweepExpiredUploads() throws Exception {
+            String uploadId = createUpload(10, null);
+            Files.writeString(spoolDirectory.resolve("foreign.txt"), "keep");
+
+            int removed = spool.sweepExpired(statusStore, Instant.now().plus(Duration.ofHours(2)));
+
+            assertEquals(1, removed);
+            assertFalse(spool.exists(uploadId));
+            assertTrue(statusStore.getUpload(uploadId).isEmpty());
+            assertTrue(Files.exists(spoolDirectory.resolve("foreign.txt")), "Foreign files are left alone");
+        }
+
+        @Test
+        @DisplayName("Should not sweep a completed upload before its data file is imported")
+        void shouldKeepCompletedUploadUntilImported() throws Exception {
+            String uploadId = createUpload(3, null);
+            assertEquals(204, patch(uploadId, 0, "abc").statusCode());
+            HttpRequestContainer container = queue.poll();
+            assertNotNull(container);
+
+            Instant later = Instant.now().plus(Duration.ofHours(2));
+            assertEquals(0, spool.sweepExpired(statusStore, later));
+            assertEquals("abc", Files.readString(container.spooledBody()));
+
+            // Importing the FlowFile removes the data file; the marker then expires normally
+            Files.delete(container.spooledBody());
+            assertEquals(1, spool.sweepExpired(statusStore, later));
+            assertTrue(statusStore.getUpload(uploadId).isEmpty());
+        }
+    }
+}
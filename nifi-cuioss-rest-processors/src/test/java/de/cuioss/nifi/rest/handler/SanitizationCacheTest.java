@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.http.security.config.SecurityConfiguration;
+import de.cuioss.http.security.core.HttpSecurityValidator;
+import de.cuioss.http.security.exceptions.UrlSecurityException;
+import de.cuioss.http.security.monitoring.SecurityEventCounter;
+import de.cuioss.http.security.pipeline.PipelineFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SanitizationCache")
+class SanitizationCacheTest {
+
+    private AtomicInteger pipelineCalls;
+    private HttpSecurityValidator headerPipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipelineCalls = new AtomicInteger();
+        HttpSecurityValidator delegate = PipelineFactory.createHeaderValuePipeline(
+                SecurityConfiguration.strict(), new SecurityEventCounter());
+        headerPipeline = value -> {
+            pipelineCalls.incrementAndGet();
+            return delegate.validate(value);
+        };
+    }
+
+    @Nested
+    @DisplayName("Lookup")
+    class Lookup {
+
+        @Test
+        @DisplayName("Should answer a repeated clean value without running the pipeline again")
+        void shouldHitOnRepeatedValue() {
+            var cache = new SanitizationCache(16);
+
+            assertEquals("application/json", cache.sanitize(headerPipeline, "application/json"));
+            assertEquals("application/json", cache.sanitize(headerPipeline, "application/json"));
+
+            assertEquals(1, pipelineCalls.get());
+            var stats = cache.stats();
+            assertEquals(1, stats.hits());
+            assertEquals(1, stats.misses());
+            assertEquals(0.5, stats.hitRatio());
+        }
+
+        @Test
+        @DisplayName("Should keep values of different pipelines apart")
+        void shouldKeyByPipeline() {
+            var cache = new SanitizationCache(16);
+            AtomicInteger otherCalls = new AtomicInteger();
+            HttpSecurityValidator other = value -> {
+                otherCalls.incrementAndGet();
+                return Optional.ofNullable(value);
+            };
+
+            cache.sanitize(headerPipeline, "gzip");
+            cache.sanitize(other, "gzip");
+
+            assertEquals(1, pipelineCalls.get());
+            assertEquals(1, otherCalls.get());
+        }
+
+        @Test
+        @DisplayName("Should report a zero hit ratio before the first lookup")
+        void shouldReportZeroRatioInitially() {
+            assertEquals(0.0, new SanitizationCache(16).stats().hitRatio());
+        }
+    }
+
+    @Nested
+    @DisplayName("Not Cached")
+    class NotCached {
+
+        @Test
+        @DisplayName("Should run the pipeline on every rejected value")
+        void shouldNeverCacheRejection() {
+            var cache = new SanitizationCache(16);
+
+            assertThrows(UrlSecurityException.class, () -> cache.sanitize(headerPipeline, "value\r\ninjected: 1"));
+            assertThrows(UrlSecurityException.class, () -> cache.sanitize(headerPipeline, "value\r\ninjected: 1"));
+
+            assertEquals(2, pipelineCalls.get());
+            assertEquals(0, cache.stats().entries());
+        }
+
+        @Test
+        @DisplayName("Should run the pipeline on every value it rewrites")
+        void shouldNotCacheRewrittenValue() {
+            var cache = new SanitizationCache(16);
+            AtomicInteger calls = new AtomicInteger();
+            HttpSecurityValidator trimming = value -> {
+                calls.incrementAndGet();
+                return Optional.of(value.trim());
+            };
+
+            assertEquals("padded", cache.sanitize(trimming, " padded "));
+            assertEquals("padded", cache.sanitize(trimming, " padded "));
+
+            assertEquals(2, calls.get());
+            assertEquals(0, cache.stats().hits());
+        }
+
+        @Test
+        @DisplayName("Should bypass the cache for values longer than the maximum length")
+        void shouldBypassOverlongValue() {
+            var cache = new SanitizationCache(16, 8);
+
+            cache.sanitize(headerPipeline, "longer-than-eight");
+            cache.sanitize(headerPipeline, "longer-than-eight");
+
+            assertEquals(2, pipelineCalls.get());
+            var stats = cache.stats();
+            assertEquals(2, stats.uncacheable());
+            assertEquals(0, stats.misses());
+            assertEquals(0, stats.entries());
+        }
+    }
+
+    @Nested
+    @DisplayName("Bound")
+    class Bound {
+
+        @Test
+        @DisplayName("Should stay within its capacity across generation rotations")
+        void shouldStayBounded() {
+            var cache = new SanitizationCache(8);
+
+            for (int i = 0; i < 100; i++) {
+                cache.sanitize(headerPipeline, "value-" + i);
+            }
+
+            assertTrue(cache.stats().entries() <= 8, "entries: " + cache.stats().entries());
+        }
+
+        @Test
+        @DisplayName("Should keep a value in steady use across rotations")
+        void shouldPromoteValueInUse() {
+            var cache = new SanitizationCache(8);
+            cache.sanitize(headerPipeline, "hot");
+
+            for (int i = 0; i < 100; i++) {
+                cache.sanitize(headerPipeline, "value-" + i);
+                cache.sanitize(headerPipeline, "hot");
+            }
+
+            // "hot" is validated once; every other lookup is a hit
+            assertEquals(101, pipelineCalls.get());
+            assertEquals(100, cache.stats().hits());
+        }
+
+        @Test
+        @DisplayName("Should reject invalid capacities")
+        void shouldRejectInvalidCapacity() {
+            assertThrows(IllegalArgumentException.class, () -> new SanitizationCache(1));
+            assertThrows(IllegalArgumentException.class, () -> new SanitizationCache(8, 0));
+        }
+    }
+}
@@ -18,7 +18,6 @@ package de.cuioss.nifi.rest.handler;
 
 import de.cuioss.http.security.monitoring.SecurityEventCounter;
 import de.cuioss.nifi.jwt.test.TestJwtIssuerConfigService;
-import de.cuioss.nifi.jwt.util.ForwardedRequestResolver;
 import de.cuioss.nifi.rest.config.AuthMode;
 import de.cuioss.nifi.rest.config.RouteConfiguration;
 import de.cuioss.nifi.rest.config.TrackingMode;
@@ -87,20 +86,31 @@ class StatusEndpointHandlerTest {
                 .trackingMode(TrackingMode.SIMPLE)
                 .build();
         var queue = new LinkedBlockingQueue<HttpRequestContainer>(50);
-        handlers.add(new ApiRouteHandler(trackedRoute, queue, GLOBAL_MAX_REQUEST_SIZE,
-                null, gatewaySecurityEvents, statusStore));
+        handlers.add(new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                .route(trackedRoute)
+                .queue(queue)
+                .globalMaxRequestSize(GLOBAL_MAX_REQUEST_SIZE)
+                .gatewaySecurityEvents(gatewaySecurityEvents)
+                .statusStore(statusStore)
+                .build()));
 
         // Add a non-tracked user route
         var normalRoute = RouteConfiguration.builder()
                 .name("health").path("/api/health")
                 .method("GET")
                 .build();
-        handlers.add(new ApiRouteHandler(normalRoute, queue, GLOBAL_MAX_REQUEST_SIZE,
-                null, gatewaySecurityEvents));
+        handlers.add(new ApiRouteHandler(ApiRouteHandler.Config.builder()
+                .route(normalRoute)
+                .queue(queue)
+                .globalMaxRequestSize(GLOBAL_MAX_REQUEST_SIZE)
+                .gatewaySecurityEvents(gatewaySecurityEvents)
+                .build()));
 
         var handler = new GatewayRequestHandler(handlers, configService, GLOBAL_MAX_REQUEST_SIZE,
-                httpSecurityEvents, gatewaySecurityEvents,
-                ForwardedRequestResolver.secureDefault(), false);
+                GatewayRequestHandler.Options.builder()
+                        .httpSecurityEvents(httpSecurityEvents)
+                        .gatewaySecurityEvents(gatewaySecurityEvents)
+                        .build());
 
         server = new Server();
         ServerConnector connector = new ServerConnector(server);
@@ -150,6 +160,21 @@ class StatusEndpointHandlerTest {
             assertNotNull(json.getString("updatedAt"));
         }
 
+        @Test
+        @DisplayName("Should accept a time-ordered (version 7) traceId")
+        void shouldReturnStatusForTimeOrderedTraceId() throws Exception {
+            String traceId = TraceIdGenerator.timeOrdered().nextTraceId();
+            statusStore.accept(traceId, null);
+
+            var response = httpClient.send(
+                    HttpRequest.newBuilder(uri("/status/" + traceId)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            JsonObject json = Json.createReader(new StringReader(response.body())).readObject();
+            assertEquals(traceId, json.getString("traceId"));
+        }
+
         @Test
         @DisplayName("Should return parentTraceId when present")
         void shouldReturnParentTraceId() throws Exception {
@@ -348,8 +373,10 @@ class StatusEndpointHandlerTest {
                     new StatusEndpointHandler(store, true,
                             Set.of(AuthMode.LOCAL_ONLY, AuthMode.BEARER), Set.of(), Set.of(), maxAdditionalFields)));
             var handler = new GatewayRequestHandler(handlers, configService, GLOBAL_MAX_REQUEST_SIZE,
-                    httpSecurityEvents, gatewaySecurityEvents,
-                    ForwardedRequestResolver.secureDefault(), false);
+                    GatewayRequestHandler.Options.builder()
+                            .httpSecurityEvents(httpSecurityEvents)
+                            .gatewaySecurityEvents(gatewaySecurityEvents)
+                            .build());
             var srv = new Server();
             ServerConnector connector = new ServerConnector(srv);
             connector.setPort(0);
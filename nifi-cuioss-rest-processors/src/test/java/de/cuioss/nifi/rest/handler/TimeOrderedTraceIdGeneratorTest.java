@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TimeOrderedTraceIdGenerator")
+class TimeOrderedTraceIdGeneratorTest {
+
+    private static final long EPOCH_MILLIS = 1_760_000_000_000L;
+
+    @Nested
+    @DisplayName("Layout")
+    class Layout {
+
+        @Test
+        @DisplayName("Should mint canonical version 7 UUIDs with the RFC 9562 variant")
+        void shouldMintVersion7() {
+            String traceId = new TimeOrderedTraceIdGenerator(() -> EPOCH_MILLIS).nextTraceId();
+
+            UUID parsed = UUID.fromString(traceId);
+            assertEquals(traceId, parsed.toString());
+            assertEquals(7, parsed.version());
+            assertEquals(2, parsed.variant());
+        }
+
+        @Test
+        @DisplayName("Should carry the epoch milliseconds in the 48 most significant bits")
+        void shouldCarryTimestamp() {
+            UUID uuid = new TimeOrderedTraceIdGenerator(() -> EPOCH_MILLIS).nextUuid();
+
+            assertEquals(EPOCH_MILLIS, uuid.getMostSignificantBits() >>> 16);
+        }
+    }
+
+    @Nested
+    @DisplayName("Ordering and uniqueness")
+    class OrderingAndUniqueness {
+
+        @Test
+        @DisplayName("Should sort IDs of later milliseconds after earlier ones")
+        void shouldSortByTime() {
+            AtomicLong clock = new AtomicLong(EPOCH_MILLIS);
+            var generator = new TimeOrderedTraceIdGenerator(clock::getAndIncrement);
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                ids.add(generator.nextTraceId());
+            }
+
+            List<String> sorted = new ArrayList<>(ids);
+            sorted.sort(null);
+            assertEquals(ids, sorted);
+        }
+
+        @Test
+        @DisplayName("Should not repeat IDs minted within the same millisecond")
+        void shouldBeUniqueWithinMillisecond() {
+            var generator = new TimeOrderedTraceIdGenerator(() -> EPOCH_MILLIS);
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < 100_000; i++) {
+                ids.add(generator.nextTraceId());
+            }
+
+            assertEquals(100_000, ids.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep random version 4 UUIDs for the random generator")
+    void shouldKeepRandomGenerator() {
+        assertEquals(4, UUID.fromString(TraceIdGenerator.random().nextTraceId()).version());
+    }
+}
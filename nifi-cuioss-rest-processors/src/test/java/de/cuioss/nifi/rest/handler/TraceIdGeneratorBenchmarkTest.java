@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.tools.logging.CuiLogger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Multi-threaded throughput comparison of the trace ID generators. Not part of the regular build:
+ * run with {@code ./mvnw test -pl nifi-cuioss-rest-processors -Dtest=TraceIdGeneratorBenchmarkTest
+ * -Dbenchmark=true}. Each generator is warmed up and then driven by as many threads as there are
+ * request threads in a busy gateway; the resulting operations per second are logged.
+ */
+@DisplayName("TraceIdGenerator benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TraceIdGeneratorBenchmarkTest {
+
+    private static final CuiLogger LOGGER = new CuiLogger(TraceIdGeneratorBenchmarkTest.class);
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(5);
+
+    @Test
+    @DisplayName("Should mint time-ordered IDs faster than random IDs under contention")
+    void compareThroughput() throws InterruptedException {
+        double random = measure(TraceIdGenerator.random());
+        double timeOrdered = measure(TraceIdGenerator.timeOrdered());
+
+        LOGGER.info("Trace IDs with %s threads: random %s ops/s, time-ordered %s ops/s (%sx)",
+                THREADS, Math.round(random), Math.round(timeOrdered), "%.1f".formatted(timeOrdered / random));
+        assertTrue(timeOrdered > random, "time-ordered generation should outperform SecureRandom");
+    }
+
+    private static double measure(TraceIdGenerator generator) throws InterruptedException {
+        run(generator, WARMUP);
+        return run(generator, MEASUREMENT) / (MEASUREMENT.toNanos() / 1_000_000_000.0);
+    }
+
+    private static long run(TraceIdGenerator generator, Duration duration) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(THREADS);
+        long deadline = System.nanoTime() + duration.toNanos();
+        for (int i = 0; i < THREADS; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long count = 0;
+                int sink = 0;
+                while (System.nanoTime() < deadline) {
+                    sink += generator.nextTraceId().hashCode();
+                    count++;
+                }
+                // Keep the generated IDs observable so the JIT cannot drop the calls
+                operations.add(count + (sink == 42 ? 1 : 0));
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return operations.sum();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.handler;
+
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import org.apache.nifi.distributed.cache.client.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WriteBehindStatusStore")
+@EnableTestLogger
+class WriteBehindStatusStoreTest {
+
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(10);
+
+    private FailingMapCacheClient cacheClient;
+    private RequestStatusStore cacheView;
+    private WriteBehindStatusStore store;
+
+    @BeforeEach
+    void setUp() {
+        cacheClient = new FailingMapCacheClient();
+        cacheView = new RequestStatusStore(cacheClient);
+        store = new WriteBehindStatusStore(cacheClient, 2, FLUSH_INTERVAL, false);
+        store.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Nested
+    @DisplayName("Buffering")
+    class Buffering {
+
+        @Test
+        @DisplayName("Should serve buffered entries before they reach the cache")
+        void shouldReadYourWrites() throws IOException {
+            String traceId = UUID.randomUUID().toString();
+
+            store.collectingAttachments(traceId, null, "upload", 5, 1);
+
+            assertEquals(0, cacheClient.size());
+            var buffered = store.getStatus(traceId).orElseThrow();
+            assertEquals(RequestStatus.COLLECTING_ATTACHMENTS, buffered.status());
+            assertEquals("upload", buffered.routeName());
+            assertEquals(1, store.stats().backlog());
+        }
+
+        @Test
+        @DisplayName("Should write buffered entries in one flush and record the batch")
+        void shouldFlushBatch() throws IOException {
+            String first = UUID.randomUUID().toString();
+            String second = UUID.randomUUID().toString();
+            store.accept(first, null);
+            store.accept(second, null);
+
+            assertTrue(store.flush());
+
+            assertTrue(cacheView.getStatus(first).isPresent());
+            assertTrue(cacheView.getStatus(second).isPresent());
+            var stats = store.stats();
+            assertEquals(0, stats.backlog());
+            assertEquals(1, stats.flushes());
+            assertEquals(2, stats.flushedEntries());
+            assertEquals(2, stats.lastBatchSize());
+        }
+
+        @Test
+        @DisplayName("Should write synchronously when the ring buffer is full")
+        void shouldFallBackWhenFull() throws IOException {
+            store.accept(UUID.randomUUID().toString(), null);
+            store.accept(UUID.randomUUID().toString(), null);
+            String overflow = UUID.randomUUID().toString();
+
+            store.accept(overflow, null);
+
+            assertTrue(cacheView.getStatus(overflow).isPresent());
+            assertEquals(1, store.stats().synchronousFallbacks());
+            assertEquals(2, store.stats().backlog());
+        }
+
+        @Test
+        @DisplayName("Should write entries directly before start")
+        void shouldWriteDirectlyWhenNotStarted() throws IOException {
+            var stopped = new WriteBehindStatusStore(cacheClient, 2, FLUSH_INTERVAL, false);
+            String traceId = UUID.randomUUID().toString();
+
+            stopped.accept(traceId, null);
+
+            assertTrue(cacheView.getStatus(traceId).isPresent());
+            assertEquals(0, stopped.stats().synchronousFallbacks());
+        }
+    }
+
+    @Nested
+    @DisplayName("Consistency")
+    class Consistency {
+
+        @Test
+        @DisplayName("Should write a buffered entry before updating its status")
+        void shouldFlushBeforeUpdate() throws IOException {
+            String traceId = UUID.randomUUID().toString();
+            store.accept(traceId, null);
+
+            store.updateStatus(traceId, RequestStatus.PROCESSING);
+
+            assertEquals(RequestStatus.PROCESSING, cacheView.getStatus(traceId).orElseThrow().status());
+            assertEquals(RequestStatus.PROCESSING, store.getStatus(traceId).orElseThrow().status());
+            assertEquals(0, store.stats().backlog());
+        }
+
+        @Test
+        @DisplayName("Should apply batch updates and transitions to buffered entries")
+        void shouldFlushBeforeBatchUpdateAndTransition() throws IOException {
+            String updated = UUID.randomUUID().toString();
+            String transitioned = UUID.randomUUID().toString();
+            store.accept(updated, null);
+            store.collectingAttachments(transitioned, null, "upload", 5, 1);
+
+            var outcomes = store.updateStatuses(Map.of(updated,
+                    new RequestStatusStore.StatusUpdate(RequestStatus.PROCESSED, null, Map.of())));
+            var expired = store.transitionStatus(transitioned, RequestStatus.COLLECTING_ATTACHMENTS,
+                    RequestStatus.EXPIRED, null);
+
+            assertEquals(RequestStatusStore.UpdateOutcome.UPDATED, outcomes.get(updated));
+            assertTrue(expired.isPresent());
+            assertEquals(RequestStatus.EXPIRED, cacheView.getStatus(transitioned).orElseThrow().status());
+        }
+
+        @Test
+        @DisplayName("Should not write a buffered entry that was removed before its flush")
+        void shouldDropRemovedEntry() throws IOException {
+            String traceId = UUID.randomUUID().toString();
+            store.accept(traceId, null);
+
+            store.remove(traceId);
+            store.flush();
+
+            assertTrue(store.getStatus(traceId).isEmpty());
+            assertEquals(0, cacheClient.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Failures")
+    class Failures {
+
+        @Test
+        @DisplayName("Should keep entries buffered when a flush fails and write them on close")
+        void shouldRetainEntriesOnFlushFailure() throws IOException {
+            String traceId = UUID.randomUUID().toString();
+            store.accept(traceId, null);
+            cacheClient.failing = true;
+
+            assertFalse(store.flush());
+            assertEquals(1, store.stats().flushFailures());
+            assertTrue(store.getStatus(traceId).isPresent());
+
+            cacheClient.failing = false;
+            store.close();
+
+            assertTrue(cacheView.getStatus(traceId).isPresent());
+        }
+
+        @Test
+        @DisplayName("Should propagate a failed synchronous fallback without leaving the entry buffered")
+        void shouldPropagateFallbackFailure() throws IOException {
+            store.accept(UUID.randomUUID().toString(), null);
+            store.accept(UUID.randomUUID().toString(), null);
+            String overflow = UUID.randomUUID().toString();
+            cacheClient.failing = true;
+
+            assertThrows(IOException.class, () -> store.accept(overflow, null));
+
+            cacheClient.failing = false;
+            assertTrue(store.getStatus(overflow).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Background Flush")
+    class BackgroundFlush {
+
+        @Test
+        @DisplayName("Should write buffered entries from the flush thread")
+        void shouldFlushInBackground() throws Exception {
+            var background = new WriteBehindStatusStore(new RequestStatusStoreTest.InMemoryMapCacheClient(),
+                    16, FLUSH_INTERVAL, true);
+            background.start();
+            try {
+                background.accept(UUID.randomUUID().toString(), null);
+
+                long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+                while (background.stats().flushedEntries() == 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(5);
+                }
+
+                assertEquals(1, background.stats().flushedEntries());
+                assertEquals(0, background.stats().backlog());
+            } finally {
+                background.close();
+            }
+        }
+    }
+
+    /** In-memory cache whose writes fail while {@link #failing} is set. */
+    static class FailingMapCacheClient extends RequestStatusStoreTest.InMemoryMapCacheClient {
+
+        volatile boolean failing;
+
+        @Override
+        public <K, V> void put(K key, V value, Serializer<K> keySerializer,
+                Serializer<V> valueSerializer) throws IOException {
+            if (failing) {
+                throw new IOException("cache unavailable");
+            }
+            super.put(key, value, keySerializer, valueSerializer);
+        }
+    }
+}
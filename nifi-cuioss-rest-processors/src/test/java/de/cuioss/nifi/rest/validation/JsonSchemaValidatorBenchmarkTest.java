@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.validation;
+
+import de.cuioss.tools.logging.CuiLogger;
+import dev.harrel.jsonschema.Validator;
+import dev.harrel.jsonschema.ValidatorFactory;
+import dev.harrel.jsonschema.providers.JakartaJsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput comparison of {@link JsonSchemaValidator} against the former implementation (one shared
+ * harrel validator for all routes, body decoded to a {@code String} before parsing) across payload
+ * sizes and thread counts. Not part of the regular build: run with {@code ./mvnw test
+ * -pl nifi-cuioss-rest-processors -Dtest=JsonSchemaValidatorBenchmarkTest -Dbenchmark=true}. The
+ * resulting validations per second are logged per combination.
+ */
+@DisplayName("JsonSchemaValidator benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JsonSchemaValidatorBenchmarkTest {
+
+    private static final CuiLogger LOGGER = new CuiLogger(JsonSchemaValidatorBenchmarkTest.class);
+    private static final String ROUTE = "events";
+    private static final String SCHEMA = """
+            {
+              "$schema": "https://json-schema.org/draft/2020-12/schema",
+              "type": "array",
+              "items": {
+                "type": "object",
+                "required": ["id", "name", "tags"],
+                "properties": {
+                  "id": { "type": "integer", "minimum": 0 },
+                  "name": { "type": "string", "maxLength": 64 },
+                  "tags": { "type": "array", "items": { "type": "string" } }
+                }
+              }
+            }
+            """;
+    private static final int[] PAYLOAD_BYTES = {1024, 64 * 1024, 1024 * 1024};
+    private static final int[] THREADS = {1, 4, 16};
+    private static final Duration WARMUP = Duration.ofSeconds(1);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(2);
+
+    /** The implementation replaced by the pooled byte-level engine, kept here as the baseline. */
+    private static final class SharedStringValidator {
+        private final Validator validator = new ValidatorFactory()
+                .withJsonNodeFactory(new JakartaJsonNode.Factory())
+                .createValidator();
+        private final URI schemaUri = validator.registerSchema(SCHEMA);
+
+        int validate(byte[] body) {
+            return validator.validate(schemaUri, new String(body, StandardCharsets.UTF_8)).getErrors().size();
+        }
+    }
+
+    @Test
+    @DisplayName("Should report the throughput of both implementations per payload size and thread count")
+    void compareThroughput() throws InterruptedException {
+        var engine = new JsonSchemaValidator(Map.of(ROUTE, SCHEMA));
+        var baseline = new SharedStringValidator();
+
+        for (int size : PAYLOAD_BYTES) {
+            byte[] body = payload(size);
+            assertEquals(0, baseline.validate(body));
+            assertTrue(engine.validate(ROUTE, body).isEmpty());
+            for (int threads : THREADS) {
+                double before = measure(baseline::validate, body, threads);
+                double after = measure(b -> engine.validate(ROUTE, b).size(), body, threads);
+                LOGGER.info("Schema validation of %s bytes with %s threads: shared/string %s ops/s, "
+                                + "pooled/bytes %s ops/s (%sx)",
+                        body.length, threads, Math.round(before), Math.round(after),
+                        "%.2f".formatted(after / before));
+            }
+        }
+    }
+
+    private static byte[] payload(int targetBytes) {
+        StringBuilder json = new StringBuilder("[");
+        int id = 0;
+        while (json.length() < targetBytes) {
+            if (id > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(id).append(",\"name\":\"event-").append(id)
+                    .append("\",\"tags\":[\"a\",\"b\",\"c\"]}");
+            id++;
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double measure(ToIntFunction<byte[]> validation, byte[] body, int threads)
+            throws InterruptedException {
+        run(validation, body, threads, WARMUP);
+        return run(validation, body, threads, MEASUREMENT) / (MEASUREMENT.toNanos() / 1_000_000_000.0);
+    }
+
+    private static long run(ToIntFunction<byte[]> validation, byte[] body, int threadCount, Duration duration)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(threadCount);
+        long deadline = System.nanoTime() + duration.toNanos();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long count = 0;
+                int sink = 0;
+                while (System.nanoTime() < deadline) {
+                    sink += validation.applyAsInt(body);
+                    count++;
+                }
+                // Keep the results observable so the JIT cannot drop the calls
+                operations.add(count + (sink == 42 ? 1 : 0));
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return operations.sum();
+    }
+}
@@ -16,6 +16,10 @@
  */
 package de.cuioss.nifi.rest.validation;
 
+import de.cuioss.nifi.rest.RestApiLogMessages;
+import de.cuioss.test.juli.LogAsserts;
+import de.cuioss.test.juli.TestLogLevel;
+import de.cuioss.test.juli.junit5.EnableTestLogger;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -27,10 +31,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("JsonSchemaValidator")
+@EnableTestLogger
 class JsonSchemaValidatorTest {
 
     private static final String USER_SCHEMA = """
@@ -312,4 +320,147 @@ class JsonSchemaValidatorTest {
             assertTrue(violations.isEmpty());
         }
     }
+
+    @Nested
+    @DisplayName("Validation Engine")
+    class ValidationEngine {
+
+        private static final String ITEMS_SCHEMA = """
+                {"type": "array", "items": {"type": "integer"}}
+                """;
+
+        @Test
+        @DisplayName("Should stop at the configured maximum number of violations")
+        void shouldLimitViolations() {
+            var validator = new JsonSchemaValidator(Map.of("items", ITEMS_SCHEMA), 2);
+            var unlimited = new JsonSchemaValidator(Map.of("items", ITEMS_SCHEMA));
+            byte[] body = "[\"a\", \"b\", \"c\", \"d\"]".getBytes(StandardCharsets.UTF_8);
+
+            assertEquals(2, validator.validate("items", body).size());
+            assertTrue(unlimited.validate("items", body).size() >= 4);
+        }
+
+        @Test
+        @DisplayName("Should reject a negative maximum")
+        void shouldRejectNegativeMaximum() {
+            Map<String, String> schemas = Map.of("items", ITEMS_SCHEMA);
+            assertThrows(IllegalArgumentException.class, () -> new JsonSchemaValidator(schemas, -1));
+        }
+
+        @Test
+        @DisplayName("Should parse non-UTF-8 JSON encodings detected from the bytes")
+        void shouldParseUtf16Body() {
+            var validator = new JsonSchemaValidator(Map.of("users", USER_SCHEMA));
+
+            assertTrue(validator.validate("users",
+                    "{\"name\": \"J\u00fcrgen\"}".getBytes(StandardCharsets.UTF_16BE)).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should report trailing content after the JSON value as invalid JSON")
+        void shouldRejectTrailingContent() {
+            var validator = new JsonSchemaValidator(Map.of("users", USER_SCHEMA));
+
+            List<SchemaViolation> violations = validator.validate("users",
+                    "{\"name\": \"Alice\"} {}".getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(1, violations.size());
+            assertTrue(violations.getFirst().message().startsWith("Invalid JSON"));
+        }
+
+        @Test
+        @DisplayName("Should validate concurrently with correct results and keep a bounded pool")
+        void shouldValidateConcurrently() throws Exception {
+            var validator = new JsonSchemaValidator(Map.of("users", USER_SCHEMA), 0, 3);
+            byte[] valid = "{\"name\": \"Alice\"}".getBytes(StandardCharsets.UTF_8);
+            byte[] invalid = "{\"age\": -1}".getBytes(StandardCharsets.UTF_8);
+            var failures = new AtomicInteger();
+
+            try (var executor = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 400; i++) {
+                    boolean expectValid = i % 2 == 0;
+                    executor.submit(() -> {
+                        boolean isValid = validator.validate("users", expectValid ? valid : invalid).isEmpty();
+                        if (isValid != expectValid) {
+                            failures.incrementAndGet();
+                        }
+                    });
+                }
+            }
+
+            assertEquals(0, failures.get());
+            int idle = validator.idleEngines("users");
+            assertTrue(idle >= 1 && idle <= 3, "pool must keep between 1 and 3 idle engines, was " + idle);
+        }
+    }
+
+    @Nested
+    @DisplayName("Hot Reload")
+    class HotReload {
+
+        private static final String ANY_NAME_SCHEMA = """
+                {
+                  "$schema": "https://json-schema.org/draft/2020-12/schema",
+                  "type": "object",
+                  "required": ["name"]
+                }
+                """;
+
+        private static final byte[] WITH_EXTRA_FIELD =
+                "{\"name\": \"Alice\", \"role\": \"admin\"}".getBytes(StandardCharsets.UTF_8);
+
+        @Test
+        @DisplayName("Should use the new version after reloading a changed schema file")
+        void shouldReloadChangedSchema() throws Exception {
+            Path schemaFile = writeSchema(USER_SCHEMA);
+            var validator = new JsonSchemaValidator(Map.of("users", schemaFile.toString()));
+            assertFalse(validator.validate("users", WITH_EXTRA_FIELD).isEmpty());
+
+            writeSchema(ANY_NAME_SCHEMA);
+
+            assertEquals(JsonSchemaValidator.ReloadOutcome.RELOADED, validator.reload("users"));
+            assertTrue(validator.validate("users", WITH_EXTRA_FIELD).isEmpty());
+            LogAsserts.assertLogMessagePresentContaining(TestLogLevel.INFO,
+                    RestApiLogMessages.INFO.SCHEMA_RELOADED.resolveIdentifierString());
+        }
+
+        @Test
+        @DisplayName("Should keep the previous version when the new schema cannot be compiled")
+        void shouldKeepPreviousVersionOnFailure() throws Exception {
+            Path schemaFile = writeSchema(USER_SCHEMA);
+            var validator = new JsonSchemaValidator(Map.of("users", schemaFile.toString()));
+
+            writeSchema("{ \"type\": ");
+
+            assertEquals(JsonSchemaValidator.ReloadOutcome.FAILED, validator.reload("users"));
+            assertFalse(validator.validate("users", WITH_EXTRA_FIELD).isEmpty());
+            LogAsserts.assertLogMessagePresentContaining(TestLogLevel.WARN,
+                    RestApiLogMessages.WARN.SCHEMA_RELOAD_FAILED.resolveIdentifierString());
+        }
+
+        @Test
+        @DisplayName("Should report unchanged files, inline schemas and unknown routes as unchanged")
+        void shouldReportUnchanged() throws Exception {
+            Path schemaFile = writeSchema(USER_SCHEMA);
+            var validator = new JsonSchemaValidator(Map.of(
+                    "users", schemaFile.toString(),
+                    "inline", ANY_NAME_SCHEMA));
+
+            assertEquals(JsonSchemaValidator.ReloadOutcome.UNCHANGED, validator.reload("users"));
+            assertEquals(JsonSchemaValidator.ReloadOutcome.UNCHANGED, validator.reload("inline"));
+            assertEquals(JsonSchemaValidator.ReloadOutcome.UNCHANGED, validator.reload("health"));
+        }
+
+        @Test
+        @DisplayName("Should group file-based routes by schema directory")
+        void shouldGroupRoutesByDirectory() throws Exception {
+            Path schemaFile = writeSchema(USER_SCHEMA);
+            var validator = new JsonSchemaValidator(Map.of(
+                    "users", schemaFile.toString(),
+                    "inline", ANY_NAME_SCHEMA));
+
+            assertEquals(Map.of(tempDir.toAbsolutePath().normalize(), Set.of("users")),
+                    validator.schemaDirectories());
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.cuioss.nifi.rest.validation;
+
+import de.cuioss.nifi.rest.validation.JsonSchemaValidator.ReloadOutcome;
+import de.cuioss.test.juli.junit5.EnableTestLogger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SchemaFileWatcher")
+@EnableTestLogger
+class SchemaFileWatcherTest {
+
+    private static final String STRICT_SCHEMA = """
+            {"type": "object", "required": ["name"], "additionalProperties": false,
+             "properties": {"name": {"type": "string"}}}
+            """;
+    private static final String LENIENT_SCHEMA = """
+            {"type": "object", "required": ["name"]}
+            """;
+    private static final byte[] WITH_EXTRA_FIELD =
+            "{\"name\": \"Alice\", \"role\": \"admin\"}".getBytes(StandardCharsets.UTF_8);
+    /** Generous bound for the platform watch service, which may poll instead of using native events. */
+    private static final long EVENT_TIMEOUT_SECONDS = 30;
+
+    @TempDir
+    Path tempDir;
+
+    private final BlockingQueue<String> outcomes = new LinkedBlockingQueue<>();
+
+    private JsonSchemaValidator validatorFor(Path schemaFile) {
+        return new JsonSchemaValidator(Map.of("users", schemaFile.toString(), "inline", LENIENT_SCHEMA));
+    }
+
+    private void record(String routeName, ReloadOutcome outcome) {
+        outcomes.add(routeName + ":" + outcome);
+    }
+
+    @Test
+    @DisplayName("Should reload a route when its schema file is modified")
+    void shouldReloadOnModification() throws Exception {
+        Path schemaFile = write("users.json", STRICT_SCHEMA);
+        var validator = validatorFor(schemaFile);
+
+        try (var watcher = new SchemaFileWatcher(validator, this::record)) {
+            assertNotNull(watcher);
+            write("users.json", LENIENT_SCHEMA);
+
+            assertEquals("users:RELOADED", outcomes.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(validator.validate("users", WITH_EXTRA_FIELD).isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should report a failed reload and keep validating with the previous version")
+    void shouldReportFailedReload() throws Exception {
+        Path schemaFile = write("users.json", STRICT_SCHEMA);
+        var validator = validatorFor(schemaFile);
+
+        try (var watcher = new SchemaFileWatcher(validator, this::record)) {
+            assertNotNull(watcher);
+            write("users.json", "{ \"type\": ");
+
+            assertEquals("users:FAILED", outcomes.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertFalse(validator.validate("users", WITH_EXTRA_FIELD).isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not report changes to unrelated files of the directory")
+    void shouldIgnoreUnrelatedFiles() throws Exception {
+        Path schemaFile = write("users.json", STRICT_SCHEMA);
+        var validator = validatorFor(schemaFile);
+
+        try (var watcher = new SchemaFileWatcher(validator, this::record)) {
+            assertNotNull(watcher);
+            write("notes.txt", "unrelated");
+            write("users.json", LENIENT_SCHEMA);
+
+            // The unrelated write reloads "users" as UNCHANGED at most, so the first report is the real change
+            assertEquals("users:RELOADED", outcomes.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertNull(outcomes.poll(SchemaFileWatcher.DEBOUNCE.toMillis() * 2, TimeUnit.MILLISECONDS));
+    }
+
+    private Path write(String fileName, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(fileName), content, StandardCharsets.UTF_8);
+    }
+}